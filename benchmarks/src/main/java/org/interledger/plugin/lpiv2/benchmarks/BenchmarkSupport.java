@@ -0,0 +1,69 @@
+package org.interledger.plugin.lpiv2.benchmarks;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.PluginSettings;
+import org.interledger.plugin.lpiv2.PluginType;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Shared fixtures for the benchmarks in this module.
+ */
+public final class BenchmarkSupport {
+
+  public static final InterledgerAddress LOCAL_NODE_ADDRESS = InterledgerAddress.of("test1.connector");
+  public static final InterledgerAddress PEER_ACCOUNT = InterledgerAddress.of("test1.connector.peer");
+
+  /**
+   * Prevent construction.
+   */
+  private BenchmarkSupport() {
+  }
+
+  /**
+   * Construct a {@link PluginSettings} for a plugin that connects {@link #LOCAL_NODE_ADDRESS} to {@link
+   * #PEER_ACCOUNT}.
+   */
+  public static PluginSettings newPluginSettings() {
+    return newPluginSettings(PEER_ACCOUNT);
+  }
+
+  /**
+   * Construct a {@link PluginSettings} for a plugin that connects {@link #LOCAL_NODE_ADDRESS} to {@code peerAccount}.
+   */
+  public static PluginSettings newPluginSettings(final InterledgerAddress peerAccount) {
+    return new PluginSettings() {
+      @Override
+      public PluginType pluginTypeId() {
+        return PluginType.of("ilp-plugin-benchmark");
+      }
+
+      @Override
+      public InterledgerAddress peerAccount() {
+        return peerAccount;
+      }
+
+      @Override
+      public InterledgerAddress localNodeAddress() {
+        return LOCAL_NODE_ADDRESS;
+      }
+    };
+  }
+
+  /**
+   * Construct a prepare packet addressed to {@link #PEER_ACCOUNT} that expires far enough in the future to outlive
+   * any benchmark iteration.
+   */
+  public static InterledgerPreparePacket newPreparePacket() {
+    return InterledgerPreparePacket.builder()
+        .executionCondition(InterledgerCondition.of(new byte[32]))
+        .expiresAt(Instant.now().plus(1, ChronoUnit.DAYS))
+        .destination(PEER_ACCOUNT)
+        .amount(BigInteger.TEN)
+        .build();
+  }
+}
@@ -0,0 +1,64 @@
+package org.interledger.plugin.lpiv2.benchmarks;
+
+import org.interledger.plugin.lpiv2.AbstractPlugin.SyncPluginEventEmitter;
+import org.interledger.plugin.lpiv2.events.AbstractPluginEventHandler;
+import org.interledger.plugin.lpiv2.events.ImmutablePluginConnectedEvent;
+import org.interledger.plugin.lpiv2.events.PluginConnectedEvent;
+import org.interledger.plugin.lpiv2.events.PluginEventHandlers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of emitting a single event through {@link SyncPluginEventEmitter} to a varying number of
+ * registered handlers, each of which does nothing but consume the event.
+ *
+ * <p>Run with {@code -prof gc} to report allocation per emitted event.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventEmitterBenchmark {
+
+  @Param({"0", "1", "4", "16"})
+  public int handlerCount;
+
+  private SyncPluginEventEmitter emitter;
+
+  private PluginConnectedEvent event;
+
+  @Setup
+  public void setup(final Blackhole blackhole) {
+    final PluginEventHandlers handlers = new PluginEventHandlers();
+    for (int i = 0; i < handlerCount; i++) {
+      handlers.add(new AbstractPluginEventHandler() {
+        @Override
+        public void onConnect(PluginConnectedEvent event) {
+          blackhole.consume(event);
+        }
+      });
+    }
+    this.emitter = new SyncPluginEventEmitter(handlers);
+    this.event = ImmutablePluginConnectedEvent.builder().peerAccount(BenchmarkSupport.PEER_ACCOUNT).build();
+  }
+
+  @Benchmark
+  public void emitConnectedEvent() {
+    emitter.emitEvent(event);
+  }
+}
@@ -0,0 +1,103 @@
+package org.interledger.plugin.lpiv2.benchmarks;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.plugin.lpiv2.Plugin;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.routing.RoutingTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving a destination to the plugin with the longest matching prefix using a {@link RoutingTable}
+ * against a linear scan over every route.
+ *
+ * <p>Routes are three to five segments long, and destinations extend a random route by one or two segments. Run with
+ * {@code -prof gc} to confirm that {@link RoutingTable#lookup(InterledgerAddress)} doesn't allocate.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingTableBenchmark {
+
+  private static final int DESTINATION_COUNT = 1024;
+
+  @Param({"1000", "100000"})
+  public int routeCount;
+
+  private RoutingTable routingTable;
+  private List<Map.Entry<String, Plugin<?>>> linearRoutes;
+  private InterledgerAddress[] destinations;
+  private int nextDestination;
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(42);
+    final Plugin<?> plugin = new SimulatedChildPlugin(BenchmarkSupport.newPluginSettings());
+    final List<String> prefixes = new ArrayList<>(routeCount);
+    this.routingTable = new RoutingTable();
+    this.linearRoutes = new ArrayList<>(routeCount);
+    for (int i = 0; i < routeCount; i++) {
+      final StringBuilder prefix = new StringBuilder("g.region").append(random.nextInt(16));
+      final int extraSegments = 2 + random.nextInt(3);
+      for (int j = 0; j < extraSegments; j++) {
+        prefix.append(".node").append(random.nextInt(j == extraSegments - 1 ? Integer.MAX_VALUE : 64));
+      }
+      prefixes.add(prefix.toString());
+      routingTable.addRoute(InterledgerAddress.of(prefix.toString()), plugin);
+      linearRoutes.add(new SimpleImmutableEntry<>(prefix.toString(), plugin));
+    }
+
+    this.destinations = new InterledgerAddress[DESTINATION_COUNT];
+    for (int i = 0; i < DESTINATION_COUNT; i++) {
+      final String prefix = prefixes.get(random.nextInt(prefixes.size()));
+      destinations[i] = InterledgerAddress.of(prefix + ".receiver" + i + (i % 2 == 0 ? ".sub" : ""));
+    }
+  }
+
+  @Benchmark
+  public Plugin<?> trieLookup() {
+    return routingTable.lookup(nextDestination());
+  }
+
+  @Benchmark
+  public Plugin<?> linearScan() {
+    final String destination = nextDestination().getValue();
+    Plugin<?> best = null;
+    int bestLength = -1;
+    for (final Map.Entry<String, Plugin<?>> route : linearRoutes) {
+      final String prefix = route.getKey();
+      if (prefix.length() > bestLength && destination.startsWith(prefix)
+          && (destination.length() == prefix.length() || destination.charAt(prefix.length()) == '.')) {
+        best = route.getValue();
+        bestLength = prefix.length();
+      }
+    }
+    return best;
+  }
+
+  private InterledgerAddress nextDestination() {
+    final InterledgerAddress destination = destinations[nextDestination];
+    nextDestination = (nextDestination + 1) & (DESTINATION_COUNT - 1);
+    return destination;
+  }
+}
@@ -0,0 +1,101 @@
+package org.interledger.plugin.lpiv2.benchmarks;
+
+import org.interledger.core.InterledgerPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerProtocolException;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@code AbstractPlugin#sendPacket} and {@code AbstractPlugin#handleIncomingPacket} using a
+ * {@link SimulatedChildPlugin}, whose peer answers immediately. The results therefore capture only the overhead of the
+ * plugin layer (dispatch, executor hand-off and future completion), for both the fulfill and the reject path.
+ *
+ * <p>Run with {@code -prof gc} to report allocation per operation.</p>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SendPacketBenchmark {
+
+  /**
+   * Whether the simulated peer fulfills or rejects every packet.
+   */
+  @Param({"FULFILL", "REJECT"})
+  public String outcome;
+
+  private SimulatedChildPlugin plugin;
+
+  private InterledgerPreparePacket preparePacket;
+
+  @Setup
+  public void setup() {
+    this.plugin = new SimulatedChildPlugin(BenchmarkSupport.newPluginSettings());
+    this.plugin.setCompleteSuccessfully("FULFILL".equals(outcome));
+    this.plugin.connect();
+    this.preparePacket = BenchmarkSupport.newPreparePacket();
+  }
+
+  /**
+   * Single-threaded latency of one packet, from {@code sendPacket} until its future completes.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public InterledgerPacket sendPacketLatency() throws InterruptedException {
+    return await(plugin.sendPacket(preparePacket));
+  }
+
+  /**
+   * Aggregate throughput when every available core sends packets through the same plugin.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Threads(Threads.MAX)
+  public InterledgerPacket sendPacketThroughput() throws InterruptedException {
+    return await(plugin.sendPacket(preparePacket));
+  }
+
+  /**
+   * Single-threaded latency of one incoming packet, from {@code handleIncomingPacket} until its future completes.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public InterledgerPacket handleIncomingPacketLatency() throws InterruptedException {
+    return await(plugin.handleIncomingPacket(preparePacket));
+  }
+
+  /**
+   * Wait for {@code future} and return either the fulfill packet or, on the reject path, the reject packet.
+   */
+  static InterledgerPacket await(final CompletableFuture<? extends InterledgerPacket> future)
+      throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof InterledgerProtocolException) {
+        return ((InterledgerProtocolException) e.getCause()).getInterledgerRejectPacket();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package org.interledger.plugin.lpiv2.loadtest;
+
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerProtocolException;
+import org.interledger.plugin.lpiv2.Plugin;
+import org.interledger.plugin.lpiv2.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * <p>Drives any {@link Plugin} with a stream of {@link InterledgerPreparePacket}s, and reports the latency, throughput
+ * and rejections it observed in a {@link LoadReport}.</p>
+ *
+ * <p>Two kinds of load are supported:</p>
+ *
+ * <ul>
+ *   <li><b>Open-loop</b> ({@link #runOpenLoop}): packets are sent at a fixed rate, whether or not earlier packets
+ *   have been answered, the way independent users arrive at a real connector. Each packet's latency is measured from
+ *   the moment it was <i>scheduled</i> to be sent, not the moment it actually was. If the plugin (or the generator)
+ *   stalls, packets that should have been sent during the stall are charged for the time they spent waiting, so the
+ *   percentiles are corrected for "coordinated omission" rather than hiding the stall. The time from the actual send
+ *   is reported separately, as the service time.</li>
+ *   <li><b>Closed-loop</b> ({@link #runClosedLoop}): a fixed number of packets are kept in flight, and each is sent as
+ *   soon as the previous one in its lane is answered. This finds the maximum throughput of the plugin at a given
+ *   concurrency, but its latencies say nothing about behaviour under a fixed arrival rate, so the response time and
+ *   service time are the same.</li>
+ * </ul>
+ *
+ * <p>Once the run's duration has elapsed, no more packets are sent, and the generator waits for the packets still in
+ * flight to be answered. Packets that are still unanswered after the drain timeout are reported as such.</p>
+ *
+ * <p>A generator may be used for several runs (e.g., a warm-up run followed by a measured one), but not for several
+ * runs at once.</p>
+ */
+public class LoadGenerator {
+
+  /**
+   * The default time to wait for in-flight packets to be answered once a run has finished sending.
+   */
+  public static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final Plugin<?> plugin;
+  private final Supplier<InterledgerPreparePacket> packetSupplier;
+  private final Duration drainTimeout;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param plugin         The {@link Plugin} to send packets with. It must already be connected.
+   * @param packetSupplier Supplies each packet to send (see {@link #LoadGenerator(Plugin, Supplier, Duration)}).
+   */
+  public LoadGenerator(final Plugin<?> plugin, final Supplier<InterledgerPreparePacket> packetSupplier) {
+    this(plugin, packetSupplier, DEFAULT_DRAIN_TIMEOUT);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param plugin         The {@link Plugin} to send packets with. It must already be connected.
+   * @param packetSupplier Supplies each packet to send. Open-loop runs call it from a single thread; closed-loop runs
+   *                       call it from whichever thread answered the previous packet in a lane.
+   * @param drainTimeout   The time to wait for in-flight packets to be answered once a run has finished sending.
+   */
+  public LoadGenerator(
+      final Plugin<?> plugin, final Supplier<InterledgerPreparePacket> packetSupplier, final Duration drainTimeout
+  ) {
+    this.plugin = Objects.requireNonNull(plugin);
+    this.packetSupplier = Objects.requireNonNull(packetSupplier);
+    this.drainTimeout = Objects.requireNonNull(drainTimeout);
+  }
+
+  /**
+   * Send {@code packetsPerSecond} packets per second, evenly spaced, for {@code duration}. Blocks until every packet
+   * has been answered or the drain timeout has elapsed.
+   *
+   * @param packetsPerSecond The arrival rate.
+   * @param duration         How long to send packets for.
+   *
+   * @return A {@link LoadReport} describing the run.
+   */
+  public LoadReport runOpenLoop(final int packetsPerSecond, final Duration duration) {
+    if (packetsPerSecond <= 0) {
+      throw new IllegalArgumentException("packetsPerSecond must be greater than 0");
+    }
+    final Run run = new Run("open-loop, " + packetsPerSecond + " packets/s");
+    final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / (double) packetsPerSecond;
+    final long durationNanos = duration.toNanos();
+    final long startNanos = System.nanoTime();
+    for (long i = 0; ; i++) {
+      final long intendedNanos = startNanos + (long) (i * intervalNanos);
+      if (intendedNanos - startNanos >= durationNanos) {
+        break;
+      }
+      long waitNanos;
+      while ((waitNanos = intendedNanos - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(waitNanos);
+      }
+      // If the generator has fallen behind schedule, this packet is sent late, but its latency still counts from
+      // when it should have been sent.
+      run.send(intendedNanos);
+    }
+    return run.finish(startNanos);
+  }
+
+  /**
+   * Keep {@code concurrency} packets in flight for {@code duration}. Blocks until every packet has been answered or
+   * the drain timeout has elapsed.
+   *
+   * <p>Lanes are started from the calling thread, so a plugin that answers every packet on the calling thread (such
+   * as a same-thread {@code LoopbackPlugin}) only ever has one packet in flight.</p>
+   *
+   * @param concurrency The number of packets to keep in flight.
+   * @param duration    How long to send packets for.
+   *
+   * @return A {@link LoadReport} describing the run.
+   */
+  public LoadReport runClosedLoop(final int concurrency, final Duration duration) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("concurrency must be greater than 0");
+    }
+    final Run run = new Run("closed-loop, " + concurrency + " in flight");
+    final long startNanos = System.nanoTime();
+    final long endNanos = startNanos + duration.toNanos();
+    for (int i = 0; i < concurrency; i++) {
+      run.sendLane(endNanos);
+    }
+    long remainingNanos;
+    while ((remainingNanos = endNanos - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remainingNanos);
+    }
+    return run.finish(startNanos);
+  }
+
+  /**
+   * The state of a single run, which is updated concurrently by the threads that answer packets.
+   */
+  private final class Run {
+
+    private final String description;
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder fulfilled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> rejections = new ConcurrentHashMap<>();
+
+    private Run(final String description) {
+      this.description = description;
+    }
+
+    /**
+     * Send one packet, whose latency counts from {@code intendedNanos}.
+     */
+    private CompletableFuture<InterledgerFulfillPacket> send(final long intendedNanos) {
+      inFlight.incrementAndGet();
+      sent.increment();
+      final long sentNanos = System.nanoTime();
+      CompletableFuture<InterledgerFulfillPacket> response;
+      try {
+        response = plugin.sendPacket(packetSupplier.get());
+      } catch (RuntimeException e) {
+        response = new CompletableFuture<>();
+        response.completeExceptionally(e);
+      }
+      return response.whenComplete((fulfillPacket, error) -> {
+        final long nowNanos = System.nanoTime();
+        responseTime.record(nowNanos - intendedNanos);
+        serviceTime.record(nowNanos - sentNanos);
+        this.count(error);
+        inFlight.decrementAndGet();
+      });
+    }
+
+    /**
+     * Send packets one after another until {@code endNanos}, each as soon as the previous one is answered.
+     */
+    private void sendLane(final long endNanos) {
+      // Loop, rather than recurse, through packets that are answered immediately, so that the stack doesn't grow.
+      while (System.nanoTime() < endNanos) {
+        final CompletableFuture<InterledgerFulfillPacket> response = this.send(System.nanoTime());
+        if (!response.isDone()) {
+          response.whenComplete((fulfillPacket, error) -> this.sendLane(endNanos));
+          return;
+        }
+      }
+    }
+
+    private void count(final Throwable error) {
+      if (error == null) {
+        fulfilled.increment();
+        return;
+      }
+      final Throwable cause = error instanceof CompletionException && error.getCause() != null
+          ? error.getCause() : error;
+      if (cause instanceof InterledgerProtocolException) {
+        final String code = ((InterledgerProtocolException) cause).getInterledgerRejectPacket().getCode().getCode();
+        rejections.computeIfAbsent(code, ignored -> new LongAdder()).increment();
+      } else {
+        failed.increment();
+      }
+    }
+
+    private LoadReport finish(final long startNanos) {
+      final long sendingNanos = System.nanoTime() - startNanos;
+      final long drainDeadlineNanos = System.nanoTime() + drainTimeout.toNanos();
+      while (inFlight.get() > 0 && System.nanoTime() < drainDeadlineNanos) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+      }
+      final Map<String, Long> rejectCounts = new TreeMap<>();
+      rejections.forEach((code, count) -> rejectCounts.put(code, count.sum()));
+      return new LoadReport(
+          description, sendingNanos, sent.sum(), fulfilled.sum(), rejectCounts, failed.sum(), inFlight.get(),
+          responseTime.snapshot(), serviceTime.snapshot()
+      );
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package org.interledger.plugin.lpiv2.loadtest;
+
+import org.interledger.plugin.lpiv2.metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a single run of a {@link LoadGenerator}.
+ */
+public class LoadReport {
+
+  private final String description;
+  private final long durationNanos;
+  private final long sentCount;
+  private final long fulfilledCount;
+  private final Map<String, Long> rejectCounts;
+  private final long failedCount;
+  private final long unansweredCount;
+  private final LatencyHistogram.Snapshot responseTime;
+  private final LatencyHistogram.Snapshot serviceTime;
+
+  LoadReport(
+      final String description,
+      final long durationNanos,
+      final long sentCount,
+      final long fulfilledCount,
+      final Map<String, Long> rejectCounts,
+      final long failedCount,
+      final long unansweredCount,
+      final LatencyHistogram.Snapshot responseTime,
+      final LatencyHistogram.Snapshot serviceTime
+  ) {
+    this.description = Objects.requireNonNull(description);
+    this.durationNanos = durationNanos;
+    this.sentCount = sentCount;
+    this.fulfilledCount = fulfilledCount;
+    this.rejectCounts = Collections.unmodifiableMap(rejectCounts);
+    this.failedCount = failedCount;
+    this.unansweredCount = unansweredCount;
+    this.responseTime = Objects.requireNonNull(responseTime);
+    this.serviceTime = Objects.requireNonNull(serviceTime);
+  }
+
+  /**
+   * A description of the load that was applied, e.g. {@code open-loop, 10000 packets/s}.
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * The time, in nanoseconds, during which packets were being sent.
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * The number of packets sent.
+   */
+  public long getSentCount() {
+    return sentCount;
+  }
+
+  /**
+   * The number of packets that were fulfilled.
+   */
+  public long getFulfilledCount() {
+    return fulfilledCount;
+  }
+
+  /**
+   * The number of packets that were rejected, keyed by the code of the {@link
+   * org.interledger.core.InterledgerErrorCode} they were rejected with (e.g. {@code T04}), in code order.
+   */
+  public Map<String, Long> getRejectCounts() {
+    return rejectCounts;
+  }
+
+  /**
+   * The total number of packets that were rejected.
+   */
+  public long getRejectedCount() {
+    long total = 0;
+    for (final long count : rejectCounts.values()) {
+      total += count;
+    }
+    return total;
+  }
+
+  /**
+   * The number of packets that failed with something other than an ILP rejection, e.g. because the plugin was not
+   * connected.
+   */
+  public long getFailedCount() {
+    return failedCount;
+  }
+
+  /**
+   * The number of packets that were still unanswered once the drain timeout elapsed. Their latency is not included in
+   * {@link #getResponseTime()} or {@link #getServiceTime()}, so any non-zero value means the tail is worse than
+   * reported.
+   */
+  public long getUnansweredCount() {
+    return unansweredCount;
+  }
+
+  /**
+   * The number of packets answered (whether fulfilled, rejected or failed) per second.
+   */
+  public double getThroughput() {
+    if (durationNanos <= 0) {
+      return 0;
+    }
+    return (fulfilledCount + getRejectedCount() + failedCount) * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+  }
+
+  /**
+   * The latency of each packet, from when it was scheduled to be sent until it was answered, which is corrected for
+   * coordinated omission in open-loop runs.
+   */
+  public LatencyHistogram.Snapshot getResponseTime() {
+    return responseTime;
+  }
+
+  /**
+   * The latency of each packet, from when it was actually sent until it was answered.
+   */
+  public LatencyHistogram.Snapshot getServiceTime() {
+    return serviceTime;
+  }
+
+  @Override
+  public String toString() {
+    return "LoadReport{"
+        + "description=" + description
+        + ", durationMillis=" + TimeUnit.NANOSECONDS.toMillis(durationNanos)
+        + ", sent=" + sentCount
+        + ", fulfilled=" + fulfilledCount
+        + ", rejected=" + rejectCounts
+        + ", failed=" + failedCount
+        + ", unanswered=" + unansweredCount
+        + ", throughput=" + String.format("%.1f/s", getThroughput())
+        + ", responseTime=" + responseTime
+        + ", serviceTime=" + serviceTime
+        + '}';
+  }
+}
@@ -0,0 +1,62 @@
+package org.interledger.plugin.lpiv2.loadtest;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.benchmarks.BenchmarkSupport;
+import org.interledger.plugin.lpiv2.simulation.ImmutableSimulationSettings;
+import org.interledger.plugin.lpiv2.simulation.LatencyDistribution;
+
+import java.time.Duration;
+
+/**
+ * <p>Runs a {@link LoadGenerator} against a {@link SimulatedChildPlugin} whose peer answers after a log-normal latency
+ * (1ms median) and rejects 1% of packets with {@code T04}, then prints the {@link LoadReport}. This gives a baseline to
+ * compare other plugins' numbers against, and an example of how to load-test them.</p>
+ *
+ * <p>Usage:</p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.interledger.plugin.lpiv2.loadtest.LoadTestRunner open 20000 30
+ * java -cp target/benchmarks.jar org.interledger.plugin.lpiv2.loadtest.LoadTestRunner closed 256 30
+ * </pre>
+ *
+ * <p>The first argument selects open-loop (fixed arrival rate) or closed-loop (fixed concurrency) load, the second is
+ * the rate in packets per second or the number of packets in flight, and the third is the duration in seconds. Each
+ * measured run is preceded by a warm-up run of a third of its duration, whose results are discarded.</p>
+ */
+public final class LoadTestRunner {
+
+  /**
+   * Prevent construction.
+   */
+  private LoadTestRunner() {
+  }
+
+  public static void main(final String[] args) {
+    if (args.length != 3 || !("open".equals(args[0]) || "closed".equals(args[0]))) {
+      System.err.println("Usage: LoadTestRunner (open <packetsPerSecond> | closed <concurrency>) <seconds>");
+      System.exit(1);
+    }
+    final boolean openLoop = "open".equals(args[0]);
+    final int load = Integer.parseInt(args[1]);
+    final Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(BenchmarkSupport.newPluginSettings());
+    plugin.setSimulationSettings(ImmutableSimulationSettings.builder()
+        .responseLatency(LatencyDistribution.logNormal(Duration.ofMillis(1), 0.5))
+        .putRejectRates(InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY, 0.01)
+        .build());
+    plugin.connect();
+
+    final LoadGenerator loadGenerator = new LoadGenerator(plugin, BenchmarkSupport::newPreparePacket);
+    final Duration warmup = duration.dividedBy(3);
+    if (openLoop) {
+      loadGenerator.runOpenLoop(load, warmup);
+      System.out.println(loadGenerator.runOpenLoop(load, duration));
+    } else {
+      loadGenerator.runClosedLoop(load, warmup);
+      System.out.println(loadGenerator.runClosedLoop(load, duration));
+    }
+    plugin.disconnect();
+  }
+}
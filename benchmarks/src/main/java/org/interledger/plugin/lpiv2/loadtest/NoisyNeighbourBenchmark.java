@@ -0,0 +1,120 @@
+package org.interledger.plugin.lpiv2.loadtest;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.PluginSettings;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.benchmarks.BenchmarkSupport;
+import org.interledger.plugin.lpiv2.scheduling.FairScheduler;
+import org.interledger.plugin.lpiv2.support.PluginExecutors;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * <p>Shows how well a quiet peer is isolated from a noisy one that shares the same worker threads. Two {@link
+ * SimulatedChildPlugin}s, whose packets each take 50µs of CPU to send, share 2 threads. The noisy peer is sent 60,000
+ * packets per second, which is more than the threads can handle, while the quiet peer is sent 1,000 packets per
+ * second.</p>
+ *
+ * <p>The test runs twice: first with both plugins submitting to a single FIFO pool, and then with each plugin
+ * submitting to its own queue of a {@link FairScheduler}. With the FIFO pool, the quiet peer's packets wait behind
+ * the noisy peer's backlog (or are rejected once the pool's queue is full), so its latency percentiles track the
+ * noisy peer's. With the fair scheduler, the quiet peer's packets only wait for the noisy peer's current turn, so its
+ * p99 stays close to the service time.</p>
+ *
+ * <p>Usage:</p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.interledger.plugin.lpiv2.loadtest.NoisyNeighbourBenchmark 30
+ * </pre>
+ *
+ * <p>The argument is the duration of each run in seconds (10 if omitted). Only the measured runs are reported; each
+ * is preceded by a warm-up run of a third of its duration.</p>
+ */
+public final class NoisyNeighbourBenchmark {
+
+  private static final int THREADS = 2;
+  private static final long SERVICE_MICROS = 50;
+  private static final int NOISY_RATE = 60_000;
+  private static final int QUIET_RATE = 1_000;
+
+  /**
+   * Prevent construction.
+   */
+  private NoisyNeighbourBenchmark() {
+  }
+
+  public static void main(final String[] args) throws InterruptedException {
+    final Duration duration = Duration.ofSeconds(args.length > 0 ? Long.parseLong(args[0]) : 10);
+
+    final ExecutorService fifo = PluginExecutors.newBoundedExecutor(
+        "ilp-fifo", THREADS, 2 * FairScheduler.DEFAULT_QUEUE_DEPTH
+    );
+    run("fifo", settings -> fifo, duration.dividedBy(3));
+    report("fifo", run("fifo", settings -> fifo, duration));
+    fifo.shutdown();
+
+    final FairScheduler scheduler = new FairScheduler("ilp-fair", THREADS);
+    run("fair", scheduler::newQueue, duration.dividedBy(3));
+    report("fair", run("fair", scheduler::newQueue, duration));
+    scheduler.shutdown();
+  }
+
+  private static void report(final String name, final LoadReport[] reports) {
+    System.out.println(name + " quiet: " + reports[0]);
+    System.out.println(name + " noisy: " + reports[1]);
+  }
+
+  /**
+   * Apply load to a quiet and a noisy plugin at the same time, each using the data executor returned by {@code
+   * dataExecutors}.
+   *
+   * @return The quiet plugin's {@link LoadReport}, followed by the noisy plugin's.
+   */
+  private static LoadReport[] run(
+      final String name, final Function<PluginSettings, Executor> dataExecutors, final Duration duration
+  ) throws InterruptedException {
+    final SimulatedChildPlugin quiet = newPlugin(name + "-quiet", dataExecutors);
+    final SimulatedChildPlugin noisy = newPlugin(name + "-noisy", dataExecutors);
+
+    final LoadReport[] reports = new LoadReport[2];
+    final Thread noisyLoad = new Thread(() -> reports[1] = new LoadGenerator(noisy, BenchmarkSupport::newPreparePacket)
+        .runOpenLoop(NOISY_RATE, duration), "ilp-noisy-load");
+    noisyLoad.start();
+    reports[0] = new LoadGenerator(quiet, BenchmarkSupport::newPreparePacket).runOpenLoop(QUIET_RATE, duration);
+    noisyLoad.join();
+
+    quiet.disconnect();
+    noisy.disconnect();
+    return reports;
+  }
+
+  private static SimulatedChildPlugin newPlugin(
+      final String name, final Function<PluginSettings, Executor> dataExecutors
+  ) {
+    final PluginSettings settings = BenchmarkSupport.newPluginSettings(
+        InterledgerAddress.of("test1.connector." + name)
+    );
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(
+        settings, dataExecutors.apply(settings), ForkJoinPool.commonPool()
+    ) {
+      @Override
+      public InterledgerFulfillPacket doSendPacket(final InterledgerPreparePacket preparePacket) {
+        // Stand in for the work of serializing the packet and writing it to the peer.
+        final long endNanos = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(SERVICE_MICROS);
+        while (System.nanoTime() < endNanos) {
+          // Spin, so that the worker thread is occupied for the whole time.
+        }
+        return super.doSendPacket(preparePacket);
+      }
+    };
+    plugin.connect();
+    return plugin;
+  }
+}
@@ -1,27 +1,78 @@
 package org.interledger.plugin.lpiv2;
 
+import org.interledger.core.InterledgerErrorCode;
 import org.interledger.core.InterledgerFulfillPacket;
 import org.interledger.core.InterledgerPreparePacket;
 import org.interledger.core.InterledgerProtocolException;
+import org.interledger.core.InterledgerRejectPacket;
+import org.interledger.plugin.lpiv2.balances.BalanceTracker;
+import org.interledger.plugin.lpiv2.breaker.CircuitBreaker;
+import org.interledger.plugin.lpiv2.breaker.CircuitBreakerState;
+import org.interledger.plugin.lpiv2.dedup.PacketDeduplicator;
+import org.interledger.plugin.lpiv2.events.CircuitBreakerStateChangedEvent;
+import org.interledger.plugin.lpiv2.events.ImmutableCircuitBreakerStateChangedEvent;
+import org.interledger.plugin.lpiv2.events.ImmutableIncomingPacketHandledEvent;
+import org.interledger.plugin.lpiv2.events.ImmutablePacketExpiredEvent;
+import org.interledger.plugin.lpiv2.events.ImmutablePacketFulfilledEvent;
+import org.interledger.plugin.lpiv2.events.ImmutablePacketRejectedEvent;
+import org.interledger.plugin.lpiv2.events.ImmutablePacketSentEvent;
 import org.interledger.plugin.lpiv2.events.ImmutablePluginConnectedEvent;
 import org.interledger.plugin.lpiv2.events.ImmutablePluginDisconnectedEvent;
+import org.interledger.plugin.lpiv2.events.ImmutableSettlementCompletedEvent;
+import org.interledger.plugin.lpiv2.events.IncomingPacketHandledEvent;
+import org.interledger.plugin.lpiv2.events.PacketExpiredEvent;
+import org.interledger.plugin.lpiv2.events.PacketFulfilledEvent;
+import org.interledger.plugin.lpiv2.events.PacketRejectedEvent;
+import org.interledger.plugin.lpiv2.events.PacketSentEvent;
 import org.interledger.plugin.lpiv2.events.PluginConnectedEvent;
 import org.interledger.plugin.lpiv2.events.PluginDisconnectedEvent;
 import org.interledger.plugin.lpiv2.events.PluginErrorEvent;
 import org.interledger.plugin.lpiv2.events.PluginEventEmitter;
 import org.interledger.plugin.lpiv2.events.PluginEventHandler;
+import org.interledger.plugin.lpiv2.events.PluginEventHandlers;
+import org.interledger.plugin.lpiv2.events.PluginEventType;
+import org.interledger.plugin.lpiv2.events.RingBufferPluginEventEmitter;
+import org.interledger.plugin.lpiv2.limits.ConcurrencyLimiter;
+import org.interledger.plugin.lpiv2.limits.RateLimiter;
+import org.interledger.plugin.lpiv2.metrics.OperationMetrics;
+import org.interledger.plugin.lpiv2.metrics.PluginMetrics;
+import org.interledger.plugin.lpiv2.reconnect.ReconnectScheduler;
+import org.interledger.plugin.lpiv2.reconnect.ReconnectScheduler.Reconnection;
+import org.interledger.plugin.lpiv2.reconnect.ReconnectSettings;
+import org.interledger.plugin.lpiv2.settlement.SettlementEngine;
 import org.interledger.plugin.lpiv2.support.Completions;
+import org.interledger.plugin.lpiv2.support.Fulfillments;
+import org.interledger.plugin.lpiv2.support.HashedWheelTimer;
+import org.interledger.plugin.lpiv2.support.PluginExecutors;
+import org.interledger.plugin.lpiv2.trace.PacketTrace;
+import org.interledger.plugin.lpiv2.trace.PacketTrace.Direction;
+import org.interledger.plugin.lpiv2.trace.PacketTracer;
 
-import com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * An abstract implementation of a {@link Plugin} that does directly connects emitted ledger events to proper handlers.
@@ -38,26 +89,104 @@ public abstract class AbstractPlugin<T extends PluginSettings> implements Plugin
   /**
    * Any registered event handlers for this plugin.
    */
-  private final Map<UUID, PluginEventHandler> ledgerEventHandlers = Maps.newConcurrentMap();
+  private final PluginEventHandlers ledgerEventHandlers;
 
   // The emitter used by this plugin.
   private PluginEventEmitter pluginEventEmitter;
 
-  private AtomicBoolean connected = new AtomicBoolean(NOT_CONNECTED);
+  /**
+   * The state of the connection to the peer, and the future of the transition into (or out of) that state.
+   */
+  private final AtomicReference<Lifecycle> lifecycle = new AtomicReference<>(Lifecycle.INITIAL);
+
+  /**
+   * Whether this plugin should reconnect if it fails to connect or loses its connection, which is the case from the
+   * time it is asked to connect until it is explicitly asked to disconnect.
+   */
+  private volatile boolean reconnectEnabled;
+
+  /**
+   * The attempts to reconnect to the peer that are in progress, if any.
+   */
+  private final AtomicReference<Reconnection> reconnection = new AtomicReference<>();
+
+  /**
+   * The executor used to send and handle ILP packets (i.e., "data").
+   */
+  private final Executor dataExecutor;
+
+  /**
+   * The executor used to send and handle settlements (i.e., "money").
+   */
+  private final Executor moneyExecutor;
+
+  /**
+   * Bounds the number of outgoing packets that may be in-flight to the peer, if configured.
+   */
+  private final Optional<ConcurrencyLimiter> sendPacketLimiter;
+
+  /**
+   * Bounds the number of incoming packets that may be in-flight from the peer, if configured.
+   */
+  private final Optional<ConcurrencyLimiter> incomingPacketLimiter;
+
+  /**
+   * Limits the rate of incoming packets from the peer, by number and by amount, if configured.
+   */
+  private final Optional<RateLimiter> incomingRateLimiter;
+
+  /**
+   * Tracks the balance with the peer, if configured.
+   */
+  private final Optional<BalanceTracker> balanceTracker;
+
+  /**
+   * Rejects in-flight packets once they expire.
+   */
+  private final HashedWheelTimer expiryTimer;
+
+  /**
+   * Coalesces outgoing settlements, if configured.
+   */
+  private final Optional<SettlementEngine> settlementEngine;
+
+  /**
+   * Latency histograms and throughput counters for the operations performed by this plugin.
+   */
+  private final PluginMetrics metrics = new PluginMetrics();
+
+  /**
+   * Records the timeline of a sample of packets, if configured.
+   */
+  private final Optional<PacketTracer> packetTracer;
+
+  /**
+   * Whether the fulfillments of outgoing packets are checked against their execution conditions.
+   */
+  private final boolean verifyFulfillments;
+
+  /**
+   * Coalesces duplicate outgoing packets, if configured.
+   */
+  private final Optional<PacketDeduplicator> packetDeduplicator;
+
+  /**
+   * Rejects outgoing packets without sending them while the peer is failing, if configured.
+   */
+  private final Optional<CircuitBreaker> circuitBreaker;
 
   /**
    * Required-args Constructor which utilizes a default {@link PluginEventEmitter} that synchronously connects to any
-   * event handlers.
+   * event handlers, and which performs all work on {@link ForkJoinPool#commonPool()}.
    *
    * @param pluginSettings A {@link T} that specified ledger plugin options.
    */
   protected AbstractPlugin(final T pluginSettings) {
-    this.pluginSettings = Objects.requireNonNull(pluginSettings);
-    this.pluginEventEmitter = new SyncPluginEventEmitter(this.ledgerEventHandlers);
+    this(pluginSettings, ForkJoinPool.commonPool(), ForkJoinPool.commonPool());
   }
 
   /**
-   * Required-args Constructor.
+   * Required-args Constructor which performs all work on {@link ForkJoinPool#commonPool()}.
    *
    * @param pluginSettings     A {@link T} that specified ledger plugin options.
    * @param pluginEventEmitter A {@link PluginEventEmitter} that is used to emit events from this plugin.
@@ -65,71 +194,368 @@ public abstract class AbstractPlugin<T extends PluginSettings> implements Plugin
   protected AbstractPlugin(
       final T pluginSettings,
       final PluginEventEmitter pluginEventEmitter
+  ) {
+    this(pluginSettings, pluginEventEmitter, ForkJoinPool.commonPool(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Required-args Constructor which utilizes a default {@link PluginEventEmitter} that synchronously connects to any
+   * event handlers.
+   *
+   * @param pluginSettings A {@link T} that specified ledger plugin options.
+   * @param dataExecutor   An {@link Executor} used to send and handle ILP packets.
+   * @param moneyExecutor  An {@link Executor} used to send and handle settlements.
+   *
+   * @see PluginExecutors
+   */
+  protected AbstractPlugin(final T pluginSettings, final Executor dataExecutor, final Executor moneyExecutor) {
+    this(pluginSettings, SyncPluginEventEmitter::new, dataExecutor, moneyExecutor);
+  }
+
+  /**
+   * Required-args Constructor for a plugin whose {@link PluginEventEmitter} delivers events to the handlers registered
+   * using {@link #addPluginEventHandler(PluginEventHandler)}, such as a {@link RingBufferPluginEventEmitter}.
+   *
+   * @param pluginSettings A {@link T} that specified ledger plugin options.
+   * @param emitterFactory A {@link Function} that constructs this plugin's {@link PluginEventEmitter} from its
+   *                       registered event handlers.
+   * @param dataExecutor   An {@link Executor} used to send and handle ILP packets.
+   * @param moneyExecutor  An {@link Executor} used to send and handle settlements.
+   */
+  protected AbstractPlugin(
+      final T pluginSettings,
+      final Function<PluginEventHandlers, PluginEventEmitter> emitterFactory,
+      final Executor dataExecutor,
+      final Executor moneyExecutor
+  ) {
+    this(pluginSettings, new PluginEventHandlers(), emitterFactory, dataExecutor, moneyExecutor);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param pluginSettings     A {@link T} that specified ledger plugin options.
+   * @param pluginEventEmitter A {@link PluginEventEmitter} that is used to emit events from this plugin.
+   * @param dataExecutor       An {@link Executor} used to send and handle ILP packets.
+   * @param moneyExecutor      An {@link Executor} used to send and handle settlements.
+   *
+   * @see PluginExecutors
+   */
+  protected AbstractPlugin(
+      final T pluginSettings,
+      final PluginEventEmitter pluginEventEmitter,
+      final Executor dataExecutor,
+      final Executor moneyExecutor
+  ) {
+    this(pluginSettings, new PluginEventHandlers(), pluginEventEmitter, dataExecutor, moneyExecutor);
+  }
+
+  private AbstractPlugin(
+      final T pluginSettings,
+      final PluginEventHandlers ledgerEventHandlers,
+      final Function<PluginEventHandlers, PluginEventEmitter> emitterFactory,
+      final Executor dataExecutor,
+      final Executor moneyExecutor
+  ) {
+    this(pluginSettings, ledgerEventHandlers, emitterFactory.apply(ledgerEventHandlers), dataExecutor, moneyExecutor);
+  }
+
+  private AbstractPlugin(
+      final T pluginSettings,
+      final PluginEventHandlers ledgerEventHandlers,
+      final PluginEventEmitter pluginEventEmitter,
+      final Executor dataExecutor,
+      final Executor moneyExecutor
   ) {
     this.pluginSettings = Objects.requireNonNull(pluginSettings);
+    this.ledgerEventHandlers = Objects.requireNonNull(ledgerEventHandlers);
     this.pluginEventEmitter = Objects.requireNonNull(pluginEventEmitter);
+    this.dataExecutor = Objects.requireNonNull(dataExecutor);
+    this.moneyExecutor = Objects.requireNonNull(moneyExecutor);
+    this.sendPacketLimiter = pluginSettings.concurrencyLimitSettings().map(ConcurrencyLimiter::new);
+    this.incomingPacketLimiter = pluginSettings.concurrencyLimitSettings().map(ConcurrencyLimiter::new);
+    this.incomingRateLimiter = pluginSettings.incomingRateLimitSettings().map(RateLimiter::new);
+    this.balanceTracker = pluginSettings.balanceSettings().map(BalanceTracker::new);
+    this.expiryTimer = HashedWheelTimer.shared();
+    this.settlementEngine = pluginSettings.settlementSettings().map(settlementSettings -> new SettlementEngine(
+        settlementSettings, this::settleNow, this.balanceTracker, this.expiryTimer
+    ));
+    this.packetTracer = pluginSettings.traceSettings().map(PacketTracer::new);
+    this.verifyFulfillments = pluginSettings.verifyFulfillments();
+    this.packetDeduplicator = pluginSettings.deduplicationSettings().map(PacketDeduplicator::new);
+    this.circuitBreaker = pluginSettings.circuitBreakerSettings().map(circuitBreakerSettings -> new CircuitBreaker(
+        circuitBreakerSettings, this::onCircuitBreakerStateChanged
+    ));
   }
 
+  /**
+   * Connect to the remote peer, performing {@link #doConnect()} on the calling thread. Failures are logged (and
+   * reported to event handlers as a disconnection), but not thrown.
+   */
   @Override
   public final void connect() {
+    this.reconnectEnabled = true;
+    try {
+      this.connect(false).join();
+    } catch (CompletionException e) {
+      // Already logged.
+    }
+  }
+
+  /**
+   * Connect to the remote peer using {@link #doConnectAsync()}, without blocking the calling thread. Concurrent calls
+   * share a single connection attempt: if the plugin is already connecting, the returned future completes with the
+   * attempt that is in progress; if it is disconnecting, it connects again once it has disconnected.
+   */
+  @Override
+  public final CompletableFuture<Void> connectAsync() {
+    this.reconnectEnabled = true;
+    return this.connect(true);
+  }
+
+  private CompletableFuture<Void> connect(final boolean async) {
+    while (true) {
+      final Lifecycle current = this.lifecycle.get();
+      switch (current.state) {
+        case CONNECTED:
+        case CONNECTING: {
+          return current.transition.thenApply(Function.identity());
+        }
+        case DISCONNECTING: {
+          return current.transition.handle((ignored, error) -> null).thenCompose(ignored -> this.connect(async));
+        }
+        default: {
+          final Lifecycle connecting = new Lifecycle(ConnectionState.CONNECTING, new CompletableFuture<>());
+          if (this.lifecycle.compareAndSet(current, connecting)) {
+            this.startConnecting(connecting.transition, async);
+            return connecting.transition.thenApply(Function.identity());
+          }
+        }
+      }
+    }
+  }
+
+  private void startConnecting(final CompletableFuture<Void> transition, final boolean async) {
     logger.info("[{}] `{}` connecting to `{}`...", this.pluginSettings.pluginTypeId(),
         this.pluginSettings.localNodeAddress(), this.getPluginSettings().peerAccount());
 
-    try {
-      if (!this.isConnected()) {
-        this.connected.compareAndSet(NOT_CONNECTED, CONNECTED);
-        this.doConnect();
+    final CompletableFuture<Void> step = async
+        ? this.runLifecycleStepAsync(this::doConnectAsync) : this.runLifecycleStep(this::doConnect);
+    step.whenComplete((ignored, error) -> {
+      if (error == null) {
+        this.lifecycle.set(new Lifecycle(ConnectionState.CONNECTED, transition));
         this.pluginEventEmitter.emitEvent(ImmutablePluginConnectedEvent.builder()
             .peerAccount(this.getPluginSettings().peerAccount())
             .build());
-
         logger.info("[{}] `{}` connected to `{}`", this.getPluginSettings().pluginTypeId(),
             this.pluginSettings.localNodeAddress(), this.getPluginSettings().peerAccount());
-
+        transition.complete(null);
+      } else {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        logger.error(cause.getMessage(), cause);
+        this.failConnecting(transition, cause, async);
       }
-    } catch (Exception e) {
-      logger.error(e.getMessage(), e);
-
-      // If we can't connect, then disconnect this account in order to trigger any listeners.
-      this.disconnect();
-    }
+    });
+  }
 
+  /**
+   * Disconnect after a failed connection attempt, so that anything the attempt left half-open is torn down, and then
+   * report a disconnection in order to trigger any listeners. A failure to disconnect is logged, but otherwise ignored
+   * in favour of {@code cause}.
+   */
+  private void failConnecting(final CompletableFuture<Void> transition, final Throwable cause, final boolean async) {
+    final CompletableFuture<Void> step = async
+        ? this.runLifecycleStepAsync(this::doDisconnectAsync) : this.runLifecycleStep(this::doDisconnect);
+    step.whenComplete((ignored, error) -> {
+      if (error != null) {
+        logger.warn("[{}] `{}` failed to disconnect from `{}` after failing to connect: {}",
+            this.pluginSettings.pluginTypeId(), this.pluginSettings.localNodeAddress(),
+            this.getPluginSettings().peerAccount(), error.getMessage());
+      }
+      this.lifecycle.set(new Lifecycle(ConnectionState.DISCONNECTED, transition));
+      this.pluginEventEmitter.emitEvent(ImmutablePluginDisconnectedEvent.builder()
+          .peerAccount(this.getPluginSettings().peerAccount())
+          .build());
+      this.startReconnecting();
+      transition.completeExceptionally(cause);
+    });
   }
 
   /**
-   * Perform the logic of actually connecting to the remote peer.
+   * Perform the logic of actually connecting to the remote peer. If this method throws, {@link #doDisconnect()} is
+   * called before the plugin is reported as disconnected, so that anything left half-open can be torn down.
    */
   public abstract void doConnect();
 
+  /**
+   * Perform the logic of connecting to the remote peer without blocking the calling thread. Implementations backed by a
+   * natively asynchronous transport should override this method. By default, this method runs {@link #doConnect()} on
+   * this plugin's data executor. If the returned stage fails, {@link #doDisconnectAsync()} is called before the plugin
+   * is reported as disconnected.
+   *
+   * @return A {@link CompletionStage} that completes once the handshake with the peer has completed.
+   */
+  protected CompletionStage<Void> doConnectAsync() {
+    return Completions.supplyAsync(this::doConnect, this.dataExecutor);
+  }
+
+  /**
+   * Disconnect from the remote peer, performing {@link #doDisconnect()} on the calling thread. A disconnected event is
+   * emitted even if the plugin was not connected.
+   */
   @Override
   public final void disconnect() {
+    this.stopReconnecting();
+    try {
+      this.disconnect(false).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Disconnect from the remote peer using {@link #doDisconnectAsync()}. If the plugin is connecting, it disconnects
+   * once the connection attempt has finished.
+   */
+  @Override
+  public final CompletableFuture<Void> disconnectAsync() {
+    this.stopReconnecting();
+    return this.disconnect(true);
+  }
+
+  private CompletableFuture<Void> disconnect(final boolean async) {
+    while (true) {
+      final Lifecycle current = this.lifecycle.get();
+      switch (current.state) {
+        case DISCONNECTING: {
+          return current.transition.thenApply(Function.identity());
+        }
+        case CONNECTING: {
+          return current.transition.handle((ignored, error) -> null).thenCompose(ignored -> this.disconnect(async));
+        }
+        case DISCONNECTED: {
+          this.pluginEventEmitter.emitEvent(ImmutablePluginDisconnectedEvent.builder()
+              .peerAccount(this.getPluginSettings().peerAccount())
+              .build());
+          return CompletableFuture.completedFuture(null);
+        }
+        default: {
+          final Lifecycle disconnecting = new Lifecycle(ConnectionState.DISCONNECTING, new CompletableFuture<>());
+          if (this.lifecycle.compareAndSet(current, disconnecting)) {
+            this.startDisconnecting(disconnecting.transition, async);
+            return disconnecting.transition.thenApply(Function.identity());
+          }
+        }
+      }
+    }
+  }
+
+  private void startDisconnecting(final CompletableFuture<Void> transition, final boolean async) {
     logger.info("[{}] `{}` disconnecting from `{}`...", this.pluginSettings.pluginTypeId(),
         this.pluginSettings.localNodeAddress(), this.getPluginSettings().peerAccount());
 
-    try {
-      if (this.connected.compareAndSet(CONNECTED, NOT_CONNECTED)) {
-        this.doDisconnect();
-      }
-      // In either case above, emit the disconnect event.
+    final CompletableFuture<Void> step = async
+        ? this.runLifecycleStepAsync(this::doDisconnectAsync) : this.runLifecycleStep(this::doDisconnect);
+    step.whenComplete((ignored, error) -> {
+      // Even if disconnecting failed, the plugin is no longer usable, so be sure to emit the disconnected event.
+      this.lifecycle.set(new Lifecycle(ConnectionState.DISCONNECTED, Lifecycle.COMPLETED));
       this.pluginEventEmitter.emitEvent(ImmutablePluginDisconnectedEvent.builder()
           .peerAccount(this.getPluginSettings().peerAccount())
           .build());
+      if (error == null) {
+        logger.info("[{}] `{}` disconnected from `{}`.", this.pluginSettings.pluginTypeId(),
+            this.pluginSettings.localNodeAddress(), this.getPluginSettings().peerAccount());
+        transition.complete(null);
+      } else {
+        transition.completeExceptionally(
+            error instanceof CompletionException && error.getCause() != null ? error.getCause() : error
+        );
+      }
+    });
+  }
+
+  /**
+   * Perform the logic of disconnecting from the remote peer.
+   */
+  public abstract void doDisconnect();
+
+  /**
+   * Perform the logic of disconnecting from the remote peer without blocking the calling thread. By default, this
+   * method runs {@link #doDisconnect()} on this plugin's data executor.
+   *
+   * @return A {@link CompletionStage} that completes once the connection to the peer has been torn down.
+   */
+  protected CompletionStage<Void> doDisconnectAsync() {
+    return Completions.supplyAsync(this::doDisconnect, this.dataExecutor);
+  }
+
+  private CompletableFuture<Void> runLifecycleStep(final Runnable step) {
+    try {
+      step.run();
+      return CompletableFuture.completedFuture(null);
     } catch (RuntimeException e) {
-      // Even if an exception is thrown above, be sure to emit the disconnected event.
-      this.pluginEventEmitter.emitEvent(ImmutablePluginDisconnectedEvent.builder()
-          .peerAccount(this.getPluginSettings().peerAccount())
-          .build());
-      throw e;
+      return Completions.failedFuture(e);
     }
+  }
 
-    logger.info("[{}] `{}` disconnected from `{}`.", this.pluginSettings.pluginTypeId(),
-        this.pluginSettings.localNodeAddress(), this.getPluginSettings().peerAccount());
+  private CompletableFuture<Void> runLifecycleStepAsync(final Supplier<CompletionStage<Void>> step) {
+    try {
+      return step.get().toCompletableFuture();
+    } catch (RuntimeException e) {
+      return Completions.failedFuture(e);
+    }
   }
 
   /**
-   * Perform the logic of disconnecting from the remote peer.
+   * Called by implementations when the connection to the peer is lost other than by calling {@link #disconnect()}
+   * (e.g., the transport was closed by the peer). The plugin is disconnected and, if it is configured with {@link
+   * PluginSettings#reconnectSettings()}, reconnects using the {@link ReconnectScheduler#shared()} scheduler, instead of
+   * each implementation running its own retry loop.
+   *
+   * @param cause The reason the connection was lost.
    */
-  public abstract void doDisconnect();
+  protected final void onConnectionLost(final Throwable cause) {
+    Objects.requireNonNull(cause);
+    logger.warn("[{}] `{}` lost its connection to `{}`: {}", this.pluginSettings.pluginTypeId(),
+        this.pluginSettings.localNodeAddress(), this.getPluginSettings().peerAccount(), cause.getMessage());
+    this.disconnect(true).whenComplete((ignored, error) -> this.startReconnecting());
+  }
+
+  /**
+   * Query whether this plugin is waiting to reconnect to the peer (or is attempting to).
+   *
+   * @return {@code true} if the plugin is reconnecting; {@code false} otherwise.
+   */
+  public boolean isReconnecting() {
+    return this.reconnection.get() != null;
+  }
+
+  private void startReconnecting() {
+    final Optional<ReconnectSettings> reconnectSettings = this.pluginSettings.reconnectSettings();
+    if (!reconnectSettings.isPresent() || !this.reconnectEnabled || this.reconnection.get() != null) {
+      return;
+    }
+    // Attempts call the internal connect(), so that a failed attempt doesn't start another reconnection.
+    final Reconnection next = ReconnectScheduler.shared().newReconnection(
+        reconnectSettings.get(), () -> this.connect(true)
+    );
+    if (this.reconnection.compareAndSet(null, next)) {
+      next.getResult().whenComplete((ignored, error) -> this.reconnection.compareAndSet(next, null));
+      next.start();
+    }
+  }
+
+  private void stopReconnecting() {
+    this.reconnectEnabled = false;
+    final Reconnection current = this.reconnection.getAndSet(null);
+    if (current != null) {
+      current.cancel();
+    }
+  }
 
   /**
    * Query whether the plugin is currently connected.
@@ -138,21 +564,36 @@ public abstract class AbstractPlugin<T extends PluginSettings> implements Plugin
    */
   @Override
   public boolean isConnected() {
-    return this.connected.get();
+    return this.lifecycle.get().state == ConnectionState.CONNECTED;
+  }
+
+  @Override
+  public ConnectionState getConnectionState() {
+    return this.lifecycle.get().state;
   }
 
   protected PluginEventEmitter getPluginEventEmitter() {
     return this.pluginEventEmitter;
   }
 
+  /**
+   * Accessor for the {@link Executor} that this plugin uses to send and handle ILP packets.
+   */
+  protected Executor getDataExecutor() {
+    return this.dataExecutor;
+  }
+
+  /**
+   * Accessor for the {@link Executor} that this plugin uses to send and handle settlements.
+   */
+  protected Executor getMoneyExecutor() {
+    return this.moneyExecutor;
+  }
+
   @Override
   public UUID addPluginEventHandler(final PluginEventHandler pluginEventHandler) {
     Objects.requireNonNull(pluginEventHandler);
-
-    final UUID handlerId = UUID.randomUUID();
-    this.ledgerEventHandlers.put(handlerId, pluginEventHandler);
-
-    return handlerId;
+    return this.ledgerEventHandlers.add(pluginEventHandler);
   }
 
   @Override
@@ -167,105 +608,1180 @@ public abstract class AbstractPlugin<T extends PluginSettings> implements Plugin
   }
 
   /**
-   * Delegates to {@link #doSendPacket(InterledgerPreparePacket)} so that implementations don't need to worry about
-   * async behavior.
+   * Delegates to {@link #doSendPacketAsync(InterledgerPreparePacket)}, which by default delegates to {@link
+   * #doSendPacket(InterledgerPreparePacket)} so that implementations don't need to worry about async behavior. If this
+   * plugin is configured with {@link PluginSettings#deduplicationSettings()}, a packet that duplicates one that is
+   * already in-flight is not sent, and instead receives the in-flight packet's response.
    */
   @Override
   public final CompletableFuture<InterledgerFulfillPacket> sendPacket(final InterledgerPreparePacket preparePacket)
       throws InterledgerProtocolException {
     Objects.requireNonNull(preparePacket);
-    logger.debug("[{}] sendPacket: {}",
-        this.pluginSettings.pluginTypeId(), preparePacket
-    );
-    // Handles checked and unchecked exceptions properly.
-    return Completions.supplyAsync(() -> this.doSendPacket(preparePacket)).toCompletableFuture();
+    if (this.packetDeduplicator.isPresent()) {
+      final CompletableFuture<InterledgerFulfillPacket> duplicateResponse =
+          this.packetDeduplicator.get().coalesce(preparePacket);
+      if (duplicateResponse != null) {
+        return this.scheduleDuplicateExpiry(preparePacket, duplicateResponse);
+      }
+    }
+    CompletableFuture<InterledgerFulfillPacket> response;
+    try {
+      response = this.sendPacketNow(preparePacket);
+    } catch (RuntimeException e) {
+      // The packet may have been registered by the deduplicator, which must see it answered to release its duplicates.
+      response = Completions.failedFuture(e);
+    }
+    this.trackDuplicates(preparePacket, response);
+    return response;
+  }
+
+  private CompletableFuture<InterledgerFulfillPacket> sendPacketNow(final InterledgerPreparePacket preparePacket) {
+    final long circuitPermit = this.acquireCircuit();
+    if (circuitPermit == CircuitBreaker.REJECTED) {
+      return Completions.failedFuture(this.circuitOpen());
+    }
+    final Optional<InterledgerProtocolException> rejection = this.admitOutgoing(preparePacket);
+    if (rejection.isPresent()) {
+      this.releaseCircuit(circuitPermit);
+      return Completions.failedFuture(rejection.get());
+    }
+    this.emitPacketSent(preparePacket);
+
+    final Optional<PacketTrace> trace = this.startTrace(Direction.OUTGOING, preparePacket);
+    final long startNanos = System.nanoTime();
+    CompletionStage<InterledgerFulfillPacket> response;
+    final PacketTrace[] previousTraces = this.setPendingTraces(trace);
+    try {
+      response = this.doSendPacketAsync(preparePacket);
+    } catch (RuntimeException e) {
+      response = Completions.failedFuture(e);
+    } finally {
+      this.restorePendingTraces(trace.isPresent(), previousTraces);
+    }
+    return this.trackOutgoing(preparePacket, circuitPermit, startNanos, trace, response);
   }
 
   /**
-   * Perform the logic of sending a packet to a remote peer.
+   * Delegates to {@link #doSendPackets(List)} so that implementations can send a whole batch of packets to the peer at
+   * once (e.g., in a single frame or system call).
    */
-  public abstract InterledgerFulfillPacket doSendPacket(final InterledgerPreparePacket preparePacket)
-      throws InterledgerProtocolException;
-
   @Override
-  public final CompletableFuture<InterledgerFulfillPacket> handleIncomingPacket(
-      final InterledgerPreparePacket preparePacket)
-      throws InterledgerProtocolException {
-    Objects.requireNonNull(preparePacket);
-    logger.debug("[{}] sendPacket: {}",
-        this.pluginSettings.pluginTypeId(), preparePacket
-    );
-    // Handles checked and unchecked exceptions properly.
-    return Completions.supplyAsync(() -> this.doHandleIncomingPacket(preparePacket)).toCompletableFuture();
-  }
+  public final List<CompletableFuture<InterledgerFulfillPacket>> sendPackets(
+      final List<InterledgerPreparePacket> preparePackets
+  ) {
+    Objects.requireNonNull(preparePackets);
+    if (preparePackets.isEmpty()) {
+      return Collections.emptyList();
+    }
 
-  public abstract InterledgerFulfillPacket doHandleIncomingPacket(final InterledgerPreparePacket preparePacket)
-      throws InterledgerProtocolException;
+    // Packets that can't be admitted are rejected individually; the rest are sent to the peer as a single batch.
+    final List<CompletableFuture<InterledgerFulfillPacket>> results = new ArrayList<>(preparePackets.size());
+    final List<InterledgerPreparePacket> admitted = new ArrayList<>(preparePackets.size());
+    final List<Optional<PacketTrace>> traces = new ArrayList<>(preparePackets.size());
+    final long[] circuitPermits = new long[preparePackets.size()];
+    boolean traced = false;
+    for (final InterledgerPreparePacket preparePacket : preparePackets) {
+      Objects.requireNonNull(preparePacket);
+      if (this.packetDeduplicator.isPresent()) {
+        final CompletableFuture<InterledgerFulfillPacket> duplicateResponse =
+            this.packetDeduplicator.get().coalesce(preparePacket);
+        if (duplicateResponse != null) {
+          results.add(this.scheduleDuplicateExpiry(preparePacket, duplicateResponse));
+          continue;
+        }
+      }
+      final long circuitPermit = this.acquireCircuit();
+      final Optional<InterledgerProtocolException> rejection = circuitPermit == CircuitBreaker.REJECTED
+          ? Optional.of(this.circuitOpen()) : this.admitOutgoing(preparePacket);
+      if (rejection.isPresent()) {
+        this.releaseCircuit(circuitPermit);
+        final CompletableFuture<InterledgerFulfillPacket> rejected = Completions.failedFuture(rejection.get());
+        this.trackDuplicates(preparePacket, rejected);
+        results.add(rejected);
+      } else {
+        this.emitPacketSent(preparePacket);
+        final Optional<PacketTrace> trace = this.startTrace(Direction.OUTGOING, preparePacket);
+        traced |= trace.isPresent();
+        circuitPermits[admitted.size()] = circuitPermit;
+        admitted.add(preparePacket);
+        traces.add(trace);
+        results.add(null);
+      }
+    }
+    if (admitted.isEmpty()) {
+      return results;
+    }
 
-  @Override
-  public final CompletableFuture<Void> settle(final BigInteger amount) {
-    Objects.requireNonNull(amount);
-    logger.info("[{}] settling {} units via {}!",
-        this.pluginSettings.pluginTypeId(), amount, pluginSettings.peerAccount()
-    );
-    // Handles checked and unchecked exceptions properly.
-    return Completions.supplyAsync(() -> this.doSettle(amount)).toCompletableFuture();
-  }
+    final long startNanos = System.nanoTime();
+    List<? extends CompletionStage<InterledgerFulfillPacket>> responses;
+    final PacketTrace[] previousTraces = traced
+        ? this.packetTracer.get().setPending(
+            traces.stream().map(trace -> trace.orElse(null)).toArray(PacketTrace[]::new)
+        )
+        : null;
+    try {
+      responses = this.doSendPackets(admitted);
+      if (responses.size() != admitted.size()) {
+        throw new IllegalStateException(String.format(
+            "doSendPackets returned %s responses for %s packets", responses.size(), admitted.size()
+        ));
+      }
+    } catch (RuntimeException e) {
+      responses = admitted.stream()
+          .map(preparePacket -> Completions.<InterledgerFulfillPacket>failedFuture(e))
+          .collect(Collectors.toList());
+    } finally {
+      this.restorePendingTraces(traced, previousTraces);
+    }
 
-  /**
-   * Perform the logic of settling with a remote peer.
-   */
-  protected abstract void doSettle(BigInteger amount);
+    int responseIndex = 0;
+    for (int i = 0; i < results.size(); i++) {
+      if (results.get(i) == null) {
+        final InterledgerPreparePacket preparePacket = admitted.get(responseIndex);
+        final CompletableFuture<InterledgerFulfillPacket> result = this.trackOutgoing(
+            preparePacket, circuitPermits[responseIndex], startNanos, traces.get(responseIndex),
+            responses.get(responseIndex)
+        );
+        this.trackDuplicates(preparePacket, result);
+        results.set(i, result);
+        responseIndex++;
+      }
+    }
+    return results;
+  }
 
+  private void trackDuplicates(
+      final InterledgerPreparePacket preparePacket, final CompletableFuture<InterledgerFulfillPacket> response
+  ) {
+    if (this.packetDeduplicator.isPresent()) {
+      this.packetDeduplicator.get().track(preparePacket, response);
+    }
+  }
 
   /**
-   * Handle a request to settle an outstanding balance.
+   * Reject a duplicate with {@code R00} if it expires before the packet it was coalesced with is answered, which may
+   * have been sent with a later expiry. A duplicate was never sent, so, unlike {@link #expire}, this neither calls
+   * {@link #onPacketExpired} nor emits a {@link PacketExpiredEvent}.
    *
-   * @param amount The amount of "money" to transfer.
+   * @return {@code duplicateResponse}.
    */
-  @Override
-  public CompletableFuture<Void> handleIncomingSettle(BigInteger amount) {
-    Objects.requireNonNull(amount);
-    logger.info("[{}] handleIncomingSettle {} units via {}!",
-        this.pluginSettings.pluginTypeId(), amount, pluginSettings.peerAccount()
-    );
-    // Handles checked and unchecked exceptions properly.
-    return Completions.supplyAsync(() -> this.doHandleIncomingSettle(amount)).toCompletableFuture();
+  private CompletableFuture<InterledgerFulfillPacket> scheduleDuplicateExpiry(
+      final InterledgerPreparePacket preparePacket, final CompletableFuture<InterledgerFulfillPacket> duplicateResponse
+  ) {
+    if (!duplicateResponse.isDone()) {
+      final HashedWheelTimer.Timeout timeout = this.expiryTimer.schedule(
+          () -> this.executeOffTimer(() -> duplicateResponse.completeExceptionally(this.expired())),
+          millisUntil(preparePacket.getExpiresAt()), TimeUnit.MILLISECONDS
+      );
+      duplicateResponse.whenComplete((fulfillPacket, error) -> timeout.cancel());
+    }
+    return duplicateResponse;
   }
 
   /**
-   * Perform the logic of handling an incoming settlement from a remote peer.
+   * Perform the logic of sending a batch of packets to a remote peer without blocking the calling thread.
+   * Implementations whose transport can write many packets at once should override this method. By default, each packet
+   * is sent individually using {@link #doSendPacketAsync(InterledgerPreparePacket)}.
+   *
+   * @param preparePackets A non-empty {@link List} of ILP packets to send to the peer.
+   *
+   * @return A {@link List} containing exactly one {@link CompletionStage} per packet, in the same order as {@code
+   *     preparePackets}.
+   */
+  protected List<? extends CompletionStage<InterledgerFulfillPacket>> doSendPackets(
+      final List<InterledgerPreparePacket> preparePackets
+  ) {
+    final List<CompletionStage<InterledgerFulfillPacket>> responses = new ArrayList<>(preparePackets.size());
+    for (final InterledgerPreparePacket preparePacket : preparePackets) {
+      try {
+        responses.add(this.doSendPacketAsync(preparePacket));
+      } catch (RuntimeException e) {
+        responses.add(Completions.failedFuture(e));
+      }
+    }
+    return responses;
+  }
+
+  /**
+   * Perform the logic of sending a packet to a remote peer without blocking the calling thread. The returned {@link
+   * CompletionStage} is handed back to the caller of {@link #sendPacket(InterledgerPreparePacket)} as-is, without being
+   * re-dispatched onto another thread.
+   *
+   * <p>Implementations backed by a natively asynchronous transport should override this method, in which case {@link
+   * #doSendPacket(InterledgerPreparePacket)} is only called if the override delegates to it. By default, this method
+   * runs {@link #doSendPacket(InterledgerPreparePacket)} on this plugin's data executor.</p>
+   *
+   * @param preparePacket The ILP packet to send to the peer.
+   *
+   * @return A {@link CompletionStage} that completes with the peer's fulfillment, or exceptionally with an {@link
+   *     InterledgerProtocolException} if the peer rejects the packet.
+   */
+  protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(final InterledgerPreparePacket preparePacket) {
+    return this.dispatchPacket(this.metrics.getSendPacket(), preparePacket, () -> this.doSendPacket(preparePacket));
+  }
+
+  /**
+   * Perform the logic of sending a packet to a remote peer, blocking until the peer responds.
+   */
+  public abstract InterledgerFulfillPacket doSendPacket(final InterledgerPreparePacket preparePacket)
+      throws InterledgerProtocolException;
+
+  @Override
+  public final CompletableFuture<InterledgerFulfillPacket> handleIncomingPacket(
+      final InterledgerPreparePacket preparePacket)
+      throws InterledgerProtocolException {
+    Objects.requireNonNull(preparePacket);
+    final Optional<InterledgerProtocolException> rejection = this.admitIncoming(preparePacket);
+    if (rejection.isPresent()) {
+      return Completions.failedFuture(rejection.get());
+    }
+
+    final Optional<PacketTrace> trace = this.startTrace(Direction.INCOMING, preparePacket);
+    final long startNanos = System.nanoTime();
+    CompletionStage<InterledgerFulfillPacket> response;
+    final PacketTrace[] previousTraces = this.setPendingTraces(trace);
+    try {
+      response = this.doHandleIncomingPacketAsync(preparePacket);
+    } catch (RuntimeException e) {
+      response = Completions.failedFuture(e);
+    } finally {
+      this.restorePendingTraces(trace.isPresent(), previousTraces);
+    }
+    return this.trackIncoming(preparePacket, startNanos, trace, response);
+  }
+
+  /**
+   * Perform the logic of handling a packet from a remote peer without blocking the calling thread. The returned {@link
+   * CompletionStage} is handed back to the caller of {@link #handleIncomingPacket(InterledgerPreparePacket)} as-is.
+   *
+   * <p>By default, this method runs {@link #doHandleIncomingPacket(InterledgerPreparePacket)} on this plugin's data
+   * executor.</p>
+   *
+   * @param preparePacket The ILP packet sent from a remote peer.
+   *
+   * @return A {@link CompletionStage} that completes with a fulfillment, or exceptionally with an {@link
+   *     InterledgerProtocolException} if the packet is rejected.
+   */
+  protected CompletionStage<InterledgerFulfillPacket> doHandleIncomingPacketAsync(
+      final InterledgerPreparePacket preparePacket
+  ) {
+    return this.dispatchPacket(
+        this.metrics.getHandleIncomingPacket(), preparePacket, () -> this.doHandleIncomingPacket(preparePacket)
+    );
+  }
+
+  /**
+   * Perform the logic of handling a packet from a remote peer, blocking until a response is available.
+   */
+  public abstract InterledgerFulfillPacket doHandleIncomingPacket(final InterledgerPreparePacket preparePacket)
+      throws InterledgerProtocolException;
+
+  /**
+   * Settles {@code amount} with the peer by calling {@link #doSettle(BigInteger)} on the money executor. If this plugin
+   * is configured with {@link PluginSettings#settlementSettings()}, the amount is instead merged with other pending
+   * amounts, and the returned future completes once the merged settlement has landed.
+   */
+  @Override
+  public final CompletableFuture<Void> settle(final BigInteger amount) {
+    Objects.requireNonNull(amount);
+    final long startNanos = System.nanoTime();
+    final CompletableFuture<Void> result;
+    final Optional<IllegalArgumentException> invalidAmount = this.balanceTracker.isPresent()
+        ? checkSettlementAmount(amount) : Optional.empty();
+    if (invalidAmount.isPresent()) {
+      // Rejected before it is merged with other amounts, so that only this caller's settlement fails.
+      result = Completions.failedFuture(invalidAmount.get());
+    } else if (this.settlementEngine.isPresent()) {
+      logger.debug("[{}] queueing settlement of {} units via {}",
+          this.pluginSettings.pluginTypeId(), amount, pluginSettings.peerAccount()
+      );
+      result = this.settlementEngine.get().settle(amount);
+    } else {
+      result = this.settleNow(amount);
+    }
+    return recordCompletion(this.metrics.getSettle(), startNanos, result);
+  }
+
+  private CompletableFuture<Void> settleNow(final BigInteger amount) {
+    logger.debug("[{}] settling {} units via {}",
+        this.pluginSettings.pluginTypeId(), amount, pluginSettings.peerAccount()
+    );
+    if (this.balanceTracker.isPresent()) {
+      final Optional<IllegalArgumentException> invalidAmount = checkSettlementAmount(amount);
+      if (invalidAmount.isPresent()) {
+        return Completions.failedFuture(invalidAmount.get());
+      }
+      final long settlementAmount = toLongAmount(amount);
+      return this.dispatchSettlement(this.metrics.getSettle(), () -> {
+        this.doSettle(amount);
+        this.balanceTracker.get().onSettle(settlementAmount);
+        this.emitSettlementCompleted(amount);
+      });
+    }
+    return this.dispatchSettlement(this.metrics.getSettle(), () -> {
+      this.doSettle(amount);
+      this.emitSettlementCompleted(amount);
+    });
+  }
+
+  /**
+   * A settlement amount can only be applied to a tracked balance if it is non-negative and fits in a {@code long}.
+   *
+   * @return The reason {@code amount} is invalid, or {@link Optional#empty()} if it is valid.
+   */
+  private static Optional<IllegalArgumentException> checkSettlementAmount(final BigInteger amount) {
+    if (amount.signum() < 0) {
+      return Optional.of(new IllegalArgumentException("Settlement amount must not be negative: " + amount));
+    }
+    if (toLongAmount(amount) < 0) {
+      return Optional.of(new IllegalArgumentException("Settlement amount is too large: " + amount));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Perform the logic of settling with a remote peer.
+   */
+  protected abstract void doSettle(BigInteger amount);
+
+
+  /**
+   * Handle a request to settle an outstanding balance.
+   *
+   * @param amount The amount of "money" to transfer.
+   */
+  @Override
+  public CompletableFuture<Void> handleIncomingSettle(BigInteger amount) {
+    Objects.requireNonNull(amount);
+    logger.debug("[{}] handleIncomingSettle {} units via {}",
+        this.pluginSettings.pluginTypeId(), amount, pluginSettings.peerAccount()
+    );
+    final OperationMetrics operationMetrics = this.metrics.getHandleIncomingSettle();
+    final long startNanos = System.nanoTime();
+    if (this.balanceTracker.isPresent()) {
+      final Optional<IllegalArgumentException> invalidAmount = checkSettlementAmount(amount);
+      if (invalidAmount.isPresent()) {
+        // Recorded as a failure, just as settle() records an invalid amount.
+        return recordCompletion(operationMetrics, startNanos, Completions.failedFuture(invalidAmount.get()));
+      }
+    }
+    return recordCompletion(operationMetrics, startNanos,
+        this.dispatchSettlement(operationMetrics, () -> this.applyIncomingSettle(amount)));
+  }
+
+  /**
+   * Handle an incoming settlement like {@link #handleIncomingSettle(BigInteger)}, but on the calling thread rather than
+   * the money executor. For peers in the same JVM, which settle from their own money executor: if both plugins share a
+   * single-threaded money executor, waiting for this plugin's would deadlock.
+   *
+   * @param amount The amount of "money" to transfer.
+   */
+  final void handleIncomingSettleOnCallingThread(final BigInteger amount) {
+    Objects.requireNonNull(amount);
+    final OperationMetrics operationMetrics = this.metrics.getHandleIncomingSettle();
+    final long startNanos = System.nanoTime();
+    if (this.balanceTracker.isPresent()) {
+      final Optional<IllegalArgumentException> invalidAmount = checkSettlementAmount(amount);
+      if (invalidAmount.isPresent()) {
+        operationMetrics.recordCompletion(System.nanoTime() - startNanos, true);
+        throw invalidAmount.get();
+      }
+    }
+    boolean failed = true;
+    try {
+      this.applyIncomingSettle(amount);
+      failed = false;
+    } finally {
+      final long elapsedNanos = System.nanoTime() - startNanos;
+      operationMetrics.recordExecution(elapsedNanos);
+      operationMetrics.recordCompletion(elapsedNanos, failed);
+    }
+  }
+
+  private void applyIncomingSettle(final BigInteger amount) {
+    this.doHandleIncomingSettle(amount);
+    if (this.balanceTracker.isPresent()) {
+      this.balanceTracker.get().onIncomingSettle(toLongAmount(amount));
+    }
+  }
+
+  /**
+   * Perform the logic of handling an incoming settlement from a remote peer.
    */
   protected abstract void doHandleIncomingSettle(BigInteger amount);
 
+  @Override
+  public PluginMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Accessor for the limiter that bounds the number of outgoing packets in-flight to the peer, which can be used to
+   * monitor the current limit, the number of in-flight packets and the number of rejections.
+   *
+   * @return The {@link ConcurrencyLimiter} for {@link #sendPacket(InterledgerPreparePacket)}, or {@link
+   *     Optional#empty()} if this plugin is not configured with {@link PluginSettings#concurrencyLimitSettings()}.
+   */
+  public Optional<ConcurrencyLimiter> getSendPacketLimiter() {
+    return this.sendPacketLimiter;
+  }
+
+  /**
+   * Accessor for the limiter that bounds the number of incoming packets in-flight from the peer.
+   *
+   * @return The {@link ConcurrencyLimiter} for {@link #handleIncomingPacket(InterledgerPreparePacket)}, or {@link
+   *     Optional#empty()} if this plugin is not configured with {@link PluginSettings#concurrencyLimitSettings()}.
+   */
+  public Optional<ConcurrencyLimiter> getIncomingPacketLimiter() {
+    return this.incomingPacketLimiter;
+  }
+
+  /**
+   * Accessor for the limiter that bounds the rate of incoming packets from the peer, which can be used to monitor the
+   * tokens available and the number of rejections.
+   *
+   * @return The {@link RateLimiter} for {@link #handleIncomingPacket(InterledgerPreparePacket)}, or {@link
+   *     Optional#empty()} if this plugin is not configured with {@link PluginSettings#incomingRateLimitSettings()}.
+   */
+  public Optional<RateLimiter> getIncomingRateLimiter() {
+    return this.incomingRateLimiter;
+  }
+
+  /**
+   * Accessor for the tracker of this plugin's balance with the peer.
+   *
+   * @return The {@link BalanceTracker} for this plugin, or {@link Optional#empty()} if this plugin is not configured
+   *     with {@link PluginSettings#balanceSettings()}.
+   */
+  public Optional<BalanceTracker> getBalanceTracker() {
+    return this.balanceTracker;
+  }
+
+  /**
+   * Accessor for the engine that coalesces this plugin's outgoing settlements, which can be used to monitor the pending
+   * amount, or to flush it.
+   *
+   * @return The {@link SettlementEngine} for this plugin, or {@link Optional#empty()} if this plugin is not configured
+   *     with {@link PluginSettings#settlementSettings()}.
+   */
+  public Optional<SettlementEngine> getSettlementEngine() {
+    return this.settlementEngine;
+  }
+
+  /**
+   * Accessor for the tracer that records the timeline of a sample of this plugin's packets, which can be used to dump
+   * the most recent traces.
+   *
+   * @return The {@link PacketTracer} for this plugin, or {@link Optional#empty()} if this plugin is not configured with
+   *     {@link PluginSettings#traceSettings()}.
+   */
+  public Optional<PacketTracer> getPacketTracer() {
+    return this.packetTracer;
+  }
+
+  /**
+   * Accessor for the table of this plugin's in-flight outgoing packets, which can be used to monitor how many
+   * duplicate packets were coalesced.
+   *
+   * @return The {@link PacketDeduplicator} for this plugin, or {@link Optional#empty()} if this plugin is not
+   *     configured with {@link PluginSettings#deduplicationSettings()}.
+   */
+  public Optional<PacketDeduplicator> getPacketDeduplicator() {
+    return this.packetDeduplicator;
+  }
+
+  /**
+   * Accessor for the circuit breaker that guards this plugin's outgoing packets, which can be used to monitor its
+   * state and the number of packets it rejected.
+   *
+   * @return The {@link CircuitBreaker} for this plugin, or {@link Optional#empty()} if this plugin is not configured
+   *     with {@link PluginSettings#circuitBreakerSettings()}.
+   */
+  public Optional<CircuitBreaker> getCircuitBreaker() {
+    return this.circuitBreaker;
+  }
+
+  private Optional<PacketTrace> startTrace(final Direction direction, final InterledgerPreparePacket preparePacket) {
+    return this.packetTracer.isPresent() ? this.packetTracer.get().start(direction, preparePacket) : Optional.empty();
+  }
+
+  /**
+   * Make {@code trace} available to {@link #dispatchPacket} while the packet is handed to the plugin implementation.
+   */
+  private PacketTrace[] setPendingTraces(final Optional<PacketTrace> trace) {
+    return trace.isPresent() ? this.packetTracer.get().setPending(new PacketTrace[] {trace.get()}) : null;
+  }
+
+  private void restorePendingTraces(final boolean traced, final PacketTrace[] previousTraces) {
+    if (traced) {
+      this.packetTracer.get().restorePending(previousTraces);
+    }
+  }
+
+  /**
+   * Acquire a permit from the circuit breaker, if configured, before any other admission check, so that no capacity is
+   * reserved for a packet that the open circuit would reject anyway. A permit that isn't then used to send a packet
+   * must be given back using {@link #releaseCircuit(long)}.
+   *
+   * @return A permit, or {@link CircuitBreaker#REJECTED} if the circuit is open.
+   */
+  private long acquireCircuit() {
+    return this.circuitBreaker.isPresent() ? this.circuitBreaker.get().tryAcquire() : 0;
+  }
+
+  private void releaseCircuit(final long circuitPermit) {
+    if (this.circuitBreaker.isPresent() && circuitPermit != CircuitBreaker.REJECTED) {
+      this.circuitBreaker.get().release(circuitPermit);
+    }
+  }
+
+  private InterledgerProtocolException circuitOpen() {
+    return this.reject(InterledgerErrorCode.T01_PEER_UNREACHABLE, "Circuit breaker is open");
+  }
+
+  /**
+   * Determine whether an outgoing packet may be sent to the peer and, if so, acquire everything the packet holds while
+   * it is in-flight. Every admitted packet must be passed to {@link #trackOutgoing}.
+   *
+   * @return {@link Optional#empty()} if the packet was admitted; otherwise, the rejection for the packet.
+   */
+  private Optional<InterledgerProtocolException> admitOutgoing(final InterledgerPreparePacket preparePacket) {
+    if (isExpired(preparePacket)) {
+      return Optional.of(this.expired());
+    }
+
+    final long amount = toLongAmount(preparePacket.getAmount());
+    if (this.balanceTracker.isPresent()) {
+      if (amount < 0) {
+        return Optional.of(this.reject(InterledgerErrorCode.F08_AMOUNT_TOO_LARGE, "Packet amount is too large"));
+      }
+      if (!this.balanceTracker.get().tryReserveOutgoing(amount)) {
+        return Optional.of(this.reject(InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY, "Exceeded minimum balance"));
+      }
+    }
+
+    if (this.sendPacketLimiter.isPresent() && !this.sendPacketLimiter.get().tryAcquire()) {
+      if (this.balanceTracker.isPresent()) {
+        this.balanceTracker.get().rollbackOutgoing(amount);
+      }
+      return Optional.of(this.reject(InterledgerErrorCode.T03_CONNECTOR_BUSY, "Too many packets in-flight"));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Track an admitted outgoing packet until {@code response} completes: reject the packet if it expires first, and
+   * then record its latency, report its outcome to the circuit breaker, release everything acquired by {@link
+   * #admitOutgoing} and, finally, emit its response to any handlers.
+   */
+  private CompletableFuture<InterledgerFulfillPacket> trackOutgoing(
+      final InterledgerPreparePacket preparePacket,
+      final long circuitPermit,
+      final long startNanos,
+      final Optional<PacketTrace> trace,
+      final CompletionStage<InterledgerFulfillPacket> response
+  ) {
+    final CompletableFuture<InterledgerFulfillPacket> peerResponse = response.toCompletableFuture();
+    if (!peerResponse.isDone()) {
+      this.scheduleExpiry(preparePacket, peerResponse);
+    }
+    final CompletableFuture<InterledgerFulfillPacket> future = this.verifyFulfillments
+        ? this.verifyFulfillment(preparePacket, peerResponse) : peerResponse;
+    final boolean observed = this.isObserved(PluginEventType.PACKET_FULFILLED)
+        || this.isObserved(PluginEventType.PACKET_REJECTED);
+    return future.whenComplete((fulfillPacket, error) -> {
+      final long elapsedNanos = System.nanoTime() - startNanos;
+      this.metrics.getSendPacket().recordCompletion(elapsedNanos, error != null);
+      if (trace.isPresent()) {
+        this.packetTracer.get().complete(trace.get(), error);
+      }
+      final boolean dropped = isDropped(error);
+      if (this.sendPacketLimiter.isPresent()) {
+        this.sendPacketLimiter.get().release(elapsedNanos, dropped);
+      }
+      if (this.circuitBreaker.isPresent()) {
+        this.circuitBreaker.get().onResult(circuitPermit, elapsedNanos, dropped);
+      }
+      if (this.balanceTracker.isPresent()) {
+        final long amount = toLongAmount(preparePacket.getAmount());
+        if (error == null) {
+          this.balanceTracker.get().commitOutgoing(amount);
+          if (this.settlementEngine.isPresent()) {
+            this.settlementEngine.get().onBalanceChanged();
+          }
+        } else {
+          this.balanceTracker.get().rollbackOutgoing(amount);
+        }
+      }
+      // Emitted last, so that the packet has released everything it held before any handler sees its response.
+      if (observed) {
+        this.emitOutgoingResponse(preparePacket, fulfillPacket, error);
+      }
+    });
+  }
+
+  /**
+   * A future that completes as {@code peerResponse} does, except that a fulfillment that doesn't match the execution
+   * condition of {@code preparePacket} is replaced by an {@code F05} rejection, as if the peer had rejected the packet.
+   */
+  private CompletableFuture<InterledgerFulfillPacket> verifyFulfillment(
+      final InterledgerPreparePacket preparePacket, final CompletableFuture<InterledgerFulfillPacket> peerResponse
+  ) {
+    final CompletableFuture<InterledgerFulfillPacket> verified = new CompletableFuture<>();
+    peerResponse.whenComplete((fulfillPacket, error) -> {
+      if (error != null) {
+        verified.completeExceptionally(error);
+      } else if (Fulfillments.isFulfilledBy(preparePacket.getExecutionCondition(), fulfillPacket.getFulfillment())) {
+        verified.complete(fulfillPacket);
+      } else {
+        verified.completeExceptionally(
+            this.reject(InterledgerErrorCode.F05_WRONG_CONDITION, "Fulfillment does not match the execution condition")
+        );
+      }
+    });
+    return verified;
+  }
+
+  /**
+   * Determine whether an incoming packet may be handled and, if so, acquire everything the packet holds while it is
+   * in-flight. Every admitted packet must be passed to {@link #trackIncoming}.
+   *
+   * @return {@link Optional#empty()} if the packet was admitted; otherwise, the rejection for the packet.
+   */
+  private Optional<InterledgerProtocolException> admitIncoming(final InterledgerPreparePacket preparePacket) {
+    if (isExpired(preparePacket)) {
+      return Optional.of(this.expired());
+    }
+
+    final long amount = toLongAmount(preparePacket.getAmount());
+    if (this.incomingRateLimiter.isPresent()) {
+      // A packet that no amount of waiting would admit gets a final error, so that its sender doesn't retry it.
+      if (!this.incomingRateLimiter.get().isAdmissible(amount)) {
+        return Optional.of(this.reject(InterledgerErrorCode.F08_AMOUNT_TOO_LARGE, "Packet amount is too large"));
+      }
+      // Checked before anything is reserved, so that a flood of packets costs nothing but the check itself.
+      if (!this.incomingRateLimiter.get().tryAcquire(amount)) {
+        return Optional.of(this.reject(InterledgerErrorCode.T05_RATE_LIMITED, "Exceeded the incoming rate limit"));
+      }
+    }
+
+    if (this.balanceTracker.isPresent()) {
+      if (amount < 0) {
+        return Optional.of(this.reject(InterledgerErrorCode.F08_AMOUNT_TOO_LARGE, "Packet amount is too large"));
+      }
+      if (!this.balanceTracker.get().tryReserveIncoming(amount)) {
+        return Optional.of(this.reject(InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY, "Exceeded maximum balance"));
+      }
+    }
+
+    if (this.incomingPacketLimiter.isPresent() && !this.incomingPacketLimiter.get().tryAcquire()) {
+      if (this.balanceTracker.isPresent()) {
+        this.balanceTracker.get().rollbackIncoming(amount);
+      }
+      return Optional.of(this.reject(InterledgerErrorCode.T03_CONNECTOR_BUSY, "Too many packets in-flight"));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Track an admitted incoming packet until {@code response} completes: reject the packet if it expires first, and
+   * then record its latency, release everything acquired by {@link #admitIncoming} and, finally, emit its response to
+   * any handlers.
+   */
+  private CompletableFuture<InterledgerFulfillPacket> trackIncoming(
+      final InterledgerPreparePacket preparePacket,
+      final long startNanos,
+      final Optional<PacketTrace> trace,
+      final CompletionStage<InterledgerFulfillPacket> response
+  ) {
+    final CompletableFuture<InterledgerFulfillPacket> future = response.toCompletableFuture();
+    if (!future.isDone()) {
+      this.scheduleExpiry(preparePacket, future);
+    }
+    final boolean observed = this.isObserved(PluginEventType.INCOMING_PACKET_HANDLED);
+    return future.whenComplete((fulfillPacket, error) -> {
+      final long elapsedNanos = System.nanoTime() - startNanos;
+      this.metrics.getHandleIncomingPacket().recordCompletion(elapsedNanos, error != null);
+      if (trace.isPresent()) {
+        this.packetTracer.get().complete(trace.get(), error);
+      }
+      if (this.incomingPacketLimiter.isPresent()) {
+        this.incomingPacketLimiter.get().release(elapsedNanos, isDropped(error));
+      }
+      if (this.balanceTracker.isPresent()) {
+        final long amount = toLongAmount(preparePacket.getAmount());
+        if (error == null) {
+          this.balanceTracker.get().commitIncoming(amount);
+        } else {
+          this.balanceTracker.get().rollbackIncoming(amount);
+        }
+      }
+      if (observed) {
+        this.emitIncomingResponse(preparePacket, fulfillPacket, error);
+      }
+    });
+  }
+
+  /**
+   * Convert an ILP amount to a {@code long}, without allocating.
+   *
+   * @return The amount, or {@code -1} if it is too large to be represented as a {@code long}.
+   */
+  private static long toLongAmount(final BigInteger amount) {
+    return amount.bitLength() < Long.SIZE ? amount.longValue() : -1;
+  }
+
+  private void scheduleExpiry(
+      final InterledgerPreparePacket preparePacket, final CompletableFuture<InterledgerFulfillPacket> future
+  ) {
+    final HashedWheelTimer.Timeout timeout = this.expiryTimer.schedule(
+        () -> this.expire(preparePacket, future), millisUntil(preparePacket.getExpiresAt()), TimeUnit.MILLISECONDS
+    );
+    future.whenComplete((fulfillPacket, error) -> timeout.cancel());
+  }
+
+  /**
+   * Called on the timer thread when an in-flight packet expires. The packet's future is completed on the data executor
+   * so that callbacks attached to it never run on (and delay) the timer thread shared by all plugins.
+   */
+  private void expire(
+      final InterledgerPreparePacket preparePacket, final CompletableFuture<InterledgerFulfillPacket> future
+  ) {
+    final Runnable expiry = () -> {
+      if (future.completeExceptionally(new PacketExpiredException(this.expired().getInterledgerRejectPacket()))) {
+        this.onPacketExpired(preparePacket);
+        this.emitPacketExpired(preparePacket);
+      }
+    };
+    this.executeOffTimer(expiry);
+  }
+
+  /**
+   * Run {@code task}, which completes a packet's future, on the data executor rather than the timer thread shared by
+   * all plugins, or on the calling thread if the data executor is shutting down.
+   */
+  private void executeOffTimer(final Runnable task) {
+    try {
+      this.dataExecutor.execute(task);
+    } catch (RejectedExecutionException e) {
+      task.run();
+    }
+  }
+
+  /**
+   * Called after an in-flight packet (either outgoing or incoming) expired before a response was available, and its
+   * future was rejected with {@code R00}. Implementations that hold transport-level resources for each in-flight packet
+   * (e.g., a pending request correlation) should override this method to release them. The {@link CompletionStage}
+   * returned by {@link #doSendPacketAsync(InterledgerPreparePacket)}, if it was a {@link CompletableFuture}, has also
+   * been completed exceptionally by the time this method is called.
+   *
+   * @param preparePacket The {@link InterledgerPreparePacket} that expired.
+   */
+  protected void onPacketExpired(final InterledgerPreparePacket preparePacket) {
+    // No-op by default.
+  }
+
+  private InterledgerProtocolException expired() {
+    return this.reject(InterledgerErrorCode.R00_TRANSFER_TIMED_OUT, "Packet expired");
+  }
+
+  /**
+   * Whether {@code error} is the rejection of a packet that expired while in-flight, which has already been reported by
+   * a {@link PacketExpiredEvent}.
+   */
+  private static boolean isExpiredInFlight(final Throwable error) {
+    return error instanceof PacketExpiredException
+        || error instanceof CompletionException && error.getCause() instanceof PacketExpiredException;
+  }
+
+  private static boolean isExpired(final InterledgerPreparePacket preparePacket) {
+    return !preparePacket.getExpiresAt().isAfter(Instant.now());
+  }
+
+  private static long millisUntil(final Instant instant) {
+    try {
+      return instant.toEpochMilli() - System.currentTimeMillis();
+    } catch (ArithmeticException e) {
+      // Too far in the future to be represented, so effectively never.
+      return Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * A packet is considered dropped if it didn't produce a response that says something about the peer's capacity,
+   * i.e., it timed out, failed, or was rejected with anything other than a final error.
+   */
+  private static boolean isDropped(final Throwable error) {
+    if (error == null) {
+      return false;
+    }
+    final Throwable cause = error instanceof CompletionException && error.getCause() != null
+        ? error.getCause() : error;
+    return !(cause instanceof InterledgerProtocolException)
+        || ((InterledgerProtocolException) cause).getInterledgerRejectPacket().getCode().getErrorFamily()
+        != InterledgerErrorCode.ErrorFamily.FINAL;
+  }
+
+  /**
+   * Run packet-related work on the data executor, recording how long it waited for, and ran on, an executor thread
+   * (and, if {@code preparePacket} is being traced, when it started and responded). If the executor refuses the work
+   * (e.g., because its queue is full), the returned future is completed with a {@code T03} rejection instead of
+   * waiting for capacity.
+   */
+  private CompletableFuture<InterledgerFulfillPacket> dispatchPacket(
+      final OperationMetrics operationMetrics,
+      final InterledgerPreparePacket preparePacket,
+      final Callable<InterledgerFulfillPacket> work
+  ) {
+    final PacketTrace trace = this.packetTracer.isPresent() ? this.packetTracer.get().getPending(preparePacket) : null;
+    final long submitNanos = System.nanoTime();
+    try {
+      // Handles checked and unchecked exceptions properly.
+      return Completions.supplyAsync(() -> {
+        final long startNanos = System.nanoTime();
+        operationMetrics.recordQueueWait(startNanos - submitNanos);
+        if (trace != null) {
+          trace.markExecutionStart();
+        }
+        try {
+          return work.call();
+        } finally {
+          operationMetrics.recordExecution(System.nanoTime() - startNanos);
+          if (trace != null) {
+            trace.markResponse();
+          }
+        }
+      }, this.dataExecutor).toCompletableFuture();
+    } catch (RejectedExecutionException e) {
+      return Completions.failedFuture(this.reject(InterledgerErrorCode.T03_CONNECTOR_BUSY, "Plugin is busy"));
+    }
+  }
+
+  /**
+   * Run settlement-related work on the money executor, recording how long it waited for, and ran on, an executor
+   * thread. If the executor refuses the work, the returned future is completed with the {@link
+   * RejectedExecutionException}.
+   */
+  private CompletableFuture<Void> dispatchSettlement(final OperationMetrics operationMetrics, final Runnable work) {
+    final long submitNanos = System.nanoTime();
+    try {
+      // Handles checked and unchecked exceptions properly.
+      return Completions.supplyAsync(() -> {
+        final long startNanos = System.nanoTime();
+        operationMetrics.recordQueueWait(startNanos - submitNanos);
+        try {
+          work.run();
+        } finally {
+          operationMetrics.recordExecution(System.nanoTime() - startNanos);
+        }
+      }, this.moneyExecutor).toCompletableFuture();
+    } catch (RejectedExecutionException e) {
+      return Completions.failedFuture(e);
+    }
+  }
+
+  private static <V> CompletableFuture<V> recordCompletion(
+      final OperationMetrics operationMetrics, final long startNanos, final CompletableFuture<V> future
+  ) {
+    return future.whenComplete(
+        (value, error) -> operationMetrics.recordCompletion(System.nanoTime() - startNanos, error != null)
+    );
+  }
+
+  /**
+   * Whether any handler registered with this plugin subscribes to {@code eventType}. Events of types nobody subscribes
+   * to are never constructed.
+   */
+  private boolean isObserved(final PluginEventType eventType) {
+    return this.ledgerEventHandlers.snapshot().hasHandlers(eventType);
+  }
+
+  /**
+   * Emit the {@link PacketSentEvent} for an admitted packet. Called while the packet holds everything acquired by
+   * {@link #admitOutgoing}, so a failure to emit is logged rather than thrown; the same applies to every other
+   * per-packet event.
+   */
+  private void emitPacketSent(final InterledgerPreparePacket preparePacket) {
+    if (this.isObserved(PluginEventType.PACKET_SENT)) {
+      try {
+        this.pluginEventEmitter.emitEvent(ImmutablePacketSentEvent.builder()
+            .peerAccount(this.pluginSettings.peerAccount())
+            .preparePacket(preparePacket)
+            .build());
+      } catch (RuntimeException e) {
+        this.onEmitFailed(e);
+      }
+    }
+  }
+
+  private void emitOutgoingResponse(
+      final InterledgerPreparePacket preparePacket, final InterledgerFulfillPacket fulfillPacket, final Throwable error
+  ) {
+    try {
+      if (error == null) {
+        if (this.isObserved(PluginEventType.PACKET_FULFILLED)) {
+          this.pluginEventEmitter.emitEvent(ImmutablePacketFulfilledEvent.builder()
+              .peerAccount(this.pluginSettings.peerAccount())
+              .preparePacket(preparePacket)
+              .fulfillPacket(fulfillPacket)
+              .build());
+        }
+      } else if (this.isObserved(PluginEventType.PACKET_REJECTED) && !isExpiredInFlight(error)) {
+        this.pluginEventEmitter.emitEvent(ImmutablePacketRejectedEvent.builder()
+            .peerAccount(this.pluginSettings.peerAccount())
+            .preparePacket(preparePacket)
+            .rejectPacket(this.toRejectPacket(error))
+            .build());
+      }
+    } catch (RuntimeException e) {
+      this.onEmitFailed(e);
+    }
+  }
+
+  private void emitIncomingResponse(
+      final InterledgerPreparePacket preparePacket, final InterledgerFulfillPacket fulfillPacket, final Throwable error
+  ) {
+    try {
+      final ImmutableIncomingPacketHandledEvent.Builder event = ImmutableIncomingPacketHandledEvent.builder()
+          .peerAccount(this.pluginSettings.peerAccount())
+          .preparePacket(preparePacket);
+      if (error == null) {
+        event.fulfillPacket(fulfillPacket);
+      } else {
+        event.rejectPacket(this.toRejectPacket(error));
+      }
+      this.pluginEventEmitter.emitEvent(event.build());
+    } catch (RuntimeException e) {
+      this.onEmitFailed(e);
+    }
+  }
+
+  private void emitPacketExpired(final InterledgerPreparePacket preparePacket) {
+    if (this.isObserved(PluginEventType.PACKET_EXPIRED)) {
+      try {
+        this.pluginEventEmitter.emitEvent(ImmutablePacketExpiredEvent.builder()
+            .peerAccount(this.pluginSettings.peerAccount())
+            .preparePacket(preparePacket)
+            .build());
+      } catch (RuntimeException e) {
+        this.onEmitFailed(e);
+      }
+    }
+  }
+
+  private void onEmitFailed(final RuntimeException e) {
+    logger.error("[{}] `{}` failed to emit an event for `{}`: {}", this.pluginSettings.pluginTypeId(),
+        this.pluginSettings.localNodeAddress(), this.pluginSettings.peerAccount(), e.getMessage(), e);
+  }
+
+  private void onCircuitBreakerStateChanged(
+      final CircuitBreakerState previousState, final CircuitBreakerState state
+  ) {
+    logger.warn("[{}] `{}` circuit breaker to `{}` changed from {} to {}", this.pluginSettings.pluginTypeId(),
+        this.pluginSettings.localNodeAddress(), this.pluginSettings.peerAccount(), previousState, state);
+    if (this.isObserved(PluginEventType.CIRCUIT_BREAKER_STATE_CHANGED)) {
+      // Called by the circuit breaker while it changes state, which a failing handler must not interrupt.
+      try {
+        this.pluginEventEmitter.emitEvent(ImmutableCircuitBreakerStateChangedEvent.builder()
+            .peerAccount(this.pluginSettings.peerAccount())
+            .previousState(previousState)
+            .state(state)
+            .build());
+      } catch (RuntimeException e) {
+        this.onEmitFailed(e);
+      }
+    }
+  }
+
+  private void emitSettlementCompleted(final BigInteger amount) {
+    if (this.isObserved(PluginEventType.SETTLEMENT_COMPLETED)) {
+      try {
+        this.pluginEventEmitter.emitEvent(ImmutableSettlementCompletedEvent.builder()
+            .peerAccount(this.pluginSettings.peerAccount())
+            .amount(amount)
+            .build());
+      } catch (RuntimeException e) {
+        this.onEmitFailed(e);
+      }
+    }
+  }
+
+  /**
+   * The {@link InterledgerRejectPacket} that describes {@code error}. Errors other than an {@link
+   * InterledgerProtocolException} are described as a {@code T00} rejection by this node.
+   */
+  private InterledgerRejectPacket toRejectPacket(final Throwable error) {
+    final Throwable cause = error instanceof CompletionException && error.getCause() != null
+        ? error.getCause() : error;
+    if (cause instanceof InterledgerProtocolException) {
+      return ((InterledgerProtocolException) cause).getInterledgerRejectPacket();
+    }
+    return this.reject(InterledgerErrorCode.T00_INTERNAL_ERROR, String.valueOf(cause.getMessage()))
+        .getInterledgerRejectPacket();
+  }
+
+  /**
+   * Construct an {@link InterledgerProtocolException} for a packet that this node rejects before (or instead of)
+   * sending it to the remote peer.
+   *
+   * @param errorCode The {@link InterledgerErrorCode} of the rejection.
+   * @param message   A human-readable description of the rejection.
+   */
+  protected InterledgerProtocolException reject(final InterledgerErrorCode errorCode, final String message) {
+    return new InterledgerProtocolException(
+        InterledgerRejectPacket.builder()
+            .code(errorCode)
+            .triggeredBy(this.pluginSettings.localNodeAddress())
+            .message(message)
+            .data(new byte[0])
+            .build()
+    );
+  }
+
+  /**
+   * The {@code R00} rejection of a packet that expired while in-flight, distinguished from any other {@code R00} so
+   * that the expiry is reported once, by a {@link PacketExpiredEvent}, rather than also by a {@link
+   * PacketRejectedEvent}.
+   */
+  private static final class PacketExpiredException extends InterledgerProtocolException {
+
+    private PacketExpiredException(final InterledgerRejectPacket rejectPacket) {
+      super(rejectPacket);
+    }
+  }
+
+  /**
+   * An immutable pairing of a {@link ConnectionState} with the future of the transition that led to it, which is
+   * replaced atomically so that the state and its future are always seen together.
+   */
+  private static final class Lifecycle {
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+    private static final Lifecycle INITIAL = new Lifecycle(ConnectionState.DISCONNECTED, COMPLETED);
+
+    private final ConnectionState state;
+    private final CompletableFuture<Void> transition;
+
+    private Lifecycle(final ConnectionState state, final CompletableFuture<Void> transition) {
+      this.state = state;
+      this.transition = transition;
+    }
+  }
+
   /**
    * An example {@link PluginEventEmitter} that allows events to be synchronously emitted into a {@link Plugin}.
    */
   public static class SyncPluginEventEmitter implements PluginEventEmitter {
 
-    private final Map<UUID, PluginEventHandler> ledgerEventHandlers;
+    private static final Logger logger = LoggerFactory.getLogger(SyncPluginEventEmitter.class);
 
-    public SyncPluginEventEmitter(final Map<UUID, PluginEventHandler> ledgerEventHandlers) {
+    private final PluginEventHandlers ledgerEventHandlers;
+    private final Map<UUID, PluginEventHandler> legacyEventHandlers;
+
+    public SyncPluginEventEmitter(final PluginEventHandlers ledgerEventHandlers) {
       this.ledgerEventHandlers = Objects.requireNonNull(ledgerEventHandlers);
+      this.legacyEventHandlers = null;
+    }
+
+    /**
+     * Required-args Constructor that emits events to a live view of {@code ledgerEventHandlers}.
+     *
+     * @param ledgerEventHandlers A {@link Map} of handlers, keyed by id, that may change after construction.
+     *
+     * @deprecated Use {@link #SyncPluginEventEmitter(PluginEventHandlers)}, which doesn't copy the handlers on every
+     *     emitted event.
+     */
+    @Deprecated
+    public SyncPluginEventEmitter(final Map<UUID, PluginEventHandler> ledgerEventHandlers) {
+      this.ledgerEventHandlers = null;
+      this.legacyEventHandlers = Objects.requireNonNull(ledgerEventHandlers);
+    }
+
+    private PluginEventHandlers.Snapshot snapshot() {
+      if (this.legacyEventHandlers == null) {
+        return this.ledgerEventHandlers.snapshot();
+      }
+      final PluginEventHandlers handlers = new PluginEventHandlers();
+      this.legacyEventHandlers.values().forEach(handlers::add);
+      return handlers.snapshot();
     }
 
     /////////////////
     // Event Emitters
     /////////////////
 
+    // Each method iterates a snapshot of the handlers that subscribe to the event's type by index, so that emitting an
+    // event doesn't allocate (the callbacks are non-capturing method references).
+
     @Override
     public void emitEvent(final PluginConnectedEvent event) {
-      this.ledgerEventHandlers.values().stream().forEach(handler -> handler.onConnect(event));
+      this.deliver(PluginEventType.CONNECTED, event, PluginEventHandler::onConnect);
     }
 
     @Override
     public void emitEvent(final PluginDisconnectedEvent event) {
-      this.ledgerEventHandlers.values().stream().forEach(handler -> handler.onDisconnect(event));
+      this.deliver(PluginEventType.DISCONNECTED, event, PluginEventHandler::onDisconnect);
     }
 
     @Override
     public void emitEvent(final PluginErrorEvent event) {
-      this.ledgerEventHandlers.values().stream().forEach(handler -> handler.onError(event));
+      this.deliver(PluginEventType.ERROR, event, PluginEventHandler::onError);
+    }
+
+    @Override
+    public void emitEvent(final PacketSentEvent event) {
+      this.deliver(PluginEventType.PACKET_SENT, event, PluginEventHandler::onPacketSent);
+    }
+
+    @Override
+    public void emitEvent(final PacketFulfilledEvent event) {
+      this.deliver(PluginEventType.PACKET_FULFILLED, event, PluginEventHandler::onPacketFulfilled);
+    }
+
+    @Override
+    public void emitEvent(final PacketRejectedEvent event) {
+      this.deliver(PluginEventType.PACKET_REJECTED, event, PluginEventHandler::onPacketRejected);
+    }
+
+    @Override
+    public void emitEvent(final PacketExpiredEvent event) {
+      this.deliver(PluginEventType.PACKET_EXPIRED, event, PluginEventHandler::onPacketExpired);
+    }
+
+    @Override
+    public void emitEvent(final IncomingPacketHandledEvent event) {
+      this.deliver(PluginEventType.INCOMING_PACKET_HANDLED, event, PluginEventHandler::onIncomingPacketHandled);
+    }
+
+    @Override
+    public void emitEvent(final SettlementCompletedEvent event) {
+      this.deliver(PluginEventType.SETTLEMENT_COMPLETED, event, PluginEventHandler::onSettlementCompleted);
+    }
+
+    @Override
+    public void emitEvent(final CircuitBreakerStateChangedEvent event) {
+      this.deliver(
+          PluginEventType.CIRCUIT_BREAKER_STATE_CHANGED, event, PluginEventHandler::onCircuitBreakerStateChanged
+      );
+    }
+
+    /**
+     * Deliver {@code event} to every handler that subscribes to {@code eventType}. A handler that throws is logged and
+     * skipped, so that it can neither prevent the other handlers from seeing the event nor fail the operation that
+     * emitted it.
+     */
+    private <E> void deliver(
+        final PluginEventType eventType, final E event, final BiConsumer<PluginEventHandler, E> callback
+    ) {
+      final PluginEventHandlers.Snapshot handlers = snapshot();
+      for (int i = 0; i < handlers.size(eventType); i++) {
+        final PluginEventHandler handler = handlers.handler(eventType, i);
+        try {
+          callback.accept(handler, event);
+        } catch (RuntimeException e) {
+          logger.error("Handler {} failed to handle {}", handler, event, e);
+        }
+      }
     }
   }
 }
@@ -0,0 +1,33 @@
+package org.interledger.plugin.lpiv2;
+
+/**
+ * The states of a {@link Plugin}'s connection to its remote peer.
+ *
+ * <pre>
+ * DISCONNECTED --connect--> CONNECTING --success--> CONNECTED --disconnect--> DISCONNECTING --> DISCONNECTED
+ *                                |
+ *                                `--failure--> DISCONNECTED
+ * </pre>
+ */
+public enum ConnectionState {
+
+  /**
+   * The plugin is not connected, and is not connecting.
+   */
+  DISCONNECTED,
+
+  /**
+   * The plugin is performing its handshake with the peer.
+   */
+  CONNECTING,
+
+  /**
+   * The plugin has completed its handshake with the peer.
+   */
+  CONNECTED,
+
+  /**
+   * The plugin is tearing down its connection to the peer.
+   */
+  DISCONNECTING
+}
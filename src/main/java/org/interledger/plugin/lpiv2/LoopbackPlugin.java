@@ -0,0 +1,209 @@
+package org.interledger.plugin.lpiv2;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerProtocolException;
+import org.interledger.plugin.lpiv2.exceptions.PluginNotConnectedException;
+import org.interledger.plugin.lpiv2.support.Completions;
+
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>An implementation of {@link Plugin} that peers with another {@link LoopbackPlugin} in the same JVM, so that two
+ * ILP nodes (or a connector and a test harness) can be connected without any transport.</p>
+ *
+ * <p>Packets sent using {@link #sendPacket(InterledgerPreparePacket)} are delivered, as the same objects and without
+ * being serialized, to {@link #handleIncomingPacket(InterledgerPreparePacket)} of the linked plugin, which answers them
+ * using its {@link IncomingPacketHandler}. Likewise, {@link #settle(BigInteger)} is handled by the linked plugin as
+ * if by {@link #handleIncomingSettle(BigInteger)}, but on the settling thread. Both plugins still apply their own
+ * limits, balances, metrics and events, so the pair behaves like any other pair of peered plugins.</p>
+ *
+ * <p>Plugins constructed using {@link #sameThread(PluginSettings)} do all of their work on the calling thread, so a
+ * packet is sent, handled and answered without a single thread hand-off. This is the cheapest way to exercise
+ * connector logic, but a handler that blocks will block the sender too.</p>
+ */
+public class LoopbackPlugin extends AbstractPlugin<PluginSettings> implements Plugin<PluginSettings> {
+
+  private static final Executor SAME_THREAD = Runnable::run;
+
+  private final boolean sameThread;
+
+  private volatile LoopbackPlugin peer;
+  private volatile IncomingPacketHandler incomingPacketHandler = this::rejectUnhandled;
+
+  /**
+   * Required-args Constructor which performs all work on {@link ForkJoinPool#commonPool()}.
+   *
+   * @param pluginSettings A {@link PluginSettings} that specified ledger plugin options.
+   */
+  public LoopbackPlugin(final PluginSettings pluginSettings) {
+    this(pluginSettings, ForkJoinPool.commonPool(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param pluginSettings A {@link PluginSettings} that specified ledger plugin options.
+   * @param dataExecutor   An {@link Executor} used to send and handle ILP packets.
+   * @param moneyExecutor  An {@link Executor} used to send and handle settlements.
+   */
+  public LoopbackPlugin(
+      final PluginSettings pluginSettings, final Executor dataExecutor, final Executor moneyExecutor
+  ) {
+    this(pluginSettings, dataExecutor, moneyExecutor, false);
+  }
+
+  private LoopbackPlugin(
+      final PluginSettings pluginSettings, final Executor dataExecutor, final Executor moneyExecutor,
+      final boolean sameThread
+  ) {
+    super(pluginSettings, dataExecutor, moneyExecutor);
+    this.sameThread = sameThread;
+  }
+
+  /**
+   * Construct a plugin that sends, handles and settles on the calling thread.
+   *
+   * @param pluginSettings A {@link PluginSettings} that specified ledger plugin options.
+   */
+  public static LoopbackPlugin sameThread(final PluginSettings pluginSettings) {
+    return new LoopbackPlugin(pluginSettings, SAME_THREAD, SAME_THREAD, true);
+  }
+
+  /**
+   * Link {@code first} and {@code second} to each other, so that whatever one sends the other handles. Each plugin
+   * must still be connected before it can send.
+   *
+   * @param first  A {@link LoopbackPlugin}.
+   * @param second Another {@link LoopbackPlugin}.
+   */
+  public static void link(final LoopbackPlugin first, final LoopbackPlugin second) {
+    Objects.requireNonNull(first);
+    Objects.requireNonNull(second);
+    if (first == second) {
+      throw new IllegalArgumentException("A LoopbackPlugin cannot be linked to itself");
+    }
+    first.peer = second;
+    second.peer = first;
+  }
+
+  /**
+   * Set the handler that answers packets sent by the linked plugin. Until a handler is set, every packet is rejected.
+   *
+   * @param incomingPacketHandler An {@link IncomingPacketHandler}.
+   */
+  public void setIncomingPacketHandler(final IncomingPacketHandler incomingPacketHandler) {
+    this.incomingPacketHandler = Objects.requireNonNull(incomingPacketHandler);
+  }
+
+  @Override
+  public void doConnect() {
+    if (this.peer == null) {
+      throw new IllegalStateException("LoopbackPlugin must be linked to a peer before connecting");
+    }
+  }
+
+  @Override
+  public void doDisconnect() {
+    // No-op
+  }
+
+  /**
+   * Deliver {@code preparePacket} directly to the linked plugin, which handles it on its own executor (or, in
+   * same-thread mode, on this thread).
+   */
+  @Override
+  protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(final InterledgerPreparePacket preparePacket) {
+    return this.connectedPeer().handleIncomingPacket(preparePacket);
+  }
+
+  /**
+   * Deliver {@code preparePacket} to the linked plugin, blocking until it has been handled there. Only called by
+   * subclasses, since {@link #doSendPacketAsync(InterledgerPreparePacket)} doesn't delegate to it.
+   */
+  @Override
+  public InterledgerFulfillPacket doSendPacket(final InterledgerPreparePacket preparePacket)
+      throws InterledgerProtocolException {
+    try {
+      return this.connectedPeer().handleIncomingPacket(preparePacket).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  protected CompletionStage<InterledgerFulfillPacket> doHandleIncomingPacketAsync(
+      final InterledgerPreparePacket preparePacket
+  ) {
+    if (!this.sameThread) {
+      return super.doHandleIncomingPacketAsync(preparePacket);
+    }
+    try {
+      return CompletableFuture.completedFuture(this.doHandleIncomingPacket(preparePacket));
+    } catch (InterledgerProtocolException e) {
+      return Completions.failedFuture(e);
+    }
+  }
+
+  @Override
+  public InterledgerFulfillPacket doHandleIncomingPacket(final InterledgerPreparePacket preparePacket)
+      throws InterledgerProtocolException {
+    return this.incomingPacketHandler.handle(preparePacket);
+  }
+
+  /**
+   * Deliver {@code amount} to the linked plugin, which handles it on this thread. Waiting for the linked plugin's money
+   * executor instead would deadlock if both plugins share a single-threaded one.
+   */
+  @Override
+  protected void doSettle(final BigInteger amount) {
+    this.connectedPeer().handleIncomingSettleOnCallingThread(amount);
+  }
+
+  @Override
+  protected void doHandleIncomingSettle(final BigInteger amount) {
+    // No-op: the balance, if tracked, is updated by AbstractPlugin.
+  }
+
+  private LoopbackPlugin connectedPeer() {
+    final LoopbackPlugin currentPeer = this.peer;
+    if (currentPeer == null || !currentPeer.isConnected()) {
+      throw new PluginNotConnectedException(
+          "Linked LoopbackPlugin is not connected", getPluginSettings().peerAccount()
+      );
+    }
+    return currentPeer;
+  }
+
+  private InterledgerFulfillPacket rejectUnhandled(final InterledgerPreparePacket preparePacket) {
+    throw this.reject(InterledgerErrorCode.F02_UNREACHABLE, "No handler is set for incoming packets");
+  }
+
+  /**
+   * Answers the packets that a {@link LoopbackPlugin} receives from its linked plugin.
+   */
+  @FunctionalInterface
+  public interface IncomingPacketHandler {
+
+    /**
+     * Handle a packet sent by the linked plugin.
+     *
+     * @param preparePacket The ILP packet sent from the linked plugin.
+     *
+     * @return The fulfillment of {@code preparePacket}.
+     *
+     * @throws InterledgerProtocolException if the packet is rejected.
+     */
+    InterledgerFulfillPacket handle(InterledgerPreparePacket preparePacket) throws InterledgerProtocolException;
+  }
+}
@@ -4,8 +4,13 @@ import org.interledger.core.InterledgerFulfillPacket;
 import org.interledger.core.InterledgerPreparePacket;
 import org.interledger.core.InterledgerProtocolException;
 import org.interledger.plugin.lpiv2.events.PluginEventHandler;
+import org.interledger.plugin.lpiv2.metrics.PluginMetrics;
+import org.interledger.plugin.lpiv2.support.Completions;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,6 +48,33 @@ public interface Plugin<T extends PluginSettings> {
    */
   void disconnect();
 
+  /**
+   * <p>Connect to the remote peer without blocking the calling thread.</p>
+   *
+   * <p>By default, this method simply runs {@link #connect()} on {@link
+   * java.util.concurrent.ForkJoinPool#commonPool()}, which ties up a thread of that shared pool for the whole
+   * handshake, and makes no guarantee about concurrent calls. Implementations should override it; {@link
+   * AbstractPlugin} does so without blocking any thread, and with concurrent calls sharing a single connection
+   * attempt.</p>
+   *
+   * @return A {@link CompletableFuture} that completes once the plugin is connected, or exceptionally if it failed to
+   *     connect.
+   */
+  default CompletableFuture<Void> connectAsync() {
+    return CompletableFuture.runAsync(this::connect);
+  }
+
+  /**
+   * Disconnect from the remote peer without blocking the calling thread. By default, this method simply runs {@link
+   * #disconnect()} on {@link java.util.concurrent.ForkJoinPool#commonPool()}; implementations should override it, as
+   * {@link AbstractPlugin} does.
+   *
+   * @return A {@link CompletableFuture} that completes once the plugin is disconnected.
+   */
+  default CompletableFuture<Void> disconnectAsync() {
+    return CompletableFuture.runAsync(this::disconnect);
+  }
+
   /**
    * Determines if a plugin is connected or not.
    *
@@ -50,6 +82,15 @@ public interface Plugin<T extends PluginSettings> {
    */
   boolean isConnected();
 
+  /**
+   * The state of this plugin's connection to the remote peer.
+   *
+   * @return The current {@link ConnectionState}.
+   */
+  default ConnectionState getConnectionState() {
+    return isConnected() ? ConnectionState.CONNECTED : ConnectionState.DISCONNECTED;
+  }
+
   /**
    * Sends an ILP request packet to the peer and returns the response packet (this method correlates with
    * <tt>sendData</tt> in the Javascript connector).
@@ -63,6 +104,31 @@ public interface Plugin<T extends PluginSettings> {
   CompletableFuture<InterledgerFulfillPacket> sendPacket(InterledgerPreparePacket preparePacket)
       throws InterledgerProtocolException;
 
+  /**
+   * Sends a batch of ILP request packets to the peer. Each packet is fulfilled or rejected independently, exactly as if
+   * it had been sent using {@link #sendPacket(InterledgerPreparePacket)}, but implementations may amortize dispatch and
+   * I/O costs across the whole batch.
+   *
+   * @param preparePackets The ILP packets to send to the peer.
+   *
+   * @return A {@link List} of {@link CompletableFuture}, in the same order as {@code preparePackets}, each of which
+   *     resolves to the ILP response from the peer for the corresponding packet. A packet that could not be sent at all
+   *     is represented by a future that has already failed.
+   */
+  default List<CompletableFuture<InterledgerFulfillPacket>> sendPackets(List<InterledgerPreparePacket> preparePackets) {
+    Objects.requireNonNull(preparePackets);
+    final List<CompletableFuture<InterledgerFulfillPacket>> responses = new ArrayList<>(preparePackets.size());
+    for (final InterledgerPreparePacket preparePacket : preparePackets) {
+      // The packets before this one have already been sent, so a failure to send it must not lose their responses.
+      try {
+        responses.add(this.sendPacket(preparePacket));
+      } catch (RuntimeException e) {
+        responses.add(Completions.failedFuture(e));
+      }
+    }
+    return responses;
+  }
+
   /**
    * Handle an incoming Interledger data packets. If an error occurs, this method MAY throw an exception. In general,
    * the callback should behave as sendData does.
@@ -111,6 +177,17 @@ public interface Plugin<T extends PluginSettings> {
    */
   void removePluginEventHandler(UUID eventHandlerId);
 
+  /**
+   * Accessor for the latency histograms and throughput counters recorded by this plugin. Plugins that record metrics
+   * (e.g., every {@link AbstractPlugin}) override this method; by default, nothing is recorded, so the returned metrics
+   * are always empty.
+   *
+   * @return The {@link PluginMetrics} of this plugin.
+   */
+  default PluginMetrics getMetrics() {
+    return new PluginMetrics();
+  }
+
   /**
    * Accessor the emitter so that external actors can emit events to this plugin.
    */
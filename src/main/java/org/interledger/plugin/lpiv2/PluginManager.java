@@ -0,0 +1,273 @@
+package org.interledger.plugin.lpiv2;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.plugin.lpiv2.exceptions.PluginException;
+import org.interledger.plugin.lpiv2.exceptions.PluginNotFoundException;
+import org.interledger.plugin.lpiv2.support.Completions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * <p>A registry of {@link Plugin}s, keyed by the {@link PluginSettings#peerAccount()} of each plugin, that owns the
+ * lifecycle of every plugin registered with it.</p>
+ *
+ * <p>Plugins are held in a {@link ConcurrentHashMap}, so looking up the plugin for an account (which typically happens
+ * for every packet) neither locks nor contends with plugins being registered or unregistered, and iterating over
+ * {@link #getPlugins()} never blocks. Connecting and disconnecting every plugin is performed using {@link
+ * Plugin#connectAsync()} and {@link Plugin#disconnectAsync()}, with a bounded number of plugins in progress at once, so
+ * that a node with many thousands of accounts doesn't start (or stop) one account at a time, nor flood its peers with
+ * handshakes.</p>
+ */
+public class PluginManager {
+
+  /**
+   * The default number of plugins that may be connecting (or disconnecting) at once.
+   */
+  public static final int DEFAULT_LIFECYCLE_PARALLELISM = 64;
+
+  private static final Logger logger = LoggerFactory.getLogger(PluginManager.class);
+
+  private final ConcurrentMap<InterledgerAddress, Plugin<?>> plugins;
+  private final Collection<Plugin<?>> pluginsView;
+
+  /**
+   * No-args Constructor.
+   */
+  public PluginManager() {
+    this(16);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param expectedPlugins The number of plugins this manager is expected to hold, used to size its map.
+   */
+  public PluginManager(final int expectedPlugins) {
+    this.plugins = new ConcurrentHashMap<>(expectedPlugins);
+    this.pluginsView = Collections.unmodifiableCollection(this.plugins.values());
+  }
+
+  /**
+   * Register {@code plugin} under its {@link PluginSettings#peerAccount()}. The plugin is not connected.
+   *
+   * @param plugin The {@link Plugin} to register.
+   *
+   * @throws PluginException if a plugin is already registered for the same peer account.
+   */
+  public void register(final Plugin<?> plugin) {
+    Objects.requireNonNull(plugin);
+    final InterledgerAddress peerAccount = plugin.getPluginSettings().peerAccount();
+    if (this.plugins.putIfAbsent(peerAccount, plugin) != null) {
+      throw new PluginException("A plugin is already registered for this account", peerAccount);
+    }
+  }
+
+  /**
+   * Unregister the plugin for {@code peerAccount}, disconnecting it if it is connected. The plugin is unregistered even
+   * if it fails to disconnect, in which case the failure is logged.
+   *
+   * @param peerAccount The {@link InterledgerAddress} of a peer account.
+   *
+   * @return The plugin that was unregistered, or {@link Optional#empty()} if no plugin is registered for {@code
+   *     peerAccount}.
+   */
+  public Optional<Plugin<?>> unregister(final InterledgerAddress peerAccount) {
+    Objects.requireNonNull(peerAccount);
+    final Plugin<?> plugin = this.plugins.remove(peerAccount);
+    if (plugin != null && plugin.isConnected()) {
+      try {
+        plugin.disconnect();
+      } catch (RuntimeException e) {
+        // The plugin is no longer registered, so the caller must still be handed it, or nothing could retry.
+        logger.error("Plugin for `{}` failed to disconnect: {}", peerAccount, e.getMessage(), e);
+      }
+    }
+    return Optional.ofNullable(plugin);
+  }
+
+  /**
+   * Accessor for the plugin registered for {@code peerAccount}.
+   *
+   * @param peerAccount The {@link InterledgerAddress} of a peer account.
+   *
+   * @return The {@link Plugin} for {@code peerAccount}, or {@link Optional#empty()} if there is none.
+   */
+  public Optional<Plugin<?>> getPlugin(final InterledgerAddress peerAccount) {
+    Objects.requireNonNull(peerAccount);
+    return Optional.ofNullable(this.plugins.get(peerAccount));
+  }
+
+  /**
+   * Accessor for the plugin registered for {@code peerAccount}.
+   *
+   * @param peerAccount The {@link InterledgerAddress} of a peer account.
+   *
+   * @return The {@link Plugin} for {@code peerAccount}.
+   *
+   * @throws PluginNotFoundException if no plugin is registered for {@code peerAccount}.
+   */
+  public Plugin<?> getPluginOrThrow(final InterledgerAddress peerAccount) {
+    Objects.requireNonNull(peerAccount);
+    final Plugin<?> plugin = this.plugins.get(peerAccount);
+    if (plugin == null) {
+      throw new PluginNotFoundException("No plugin is registered for this account", peerAccount);
+    }
+    return plugin;
+  }
+
+  /**
+   * An unmodifiable, live view of every registered plugin. Iterating the view never blocks, nor throws {@link
+   * java.util.ConcurrentModificationException}; plugins registered or unregistered during iteration may or may not be
+   * seen.
+   */
+  public Collection<Plugin<?>> getPlugins() {
+    return this.pluginsView;
+  }
+
+  /**
+   * The number of registered plugins.
+   */
+  public int size() {
+    return this.plugins.size();
+  }
+
+  /**
+   * Connect every registered plugin that is not already connected, with at most {@link
+   * #DEFAULT_LIFECYCLE_PARALLELISM} plugins connecting at once.
+   *
+   * @return A {@link CompletableFuture} that completes once every plugin has attempted to connect, or exceptionally if
+   *     any of them failed to.
+   */
+  public CompletableFuture<Void> connectAll() {
+    return this.connectAll(DEFAULT_LIFECYCLE_PARALLELISM);
+  }
+
+  /**
+   * Connect every registered plugin that is not already connected, with at most {@code parallelism} plugins connecting
+   * at once.
+   *
+   * @param parallelism The maximum number of plugins that may be connecting at once.
+   *
+   * @return A {@link CompletableFuture} that completes once every plugin has attempted to connect, or exceptionally
+   *     with the first failure if any of them failed to.
+   */
+  public CompletableFuture<Void> connectAll(final int parallelism) {
+    return this.forEachPlugin(Plugin::connectAsync, parallelism);
+  }
+
+  /**
+   * Disconnect every registered plugin that is connected, with at most {@link #DEFAULT_LIFECYCLE_PARALLELISM} plugins
+   * disconnecting at once.
+   *
+   * @return A {@link CompletableFuture} that completes once every plugin has attempted to disconnect, or exceptionally
+   *     if any of them failed to.
+   */
+  public CompletableFuture<Void> disconnectAll() {
+    return this.disconnectAll(DEFAULT_LIFECYCLE_PARALLELISM);
+  }
+
+  /**
+   * Disconnect every registered plugin that is connected, with at most {@code parallelism} plugins disconnecting at
+   * once.
+   *
+   * @param parallelism The maximum number of plugins that may be disconnecting at once.
+   *
+   * @return A {@link CompletableFuture} that completes once every plugin has attempted to disconnect, or exceptionally
+   *     with the first failure if any of them failed to.
+   */
+  public CompletableFuture<Void> disconnectAll(final int parallelism) {
+    return this.forEachPlugin(plugin -> plugin.isConnected()
+        ? plugin.disconnectAsync() : CompletableFuture.completedFuture(null), parallelism);
+  }
+
+  private CompletableFuture<Void> forEachPlugin(
+      final Function<Plugin<?>, CompletableFuture<Void>> action, final int parallelism
+  ) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be greater than 0");
+    }
+    final BulkOperation operation = new BulkOperation(new ArrayList<>(this.plugins.values()), action);
+    for (int i = 0; i < Math.min(parallelism, operation.plugins.size()); i++) {
+      operation.runNext();
+    }
+    if (operation.plugins.isEmpty()) {
+      operation.result.complete(null);
+    }
+    return operation.result;
+  }
+
+  /**
+   * Applies an asynchronous action to a list of plugins. Each call to {@link #runNext()} starts a "lane" that applies
+   * the action to one plugin after another until none are left, so the number of lanes bounds the number of actions in
+   * progress.
+   */
+  private static final class BulkOperation {
+
+    private final List<Plugin<?>> plugins;
+    private final Function<Plugin<?>, CompletableFuture<Void>> action;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private BulkOperation(final List<Plugin<?>> plugins, final Function<Plugin<?>, CompletableFuture<Void>> action) {
+      this.plugins = plugins;
+      this.action = action;
+      this.remaining = new AtomicInteger(plugins.size());
+    }
+
+    private void runNext() {
+      // Loop, rather than recurse, through actions that complete immediately (e.g., plugins that are already
+      // connected), so that the stack doesn't grow with the number of plugins.
+      while (true) {
+        final int index = nextIndex.getAndIncrement();
+        if (index >= plugins.size()) {
+          return;
+        }
+        final Plugin<?> plugin = plugins.get(index);
+        CompletableFuture<Void> future;
+        try {
+          future = action.apply(plugin);
+        } catch (RuntimeException e) {
+          future = Completions.failedFuture(e);
+        }
+        if (!future.isDone()) {
+          future.whenComplete((ignored, error) -> {
+            this.onComplete(plugin, error);
+            this.runNext();
+          });
+          return;
+        }
+        this.onComplete(plugin, future.isCompletedExceptionally() ? future.handle((v, e) -> e).join() : null);
+      }
+    }
+
+    private void onComplete(final Plugin<?> plugin, final Throwable error) {
+      if (error != null) {
+        logger.error("Plugin for `{}` failed: {}", plugin.getPluginSettings().peerAccount(), error.getMessage());
+        firstError.compareAndSet(null, error);
+      }
+      if (remaining.decrementAndGet() == 0) {
+        if (firstError.get() == null) {
+          result.complete(null);
+        } else {
+          result.completeExceptionally(firstError.get());
+        }
+      }
+    }
+  }
+}
@@ -1,6 +1,17 @@
 package org.interledger.plugin.lpiv2;
 
 import org.interledger.core.InterledgerAddress;
+import org.interledger.plugin.lpiv2.balances.BalanceSettings;
+import org.interledger.plugin.lpiv2.breaker.CircuitBreakerSettings;
+import org.interledger.plugin.lpiv2.dedup.DeduplicationSettings;
+import org.interledger.plugin.lpiv2.limits.ConcurrencyLimitSettings;
+import org.interledger.plugin.lpiv2.limits.RateLimitSettings;
+import org.interledger.plugin.lpiv2.reconnect.ReconnectSettings;
+import org.interledger.plugin.lpiv2.scheduling.FairScheduler;
+import org.interledger.plugin.lpiv2.settlement.SettlementSettings;
+import org.interledger.plugin.lpiv2.trace.TraceSettings;
+
+import java.util.Optional;
 
 /**
  * Configuration information relating to a {@link Plugin}.
@@ -22,4 +33,88 @@ public interface PluginSettings {
    */
   InterledgerAddress localNodeAddress();
 
+  /**
+   * Adaptively limits the number of packets that may be in-flight to (and, separately, from) the remote peer. If
+   * empty, the number of in-flight packets is unbounded.
+   */
+  default Optional<ConcurrencyLimitSettings> concurrencyLimitSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * Limits the rate at which packets from the remote peer are handled, by number of packets and by total amount,
+   * rejecting packets over the limit with {@code T05} before any work is scheduled for them. If empty, the rate is
+   * unbounded.
+   */
+  default Optional<RateLimitSettings> incomingRateLimitSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * Tracks the balance of the account with the remote peer, rejecting packets that would take it outside of the
+   * configured bounds. If empty, no balance is tracked.
+   */
+  default Optional<BalanceSettings> balanceSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * Coalesces the amounts passed to {@link Plugin#settle} into fewer, larger settlements with the remote peer. If
+   * empty, every call to {@link Plugin#settle} is settled individually.
+   */
+  default Optional<SettlementSettings> settlementSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * Records the timeline of a sample of the packets sent and received by the plugin, for diagnosing slow peers without
+   * logging every packet. If empty, no packets are traced.
+   */
+  default Optional<TraceSettings> traceSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * Reconnects to the remote peer, with exponential backoff, if the plugin fails to connect or loses its connection.
+   * If empty, the plugin stays disconnected until it is explicitly connected again.
+   */
+  default Optional<ReconnectSettings> reconnectSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * Coalesces outgoing packets that duplicate a packet already in-flight to the remote peer (i.e., that have the same
+   * execution condition, amount and destination), so that the peer only sees one of them. If empty, every packet is
+   * sent.
+   */
+  default Optional<DeduplicationSettings> deduplicationSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * Whether to check that the fulfillment of every packet sent by the plugin matches the packet's execution condition,
+   * rejecting the packet with {@code F05} if it doesn't. If false, fulfillments are passed back to the caller
+   * unchecked.
+   */
+  default boolean verifyFulfillments() {
+    return false;
+  }
+
+  /**
+   * Stops sending packets to the remote peer while too many of them are failing or slow, rejecting them with {@code
+   * T01} instead until the peer has had time to recover. If empty, every packet is sent however the peer is behaving.
+   */
+  default Optional<CircuitBreakerSettings> circuitBreakerSettings() {
+    return Optional.empty();
+  }
+
+  /**
+   * The plugin's share of the worker threads of a {@link FairScheduler}, relative to the other plugins sharing it,
+   * while the plugin has work queued. Only applies to plugins whose data executor is a queue created by {@link
+   * FairScheduler#newQueue(PluginSettings)}.
+   */
+  default int schedulingWeight() {
+    return 1;
+  }
+
 }
@@ -6,13 +6,31 @@ import org.interledger.core.InterledgerFulfillment;
 import org.interledger.core.InterledgerPreparePacket;
 import org.interledger.core.InterledgerProtocolException;
 import org.interledger.core.InterledgerRejectPacket;
+import org.interledger.plugin.lpiv2.simulation.ImmutableSimulationSettings;
+import org.interledger.plugin.lpiv2.simulation.SimulationSettings;
+import org.interledger.plugin.lpiv2.support.Completions;
+import org.interledger.plugin.lpiv2.support.HashedWheelTimer;
 
 import java.math.BigInteger;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
- * An implementation of {@link Plugin} that simulates a relationship with a parent node where this connector is the
- * child.
+ * <p>An implementation of {@link Plugin} that simulates a relationship with a parent node where this connector is the
+ * child.</p>
+ *
+ * <p>By default, the simulated peer answers every packet immediately. Its {@link SimulationSettings} can instead make
+ * it answer after a latency drawn from a distribution, reject a fraction of packets with particular error codes, never
+ * answer a fraction of packets, and take time to settle. Delayed answers are scheduled on a timer, so no thread is
+ * blocked while a simulated peer is "thinking", no matter how many packets are in flight.</p>
  */
 public class SimulatedChildPlugin extends AbstractPlugin<PluginSettings> implements Plugin<PluginSettings> {
 
@@ -20,7 +38,10 @@ public class SimulatedChildPlugin extends AbstractPlugin<PluginSettings> impleme
   public static final byte[] PREIMAGE = "Roads? Where we're going we dont".getBytes();
   public static final byte[] ALTERNATE_PREIMAGE = "11inquagintaquadringentilliard11".getBytes();
 
+  private static final SimulationSettings INSTANT = ImmutableSimulationSettings.builder().build();
+
   private boolean completeSuccessfully = true;
+  private volatile SimulationSettings simulationSettings = INSTANT;
 
   /**
    * Required-args Constructor.
@@ -29,6 +50,24 @@ public class SimulatedChildPlugin extends AbstractPlugin<PluginSettings> impleme
     super(pluginSettings);
   }
 
+  /**
+   * Required-args Constructor.
+   *
+   * @param pluginSettings A {@link PluginSettings} that specified ledger plugin options.
+   * @param dataExecutor   An {@link Executor} used to send and handle ILP packets.
+   * @param moneyExecutor  An {@link Executor} used to send and handle settlements.
+   */
+  public SimulatedChildPlugin(
+      final PluginSettings pluginSettings, final Executor dataExecutor, final Executor moneyExecutor
+  ) {
+    super(pluginSettings, dataExecutor, moneyExecutor);
+  }
+
+  @Override
+  protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(final InterledgerPreparePacket preparePacket) {
+    return this.simulate(() -> this.doSendPacket(preparePacket), () -> super.doSendPacketAsync(preparePacket));
+  }
+
   /**
    * This Mock plugin completes successfully or throws an error, depending on the setting of {@link
    * #completeSuccessfully}.
@@ -53,9 +92,28 @@ public class SimulatedChildPlugin extends AbstractPlugin<PluginSettings> impleme
     }
   }
 
+  /**
+   * Settlements are synchronous, so a simulated settlement latency occupies the money executor's thread for its
+   * duration, just as a blocking call to a real settlement system would.
+   */
   @Override
   protected void doSettle(BigInteger amount) {
-    // No-Op.
+    final long latencyNanos = this.simulationSettings.settlementLatency().nextNanos();
+    final long deadlineNanos = System.nanoTime() + latencyNanos;
+    long remainingNanos = latencyNanos;
+    while (remainingNanos > 0) {
+      LockSupport.parkNanos(this, remainingNanos);
+      remainingNanos = deadlineNanos - System.nanoTime();
+    }
+  }
+
+  @Override
+  protected CompletionStage<InterledgerFulfillPacket> doHandleIncomingPacketAsync(
+      final InterledgerPreparePacket preparePacket
+  ) {
+    return this.simulate(
+        () -> this.doHandleIncomingPacket(preparePacket), () -> super.doHandleIncomingPacketAsync(preparePacket)
+    );
   }
 
   /**
@@ -116,4 +174,89 @@ public class SimulatedChildPlugin extends AbstractPlugin<PluginSettings> impleme
   public void setCompleteSuccessfully(final boolean completeSuccessfully) {
     this.completeSuccessfully = completeSuccessfully;
   }
+
+  /**
+   * Change how the simulated peer behaves. Packets that are already in flight are unaffected.
+   *
+   * @param simulationSettings A {@link SimulationSettings}.
+   */
+  public void setSimulationSettings(final SimulationSettings simulationSettings) {
+    this.simulationSettings = Objects.requireNonNull(simulationSettings);
+  }
+
+  /**
+   * Choose the outcome of a single packet, and when to deliver it.
+   *
+   * @param respond    Computes the normal answer to the packet.
+   * @param respondNow Delivers the normal answer without any simulated latency.
+   */
+  private CompletionStage<InterledgerFulfillPacket> simulate(
+      final Callable<InterledgerFulfillPacket> respond,
+      final Supplier<CompletionStage<InterledgerFulfillPacket>> respondNow
+  ) {
+    final SimulationSettings settings = this.simulationSettings;
+    final double draw = ThreadLocalRandom.current().nextDouble();
+    double threshold = settings.timeoutRate();
+    if (draw < threshold) {
+      // Never answered, so the packet is rejected once it expires.
+      return new CompletableFuture<>();
+    }
+    Callable<InterledgerFulfillPacket> response = respond;
+    for (final Map.Entry<InterledgerErrorCode, Double> entry : settings.rejectRates().entrySet()) {
+      threshold += entry.getValue();
+      if (draw < threshold) {
+        final InterledgerProtocolException rejection = this.simulatedRejection(entry.getKey());
+        response = () -> {
+          throw rejection;
+        };
+        break;
+      }
+    }
+
+    final long latencyNanos = settings.responseLatency().nextNanos();
+    if (latencyNanos == 0) {
+      if (response == respond) {
+        return respondNow.get();
+      }
+      return Completions.supplyAsync(response, Runnable::run);
+    }
+    final CompletableFuture<InterledgerFulfillPacket> result = new CompletableFuture<>();
+    final Callable<InterledgerFulfillPacket> delayedResponse = response;
+    SimulationTimerHolder.INSTANCE.schedule(() -> {
+      try {
+        Completions.supplyAsync(delayedResponse, getDataExecutor()).whenComplete((fulfillPacket, error) -> {
+          if (error == null) {
+            result.complete(fulfillPacket);
+          } else {
+            result.completeExceptionally(error);
+          }
+        });
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    }, latencyNanos, TimeUnit.NANOSECONDS);
+    return result;
+  }
+
+  private InterledgerProtocolException simulatedRejection(final InterledgerErrorCode errorCode) {
+    return new InterledgerProtocolException(
+        InterledgerRejectPacket.builder()
+            .data(ILP_DATA)
+            .triggeredBy(getPluginSettings().peerAccount())
+            .code(errorCode)
+            .message("Simulated rejection")
+            .build()
+    );
+  }
+
+  /**
+   * A timer shared by every simulated peer. It ticks every millisecond, which is finer than {@link
+   * HashedWheelTimer#shared()}, so that simulated latencies of a few milliseconds are reproduced faithfully.
+   */
+  private static final class SimulationTimerHolder {
+
+    private static final HashedWheelTimer INSTANCE = new HashedWheelTimer(
+        "ilp-simulated-peer-timer", 1, TimeUnit.MILLISECONDS, 1024
+    );
+  }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package org.interledger.plugin.lpiv2.balances;
+
+import org.immutables.value.Value;
+
+/**
+ * Configuration for a {@link BalanceTracker}. Balances are expressed in the units of the account with the peer, from
+ * the perspective of this node: a positive balance is owed to this node by the peer, and a negative balance is owed by
+ * this node to the peer.
+ */
+public interface BalanceSettings {
+
+  /**
+   * The lowest the balance may go, i.e., the negative of the most this node may owe the peer. Outgoing packets that
+   * could take the balance below this value are rejected.
+   */
+  long minBalance();
+
+  /**
+   * The highest the balance may go, i.e., the most the peer may owe this node. Incoming packets that could take the
+   * balance above this value are rejected.
+   */
+  long maxBalance();
+
+  @Value.Immutable
+  abstract class AbstractBalanceSettings implements BalanceSettings {
+
+    @Override
+    @Value.Default
+    public long minBalance() {
+      return Long.MIN_VALUE;
+    }
+
+    @Override
+    @Value.Default
+    public long maxBalance() {
+      return Long.MAX_VALUE;
+    }
+
+    @Value.Check
+    protected void check() {
+      if (minBalance() > 0) {
+        throw new IllegalStateException("minBalance must not be greater than 0");
+      }
+      if (maxBalance() < 0) {
+        throw new IllegalStateException("maxBalance must not be less than 0");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,167 @@
+package org.interledger.plugin.lpiv2.balances;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Tracks the balance of the account between this node and a single peer, and enforces the bounds configured in
+ * {@link BalanceSettings}.</p>
+ *
+ * <p>The amount of every in-flight packet is reserved before the packet is dispatched, committed when the packet is
+ * fulfilled, and rolled back when it is rejected. To enforce the bounds without a lock, the tracker keeps each bound's
+ * worst case in its own {@link AtomicLong}, which is updated with compare-and-set:</p>
+ *
+ * <ul>
+ * <li>{@code lowestBalance}: the balance if every outgoing packet in-flight were fulfilled, checked against {@link
+ * BalanceSettings#minBalance()}.</li>
+ * <li>{@code highestBalance}: the balance if every incoming packet in-flight were fulfilled, checked against {@link
+ * BalanceSettings#maxBalance()}.</li>
+ * <li>{@code balance}: the committed balance.</li>
+ * </ul>
+ *
+ * <p>Each bound is enforced exactly by its own variable. Readers may briefly observe the three values out of step with
+ * each other, but only ever in the conservative direction.</p>
+ */
+public class BalanceTracker {
+
+  private final BalanceSettings settings;
+
+  private final AtomicLong balance = new AtomicLong();
+  private final AtomicLong lowestBalance = new AtomicLong();
+  private final AtomicLong highestBalance = new AtomicLong();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param settings A {@link BalanceSettings} that configures this tracker.
+   */
+  public BalanceTracker(final BalanceSettings settings) {
+    this.settings = Objects.requireNonNull(settings);
+  }
+
+  /**
+   * Reserve {@code amount} for an outgoing packet, if doing so cannot take the balance below the minimum.
+   *
+   * @param amount A non-negative amount.
+   *
+   * @return {@code true} if the amount was reserved; {@code false} otherwise.
+   */
+  public boolean tryReserveOutgoing(final long amount) {
+    while (true) {
+      final long current = lowestBalance.get();
+      final long proposed = current - amount;
+      if (proposed > current || proposed < settings.minBalance()) {
+        // Either the subtraction overflowed, or the bound would be exceeded.
+        return false;
+      }
+      if (lowestBalance.compareAndSet(current, proposed)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Commit an amount previously reserved using {@link #tryReserveOutgoing(long)}, because the packet was fulfilled.
+   */
+  public void commitOutgoing(final long amount) {
+    // Lower the committed balance before the upper bound, so that readers never see too much headroom.
+    balance.addAndGet(-amount);
+    highestBalance.addAndGet(-amount);
+  }
+
+  /**
+   * Roll back an amount previously reserved using {@link #tryReserveOutgoing(long)}, because the packet was rejected.
+   */
+  public void rollbackOutgoing(final long amount) {
+    lowestBalance.addAndGet(amount);
+  }
+
+  /**
+   * Reserve {@code amount} for an incoming packet, if doing so cannot take the balance above the maximum.
+   *
+   * @param amount A non-negative amount.
+   *
+   * @return {@code true} if the amount was reserved; {@code false} otherwise.
+   */
+  public boolean tryReserveIncoming(final long amount) {
+    while (true) {
+      final long current = highestBalance.get();
+      final long proposed = current + amount;
+      if (proposed < current || proposed > settings.maxBalance()) {
+        // Either the addition overflowed, or the bound would be exceeded.
+        return false;
+      }
+      if (highestBalance.compareAndSet(current, proposed)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Commit an amount previously reserved using {@link #tryReserveIncoming(long)}, because the packet was fulfilled.
+   */
+  public void commitIncoming(final long amount) {
+    balance.addAndGet(amount);
+    lowestBalance.addAndGet(amount);
+  }
+
+  /**
+   * Roll back an amount previously reserved using {@link #tryReserveIncoming(long)}, because the packet was rejected.
+   */
+  public void rollbackIncoming(final long amount) {
+    highestBalance.addAndGet(-amount);
+  }
+
+  /**
+   * Record that this node has settled {@code amount} with the peer, which increases the balance.
+   */
+  public void onSettle(final long amount) {
+    balance.addAndGet(amount);
+    lowestBalance.addAndGet(amount);
+    highestBalance.addAndGet(amount);
+  }
+
+  /**
+   * Record that the peer has settled {@code amount} with this node, which decreases the balance.
+   */
+  public void onIncomingSettle(final long amount) {
+    balance.addAndGet(-amount);
+    lowestBalance.addAndGet(-amount);
+    highestBalance.addAndGet(-amount);
+  }
+
+  /**
+   * The committed balance. Positive values are owed to this node by the peer; negative values are owed by this node to
+   * the peer.
+   */
+  public long getBalance() {
+    return balance.get();
+  }
+
+  /**
+   * The total amount of outgoing packets that are in-flight.
+   */
+  public long getPendingOutgoing() {
+    return Math.max(0, balance.get() - lowestBalance.get());
+  }
+
+  /**
+   * The total amount of incoming packets that are in-flight.
+   */
+  public long getPendingIncoming() {
+    return Math.max(0, highestBalance.get() - balance.get());
+  }
+
+  public BalanceSettings getSettings() {
+    return settings;
+  }
+
+  @Override
+  public String toString() {
+    return "BalanceTracker{"
+        + "balance=" + balance.get()
+        + ", pendingOutgoing=" + getPendingOutgoing()
+        + ", pendingIncoming=" + getPendingIncoming()
+        + '}';
+  }
+}
@@ -0,0 +1,243 @@
+package org.interledger.plugin.lpiv2.breaker;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>Stops sending packets to a peer that is failing, so that callers are rejected immediately instead of waiting for
+ * the peer to time out, and the peer is given time to recover.</p>
+ *
+ * <p>While the circuit is {@link CircuitBreakerState#CLOSED}, the outcome of every packet is recorded in a sliding
+ * window of the most recent {@link CircuitBreakerSettings#windowSize()} packets. Once the window holds at least {@link
+ * CircuitBreakerSettings#minimumCalls()} outcomes, and the fraction of failed or slow packets in it reaches the
+ * configured threshold, the circuit {@link CircuitBreakerState#OPEN}s and every packet is rejected for {@link
+ * CircuitBreakerSettings#openDuration()}. After that, the circuit is {@link CircuitBreakerState#HALF_OPEN}, and only
+ * {@link CircuitBreakerSettings#halfOpenProbes()} packets are let through: if all of them succeed the circuit closes
+ * with an empty window, and if any of them fails it opens again.</p>
+ *
+ * <p>The state is held in an immutable phase that is replaced using compare-and-set, and the window is a ring of
+ * atomic slots with atomic counters, so neither acquiring a permit nor recording an outcome ever blocks. Each phase
+ * has its own epoch, which is handed out as the permit for a packet, so that the outcome of a packet that was sent
+ * before the last transition is ignored rather than being counted against the new phase.</p>
+ */
+public class CircuitBreaker {
+
+  /**
+   * Returned by {@link #tryAcquire()} if the circuit does not allow a packet to be sent.
+   */
+  public static final long REJECTED = -1;
+
+  private final CircuitBreakerSettings settings;
+  private final BiConsumer<CircuitBreakerState, CircuitBreakerState> stateChangeListener;
+  private final long slowCallNanos;
+  private final long openNanos;
+
+  private final AtomicReference<Phase> phase;
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param settings A {@link CircuitBreakerSettings} that configures this breaker.
+   */
+  public CircuitBreaker(final CircuitBreakerSettings settings) {
+    this(settings, (previousState, state) -> {
+    });
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param settings            A {@link CircuitBreakerSettings} that configures this breaker.
+   * @param stateChangeListener Called with the previous and new state whenever the circuit changes state, on the
+   *                            thread that caused the change.
+   */
+  public CircuitBreaker(
+      final CircuitBreakerSettings settings,
+      final BiConsumer<CircuitBreakerState, CircuitBreakerState> stateChangeListener
+  ) {
+    this.settings = Objects.requireNonNull(settings);
+    this.stateChangeListener = Objects.requireNonNull(stateChangeListener);
+    this.slowCallNanos = settings.slowCallDuration().toNanos();
+    this.openNanos = settings.openDuration().toNanos();
+    this.phase = new AtomicReference<>(new Phase(0, CircuitBreakerState.CLOSED, System.nanoTime()));
+  }
+
+  /**
+   * Attempt to acquire a permit to send a packet. Every permit must be followed by exactly one call to either {@link
+   * #onResult(long, long, boolean)} or, if the packet wasn't sent after all, {@link #release(long)}.
+   *
+   * @return A permit for the packet, or {@link #REJECTED} if the circuit is open, or is half-open and all of its probe
+   *     packets are in-flight.
+   */
+  public long tryAcquire() {
+    while (true) {
+      final Phase current = phase.get();
+      switch (current.state) {
+        case CLOSED: {
+          return current.epoch;
+        }
+        case OPEN: {
+          if (System.nanoTime() - current.enteredAtNanos < openNanos) {
+            rejected.increment();
+            return REJECTED;
+          }
+          // Whether or not this thread wins the transition, retry against the phase that replaced this one.
+          this.transition(current, CircuitBreakerState.HALF_OPEN);
+          break;
+        }
+        default: {
+          int issued;
+          while ((issued = current.probesIssued.get()) < settings.halfOpenProbes()) {
+            if (current.probesIssued.compareAndSet(issued, issued + 1)) {
+              return current.epoch;
+            }
+          }
+          rejected.increment();
+          return REJECTED;
+        }
+      }
+    }
+  }
+
+  /**
+   * Give back a permit for a packet that was not sent after all (e.g., because it was rejected for some other reason),
+   * so that a half-open circuit can let another probe through.
+   *
+   * @param permit A permit returned by {@link #tryAcquire()}.
+   */
+  public void release(final long permit) {
+    final Phase current = phase.get();
+    if (current.epoch == permit && current.state == CircuitBreakerState.HALF_OPEN) {
+      current.probesIssued.decrementAndGet();
+    }
+  }
+
+  /**
+   * Record the outcome of a packet that was sent with a permit from {@link #tryAcquire()}, and change the state of the
+   * circuit if the outcome calls for it.
+   *
+   * @param permit       A permit returned by {@link #tryAcquire()}.
+   * @param elapsedNanos The time, in nanoseconds, between acquiring the permit and the packet completing.
+   * @param failed       {@code true} if the packet timed out, failed, or was rejected with anything other than a final
+   *                     error.
+   */
+  public void onResult(final long permit, final long elapsedNanos, final boolean failed) {
+    final Phase current = phase.get();
+    if (current.epoch != permit) {
+      // The packet was sent before the last transition, so says nothing about the current phase.
+      return;
+    }
+    final boolean slow = elapsedNanos >= slowCallNanos;
+    if (current.state == CircuitBreakerState.CLOSED) {
+      if (current.window.record(failed, slow)) {
+        this.transition(current, CircuitBreakerState.OPEN);
+      }
+    } else if (current.state == CircuitBreakerState.HALF_OPEN) {
+      if (failed || slow) {
+        this.transition(current, CircuitBreakerState.OPEN);
+      } else if (current.probesSucceeded.incrementAndGet() == settings.halfOpenProbes()) {
+        this.transition(current, CircuitBreakerState.CLOSED);
+      }
+    }
+  }
+
+  private void transition(final Phase expected, final CircuitBreakerState state) {
+    final Phase next = new Phase(expected.epoch + 1, state, System.nanoTime());
+    // Only the thread that wins the compare-and-set reports the transition, so each is reported exactly once.
+    if (phase.compareAndSet(expected, next)) {
+      stateChangeListener.accept(expected.state, state);
+    }
+  }
+
+  /**
+   * The current state of the circuit. An open circuit whose {@link CircuitBreakerSettings#openDuration()} has elapsed
+   * is still reported as open until the next packet is sent.
+   */
+  public CircuitBreakerState getState() {
+    return phase.get().state;
+  }
+
+  /**
+   * The total number of packets rejected because the circuit was open, or half-open with all of its probe packets
+   * in-flight.
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreaker{"
+        + "state=" + phase.get().state
+        + ", rejected=" + rejected.sum()
+        + '}';
+  }
+
+  /**
+   * The immutable state of the circuit between two transitions, along with the counters that belong to it.
+   */
+  private final class Phase {
+
+    private final long epoch;
+    private final CircuitBreakerState state;
+    private final long enteredAtNanos;
+    // Only used while CLOSED.
+    private final Window window;
+    // Only used while HALF_OPEN.
+    private final AtomicInteger probesIssued = new AtomicInteger();
+    private final AtomicInteger probesSucceeded = new AtomicInteger();
+
+    private Phase(final long epoch, final CircuitBreakerState state, final long enteredAtNanos) {
+      this.epoch = epoch;
+      this.state = state;
+      this.enteredAtNanos = enteredAtNanos;
+      this.window = state == CircuitBreakerState.CLOSED ? new Window() : null;
+    }
+  }
+
+  /**
+   * A ring of the outcomes of the most recent packets, with running totals of how many of them were recorded, failed
+   * and slow. Each outcome replaces the oldest one using an atomic swap, and the totals are adjusted by the difference,
+   * so they stay consistent with the ring even when many threads record at once.
+   */
+  private final class Window {
+
+    private static final int RECORDED = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 4;
+
+    private final AtomicIntegerArray outcomes = new AtomicIntegerArray(settings.windowSize());
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    /**
+     * Record an outcome.
+     *
+     * @return {@code true} if the window now calls for the circuit to open.
+     */
+    private boolean record(final boolean failed, final boolean slow) {
+      final int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+      final int index = (int) (cursor.getAndIncrement() % outcomes.length());
+      final int evicted = outcomes.getAndSet(index, outcome);
+
+      final int recordedCalls = (evicted & RECORDED) == 0 ? calls.incrementAndGet() : calls.get();
+      final int failedCalls = failures.addAndGet(count(outcome, FAILED) - count(evicted, FAILED));
+      final int slowedCalls = slowCalls.addAndGet(count(outcome, SLOW) - count(evicted, SLOW));
+      return recordedCalls >= settings.minimumCalls()
+          && (failedCalls >= settings.failureRateThreshold() * recordedCalls
+          || slowedCalls >= settings.slowCallRateThreshold() * recordedCalls);
+    }
+
+    private int count(final int outcome, final int flag) {
+      return (outcome & flag) == 0 ? 0 : 1;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package org.interledger.plugin.lpiv2.breaker;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Configuration for a {@link CircuitBreaker}.
+ */
+public interface CircuitBreakerSettings {
+
+  /**
+   * The number of most recent outgoing packets whose outcomes are considered when deciding whether to open the
+   * circuit.
+   */
+  int windowSize();
+
+  /**
+   * The number of outcomes that must have been recorded since the circuit last closed before it may open, so that a
+   * handful of early failures doesn't open it.
+   */
+  int minimumCalls();
+
+  /**
+   * The fraction of packets in the window that must have failed (i.e., timed out, failed, or been rejected with
+   * anything other than a final error) for the circuit to open.
+   */
+  double failureRateThreshold();
+
+  /**
+   * The time after which a packet that is still unanswered is considered slow, even if it is eventually fulfilled.
+   */
+  Duration slowCallDuration();
+
+  /**
+   * The fraction of packets in the window that must have been slow for the circuit to open.
+   */
+  double slowCallRateThreshold();
+
+  /**
+   * The time for which the circuit stays open, rejecting every packet, before it lets probe packets through.
+   */
+  Duration openDuration();
+
+  /**
+   * The number of probe packets that are let through while the circuit is half-open. The circuit closes once all of
+   * them have succeeded, and opens again as soon as one of them fails or is slow.
+   */
+  int halfOpenProbes();
+
+  @Value.Immutable
+  abstract class AbstractCircuitBreakerSettings implements CircuitBreakerSettings {
+
+    @Override
+    @Value.Default
+    public int windowSize() {
+      return 100;
+    }
+
+    @Override
+    @Value.Default
+    public int minimumCalls() {
+      return 20;
+    }
+
+    @Override
+    @Value.Default
+    public double failureRateThreshold() {
+      return 0.5;
+    }
+
+    @Override
+    @Value.Default
+    public Duration slowCallDuration() {
+      return Duration.ofSeconds(5);
+    }
+
+    @Override
+    @Value.Default
+    public double slowCallRateThreshold() {
+      return 0.8;
+    }
+
+    @Override
+    @Value.Default
+    public Duration openDuration() {
+      return Duration.ofSeconds(10);
+    }
+
+    @Override
+    @Value.Default
+    public int halfOpenProbes() {
+      return 5;
+    }
+
+    @Value.Check
+    protected void check() {
+      if (windowSize() <= 0) {
+        throw new IllegalStateException("windowSize must be greater than 0");
+      }
+      if (minimumCalls() <= 0 || minimumCalls() > windowSize()) {
+        throw new IllegalStateException("minimumCalls must be between 1 and windowSize");
+      }
+      if (failureRateThreshold() <= 0 || failureRateThreshold() > 1) {
+        throw new IllegalStateException("failureRateThreshold must be greater than 0 and at most 1");
+      }
+      if (slowCallDuration().isNegative() || slowCallDuration().isZero()) {
+        throw new IllegalStateException("slowCallDuration must be greater than 0");
+      }
+      if (slowCallRateThreshold() <= 0 || slowCallRateThreshold() > 1) {
+        throw new IllegalStateException("slowCallRateThreshold must be greater than 0 and at most 1");
+      }
+      if (openDuration().isNegative() || openDuration().isZero()) {
+        throw new IllegalStateException("openDuration must be greater than 0");
+      }
+      if (halfOpenProbes() <= 0) {
+        throw new IllegalStateException("halfOpenProbes must be greater than 0");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,22 @@
+package org.interledger.plugin.lpiv2.breaker;
+
+/**
+ * The states of a {@link CircuitBreaker}.
+ */
+public enum CircuitBreakerState {
+
+  /**
+   * Every packet is sent to the peer, and its outcome is recorded in the sliding window.
+   */
+  CLOSED,
+
+  /**
+   * Every packet is rejected without being sent to the peer.
+   */
+  OPEN,
+
+  /**
+   * A limited number of probe packets are sent to the peer, to determine whether the circuit should close again.
+   */
+  HALF_OPEN
+}
@@ -0,0 +1,33 @@
+package org.interledger.plugin.lpiv2.dedup;
+
+import org.immutables.value.Value;
+
+/**
+ * Configuration for a {@link PacketDeduplicator}.
+ */
+public interface DeduplicationSettings {
+
+  /**
+   * The peak number of outgoing packets expected to be in-flight at once, used to size the table of in-flight packets
+   * so that it never needs to be resized under load.
+   */
+  int expectedInFlightPackets();
+
+  @Value.Immutable
+  abstract class AbstractDeduplicationSettings implements DeduplicationSettings {
+
+    @Override
+    @Value.Default
+    public int expectedInFlightPackets() {
+      return 1024;
+    }
+
+    @Value.Check
+    protected void check() {
+      if (expectedInFlightPackets() <= 0) {
+        throw new IllegalStateException("expectedInFlightPackets must be greater than 0");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,141 @@
+package org.interledger.plugin.lpiv2.dedup;
+
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Coalesces duplicate outgoing packets: a packet with the same execution condition, amount and destination as a
+ * packet that is still in-flight to the peer is not sent again, but instead receives the same response as the packet
+ * that is in-flight.</p>
+ *
+ * <p>In-flight packets are held in a {@link ConcurrentHashMap} keyed by execution condition, so checking for a
+ * duplicate never locks, and registering or removing a packet only locks a single bin of the table. Packets are
+ * removed as soon as they are answered (including when they expire), so a duplicate that arrives after the original
+ * was answered is sent to the peer as normal.</p>
+ *
+ * <p>Every packet for which {@link #coalesce(InterledgerPreparePacket)} returns {@code null} must then be passed to
+ * {@link #track(InterledgerPreparePacket, CompletableFuture)}, along with its response, even if sending it failed.
+ * A duplicate may expire before the packet it was coalesced with, so the caller is also responsible for rejecting each
+ * duplicate's future when the duplicate expires.</p>
+ */
+public class PacketDeduplicator {
+
+  private final ConcurrentMap<InterledgerCondition, InFlightPacket> inFlightPackets;
+  private final LongAdder coalescedCount = new LongAdder();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param deduplicationSettings A {@link DeduplicationSettings} that sizes the table of in-flight packets.
+   */
+  public PacketDeduplicator(final DeduplicationSettings deduplicationSettings) {
+    Objects.requireNonNull(deduplicationSettings);
+    // Size the table so that the expected number of packets fits without exceeding the default load factor.
+    this.inFlightPackets = new ConcurrentHashMap<>(
+        (int) Math.min(Integer.MAX_VALUE, deduplicationSettings.expectedInFlightPackets() * 4L / 3 + 1)
+    );
+  }
+
+  /**
+   * Determine whether {@code preparePacket} duplicates a packet that is already in-flight.
+   *
+   * @param preparePacket An {@link InterledgerPreparePacket} that is about to be sent.
+   *
+   * @return A {@link CompletableFuture} that completes with the response to the in-flight packet, or {@code null} if
+   *     the packet is not a duplicate and should be sent to the peer.
+   */
+  public CompletableFuture<InterledgerFulfillPacket> coalesce(final InterledgerPreparePacket preparePacket) {
+    final InFlightPacket inFlightPacket = new InFlightPacket(preparePacket);
+    final InFlightPacket existing = this.inFlightPackets.putIfAbsent(
+        preparePacket.getExecutionCondition(), inFlightPacket
+    );
+    if (existing == null || !existing.isDuplicatedBy(preparePacket)) {
+      // Either this packet is now the in-flight packet for its condition, or it merely shares its condition with a
+      // different packet, in which case it is sent without being registered.
+      return null;
+    }
+    this.coalescedCount.increment();
+    // Each duplicate gets its own future, so that no caller can complete the future that the others depend on.
+    final CompletableFuture<InterledgerFulfillPacket> duplicateResponse = new CompletableFuture<>();
+    existing.response.whenComplete((fulfillPacket, error) -> complete(duplicateResponse, fulfillPacket, error));
+    return duplicateResponse;
+  }
+
+  /**
+   * Deliver {@code response} to any duplicates of {@code preparePacket} once it completes, and then stop treating the
+   * packet as in-flight.
+   *
+   * @param preparePacket An {@link InterledgerPreparePacket} for which {@link #coalesce(InterledgerPreparePacket)}
+   *                      returned {@code null}.
+   * @param response      The response to {@code preparePacket}.
+   */
+  public void track(
+      final InterledgerPreparePacket preparePacket, final CompletableFuture<InterledgerFulfillPacket> response
+  ) {
+    final InterledgerCondition condition = preparePacket.getExecutionCondition();
+    final InFlightPacket inFlightPacket = this.inFlightPackets.get(condition);
+    if (inFlightPacket == null || inFlightPacket.preparePacket != preparePacket) {
+      // The packet shared its condition with a different packet, so it was never registered.
+      return;
+    }
+    response.whenComplete((fulfillPacket, error) -> {
+      // Remove the packet before completing its duplicates, so that any later duplicate is sent afresh.
+      this.inFlightPackets.remove(condition, inFlightPacket);
+      complete(inFlightPacket.response, fulfillPacket, error);
+    });
+  }
+
+  /**
+   * The number of packets currently in-flight.
+   */
+  public int getInFlightCount() {
+    return this.inFlightPackets.size();
+  }
+
+  /**
+   * The number of packets that were not sent, because they duplicated a packet that was in-flight.
+   */
+  public long getCoalescedCount() {
+    return this.coalescedCount.sum();
+  }
+
+  private static void complete(
+      final CompletableFuture<InterledgerFulfillPacket> future,
+      final InterledgerFulfillPacket fulfillPacket,
+      final Throwable error
+  ) {
+    if (error == null) {
+      future.complete(fulfillPacket);
+    } else {
+      future.completeExceptionally(error);
+    }
+  }
+
+  /**
+   * A packet that is in-flight to the peer, and the future that its duplicates depend on.
+   */
+  private static final class InFlightPacket {
+
+    private final InterledgerPreparePacket preparePacket;
+    private final CompletableFuture<InterledgerFulfillPacket> response = new CompletableFuture<>();
+
+    private InFlightPacket(final InterledgerPreparePacket preparePacket) {
+      this.preparePacket = preparePacket;
+    }
+
+    /**
+     * Whether {@code other} is a copy of this packet, i.e. one whose fulfillment would be this packet's fulfillment.
+     */
+    private boolean isDuplicatedBy(final InterledgerPreparePacket other) {
+      return other.getAmount().equals(preparePacket.getAmount())
+          && other.getDestination().equals(preparePacket.getDestination());
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.interledger.plugin.lpiv2.breaker.CircuitBreakerState;
+
+import org.immutables.value.Value;
+
+/**
+ * Emitted after the circuit breaker that guards a plugin's outgoing packets changes state.
+ */
+public interface CircuitBreakerStateChangedEvent extends PluginEvent {
+
+  /**
+   * @return The {@link CircuitBreakerState} the circuit breaker was in before the change.
+   */
+  CircuitBreakerState getPreviousState();
+
+  /**
+   * @return The {@link CircuitBreakerState} the circuit breaker is now in.
+   */
+  CircuitBreakerState getState();
+
+  @Value.Immutable
+  abstract class AbstractCircuitBreakerStateChangedEvent implements CircuitBreakerStateChangedEvent {
+
+  }
+
+}
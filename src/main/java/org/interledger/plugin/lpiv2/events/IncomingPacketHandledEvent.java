@@ -0,0 +1,43 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerRejectPacket;
+
+import org.immutables.value.Value;
+
+import java.util.Optional;
+
+/**
+ * Emitted after a plugin has produced a response to a packet from the remote peer. Exactly one of {@link
+ * #getFulfillPacket()} and {@link #getRejectPacket()} is present.
+ */
+public interface IncomingPacketHandledEvent extends PluginEvent {
+
+  /**
+   * @return The {@link InterledgerPreparePacket} sent by the remote peer.
+   */
+  InterledgerPreparePacket getPreparePacket();
+
+  /**
+   * @return The {@link InterledgerFulfillPacket} returned to the remote peer, if the packet was fulfilled.
+   */
+  Optional<InterledgerFulfillPacket> getFulfillPacket();
+
+  /**
+   * @return The {@link InterledgerRejectPacket} returned to the remote peer, if the packet was rejected.
+   */
+  Optional<InterledgerRejectPacket> getRejectPacket();
+
+  @Value.Immutable
+  abstract class AbstractIncomingPacketHandledEvent implements IncomingPacketHandledEvent {
+
+    @Value.Check
+    protected void check() {
+      if (getFulfillPacket().isPresent() == getRejectPacket().isPresent()) {
+        throw new IllegalStateException("Exactly one of fulfillPacket and rejectPacket must be present");
+      }
+    }
+  }
+
+}
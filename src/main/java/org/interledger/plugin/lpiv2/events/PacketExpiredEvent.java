@@ -0,0 +1,24 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.interledger.core.InterledgerPreparePacket;
+
+import org.immutables.value.Value;
+
+/**
+ * Emitted after an in-flight packet (either outgoing or incoming) expires before a response was available. An expired
+ * outgoing packet is reported only by this event, and not also by a {@link PacketRejectedEvent}; an expired incoming
+ * packet is also reported by the {@link IncomingPacketHandledEvent} that carries its {@code R00} rejection.
+ */
+public interface PacketExpiredEvent extends PluginEvent {
+
+  /**
+   * @return The {@link InterledgerPreparePacket} that expired.
+   */
+  InterledgerPreparePacket getPreparePacket();
+
+  @Value.Immutable
+  abstract class AbstractPacketExpiredEvent implements PacketExpiredEvent {
+
+  }
+
+}
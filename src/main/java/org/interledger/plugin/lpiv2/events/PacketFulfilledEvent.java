@@ -0,0 +1,28 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+
+import org.immutables.value.Value;
+
+/**
+ * Emitted after the remote peer fulfills an outgoing packet.
+ */
+public interface PacketFulfilledEvent extends PluginEvent {
+
+  /**
+   * @return The {@link InterledgerPreparePacket} that was sent.
+   */
+  InterledgerPreparePacket getPreparePacket();
+
+  /**
+   * @return The {@link InterledgerFulfillPacket} returned by the remote peer.
+   */
+  InterledgerFulfillPacket getFulfillPacket();
+
+  @Value.Immutable
+  abstract class AbstractPacketFulfilledEvent implements PacketFulfilledEvent {
+
+  }
+
+}
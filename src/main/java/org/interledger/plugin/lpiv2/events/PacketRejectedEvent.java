@@ -0,0 +1,29 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerRejectPacket;
+
+import org.immutables.value.Value;
+
+/**
+ * Emitted after an outgoing packet is rejected, either by the remote peer or by the plugin itself (e.g., because
+ * sending it failed). A packet that expires while in-flight is reported by a {@link PacketExpiredEvent} instead.
+ */
+public interface PacketRejectedEvent extends PluginEvent {
+
+  /**
+   * @return The {@link InterledgerPreparePacket} that was sent.
+   */
+  InterledgerPreparePacket getPreparePacket();
+
+  /**
+   * @return The {@link InterledgerRejectPacket} that describes the rejection.
+   */
+  InterledgerRejectPacket getRejectPacket();
+
+  @Value.Immutable
+  abstract class AbstractPacketRejectedEvent implements PacketRejectedEvent {
+
+  }
+
+}
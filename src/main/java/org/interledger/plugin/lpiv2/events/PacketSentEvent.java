@@ -0,0 +1,22 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.interledger.core.InterledgerPreparePacket;
+
+import org.immutables.value.Value;
+
+/**
+ * Emitted after a plugin has accepted an outgoing packet, just before it is sent to the remote peer.
+ */
+public interface PacketSentEvent extends PluginEvent {
+
+  /**
+   * @return The {@link InterledgerPreparePacket} that is being sent.
+   */
+  InterledgerPreparePacket getPreparePacket();
+
+  @Value.Immutable
+  abstract class AbstractPacketSentEvent implements PacketSentEvent {
+
+  }
+
+}
@@ -12,4 +12,28 @@ public interface PluginEventEmitter {
   void emitEvent(final PluginDisconnectedEvent event);
 
   void emitEvent(final PluginErrorEvent event);
+
+  // Per-packet events are only emitted to handlers that subscribe to them. Emitters that don't support them may
+  // ignore them.
+
+  default void emitEvent(final PacketSentEvent event) {
+  }
+
+  default void emitEvent(final PacketFulfilledEvent event) {
+  }
+
+  default void emitEvent(final PacketRejectedEvent event) {
+  }
+
+  default void emitEvent(final PacketExpiredEvent event) {
+  }
+
+  default void emitEvent(final IncomingPacketHandledEvent event) {
+  }
+
+  default void emitEvent(final SettlementCompletedEvent event) {
+  }
+
+  default void emitEvent(final CircuitBreakerStateChangedEvent event) {
+  }
 }
@@ -5,8 +5,15 @@ import org.interledger.plugin.lpiv2.events.PluginConnectedEvent;
 import org.interledger.plugin.lpiv2.events.PluginDisconnectedEvent;
 import org.interledger.plugin.lpiv2.events.PluginErrorEvent;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
- * Handler interface that defines all events related to a {@link Plugin}.
+ * <p>Handler interface that defines all events related to a {@link Plugin}.</p>
+ *
+ * <p>Every handler receives {@link PluginConnectedEvent}, {@link PluginDisconnectedEvent} and {@link PluginErrorEvent}.
+ * Other events are only delivered if their type is returned by {@link #getSubscribedEventTypes()}, so that plugins only
+ * construct them when at least one handler has subscribed.</p>
  */
 public interface PluginEventHandler {
 
@@ -31,4 +38,78 @@ public interface PluginEventHandler {
    */
   void onError(PluginErrorEvent event);
 
+  /**
+   * Called to handle a {@link PacketSentEvent}, if this handler subscribes to {@link PluginEventType#PACKET_SENT}.
+   *
+   * @param event A {@link PacketSentEvent}.
+   */
+  default void onPacketSent(PacketSentEvent event) {
+  }
+
+  /**
+   * Called to handle a {@link PacketFulfilledEvent}, if this handler subscribes to {@link
+   * PluginEventType#PACKET_FULFILLED}.
+   *
+   * @param event A {@link PacketFulfilledEvent}.
+   */
+  default void onPacketFulfilled(PacketFulfilledEvent event) {
+  }
+
+  /**
+   * Called to handle a {@link PacketRejectedEvent}, if this handler subscribes to {@link
+   * PluginEventType#PACKET_REJECTED}.
+   *
+   * @param event A {@link PacketRejectedEvent}.
+   */
+  default void onPacketRejected(PacketRejectedEvent event) {
+  }
+
+  /**
+   * Called to handle a {@link PacketExpiredEvent}, if this handler subscribes to {@link
+   * PluginEventType#PACKET_EXPIRED}.
+   *
+   * @param event A {@link PacketExpiredEvent}.
+   */
+  default void onPacketExpired(PacketExpiredEvent event) {
+  }
+
+  /**
+   * Called to handle an {@link IncomingPacketHandledEvent}, if this handler subscribes to {@link
+   * PluginEventType#INCOMING_PACKET_HANDLED}.
+   *
+   * @param event An {@link IncomingPacketHandledEvent}.
+   */
+  default void onIncomingPacketHandled(IncomingPacketHandledEvent event) {
+  }
+
+  /**
+   * Called to handle a {@link SettlementCompletedEvent}, if this handler subscribes to {@link
+   * PluginEventType#SETTLEMENT_COMPLETED}.
+   *
+   * @param event A {@link SettlementCompletedEvent}.
+   */
+  default void onSettlementCompleted(SettlementCompletedEvent event) {
+  }
+
+  /**
+   * Called to handle a {@link CircuitBreakerStateChangedEvent}, if this handler subscribes to {@link
+   * PluginEventType#CIRCUIT_BREAKER_STATE_CHANGED}.
+   *
+   * @param event A {@link CircuitBreakerStateChangedEvent}.
+   */
+  default void onCircuitBreakerStateChanged(CircuitBreakerStateChangedEvent event) {
+  }
+
+  /**
+   * The types of event this handler receives, in addition to {@link PluginEventType#CONNECTED}, {@link
+   * PluginEventType#DISCONNECTED} and {@link PluginEventType#ERROR}, which are always delivered. This method is called
+   * at most once per registration, the first time an event of any other type is emitted.
+   *
+   * @return A {@link Set} of {@link PluginEventType}. By default, only the lifecycle types, which subscribes to nothing
+   *     else.
+   */
+  default Set<PluginEventType> getSubscribedEventTypes() {
+    return EnumSet.of(PluginEventType.CONNECTED, PluginEventType.DISCONNECTED, PluginEventType.ERROR);
+  }
+
 }
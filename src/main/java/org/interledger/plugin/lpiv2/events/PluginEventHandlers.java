@@ -0,0 +1,233 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.interledger.plugin.lpiv2.Plugin;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>The {@link PluginEventHandler}s registered with a single {@link Plugin}.</p>
+ *
+ * <p>Handlers are held in an immutable {@link Snapshot} that is replaced (copy-on-write) whenever a handler is added
+ * or removed. Registration is expected to be rare compared to emitting events, so emitters read the current snapshot
+ * and iterate it by index, which neither locks nor allocates. The snapshot also indexes the handlers by the {@link
+ * PluginEventType}s they subscribe to, so that a plugin can cheaply skip constructing an event nobody receives.</p>
+ *
+ * <p>Every handler receives {@link PluginEventType#CONNECTED}, {@link PluginEventType#DISCONNECTED} and {@link
+ * PluginEventType#ERROR}, whatever {@link PluginEventHandler#getSubscribedEventTypes()} returns; only the other types
+ * are opt-in. A handler's subscriptions are read the first time one of the opt-in types is emitted, rather than when
+ * it is registered, so a handler that only ever sees the lifecycle events is never asked for them.</p>
+ *
+ * <p>Handler ids are assigned sequentially, instead of using {@link UUID#randomUUID()}, so that registering a handler
+ * never contends on a shared {@link java.security.SecureRandom}.</p>
+ */
+public class PluginEventHandlers {
+
+  private static final Snapshot EMPTY = new Snapshot(new Registration[0]);
+
+  // Distinguishes the ids issued by this registry from those issued by any other.
+  private final long idPrefix = ThreadLocalRandom.current().nextLong();
+  private final AtomicLong nextId = new AtomicLong();
+
+  private volatile Snapshot snapshot = EMPTY;
+
+  /**
+   * Register {@code handler}.
+   *
+   * @param handler A {@link PluginEventHandler}.
+   *
+   * @return The id of the registration, which can be used to remove it.
+   */
+  public UUID add(final PluginEventHandler handler) {
+    Objects.requireNonNull(handler);
+    final Registration registration = new Registration(new UUID(idPrefix, nextId.incrementAndGet()), handler);
+    synchronized (this) {
+      final Registration[] current = this.snapshot.registrations;
+      final Registration[] registrations = Arrays.copyOf(current, current.length + 1);
+      registrations[current.length] = registration;
+      this.snapshot = new Snapshot(registrations);
+    }
+    return registration.id;
+  }
+
+  /**
+   * Remove the registration with the supplied id.
+   *
+   * @param handlerId The id returned by {@link #add(PluginEventHandler)}.
+   *
+   * @return {@code true} if a handler was removed; {@code false} if no handler is registered with {@code handlerId}.
+   */
+  public synchronized boolean remove(final UUID handlerId) {
+    Objects.requireNonNull(handlerId);
+    final Snapshot current = this.snapshot;
+    final int index = current.indexOf(handlerId);
+    if (index < 0) {
+      return false;
+    }
+
+    final int size = current.size();
+    final Registration[] registrations = new Registration[size - 1];
+    System.arraycopy(current.registrations, 0, registrations, 0, index);
+    System.arraycopy(current.registrations, index + 1, registrations, index, size - index - 1);
+    this.snapshot = new Snapshot(registrations);
+    return true;
+  }
+
+  /**
+   * Accessor for the handlers that are currently registered. The returned {@link Snapshot} never changes, so it may be
+   * iterated while handlers are added or removed.
+   */
+  public Snapshot snapshot() {
+    return this.snapshot;
+  }
+
+  private static boolean isLifecycleEvent(final PluginEventType eventType) {
+    return eventType == PluginEventType.CONNECTED
+        || eventType == PluginEventType.DISCONNECTED
+        || eventType == PluginEventType.ERROR;
+  }
+
+  private static int toBitmask(final Set<PluginEventType> eventTypes) {
+    int bitmask = 0;
+    // A mock or a dynamic proxy may not run the default method, and so may return null.
+    if (eventTypes != null) {
+      for (final PluginEventType eventType : eventTypes) {
+        bitmask |= 1 << eventType.ordinal();
+      }
+    }
+    return bitmask;
+  }
+
+  /**
+   * A single registered handler. It is shared by every {@link Snapshot} that contains the handler, so that its
+   * subscriptions are read at most once.
+   */
+  private static final class Registration {
+
+    private final UUID id;
+    private final PluginEventHandler handler;
+    // A bitmask of the event types the handler subscribes to, indexed by PluginEventType#ordinal(), once it's known.
+    private volatile Integer subscriptions;
+
+    private Registration(final UUID id, final PluginEventHandler handler) {
+      this.id = id;
+      this.handler = handler;
+    }
+
+    private boolean isSubscribed(final PluginEventType eventType) {
+      if (isLifecycleEvent(eventType)) {
+        return true;
+      }
+      Integer bitmask = this.subscriptions;
+      if (bitmask == null) {
+        synchronized (this) {
+          bitmask = this.subscriptions;
+          if (bitmask == null) {
+            bitmask = toBitmask(handler.getSubscribedEventTypes());
+            this.subscriptions = bitmask;
+          }
+        }
+      }
+      return (bitmask & (1 << eventType.ordinal())) != 0;
+    }
+  }
+
+  /**
+   * An immutable view of the registered handlers, in the order they were registered.
+   */
+  public static final class Snapshot {
+
+    private final Registration[] registrations;
+    // The handlers that subscribe to each event type, indexed by PluginEventType#ordinal(). Each entry is computed
+    // the first time its type is looked up.
+    private final AtomicReferenceArray<PluginEventHandler[]> handlersByType;
+
+    private Snapshot(final Registration[] registrations) {
+      this.registrations = registrations;
+      this.handlersByType = new AtomicReferenceArray<>(PluginEventType.values().length);
+    }
+
+    private PluginEventHandler[] handlersOf(final PluginEventType eventType) {
+      final PluginEventHandler[] cached = handlersByType.get(eventType.ordinal());
+      if (cached != null) {
+        return cached;
+      }
+      final PluginEventHandler[] subscribed = new PluginEventHandler[registrations.length];
+      int count = 0;
+      for (final Registration registration : registrations) {
+        if (registration.isSubscribed(eventType)) {
+          subscribed[count++] = registration.handler;
+        }
+      }
+      final PluginEventHandler[] handlers = Arrays.copyOf(subscribed, count);
+      handlersByType.set(eventType.ordinal(), handlers);
+      return handlers;
+    }
+
+    /**
+     * Whether at least one handler subscribes to {@code eventType}.
+     */
+    public boolean hasHandlers(final PluginEventType eventType) {
+      return handlersOf(eventType).length > 0;
+    }
+
+    /**
+     * The number of handlers that subscribe to {@code eventType}.
+     */
+    public int size(final PluginEventType eventType) {
+      return handlersOf(eventType).length;
+    }
+
+    /**
+     * The handler at {@code index} among those that subscribe to {@code eventType}.
+     */
+    public PluginEventHandler handler(final PluginEventType eventType, final int index) {
+      return handlersOf(eventType)[index];
+    }
+
+    /**
+     * Whether the handler at {@code index} subscribes to {@code eventType}.
+     */
+    public boolean isSubscribed(final int index, final PluginEventType eventType) {
+      return registrations[index].isSubscribed(eventType);
+    }
+
+    /**
+     * The number of registered handlers.
+     */
+    public int size() {
+      return registrations.length;
+    }
+
+    /**
+     * The id of the handler at {@code index}.
+     */
+    public UUID id(final int index) {
+      return registrations[index].id;
+    }
+
+    /**
+     * The handler at {@code index}.
+     */
+    public PluginEventHandler handler(final int index) {
+      return registrations[index].handler;
+    }
+
+    /**
+     * The index of the handler registered as {@code handlerId}, or {@code -1} if there is none.
+     */
+    public int indexOf(final UUID handlerId) {
+      for (int i = 0; i < registrations.length; i++) {
+        if (registrations[i].id.equals(handlerId)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+}
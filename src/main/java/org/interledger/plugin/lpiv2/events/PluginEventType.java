@@ -0,0 +1,59 @@
+package org.interledger.plugin.lpiv2.events;
+
+/**
+ * The types of {@link PluginEvent} that a {@link PluginEventHandler} can subscribe to.
+ *
+ * @see PluginEventHandler#getSubscribedEventTypes()
+ */
+public enum PluginEventType {
+
+  /**
+   * A {@link PluginConnectedEvent}.
+   */
+  CONNECTED,
+
+  /**
+   * A {@link PluginDisconnectedEvent}.
+   */
+  DISCONNECTED,
+
+  /**
+   * A {@link PluginErrorEvent}.
+   */
+  ERROR,
+
+  /**
+   * A {@link PacketSentEvent}.
+   */
+  PACKET_SENT,
+
+  /**
+   * A {@link PacketFulfilledEvent}.
+   */
+  PACKET_FULFILLED,
+
+  /**
+   * A {@link PacketRejectedEvent}.
+   */
+  PACKET_REJECTED,
+
+  /**
+   * A {@link PacketExpiredEvent}.
+   */
+  PACKET_EXPIRED,
+
+  /**
+   * An {@link IncomingPacketHandledEvent}.
+   */
+  INCOMING_PACKET_HANDLED,
+
+  /**
+   * A {@link SettlementCompletedEvent}.
+   */
+  SETTLEMENT_COMPLETED,
+
+  /**
+   * A {@link CircuitBreakerStateChangedEvent}.
+   */
+  CIRCUIT_BREAKER_STATE_CHANGED
+}
@@ -0,0 +1,408 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A {@link PluginEventEmitter} that never runs handler code on the emitting thread.</p>
+ *
+ * <p>Emitted events are written into a preallocated ring buffer. Every registered {@link PluginEventHandler} reads the
+ * buffer through its own cursor, on the supplied {@link Executor}, so a slow handler only delays its own events and an
+ * exception thrown by a handler is logged without affecting any other handler. A handler only sees events that are
+ * emitted after it was registered.</p>
+ *
+ * <p>A handler that falls more than the buffer's capacity behind is dealt with according to the {@link
+ * OverflowPolicy} of this emitter. The number of events a handler has yet to read (its lag), and the number it has
+ * missed, can be monitored using {@link #getLag(UUID)} and {@link #getDroppedCount(UUID)}.</p>
+ */
+public class RingBufferPluginEventEmitter implements PluginEventEmitter {
+
+  private static final Logger logger = LoggerFactory.getLogger(RingBufferPluginEventEmitter.class);
+
+  /**
+   * Determines what happens to a handler that falls more than the capacity of the ring buffer behind.
+   */
+  public enum OverflowPolicy {
+    /**
+     * The handler misses the oldest events, and continues with the oldest event that is still in the buffer.
+     */
+    DROP,
+
+    /**
+     * The emitting thread waits until the handler has read enough events for the new event to fit. Handlers must then
+     * never emit events themselves. If the executor rejects the handler, so that it can't catch up, the handler misses
+     * events as with {@link #DROP} instead.
+     */
+    BLOCK,
+
+    /**
+     * The handler skips every event except the most recent one, which reflects the latest state of the plugin.
+     */
+    COALESCE
+  }
+
+  private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+  private final PluginEventHandlers handlers;
+  private final Executor executor;
+  private final OverflowPolicy overflowPolicy;
+
+  private final AtomicReferenceArray<PluginEvent> slots;
+  private final int capacity;
+  private final int mask;
+
+  // The number of events whose slot is being, or has been, written. Only updated by the (single) writer.
+  private final AtomicLong claimedSequence = new AtomicLong();
+  // The number of events that can be read.
+  private final AtomicLong publishedSequence = new AtomicLong();
+
+  // One subscriber per handler in `subscribedHandlers`, which is the snapshot they were last built from.
+  private volatile Subscriber[] subscribers = NO_SUBSCRIBERS;
+  private volatile PluginEventHandlers.Snapshot subscribedHandlers;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param handlers       The {@link PluginEventHandlers} of the plugin.
+   * @param executor       The {@link Executor} that handlers are run on.
+   * @param capacity       The number of events the ring buffer can hold, rounded up to a power of two.
+   * @param overflowPolicy The {@link OverflowPolicy} for handlers that fall behind.
+   */
+  public RingBufferPluginEventEmitter(
+      final PluginEventHandlers handlers,
+      final Executor executor,
+      final int capacity,
+      final OverflowPolicy overflowPolicy
+  ) {
+    this.handlers = Objects.requireNonNull(handlers);
+    this.executor = Objects.requireNonNull(executor);
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+    if (capacity <= 0 || capacity > (1 << 30)) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+    }
+
+    this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = this.capacity - 1;
+    this.slots = new AtomicReferenceArray<>(this.capacity);
+  }
+
+  /////////////////
+  // Event Emitters
+  /////////////////
+
+  @Override
+  public void emitEvent(final PluginConnectedEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final PluginDisconnectedEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final PluginErrorEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final PacketSentEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final PacketFulfilledEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final PacketRejectedEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final PacketExpiredEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final IncomingPacketHandledEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final SettlementCompletedEvent event) {
+    this.publish(event);
+  }
+
+  @Override
+  public void emitEvent(final CircuitBreakerStateChangedEvent event) {
+    this.publish(event);
+  }
+
+  /**
+   * The number of events that have been emitted, but not yet read by the handler registered as {@code handlerId}.
+   */
+  public long getLag(final UUID handlerId) {
+    final Subscriber subscriber = this.findSubscriber(handlerId);
+    return subscriber == null ? 0 : publishedSequence.get() - subscriber.cursor.get();
+  }
+
+  /**
+   * The number of events that the handler registered as {@code handlerId} never saw because it fell behind.
+   */
+  public long getDroppedCount(final UUID handlerId) {
+    final Subscriber subscriber = this.findSubscriber(handlerId);
+    return subscriber == null ? 0 : subscriber.dropped.sum();
+  }
+
+  /**
+   * The number of events the ring buffer can hold.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  private void publish(final PluginEvent event) {
+    Objects.requireNonNull(event);
+    boolean mayOverwrite = overflowPolicy != OverflowPolicy.BLOCK;
+    Subscriber lagging;
+    while ((lagging = this.tryPublish(event, mayOverwrite)) != null) {
+      // Wait without holding the monitor, so that emitters on other threads are only ever held up by the buffer being
+      // full, and never by this thread.
+      if (lagging.trySchedule()) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+      } else {
+        // The executor won't run the handler, so it might never catch up; let it miss events rather than wait forever.
+        logger.warn("Unable to deliver events to handler {}; it may miss events", lagging.handlerId);
+        mayOverwrite = true;
+      }
+    }
+
+    final Subscriber[] subscribers = this.currentSubscribers();
+    for (int i = 0; i < subscribers.length; i++) {
+      subscribers[i].schedule();
+    }
+  }
+
+  /**
+   * Write {@code event} into the next slot of the ring buffer, unless that would overwrite an event a handler has yet
+   * to read and {@code mayOverwrite} is {@code false}.
+   *
+   * @return {@code null} if the event was written; otherwise the subscriber that must read further before it fits.
+   */
+  private synchronized Subscriber tryPublish(final PluginEvent event, final boolean mayOverwrite) {
+    // Events may be emitted from more than one thread, but each slot must only be written by one at a time.
+    final long sequence = publishedSequence.get();
+    // Subscribers of newly registered handlers start reading at this event, so must be created before it is written.
+    final Subscriber[] subscribers = this.currentSubscribers();
+    if (!mayOverwrite) {
+      for (final Subscriber subscriber : subscribers) {
+        if (sequence - subscriber.cursor.get() >= capacity) {
+          return subscriber;
+        }
+      }
+    }
+    claimedSequence.set(sequence + 1);
+    slots.set((int) (sequence & mask), event);
+    publishedSequence.set(sequence + 1);
+    return null;
+  }
+
+  /**
+   * Accessor for one subscriber per registered handler. The subscribers are only rebuilt when a handler has been added
+   * or removed since the last call; subscribers of handlers that remain registered keep their cursor.
+   */
+  private Subscriber[] currentSubscribers() {
+    final PluginEventHandlers.Snapshot snapshot = handlers.snapshot();
+    if (snapshot == subscribedHandlers) {
+      return subscribers;
+    }
+    synchronized (this) {
+      if (snapshot != subscribedHandlers) {
+        final Subscriber[] current = subscribers;
+        final Subscriber[] updated = new Subscriber[snapshot.size()];
+        for (int i = 0; i < updated.length; i++) {
+          final Subscriber existing = findSubscriber(current, snapshot.id(i));
+          updated[i] = existing != null ? existing : new Subscriber(snapshot, i);
+        }
+        subscribers = updated;
+        subscribedHandlers = snapshot;
+      }
+      return subscribers;
+    }
+  }
+
+  private Subscriber findSubscriber(final UUID handlerId) {
+    return findSubscriber(subscribers, handlerId);
+  }
+
+  private static Subscriber findSubscriber(final Subscriber[] subscribers, final UUID handlerId) {
+    for (final Subscriber subscriber : subscribers) {
+      if (subscriber.handlerId.equals(handlerId)) {
+        return subscriber;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads the ring buffer on behalf of a single handler.
+   */
+  private final class Subscriber implements Runnable {
+
+    private final UUID handlerId;
+    private final PluginEventHandler handler;
+    // The snapshot the subscriber was created from, which is used to look up the handler's subscriptions lazily.
+    private final PluginEventHandlers.Snapshot registeredIn;
+    private final int index;
+
+    // The sequence of the next event this handler will read.
+    private final AtomicLong cursor;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private Subscriber(final PluginEventHandlers.Snapshot handlers, final int index) {
+      this.handlerId = handlers.id(index);
+      this.handler = handlers.handler(index);
+      this.registeredIn = handlers;
+      this.index = index;
+      this.cursor = new AtomicLong(publishedSequence.get());
+    }
+
+    /**
+     * Ensure that this subscriber will read every event that has been published, without running it twice at once.
+     */
+    private void schedule() {
+      if (!this.trySchedule()) {
+        logger.warn("Unable to deliver events to handler {}", handlerId);
+      }
+    }
+
+    /**
+     * Like {@link #schedule()}, but without logging.
+     *
+     * @return {@code false} if the executor rejected the subscriber; otherwise {@code true}.
+     */
+    private boolean trySchedule() {
+      if (cursor.get() < publishedSequence.get() && scheduled.compareAndSet(false, true)) {
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          scheduled.set(false);
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Whether the handler subscribes to {@code eventType}. This is only asked once an event of that type is delivered,
+     * on the executor, so that creating a subscriber never calls into its handler.
+     */
+    private boolean isSubscribed(final PluginEventType eventType) {
+      return registeredIn.isSubscribed(index, eventType);
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        long next = cursor.get();
+        while (next < publishedSequence.get()) {
+          next = this.skipOverwritten(next);
+          final PluginEvent event = slots.get((int) (next & mask));
+          if (claimedSequence.get() - next > capacity) {
+            // The slot was overwritten while it was being read; skip ahead on the next iteration.
+            continue;
+          }
+          cursor.set(next + 1);
+          this.deliver(event);
+          next++;
+        }
+
+        scheduled.set(false);
+        // An event may have been published after the loop above finished, but before the flag was cleared.
+        if (cursor.get() >= publishedSequence.get() || !scheduled.compareAndSet(false, true)) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * If the slot for {@code next} has been (or is being) overwritten, skip ahead according to the overflow policy.
+     *
+     * @return The sequence of the next event to read.
+     */
+    private long skipOverwritten(final long next) {
+      final long claimed = claimedSequence.get();
+      if (claimed - next <= capacity) {
+        return next;
+      }
+      // Only skip to an event that has been published; the slot of `claimed - 1` may not have been written yet.
+      final long lastPublished = publishedSequence.get() - 1;
+      final long skipTo = overflowPolicy == OverflowPolicy.COALESCE
+          ? lastPublished : Math.min(lastPublished, claimed - capacity + 1);
+      dropped.add(skipTo - next);
+      return skipTo;
+    }
+
+    private void deliver(final PluginEvent event) {
+      try {
+        if (event instanceof PluginConnectedEvent) {
+          if (isSubscribed(PluginEventType.CONNECTED)) {
+            handler.onConnect((PluginConnectedEvent) event);
+          }
+        } else if (event instanceof PluginDisconnectedEvent) {
+          if (isSubscribed(PluginEventType.DISCONNECTED)) {
+            handler.onDisconnect((PluginDisconnectedEvent) event);
+          }
+        } else if (event instanceof PluginErrorEvent) {
+          if (isSubscribed(PluginEventType.ERROR)) {
+            handler.onError((PluginErrorEvent) event);
+          }
+        } else if (event instanceof PacketSentEvent) {
+          if (isSubscribed(PluginEventType.PACKET_SENT)) {
+            handler.onPacketSent((PacketSentEvent) event);
+          }
+        } else if (event instanceof PacketFulfilledEvent) {
+          if (isSubscribed(PluginEventType.PACKET_FULFILLED)) {
+            handler.onPacketFulfilled((PacketFulfilledEvent) event);
+          }
+        } else if (event instanceof PacketRejectedEvent) {
+          if (isSubscribed(PluginEventType.PACKET_REJECTED)) {
+            handler.onPacketRejected((PacketRejectedEvent) event);
+          }
+        } else if (event instanceof PacketExpiredEvent) {
+          if (isSubscribed(PluginEventType.PACKET_EXPIRED)) {
+            handler.onPacketExpired((PacketExpiredEvent) event);
+          }
+        } else if (event instanceof IncomingPacketHandledEvent) {
+          if (isSubscribed(PluginEventType.INCOMING_PACKET_HANDLED)) {
+            handler.onIncomingPacketHandled((IncomingPacketHandledEvent) event);
+          }
+        } else if (event instanceof SettlementCompletedEvent) {
+          if (isSubscribed(PluginEventType.SETTLEMENT_COMPLETED)) {
+            handler.onSettlementCompleted((SettlementCompletedEvent) event);
+          }
+        } else if (event instanceof CircuitBreakerStateChangedEvent) {
+          if (isSubscribed(PluginEventType.CIRCUIT_BREAKER_STATE_CHANGED)) {
+            handler.onCircuitBreakerStateChanged((CircuitBreakerStateChangedEvent) event);
+          }
+        }
+      } catch (RuntimeException e) {
+        logger.error("Handler {} failed to handle {}", handlerId, event, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package org.interledger.plugin.lpiv2.events;
+
+import org.immutables.value.Value;
+
+import java.math.BigInteger;
+
+/**
+ * Emitted after a plugin has settled with the remote peer.
+ */
+public interface SettlementCompletedEvent extends PluginEvent {
+
+  /**
+   * @return The amount that was settled. If settlements are coalesced, this is the total of every amount included.
+   */
+  BigInteger getAmount();
+
+  @Value.Immutable
+  abstract class AbstractSettlementCompletedEvent implements SettlementCompletedEvent {
+
+  }
+
+}
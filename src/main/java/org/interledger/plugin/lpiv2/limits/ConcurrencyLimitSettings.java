@@ -0,0 +1,90 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import org.immutables.value.Value;
+
+/**
+ * Configuration for a {@link ConcurrencyLimiter}.
+ */
+public interface ConcurrencyLimitSettings {
+
+  /**
+   * The number of packets that may be in-flight before the limiter has observed any round-trip times.
+   */
+  int initialLimit();
+
+  /**
+   * The lowest value the limit may be reduced to.
+   */
+  int minLimit();
+
+  /**
+   * The highest value the limit may be increased to.
+   */
+  int maxLimit();
+
+  /**
+   * The factor by which the limit is multiplied whenever a packet is dropped (i.e., times out or is rejected with a
+   * temporary error).
+   */
+  double backoffRatio();
+
+  /**
+   * The number of samples after which the minimum observed round-trip time is discarded and re-measured, so that the
+   * limiter adapts if the peer's baseline latency changes.
+   */
+  int minRttProbeInterval();
+
+  @Value.Immutable
+  abstract class AbstractConcurrencyLimitSettings implements ConcurrencyLimitSettings {
+
+    @Override
+    @Value.Default
+    public int initialLimit() {
+      return 20;
+    }
+
+    @Override
+    @Value.Default
+    public int minLimit() {
+      return 1;
+    }
+
+    @Override
+    @Value.Default
+    public int maxLimit() {
+      return 1_000;
+    }
+
+    @Override
+    @Value.Default
+    public double backoffRatio() {
+      return 0.9;
+    }
+
+    @Override
+    @Value.Default
+    public int minRttProbeInterval() {
+      return 1_000;
+    }
+
+    @Value.Check
+    protected void check() {
+      if (minLimit() <= 0) {
+        throw new IllegalStateException("minLimit must be greater than 0");
+      }
+      if (maxLimit() < minLimit()) {
+        throw new IllegalStateException("maxLimit must not be less than minLimit");
+      }
+      if (initialLimit() < minLimit() || initialLimit() > maxLimit()) {
+        throw new IllegalStateException("initialLimit must be between minLimit and maxLimit");
+      }
+      if (backoffRatio() <= 0 || backoffRatio() >= 1) {
+        throw new IllegalStateException("backoffRatio must be between 0 and 1");
+      }
+      if (minRttProbeInterval() <= 0) {
+        throw new IllegalStateException("minRttProbeInterval must be greater than 0");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Bounds the number of packets that may be in-flight at the same time, adapting the bound to the round-trip time
+ * (RTT) observed for each packet, in the style of TCP Vegas.</p>
+ *
+ * <p>The limiter tracks the minimum RTT it has seen, which approximates the peer's latency when no packets are
+ * queued. Every completed packet yields an estimate of how many packets are queued at the peer, {@code limit * (1 -
+ * minRtt / rtt)}. While that estimate is small the limit grows, and once it exceeds a threshold the limit shrinks. A
+ * dropped packet shrinks the limit multiplicatively.</p>
+ *
+ * <p>All state is held in atomic variables, so acquiring and releasing a permit never blocks.</p>
+ */
+public class ConcurrencyLimiter {
+
+  private final ConcurrencyLimitSettings settings;
+
+  private final AtomicInteger limit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong minRttNanos = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong samples = new AtomicLong();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param settings A {@link ConcurrencyLimitSettings} that configures this limiter.
+   */
+  public ConcurrencyLimiter(final ConcurrencyLimitSettings settings) {
+    this.settings = Objects.requireNonNull(settings);
+    this.limit = new AtomicInteger(settings.initialLimit());
+  }
+
+  /**
+   * Attempt to acquire a permit to send a packet. Every successful call must be followed by exactly one call to {@link
+   * #release(long, boolean)}.
+   *
+   * @return {@code true} if a permit was acquired; {@code false} if the limit has been reached.
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      final int current = inFlight.get();
+      if (current >= limit.get()) {
+        rejected.increment();
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Release a permit previously acquired using {@link #tryAcquire()}, and adjust the limit according to the outcome of
+   * the packet.
+   *
+   * @param rttNanos The time, in nanoseconds, between acquiring the permit and the packet completing.
+   * @param dropped  {@code true} if the packet timed out or was rejected because the peer was overloaded.
+   */
+  public void release(final long rttNanos, final boolean dropped) {
+    final int currentInFlight = inFlight.getAndDecrement();
+    final int currentLimit = limit.get();
+
+    if (dropped) {
+      updateLimit(currentLimit, (int) (currentLimit * settings.backoffRatio()));
+      return;
+    }
+
+    if (samples.incrementAndGet() % settings.minRttProbeInterval() == 0) {
+      // Periodically forget the minimum so that a permanent increase in the peer's latency is eventually accepted.
+      minRttNanos.set(rttNanos);
+    } else {
+      long currentMin;
+      while (rttNanos < (currentMin = minRttNanos.get()) && !minRttNanos.compareAndSet(currentMin, rttNanos)) {
+        // Retry until this sample has been recorded or a smaller one has been seen.
+      }
+    }
+
+    // Don't grow the limit if the caller isn't using it; the RTT says nothing about the peer's capacity.
+    if (currentInFlight * 2 < currentLimit) {
+      return;
+    }
+
+    final double minRtt = minRttNanos.get();
+    final int queueSize = (int) Math.ceil(currentLimit * (1 - minRtt / Math.max(rttNanos, 1)));
+    final int threshold = Math.max(1, (int) Math.log10(currentLimit));
+    final int alpha = 3 * threshold;
+    final int beta = 6 * threshold;
+
+    if (queueSize <= threshold) {
+      updateLimit(currentLimit, currentLimit + beta);
+    } else if (queueSize < alpha) {
+      updateLimit(currentLimit, currentLimit + threshold);
+    } else if (queueSize > beta) {
+      updateLimit(currentLimit, currentLimit - threshold);
+    }
+  }
+
+  private void updateLimit(final int expected, final int proposed) {
+    final int bounded = Math.min(settings.maxLimit(), Math.max(settings.minLimit(), proposed));
+    // If another thread has already moved the limit, its update is based on fresher data, so this one is discarded.
+    limit.compareAndSet(expected, bounded);
+  }
+
+  /**
+   * The current maximum number of in-flight packets.
+   */
+  public int getLimit() {
+    return limit.get();
+  }
+
+  /**
+   * The number of packets currently in-flight.
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * The total number of packets rejected because the limit had been reached.
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrencyLimiter{"
+        + "limit=" + limit.get()
+        + ", inFlight=" + inFlight.get()
+        + ", rejected=" + rejected.sum()
+        + '}';
+  }
+}
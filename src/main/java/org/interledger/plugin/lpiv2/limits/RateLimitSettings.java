@@ -0,0 +1,72 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import org.immutables.value.Value;
+
+import java.util.OptionalLong;
+
+/**
+ * Configuration for a {@link RateLimiter}. At least one of {@link #packetsPerSecond()} and {@link #amountPerSecond()}
+ * must be present.
+ */
+public interface RateLimitSettings {
+
+  /**
+   * The sustained number of packets per second that are admitted. If empty, the number of packets is not limited.
+   */
+  OptionalLong packetsPerSecond();
+
+  /**
+   * The number of packets that may be admitted at once after a quiet period, i.e. the capacity of the packet bucket.
+   * Defaults to one second's worth of {@link #packetsPerSecond()}.
+   */
+  long packetBurst();
+
+  /**
+   * The sustained total amount per second, in the units of the account with the peer, of the packets that are
+   * admitted. If empty, the amount is not limited.
+   */
+  OptionalLong amountPerSecond();
+
+  /**
+   * The total amount that may be admitted at once after a quiet period, i.e. the capacity of the amount bucket. No
+   * single packet with a larger amount is ever admitted, so such packets are rejected as too large rather than as rate
+   * limited. Defaults to one second's worth of {@link #amountPerSecond()}.
+   */
+  long amountBurst();
+
+  @Value.Immutable
+  abstract class AbstractRateLimitSettings implements RateLimitSettings {
+
+    @Override
+    @Value.Default
+    public long packetBurst() {
+      return packetsPerSecond().orElse(1);
+    }
+
+    @Override
+    @Value.Default
+    public long amountBurst() {
+      return amountPerSecond().orElse(1);
+    }
+
+    @Value.Check
+    protected void check() {
+      if (!packetsPerSecond().isPresent() && !amountPerSecond().isPresent()) {
+        throw new IllegalStateException("At least one of packetsPerSecond and amountPerSecond must be present");
+      }
+      if (packetsPerSecond().isPresent() && packetsPerSecond().getAsLong() <= 0) {
+        throw new IllegalStateException("packetsPerSecond must be greater than 0");
+      }
+      if (packetBurst() <= 0) {
+        throw new IllegalStateException("packetBurst must be greater than 0");
+      }
+      if (amountPerSecond().isPresent() && amountPerSecond().getAsLong() <= 0) {
+        throw new IllegalStateException("amountPerSecond must be greater than 0");
+      }
+      if (amountBurst() <= 0) {
+        throw new IllegalStateException("amountBurst must be greater than 0");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Limits the rate at which packets are admitted, by number of packets and by total amount, using a {@link
+ * TokenBucket} for each. A packet is admitted if it can take one token from the packet bucket and as many tokens as
+ * its amount from the amount bucket.</p>
+ *
+ * <p>Packets are checked against the packet bucket first, so a packet that is then rejected for its amount still
+ * counts towards the packet rate; a peer that keeps sending packets that are too large is limited by both.</p>
+ */
+public class RateLimiter {
+
+  private final Optional<TokenBucket> packetBucket;
+  private final Optional<TokenBucket> amountBucket;
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param settings A {@link RateLimitSettings} that configures this limiter.
+   */
+  public RateLimiter(final RateLimitSettings settings) {
+    Objects.requireNonNull(settings);
+    this.packetBucket = settings.packetsPerSecond().isPresent()
+        ? Optional.of(new TokenBucket(settings.packetBurst(), settings.packetsPerSecond().getAsLong()))
+        : Optional.empty();
+    this.amountBucket = settings.amountPerSecond().isPresent()
+        ? Optional.of(new TokenBucket(settings.amountBurst(), settings.amountPerSecond().getAsLong()))
+        : Optional.empty();
+  }
+
+  /**
+   * Whether a packet could ever be admitted, no matter how long its sender waits: that is, whether its amount fits in
+   * the amount bucket. Checking this does not take any tokens.
+   *
+   * @param amount The amount of the packet, or a negative number if it is too large to be represented as a {@code
+   *               long}.
+   *
+   * @return {@code true} if the packet is admitted by {@link #tryAcquire(long)} once both buckets have refilled;
+   *     {@code false} if its amount is larger than the capacity of the amount bucket.
+   */
+  public boolean isAdmissible(final long amount) {
+    return !this.amountBucket.isPresent() || (amount >= 0 && amount <= this.amountBucket.get().getCapacity());
+  }
+
+  /**
+   * Attempt to admit a packet.
+   *
+   * @param amount The amount of the packet, or a negative number if it is too large to be represented as a {@code
+   *               long}, in which case it is never admitted by a limiter with an amount rate.
+   *
+   * @return {@code true} if the packet was admitted; {@code false} if it exceeds either rate.
+   */
+  public boolean tryAcquire(final long amount) {
+    if ((this.packetBucket.isPresent() && !this.packetBucket.get().tryTake(1))
+        || (this.amountBucket.isPresent() && !this.amountBucket.get().tryTake(amount))) {
+      rejected.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * The bucket that limits the number of packets, or {@link Optional#empty()} if the number isn't limited.
+   */
+  public Optional<TokenBucket> getPacketBucket() {
+    return packetBucket;
+  }
+
+  /**
+   * The bucket that limits the total amount, or {@link Optional#empty()} if the amount isn't limited.
+   */
+  public Optional<TokenBucket> getAmountBucket() {
+    return amountBucket;
+  }
+
+  /**
+   * The total number of packets rejected because they exceeded either rate.
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "RateLimiter{"
+        + "availablePackets=" + packetBucket.map(TokenBucket::getAvailableTokens).orElse(null)
+        + ", availableAmount=" + amountBucket.map(TokenBucket::getAvailableTokens).orElse(null)
+        + ", rejected=" + rejected.sum()
+        + '}';
+  }
+}
@@ -0,0 +1,150 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>A token bucket that holds up to {@code capacity} tokens and is refilled at {@code tokensPerSecond}.</p>
+ *
+ * <p>Rather than adding tokens on a timer, the bucket stores the number of tokens it held at the last instant it was
+ * read, and derives the number it holds now from how long ago that was. That snapshot is held in one {@link
+ * AtomicReference}, so taking tokens is a single compare-and-set, and no thread is needed to refill the bucket.</p>
+ *
+ * <p>The refill is computed in exact integer arithmetic: the fraction of a token that has refilled but not yet been
+ * added is carried from one snapshot to the next, so the bucket neither gains nor loses tokens however long it has been
+ * running, and however small the fraction of a nanosecond each token takes to refill.</p>
+ */
+public class TokenBucket {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final long capacity;
+  private final long tokensPerSecond;
+  // tokensPerSecond, split into the whole tokens and the billionths of a token refilled per nanosecond.
+  private final long tokensPerNano;
+  private final long billionthsPerNano;
+  private final LongSupplier nanoClock;
+  private final AtomicReference<Snapshot> snapshot;
+
+  /**
+   * Required-args Constructor. The bucket starts full, and is refilled according to {@link System#nanoTime()}.
+   *
+   * @param capacity        The maximum number of tokens the bucket holds.
+   * @param tokensPerSecond The rate at which tokens are added to the bucket.
+   */
+  public TokenBucket(final long capacity, final long tokensPerSecond) {
+    this(capacity, tokensPerSecond, System::nanoTime);
+  }
+
+  /**
+   * Required-args Constructor. The bucket starts full.
+   *
+   * @param capacity        The maximum number of tokens the bucket holds.
+   * @param tokensPerSecond The rate at which tokens are added to the bucket.
+   * @param nanoClock       A source of nanoseconds with the semantics of {@link System#nanoTime()}, used to determine
+   *                        how many tokens have been refilled.
+   */
+  public TokenBucket(final long capacity, final long tokensPerSecond, final LongSupplier nanoClock) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be greater than 0");
+    }
+    if (tokensPerSecond <= 0) {
+      throw new IllegalArgumentException("tokensPerSecond must be greater than 0");
+    }
+    this.capacity = capacity;
+    this.tokensPerSecond = tokensPerSecond;
+    this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+    this.billionthsPerNano = tokensPerSecond % NANOS_PER_SECOND;
+    this.nanoClock = Objects.requireNonNull(nanoClock);
+    this.snapshot = new AtomicReference<>(new Snapshot(nanoClock.getAsLong(), capacity, 0));
+  }
+
+  /**
+   * Take {@code tokens} from the bucket, if it holds that many.
+   *
+   * @param tokens The number of tokens to take.
+   *
+   * @return {@code true} if the tokens were taken; {@code false} if the bucket holds fewer than {@code tokens}, in
+   *     which case none are taken.
+   */
+  public boolean tryTake(final long tokens) {
+    if (tokens < 0 || tokens > capacity) {
+      return false;
+    }
+    final long nowNanos = nanoClock.getAsLong();
+    while (true) {
+      final Snapshot current = snapshot.get();
+      final Snapshot refilled = refill(current, nowNanos);
+      if (refilled.tokens < tokens) {
+        return false;
+      }
+      final Snapshot next = new Snapshot(refilled.nanos, refilled.tokens - tokens, refilled.billionths);
+      if (snapshot.compareAndSet(current, next)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * The number of tokens currently in the bucket.
+   */
+  public long getAvailableTokens() {
+    return refill(snapshot.get(), nanoClock.getAsLong()).tokens;
+  }
+
+  /**
+   * The maximum number of tokens the bucket holds.
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * The contents of {@code snapshot} once the tokens refilled between its instant and {@code nowNanos} are added.
+   */
+  private Snapshot refill(final Snapshot snapshot, final long nowNanos) {
+    final long elapsedNanos = nowNanos - snapshot.nanos;
+    // Another thread may have read the clock after this one, but taken tokens first; never move the snapshot back.
+    if (elapsedNanos <= 0) {
+      return snapshot;
+    }
+    if (snapshot.tokens == capacity) {
+      return new Snapshot(nowNanos, capacity, 0);
+    }
+
+    final long missing = capacity - snapshot.tokens;
+    final long seconds = elapsedNanos / NANOS_PER_SECOND;
+    // Checked first so that none of the products below can overflow: fromSeconds is at most missing, and fromNanos is
+    // at most tokensPerSecond.
+    if (seconds > missing / tokensPerSecond) {
+      return new Snapshot(nowNanos, capacity, 0);
+    }
+    final long nanos = elapsedNanos % NANOS_PER_SECOND;
+    final long billionths = nanos * billionthsPerNano + snapshot.billionths;
+    final long fromSeconds = seconds * tokensPerSecond;
+    final long fromNanos = nanos * tokensPerNano + billionths / NANOS_PER_SECOND;
+    if (fromNanos >= missing - fromSeconds) {
+      return new Snapshot(nowNanos, capacity, 0);
+    }
+    return new Snapshot(nowNanos, snapshot.tokens + fromSeconds + fromNanos, billionths % NANOS_PER_SECOND);
+  }
+
+  /**
+   * The number of tokens in the bucket at an instant, plus the billionths of a token that had been refilled by then
+   * but not yet added.
+   */
+  private static final class Snapshot {
+
+    private final long nanos;
+    private final long tokens;
+    private final long billionths;
+
+    private Snapshot(final long nanos, final long tokens, final long billionths) {
+      this.nanos = nanos;
+      this.tokens = tokens;
+      this.billionths = billionths;
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package org.interledger.plugin.lpiv2.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A lock-free histogram of durations, in nanoseconds, with a fixed memory footprint.</p>
+ *
+ * <p>Values are counted in log-linear buckets, in the style of HdrHistogram: every power of two is divided into {@link
+ * #SUB_BUCKETS} equally sized buckets, so each recorded value is accurate to within about 6%, or to within {@link
+ * #RESOLUTION_NANOS} for values smaller than about 16 microseconds. Values larger than {@link #MAX_TRACKABLE_NANOS} are
+ * counted as that value.</p>
+ *
+ * <p>To avoid contention between threads, counts are kept in several stripes, and each thread records into the stripe
+ * selected by its id. Stripes are allocated the first time they are used, so a histogram that is rarely recorded into
+ * costs little memory. Reading the histogram merges the stripes into an immutable {@link Snapshot}.</p>
+ *
+ * <p>A plugin keeps twelve histograms, so their size matters: the resolution, range and number of stripes are chosen so
+ * that a histogram with every stripe allocated holds at most 4 x 400 counts (about 13 KB).</p>
+ */
+public class LatencyHistogram {
+
+  /**
+   * The number of buckets each power of two is divided into.
+   */
+  public static final int SUB_BUCKETS = 16;
+
+  /**
+   * The precision of the smallest values. Plugin operations never take less than a microsecond or so, so counting
+   * nanoseconds exactly would only add buckets that are never used.
+   */
+  public static final long RESOLUTION_NANOS = 1L << 10;
+
+  /**
+   * The largest value that is counted exactly (about 4.6 minutes, which is longer than any packet may be in-flight).
+   */
+  public static final long MAX_TRACKABLE_NANOS = (1L << 38) - 1;
+
+  private static final int UNIT_SHIFT = Long.numberOfTrailingZeros(RESOLUTION_NANOS);
+  private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+  private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS >>> UNIT_SHIFT) + 1;
+  private static final int STRIPE_COUNT = stripeCount();
+
+  private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+
+  /**
+   * Record a single duration.
+   *
+   * @param nanos A duration, in nanoseconds. Negative values are counted as zero.
+   */
+  public void record(final long nanos) {
+    final int stripeIndex = (int) Thread.currentThread().getId() & (STRIPE_COUNT - 1);
+    AtomicLongArray stripe = stripes.get(stripeIndex);
+    if (stripe == null) {
+      stripes.compareAndSet(stripeIndex, null, new AtomicLongArray(BUCKET_COUNT));
+      stripe = stripes.get(stripeIndex);
+    }
+    stripe.incrementAndGet(bucketIndex(Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS) >>> UNIT_SHIFT));
+  }
+
+  /**
+   * Merge every stripe into a {@link Snapshot}. Values recorded while the snapshot is being taken may or may not be
+   * included.
+   */
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < STRIPE_COUNT; i++) {
+      final AtomicLongArray stripe = stripes.get(i);
+      if (stripe != null) {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+          counts[bucket] += stripe.get(bucket);
+        }
+      }
+    }
+    return new Snapshot(counts);
+  }
+
+  /**
+   * The index of the bucket that counts {@code value}, in units of {@link #RESOLUTION_NANOS}.
+   */
+  private static int bucketIndex(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    final int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * The smallest value, in units of {@link #RESOLUTION_NANOS}, counted by the bucket at {@code index}.
+   */
+  private static long lowestUnits(final int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    final int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + subBucket)) << shift;
+  }
+
+  /**
+   * The smallest value, in nanoseconds, counted by the bucket at {@code index}.
+   */
+  private static long lowestValue(final int index) {
+    return lowestUnits(index) << UNIT_SHIFT;
+  }
+
+  /**
+   * The largest value, in nanoseconds, counted by the bucket at {@code index}.
+   */
+  private static long highestValue(final int index) {
+    final int shift = index < SUB_BUCKETS ? 0 : (index - SUB_BUCKETS) / SUB_BUCKETS;
+    return ((lowestUnits(index) + (1L << shift)) << UNIT_SHIFT) - 1;
+  }
+
+  /**
+   * One stripe per available processor (rounded up to a power of two), but no more than 4. Beyond that, the memory
+   * of more stripes costs more than the contention they would avoid.
+   */
+  private static int stripeCount() {
+    final int processors = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+    return processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+  }
+
+  /**
+   * An immutable view of a {@link LatencyHistogram} at a point in time.
+   */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long totalCount;
+
+    private Snapshot(final long[] counts) {
+      this.counts = counts;
+      long total = 0;
+      for (final long count : counts) {
+        total += count;
+      }
+      this.totalCount = total;
+    }
+
+    /**
+     * The number of recorded values.
+     */
+    public long getCount() {
+      return totalCount;
+    }
+
+    /**
+     * The value, in nanoseconds, below which {@code percentile} percent of recorded values fall, or zero if no values
+     * have been recorded.
+     *
+     * @param percentile A percentile between 0 and 100, e.g. {@code 99.9}.
+     */
+    public long getValueAtPercentile(final double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("percentile must be between 0 and 100");
+      }
+      if (totalCount == 0) {
+        return 0;
+      }
+      final long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+      long cumulative = 0;
+      for (int i = 0; i < counts.length; i++) {
+        cumulative += counts[i];
+        if (cumulative >= target) {
+          return highestValue(i);
+        }
+      }
+      return highestValue(counts.length - 1);
+    }
+
+    /**
+     * The median, in nanoseconds.
+     */
+    public long getP50() {
+      return getValueAtPercentile(50);
+    }
+
+    /**
+     * The 99th percentile, in nanoseconds.
+     */
+    public long getP99() {
+      return getValueAtPercentile(99);
+    }
+
+    /**
+     * The 99.9th percentile, in nanoseconds.
+     */
+    public long getP999() {
+      return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * The largest recorded value, in nanoseconds (to within the precision of its bucket).
+     */
+    public long getMax() {
+      for (int i = counts.length - 1; i >= 0; i--) {
+        if (counts[i] > 0) {
+          return highestValue(i);
+        }
+      }
+      return 0;
+    }
+
+    /**
+     * The mean of the recorded values, in nanoseconds (to within the precision of their buckets).
+     */
+    public double getMean() {
+      if (totalCount == 0) {
+        return 0;
+      }
+      double sum = 0;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] > 0) {
+          sum += counts[i] * ((lowestValue(i) + highestValue(i)) / 2.0);
+        }
+      }
+      return sum / totalCount;
+    }
+
+    @Override
+    public String toString() {
+      return "LatencyHistogram.Snapshot{"
+          + "count=" + totalCount
+          + ", p50=" + TimeUnit.NANOSECONDS.toMicros(getP50()) + "us"
+          + ", p99=" + TimeUnit.NANOSECONDS.toMicros(getP99()) + "us"
+          + ", p999=" + TimeUnit.NANOSECONDS.toMicros(getP999()) + "us"
+          + ", max=" + TimeUnit.NANOSECONDS.toMicros(getMax()) + "us"
+          + '}';
+    }
+  }
+}
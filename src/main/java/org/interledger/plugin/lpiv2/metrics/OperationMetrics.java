@@ -0,0 +1,100 @@
+package org.interledger.plugin.lpiv2.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Latency histograms and throughput counters for a single kind of operation performed by a plugin (e.g., sending a
+ * packet).</p>
+ *
+ * <ul>
+ * <li>{@link #getQueueWait()}: the time between work being submitted to the plugin's executor and it starting to
+ * run. Only recorded for work the plugin runs on one of its executors.</li>
+ * <li>{@link #getExecution()}: the time the work ran for on the executor.</li>
+ * <li>{@link #getLatency()}: the time between the operation being requested and its future completing, which covers
+ * both of the above, or the whole response time of an asynchronous transport.</li>
+ * </ul>
+ */
+public class OperationMetrics {
+
+  private final LatencyHistogram queueWait = new LatencyHistogram();
+  private final LatencyHistogram execution = new LatencyHistogram();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  // Counted separately from the latency histogram, so that reading the count doesn't merge the histogram's stripes.
+  private final LongAdder completions = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final long startNanos = System.nanoTime();
+
+  /**
+   * Record the time a unit of work waited for an executor thread.
+   */
+  public void recordQueueWait(final long nanos) {
+    queueWait.record(nanos);
+  }
+
+  /**
+   * Record the time a unit of work ran for on an executor thread.
+   */
+  public void recordExecution(final long nanos) {
+    execution.record(nanos);
+  }
+
+  /**
+   * Record that an operation completed.
+   *
+   * @param nanos  The time between the operation being requested and its completion.
+   * @param failed {@code true} if the operation completed exceptionally.
+   */
+  public void recordCompletion(final long nanos, final boolean failed) {
+    latency.record(nanos);
+    completions.increment();
+    if (failed) {
+      failures.increment();
+    }
+  }
+
+  public LatencyHistogram getQueueWait() {
+    return queueWait;
+  }
+
+  public LatencyHistogram getExecution() {
+    return execution;
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * The number of operations that have completed, successfully or not.
+   */
+  public long getCount() {
+    return completions.sum();
+  }
+
+  /**
+   * The number of operations that completed exceptionally.
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * The mean number of operations completed per second since this object was created.
+   */
+  public double getMeanRate() {
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    return elapsedNanos <= 0 ? 0 : getCount() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+  }
+
+  @Override
+  public String toString() {
+    return "OperationMetrics{"
+        + "latency=" + latency.snapshot()
+        + ", queueWait=" + queueWait.snapshot()
+        + ", execution=" + execution.snapshot()
+        + ", completions=" + completions.sum()
+        + ", failures=" + failures.sum()
+        + '}';
+  }
+}
@@ -0,0 +1,54 @@
+package org.interledger.plugin.lpiv2.metrics;
+
+import org.interledger.plugin.lpiv2.Plugin;
+
+/**
+ * The {@link OperationMetrics} recorded by a single {@link Plugin}. Recording is cheap enough (a few atomic increments
+ * per operation) to always be enabled.
+ */
+public class PluginMetrics {
+
+  private final OperationMetrics sendPacket = new OperationMetrics();
+  private final OperationMetrics handleIncomingPacket = new OperationMetrics();
+  private final OperationMetrics settle = new OperationMetrics();
+  private final OperationMetrics handleIncomingSettle = new OperationMetrics();
+
+  /**
+   * Metrics for {@link Plugin#sendPacket}.
+   */
+  public OperationMetrics getSendPacket() {
+    return sendPacket;
+  }
+
+  /**
+   * Metrics for {@link Plugin#handleIncomingPacket}.
+   */
+  public OperationMetrics getHandleIncomingPacket() {
+    return handleIncomingPacket;
+  }
+
+  /**
+   * Metrics for {@link Plugin#settle}. If settlements are coalesced, the latency of each call includes the time it
+   * waited to be merged, while the queue wait and execution are recorded once per merged settlement.
+   */
+  public OperationMetrics getSettle() {
+    return settle;
+  }
+
+  /**
+   * Metrics for {@link Plugin#handleIncomingSettle}.
+   */
+  public OperationMetrics getHandleIncomingSettle() {
+    return handleIncomingSettle;
+  }
+
+  @Override
+  public String toString() {
+    return "PluginMetrics{"
+        + "sendPacket=" + sendPacket
+        + ", handleIncomingPacket=" + handleIncomingPacket
+        + ", settle=" + settle
+        + ", handleIncomingSettle=" + handleIncomingSettle
+        + '}';
+  }
+}
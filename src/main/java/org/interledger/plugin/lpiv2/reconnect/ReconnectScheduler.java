@@ -0,0 +1,232 @@
+package org.interledger.plugin.lpiv2.reconnect;
+
+import org.interledger.plugin.lpiv2.support.Completions;
+import org.interledger.plugin.lpiv2.support.HashedWheelTimer;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * <p>Schedules attempts to reconnect plugins, with exponential backoff and decorrelated jitter (see {@link
+ * ReconnectSettings}).</p>
+ *
+ * <p>Delays are tracked by a {@link HashedWheelTimer}, so waiting to reconnect costs no thread, no matter how many
+ * plugins are waiting. Once a plugin's delay has elapsed, its attempt is started only if fewer than {@code
+ * maxConcurrentAttempts} attempts are already in progress; otherwise it waits its turn. This keeps a node that lost
+ * thousands of connections at once (e.g., after a network blip) from overwhelming its peers, or itself, with
+ * handshakes.</p>
+ */
+public class ReconnectScheduler {
+
+  /**
+   * The number of attempts the {@link #shared()} scheduler allows to be in progress at once.
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_ATTEMPTS = 32;
+
+  private final HashedWheelTimer timer;
+  private final int maxConcurrentAttempts;
+  private final AtomicInteger activeAttempts = new AtomicInteger();
+  private final Queue<Reconnection> waiting = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param timer                 The {@link HashedWheelTimer} used to wait between attempts.
+   * @param maxConcurrentAttempts The maximum number of attempts that may be in progress at once.
+   */
+  public ReconnectScheduler(final HashedWheelTimer timer, final int maxConcurrentAttempts) {
+    this.timer = Objects.requireNonNull(timer);
+    if (maxConcurrentAttempts <= 0) {
+      throw new IllegalArgumentException("maxConcurrentAttempts must be greater than 0");
+    }
+    this.maxConcurrentAttempts = maxConcurrentAttempts;
+  }
+
+  /**
+   * Accessor for the scheduler that is shared by every plugin in this JVM, which waits using {@link
+   * HashedWheelTimer#shared()}.
+   */
+  public static ReconnectScheduler shared() {
+    return SharedSchedulerHolder.INSTANCE;
+  }
+
+  /**
+   * Construct a {@link Reconnection} that repeatedly calls {@code attempt} until it succeeds. The reconnection does
+   * nothing until {@link Reconnection#start()} is called.
+   *
+   * @param reconnectSettings The {@link ReconnectSettings} that determine the delay between attempts.
+   * @param attempt           Starts a single attempt to connect, returning a future that completes once it has
+   *                          succeeded or failed.
+   */
+  public Reconnection newReconnection(
+      final ReconnectSettings reconnectSettings, final Supplier<CompletableFuture<Void>> attempt
+  ) {
+    return new Reconnection(reconnectSettings, attempt);
+  }
+
+  /**
+   * The number of attempts currently in progress.
+   */
+  public int getActiveAttempts() {
+    return activeAttempts.get();
+  }
+
+  /**
+   * The number of attempts whose delay has elapsed, but which are waiting for another attempt to finish.
+   */
+  public int getWaitingAttempts() {
+    return waiting.size();
+  }
+
+  private void admit(final Reconnection reconnection) {
+    waiting.add(reconnection);
+    drain();
+  }
+
+  private void release() {
+    activeAttempts.decrementAndGet();
+    drain();
+  }
+
+  private void drain() {
+    while (!waiting.isEmpty()) {
+      final int active = activeAttempts.get();
+      if (active >= maxConcurrentAttempts) {
+        // The attempt holding the slot drains the queue again once it finishes.
+        return;
+      }
+      if (!activeAttempts.compareAndSet(active, active + 1)) {
+        continue;
+      }
+      final Reconnection reconnection = waiting.poll();
+      if (reconnection == null) {
+        activeAttempts.decrementAndGet();
+      } else {
+        reconnection.attempt();
+      }
+    }
+  }
+
+  private static final class SharedSchedulerHolder {
+
+    private static final ReconnectScheduler INSTANCE = new ReconnectScheduler(
+        HashedWheelTimer.shared(), DEFAULT_MAX_CONCURRENT_ATTEMPTS
+    );
+  }
+
+  /**
+   * The attempts to reconnect a single plugin, which continue until one succeeds, {@link
+   * ReconnectSettings#maxAttempts()} have failed, or the reconnection is cancelled. Attempts are made one at a time.
+   */
+  public final class Reconnection {
+
+    private final ReconnectSettings reconnectSettings;
+    private final Supplier<CompletableFuture<Void>> attempt;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private volatile boolean cancelled;
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    // Only accessed by one attempt (or the thread scheduling it) at a time.
+    private long previousDelayNanos;
+    private int attempts;
+
+    private Reconnection(final ReconnectSettings reconnectSettings, final Supplier<CompletableFuture<Void>> attempt) {
+      this.reconnectSettings = Objects.requireNonNull(reconnectSettings);
+      this.attempt = Objects.requireNonNull(attempt);
+      this.previousDelayNanos = reconnectSettings.initialBackoff().toNanos();
+    }
+
+    /**
+     * Schedule the first attempt.
+     */
+    public void start() {
+      this.scheduleNext();
+    }
+
+    /**
+     * Stop attempting to reconnect. An attempt that is already in progress is not interrupted, but no further attempts
+     * are made.
+     *
+     * @return {@code true} if this call cancelled the reconnection; {@code false} if it had already finished.
+     */
+    public boolean cancel() {
+      cancelled = true;
+      final HashedWheelTimer.Timeout current = this.timeout;
+      if (current != null) {
+        current.cancel();
+      }
+      return result.completeExceptionally(new CancellationException("Reconnection cancelled"));
+    }
+
+    /**
+     * A {@link CompletableFuture} that completes once an attempt succeeds, or exceptionally once the reconnection gives
+     * up or is cancelled.
+     */
+    public CompletableFuture<Void> getResult() {
+      return result;
+    }
+
+    /**
+     * The number of attempts started so far.
+     */
+    public int getAttempts() {
+      return attempts;
+    }
+
+    private void scheduleNext() {
+      if (cancelled) {
+        return;
+      }
+      this.timeout = timer.schedule(() -> admit(this), nextDelayNanos(), TimeUnit.NANOSECONDS);
+      if (cancelled) {
+        this.timeout.cancel();
+      }
+    }
+
+    /**
+     * A random delay between the initial backoff and three times the previous delay, capped at the maximum backoff.
+     */
+    private long nextDelayNanos() {
+      final long initialNanos = reconnectSettings.initialBackoff().toNanos();
+      final long maxNanos = reconnectSettings.maxBackoff().toNanos();
+      final long upperNanos = previousDelayNanos > maxNanos / 3 ? maxNanos : previousDelayNanos * 3;
+      final long delayNanos = upperNanos <= initialNanos
+          ? initialNanos : ThreadLocalRandom.current().nextLong(initialNanos, upperNanos + 1);
+      this.previousDelayNanos = delayNanos;
+      return delayNanos;
+    }
+
+    private void attempt() {
+      if (cancelled) {
+        release();
+        return;
+      }
+      attempts++;
+      CompletableFuture<Void> future;
+      try {
+        future = attempt.get();
+      } catch (RuntimeException e) {
+        future = Completions.failedFuture(e);
+      }
+      future.whenComplete((ignored, error) -> {
+        release();
+        if (error == null) {
+          result.complete(null);
+        } else if (reconnectSettings.maxAttempts().isPresent()
+            && attempts >= reconnectSettings.maxAttempts().getAsInt()) {
+          result.completeExceptionally(error);
+        } else {
+          scheduleNext();
+        }
+      });
+    }
+  }
+}
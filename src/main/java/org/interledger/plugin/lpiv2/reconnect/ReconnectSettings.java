@@ -0,0 +1,61 @@
+package org.interledger.plugin.lpiv2.reconnect;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+
+/**
+ * Configuration for reconnecting a plugin whose connection attempt failed, or whose connection was lost. Attempts are
+ * spaced using exponential backoff with "decorrelated jitter": each delay is chosen at random between {@link
+ * #initialBackoff()} and three times the previous delay, but never more than {@link #maxBackoff()}. The randomness
+ * keeps plugins that lost their connections at the same moment from retrying in lockstep.
+ */
+public interface ReconnectSettings {
+
+  /**
+   * The shortest delay before an attempt to reconnect.
+   */
+  Duration initialBackoff();
+
+  /**
+   * The longest delay before an attempt to reconnect.
+   */
+  Duration maxBackoff();
+
+  /**
+   * The number of consecutive failed attempts after which the plugin stops trying to reconnect. If empty, the plugin
+   * keeps trying until it connects, or is explicitly disconnected.
+   */
+  OptionalInt maxAttempts();
+
+  @Value.Immutable
+  abstract class AbstractReconnectSettings implements ReconnectSettings {
+
+    @Override
+    @Value.Default
+    public Duration initialBackoff() {
+      return Duration.ofMillis(100);
+    }
+
+    @Override
+    @Value.Default
+    public Duration maxBackoff() {
+      return Duration.ofMinutes(1);
+    }
+
+    @Value.Check
+    protected void check() {
+      if (initialBackoff().isNegative() || initialBackoff().isZero()) {
+        throw new IllegalStateException("initialBackoff must be greater than 0");
+      }
+      if (maxBackoff().compareTo(initialBackoff()) < 0) {
+        throw new IllegalStateException("maxBackoff must not be less than initialBackoff");
+      }
+      if (maxAttempts().isPresent() && maxAttempts().getAsInt() <= 0) {
+        throw new IllegalStateException("maxAttempts must be greater than 0");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,366 @@
+package org.interledger.plugin.lpiv2.routing;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.Plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>Maps ILP address prefixes to the {@link Plugin} that packets for those addresses should be forwarded to, and
+ * resolves a destination address to the plugin with the longest matching prefix.</p>
+ *
+ * <p>Routes are held in an immutable trie keyed on address segments (the parts of an address between periods), so
+ * {@code g.alice} matches {@code g.alice} and {@code g.alice.bob}, but not {@code g.alicex}. Each node holds its
+ * children in a small open-addressed hash table, and segments are hashed and compared in place, so {@link
+ * #lookup(InterledgerAddress)} neither allocates nor locks, and costs one probe per segment of the destination no
+ * matter how many routes there are.</p>
+ *
+ * <p>Adding or removing a route copies only the nodes along that route's path and then publishes the new root, so
+ * lookups never block while routes change, and always see either all or none of an update. Copying a node copies its
+ * table of children, so adding many routes that share a parent one at a time costs time quadratic in the number of
+ * siblings; {@link #addRoutes(Map)} instead copies each affected node once.</p>
+ */
+public class RoutingTable {
+
+  private static final char SEPARATOR = '.';
+
+  private volatile Node root = Node.EMPTY;
+
+  /**
+   * Route every destination that starts with {@code prefix} (and that doesn't match a longer prefix) to {@code
+   * plugin}, replacing any existing route for {@code prefix}.
+   *
+   * @param prefix An {@link InterledgerAddress} prefix, e.g. {@code g.us.bank}.
+   * @param plugin The {@link Plugin} to forward matching packets to.
+   *
+   * @return The plugin previously routed to for {@code prefix}, if any.
+   */
+  public synchronized Optional<Plugin<?>> addRoute(final InterledgerAddress prefix, final Plugin<?> plugin) {
+    Objects.requireNonNull(prefix);
+    Objects.requireNonNull(plugin);
+    final String[] segments = segments(prefix);
+    final Plugin<?> previous = this.root.find(segments);
+    this.root = this.root.with(segments, 0, plugin);
+    return Optional.ofNullable(previous);
+  }
+
+  /**
+   * Add every route in {@code routes} at once, as if by calling {@link #addRoute(InterledgerAddress, Plugin)} for each,
+   * but copying each node that the new routes pass through only once, and publishing the result once. Lookups see
+   * either none or all of the new routes.
+   *
+   * @param routes A {@link Map} of {@link InterledgerAddress} prefixes to the {@link Plugin} to route each to.
+   */
+  public synchronized void addRoutes(final Map<InterledgerAddress, ? extends Plugin<?>> routes) {
+    Objects.requireNonNull(routes);
+    if (routes.isEmpty()) {
+      return;
+    }
+    final NodeBuilder builder = new NodeBuilder(this.root);
+    for (final Entry<InterledgerAddress, ? extends Plugin<?>> route : routes.entrySet()) {
+      NodeBuilder node = builder;
+      for (final String segment : segments(Objects.requireNonNull(route.getKey()))) {
+        node = node.child(segment);
+      }
+      node.plugin = Objects.requireNonNull(route.getValue());
+    }
+    this.root = builder.build();
+  }
+
+  /**
+   * Remove the route for exactly {@code prefix}. Routes for longer or shorter prefixes are unaffected.
+   *
+   * @param prefix An {@link InterledgerAddress} prefix.
+   *
+   * @return The plugin that was routed to for {@code prefix}, or {@link Optional#empty()} if there was no such route.
+   */
+  public synchronized Optional<Plugin<?>> removeRoute(final InterledgerAddress prefix) {
+    Objects.requireNonNull(prefix);
+    final String[] segments = segments(prefix);
+    final Plugin<?> previous = this.root.find(segments);
+    if (previous != null) {
+      final Node updated = this.root.without(segments, 0);
+      this.root = updated == null ? Node.EMPTY : updated;
+    }
+    return Optional.ofNullable(previous);
+  }
+
+  /**
+   * Resolve {@code destination} to the plugin with the longest matching prefix. This method doesn't allocate, so it
+   * is suitable for calling once per packet.
+   *
+   * @param destination The {@link InterledgerAddress} of a packet's destination.
+   *
+   * @return The {@link Plugin} to forward the packet to, or {@code null} if no route matches.
+   */
+  public Plugin<?> lookup(final InterledgerAddress destination) {
+    final String address = destination.getValue();
+    final int length = address.length();
+    Node node = this.root;
+    Plugin<?> best = null;
+    int start = 0;
+    while (true) {
+      int end = address.indexOf(SEPARATOR, start);
+      if (end < 0) {
+        end = length;
+      }
+      node = node.child(address, start, end);
+      if (node == null) {
+        return best;
+      }
+      if (node.plugin != null) {
+        best = node.plugin;
+      }
+      if (end == length) {
+        return best;
+      }
+      start = end + 1;
+    }
+  }
+
+  /**
+   * Resolve the destination of {@code preparePacket} to the plugin with the longest matching prefix.
+   *
+   * @param preparePacket An {@link InterledgerPreparePacket} to forward.
+   *
+   * @return The {@link Plugin} to forward the packet to, or {@link Optional#empty()} if no route matches.
+   */
+  public Optional<Plugin<?>> findNextHop(final InterledgerPreparePacket preparePacket) {
+    Objects.requireNonNull(preparePacket);
+    return Optional.ofNullable(this.lookup(preparePacket.getDestination()));
+  }
+
+  /**
+   * The number of routes in this table.
+   */
+  public int size() {
+    return this.root.routeCount;
+  }
+
+  private static String[] segments(final InterledgerAddress address) {
+    return address.getValue().split("\\.");
+  }
+
+  /**
+   * The hash of {@code value.substring(start, end)}, computed without allocating. Equal to {@link String#hashCode()}
+   * of the substring.
+   */
+  private static int hash(final String value, final int start, final int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + value.charAt(i);
+    }
+    return hash;
+  }
+
+  /**
+   * Spread the bits of {@code hash} so that segments that differ only in their last characters don't collide.
+   */
+  private static int spread(final int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * An immutable node of the trie, which routes the address prefix made up of the segments leading to it.
+   */
+  private static final class Node {
+
+    private static final Node EMPTY = new Node(null, new String[0], new Node[0], 0, 0);
+
+    // The plugin routed to for this node's prefix, or null if this node only leads to longer prefixes.
+    private final Plugin<?> plugin;
+    // An open-addressed hash table of child segments, whose length is zero or a power of two.
+    private final String[] keys;
+    private final Node[] children;
+    private final int childCount;
+    // The number of routes in the sub-trie rooted at this node.
+    private final int routeCount;
+
+    private Node(
+        final Plugin<?> plugin, final String[] keys, final Node[] children, final int childCount, final int routeCount
+    ) {
+      this.plugin = plugin;
+      this.keys = keys;
+      this.children = children;
+      this.childCount = childCount;
+      this.routeCount = routeCount;
+    }
+
+    /**
+     * The child for the segment {@code address.substring(start, end)}, or {@code null} if there is none.
+     */
+    private Node child(final String address, final int start, final int end) {
+      if (childCount == 0) {
+        return null;
+      }
+      final int mask = keys.length - 1;
+      final int segmentLength = end - start;
+      int index = spread(hash(address, start, end)) & mask;
+      while (true) {
+        final String key = keys[index];
+        if (key == null) {
+          return null;
+        }
+        if (key.length() == segmentLength && address.regionMatches(start, key, 0, segmentLength)) {
+          return children[index];
+        }
+        index = (index + 1) & mask;
+      }
+    }
+
+    private Node child(final String segment) {
+      return child(segment, 0, segment.length());
+    }
+
+    private Plugin<?> find(final String[] segments) {
+      Node node = this;
+      for (final String segment : segments) {
+        node = node.child(segment);
+        if (node == null) {
+          return null;
+        }
+      }
+      return node.plugin;
+    }
+
+    /**
+     * A copy of this node in which {@code segments} (from {@code depth} onwards) route to {@code newPlugin}.
+     */
+    private Node with(final String[] segments, final int depth, final Plugin<?> newPlugin) {
+      if (depth == segments.length) {
+        final int routes = routeCount + (plugin == null ? 1 : 0);
+        return new Node(newPlugin, keys, children, childCount, routes);
+      }
+      final Node existing = child(segments[depth]);
+      final Node updated = (existing == null ? EMPTY : existing).with(segments, depth + 1, newPlugin);
+      final int routes = routeCount - (existing == null ? 0 : existing.routeCount) + updated.routeCount;
+      return withChild(segments[depth], updated, routes);
+    }
+
+    /**
+     * A copy of this node without the route for {@code segments} (from {@code depth} onwards), or {@code null} if the
+     * copy would route nothing.
+     */
+    private Node without(final String[] segments, final int depth) {
+      if (depth == segments.length) {
+        return childCount == 0 ? null : new Node(null, keys, children, childCount, routeCount - 1);
+      }
+      final Node existing = child(segments[depth]);
+      final Node updated = existing.without(segments, depth + 1);
+      final int routes = routeCount - existing.routeCount + (updated == null ? 0 : updated.routeCount);
+      if (updated != null) {
+        return withChild(segments[depth], updated, routes);
+      }
+      if (plugin == null && childCount == 1) {
+        return null;
+      }
+      return withoutChild(segments[depth], routes);
+    }
+
+    private Node withChild(final String segment, final Node child, final int routes) {
+      final boolean replacing = child(segment) != null;
+      final int newCount = replacing ? childCount : childCount + 1;
+      // Keep the table at most half full, so that probe sequences stay short.
+      final int capacity = Math.max(keys.length, 2);
+      final int newCapacity = newCount * 2 > capacity ? capacity * 2 : capacity;
+      final String[] newKeys = new String[newCapacity];
+      final Node[] newChildren = new Node[newCapacity];
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != null && !keys[i].equals(segment)) {
+          insert(newKeys, newChildren, keys[i], children[i]);
+        }
+      }
+      insert(newKeys, newChildren, segment, child);
+      return new Node(plugin, newKeys, newChildren, newCount, routes);
+    }
+
+    private Node withoutChild(final String segment, final int routes) {
+      final String[] newKeys = new String[keys.length];
+      final Node[] newChildren = new Node[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != null && !keys[i].equals(segment)) {
+          insert(newKeys, newChildren, keys[i], children[i]);
+        }
+      }
+      return new Node(plugin, newKeys, newChildren, childCount - 1, routes);
+    }
+
+    private static void insert(final String[] keys, final Node[] children, final String key, final Node child) {
+      final int mask = keys.length - 1;
+      int index = spread(key.hashCode()) & mask;
+      while (keys[index] != null) {
+        index = (index + 1) & mask;
+      }
+      keys[index] = key;
+      children[index] = child;
+    }
+  }
+
+  /**
+   * A mutable copy of a {@link Node}, used by {@link #addRoutes(Map)} to apply many routes before building a new
+   * immutable trie. Only the nodes that the new routes pass through are copied; every other node is shared.
+   */
+  private static final class NodeBuilder {
+
+    private final Node original;
+    private Plugin<?> plugin;
+    // The children that the new routes pass through, by segment; all other children are taken from the original.
+    private final Map<String, NodeBuilder> updatedChildren = new HashMap<>();
+
+    private NodeBuilder(final Node original) {
+      this.original = original;
+      this.plugin = original.plugin;
+    }
+
+    private NodeBuilder child(final String segment) {
+      NodeBuilder child = updatedChildren.get(segment);
+      if (child == null) {
+        final Node existing = original.child(segment);
+        child = new NodeBuilder(existing == null ? Node.EMPTY : existing);
+        updatedChildren.put(segment, child);
+      }
+      return child;
+    }
+
+    private Node build() {
+      if (updatedChildren.isEmpty()) {
+        final int routes = original.routeCount + (original.plugin == null && plugin != null ? 1 : 0);
+        return new Node(plugin, original.keys, original.children, original.childCount, routes);
+      }
+
+      int childCount = original.childCount;
+      for (final String segment : updatedChildren.keySet()) {
+        if (original.child(segment) == null) {
+          childCount++;
+        }
+      }
+      // Keep the table at most half full, as Node#withChild does.
+      int capacity = Math.max(original.keys.length, 2);
+      while (childCount * 2 > capacity) {
+        capacity *= 2;
+      }
+
+      final String[] keys = new String[capacity];
+      final Node[] children = new Node[capacity];
+      int routes = plugin == null ? 0 : 1;
+      for (int i = 0; i < original.keys.length; i++) {
+        final String key = original.keys[i];
+        if (key != null && !updatedChildren.containsKey(key)) {
+          Node.insert(keys, children, key, original.children[i]);
+          routes += original.children[i].routeCount;
+        }
+      }
+      for (final Entry<String, NodeBuilder> updated : updatedChildren.entrySet()) {
+        final Node child = updated.getValue().build();
+        Node.insert(keys, children, updated.getKey(), child);
+        routes += child.routeCount;
+      }
+      return new Node(plugin, keys, children, childCount, routes);
+    }
+  }
+}
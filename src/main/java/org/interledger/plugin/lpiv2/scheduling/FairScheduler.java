@@ -0,0 +1,280 @@
+package org.interledger.plugin.lpiv2.scheduling;
+
+import org.interledger.plugin.lpiv2.PluginSettings;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Runs the work of many plugins on a fixed set of worker threads, sharing the threads fairly between the plugins
+ * rather than in the order the work was submitted. A plugin that submits a burst of work then only delays its own
+ * packets, instead of every other plugin's packets queueing behind the burst as they would in a shared FIFO pool.</p>
+ *
+ * <p>Each plugin submits to its own {@link Queue}, which is an {@link Executor} that can be passed to the plugin as
+ * its data executor. Queues with pending work take turns using deficit round-robin: on each turn, a queue may start
+ * up to {@code quantum * weight} tasks before the next queue's turn, so a queue's share of the workers while it is
+ * busy is proportional to its weight, and a task submitted to an otherwise idle queue waits for at most one turn of
+ * every other busy queue. Tasks are treated as being of equal cost, which suits the short, uniform tasks of sending
+ * and handling packets.</p>
+ *
+ * <p>Tasks from the same queue may run concurrently on different workers, so a plugin is not limited to a single
+ * thread. Choosing the next task holds a lock only for as long as it takes to remove the task from its queue; the task
+ * itself runs outside the lock.</p>
+ */
+public class FairScheduler {
+
+  /**
+   * The default number of tasks a queue of weight 1 may start on each turn.
+   */
+  public static final int DEFAULT_QUANTUM = 16;
+
+  /**
+   * The default maximum number of tasks that may wait in each queue before new submissions are rejected.
+   */
+  public static final int DEFAULT_QUEUE_DEPTH = 10_000;
+
+  private static final Logger logger = LoggerFactory.getLogger(FairScheduler.class);
+
+  private final int quantum;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workAvailable = lock.newCondition();
+  // The queues with pending work, in the order of their turns. The queue at the head is having its turn. Guarded by
+  // lock.
+  private final ArrayDeque<Queue> activeQueues = new ArrayDeque<>();
+  // Guarded by lock.
+  private boolean shutdown;
+
+  /**
+   * Required-args Constructor, using {@link #DEFAULT_QUANTUM}.
+   *
+   * @param name    A name used as the prefix of every worker thread.
+   * @param threads The number of worker threads.
+   */
+  public FairScheduler(final String name, final int threads) {
+    this(name, threads, DEFAULT_QUANTUM);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param name    A name used as the prefix of every worker thread.
+   * @param threads The number of worker threads.
+   * @param quantum The number of tasks a queue of weight 1 may start on each turn. Smaller values interleave queues
+   *                more finely, at the cost of more frequent turns.
+   */
+  public FairScheduler(final String name, final int threads, final int quantum) {
+    Objects.requireNonNull(name);
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads must be greater than 0");
+    }
+    if (quantum <= 0) {
+      throw new IllegalArgumentException("quantum must be greater than 0");
+    }
+    this.quantum = quantum;
+
+    final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build();
+    for (int i = 0; i < threads; i++) {
+      threadFactory.newThread(this::work).start();
+    }
+  }
+
+  /**
+   * Construct a queue for a plugin, weighted by {@link PluginSettings#schedulingWeight()} and holding up to {@link
+   * #DEFAULT_QUEUE_DEPTH} tasks.
+   *
+   * @param pluginSettings The {@link PluginSettings} of the plugin that will submit to the queue.
+   *
+   * @return A {@link Queue} to pass to the plugin as its data executor.
+   */
+  public Queue newQueue(final PluginSettings pluginSettings) {
+    Objects.requireNonNull(pluginSettings);
+    return this.newQueue(pluginSettings.schedulingWeight(), DEFAULT_QUEUE_DEPTH);
+  }
+
+  /**
+   * Construct a queue.
+   *
+   * @param weight     The queue's share of the workers, relative to the other queues, while it has pending work.
+   * @param queueDepth The maximum number of tasks that may wait in the queue before new submissions are rejected.
+   *
+   * @return A {@link Queue} whose tasks are run by this scheduler's workers.
+   */
+  public Queue newQueue(final int weight, final int queueDepth) {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("weight must be greater than 0");
+    }
+    if (queueDepth <= 0) {
+      throw new IllegalArgumentException("queueDepth must be greater than 0");
+    }
+    return new Queue(weight, queueDepth);
+  }
+
+  /**
+   * Stop accepting tasks. Tasks that are already queued still run, after which the workers exit.
+   */
+  public void shutdown() {
+    lock.lock();
+    try {
+      shutdown = true;
+      workAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void work() {
+    Runnable task;
+    while ((task = this.nextTask()) != null) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        // Plugins complete their futures within their tasks, so a task that throws has nobody else to report to.
+        logger.error("Scheduled task failed", e);
+      }
+    }
+  }
+
+  /**
+   * Wait for the next task, according to deficit round-robin.
+   *
+   * @return The next task to run, or {@code null} once the scheduler has been shut down and every queue is empty.
+   */
+  private Runnable nextTask() {
+    lock.lock();
+    try {
+      Queue queue;
+      while ((queue = activeQueues.peekFirst()) == null) {
+        if (shutdown) {
+          return null;
+        }
+        workAvailable.awaitUninterruptibly();
+      }
+      if (queue.deficit <= 0) {
+        // The start of the queue's turn.
+        queue.deficit = quantum * queue.weight;
+      }
+      final Runnable task = queue.tasks.pollFirst();
+      queue.deficit--;
+      queue.executedCount++;
+      if (queue.tasks.isEmpty()) {
+        // An idle queue forfeits the rest of its turn, so that it can't save up a burst for later.
+        activeQueues.pollFirst();
+        queue.deficit = 0;
+        queue.active = false;
+      } else if (queue.deficit <= 0) {
+        activeQueues.pollFirst();
+        activeQueues.addLast(queue);
+      }
+      if (!activeQueues.isEmpty()) {
+        // Hand any remaining work to another worker, in case this one was the only one woken.
+        workAvailable.signal();
+      }
+      return task;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The queue of a single plugin's tasks. Tasks from one queue are started in the order they were submitted.
+   */
+  public final class Queue implements Executor {
+
+    private final int weight;
+    private final int queueDepth;
+
+    // All guarded by FairScheduler.this.lock.
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private boolean active;
+    private int deficit;
+    private long executedCount;
+    private long rejectedCount;
+
+    private Queue(final int weight, final int queueDepth) {
+      this.weight = weight;
+      this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Queue {@code task} to be run by one of the scheduler's workers.
+     *
+     * @throws RejectedExecutionException if the queue is full, or the scheduler has been shut down.
+     */
+    @Override
+    public void execute(final Runnable task) {
+      Objects.requireNonNull(task);
+      lock.lock();
+      try {
+        if (shutdown) {
+          rejectedCount++;
+          throw new RejectedExecutionException("Scheduler has been shut down");
+        }
+        if (tasks.size() >= queueDepth) {
+          rejectedCount++;
+          throw new RejectedExecutionException("Queue is full");
+        }
+        tasks.addLast(task);
+        if (!active) {
+          active = true;
+          activeQueues.addLast(this);
+          workAvailable.signal();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * This queue's share of the workers, relative to the other queues.
+     */
+    public int getWeight() {
+      return weight;
+    }
+
+    /**
+     * The number of tasks waiting to be run.
+     */
+    public int getQueuedCount() {
+      lock.lock();
+      try {
+        return tasks.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * The total number of tasks that have been started.
+     */
+    public long getExecutedCount() {
+      lock.lock();
+      try {
+        return executedCount;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * The total number of tasks rejected because the queue was full or the scheduler had been shut down.
+     */
+    public long getRejectedCount() {
+      lock.lock();
+      try {
+        return rejectedCount;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,289 @@
+package org.interledger.plugin.lpiv2.settlement;
+
+import org.interledger.plugin.lpiv2.balances.BalanceTracker;
+import org.interledger.plugin.lpiv2.support.Completions;
+import org.interledger.plugin.lpiv2.support.HashedWheelTimer;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>Coalesces the settlements requested with a single peer, so that many small calls to {@link #settle(BigInteger)}
+ * result in a few large settlements on the underlying ledger.</p>
+ *
+ * <p>Requested amounts are accumulated until one of the triggers in {@link SettlementSettings} fires, at which point
+ * the accumulated amount is settled in one call to the {@code settler}. At most one settlement is in-flight at a
+ * time: amounts requested while a settlement is in-flight are accumulated, and settled once it completes. The future
+ * returned to every caller whose amount was included in a settlement is completed with the outcome of that
+ * settlement. If a settlement fails, its amount is not retried.</p>
+ *
+ * <p>A {@link BalanceTracker} can only apply amounts that fit in a {@code long}, so if one is present, a requested
+ * amount that doesn't fit is rejected on its own, and an amount that would take the accumulated amount past {@link
+ * Long#MAX_VALUE} starts a new settlement instead, rather than making the merged settlement fail for every caller.</p>
+ *
+ * <p>The owner of the {@link BalanceTracker} must call {@link #onBalanceChanged()} whenever the balance decreases, so
+ * that {@link SettlementSettings#settleBalance()} fires as soon as the balance crosses it, rather than only on the next
+ * call to {@link #settle(BigInteger)} or when {@link SettlementSettings#maxSettleDelay()} elapses.</p>
+ */
+public class SettlementEngine {
+
+  private final SettlementSettings settings;
+  private final Function<BigInteger, CompletableFuture<Void>> settler;
+  private final Optional<BalanceTracker> balanceTracker;
+  private final HashedWheelTimer timer;
+  private final Optional<BigInteger> maxSettlementAmount;
+
+  private final LongAdder settlements = new LongAdder();
+
+  // All of the following are guarded by `this`.
+  private BigInteger pendingAmount = BigInteger.ZERO;
+  private List<CompletableFuture<Void>> pendingFutures = new ArrayList<>();
+  // Accumulated amounts that could not be merged any further, in the order they are to be settled.
+  private final Deque<Batch> fullBatches = new ArrayDeque<>();
+  private HashedWheelTimer.Timeout delayTimeout;
+  private long delayGeneration;
+  private boolean delayElapsed;
+  private boolean inFlight;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param settings       A {@link SettlementSettings} that configures this engine.
+   * @param settler        A {@link Function} that performs a single settlement with the peer, returning a future that
+   *                       completes once the settlement has landed.
+   * @param balanceTracker The {@link BalanceTracker} of the plugin, used to evaluate {@link
+   *                       SettlementSettings#settleBalance()}, if present.
+   * @param timer          The {@link HashedWheelTimer} used to enforce {@link SettlementSettings#maxSettleDelay()}.
+   */
+  public SettlementEngine(
+      final SettlementSettings settings,
+      final Function<BigInteger, CompletableFuture<Void>> settler,
+      final Optional<BalanceTracker> balanceTracker,
+      final HashedWheelTimer timer
+  ) {
+    this.settings = Objects.requireNonNull(settings);
+    this.settler = Objects.requireNonNull(settler);
+    this.balanceTracker = Objects.requireNonNull(balanceTracker);
+    this.timer = Objects.requireNonNull(timer);
+    this.maxSettlementAmount = balanceTracker.map(tracker -> BigInteger.valueOf(Long.MAX_VALUE));
+  }
+
+  /**
+   * Request that {@code amount} be settled with the peer.
+   *
+   * @param amount A non-negative amount, which must fit in a {@code long} if a {@link BalanceTracker} is present.
+   *
+   * @return A {@link CompletableFuture} that completes once a settlement that includes {@code amount} has landed, or
+   *     exceptionally if that settlement failed.
+   */
+  public CompletableFuture<Void> settle(final BigInteger amount) {
+    Objects.requireNonNull(amount);
+    if (amount.signum() < 0) {
+      return Completions.failedFuture(new IllegalArgumentException("Settlement amount must not be negative"));
+    }
+    if (maxSettlementAmount.isPresent() && amount.compareTo(maxSettlementAmount.get()) > 0) {
+      return Completions.failedFuture(new IllegalArgumentException("Settlement amount is too large: " + amount));
+    }
+
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final Batch batch;
+    synchronized (this) {
+      if (maxSettlementAmount.isPresent() && pendingAmount.add(amount).compareTo(maxSettlementAmount.get()) > 0) {
+        // The accumulated amount can't grow any further, so it is settled as soon as possible, on its own.
+        fullBatches.add(removePending());
+      }
+      pendingAmount = pendingAmount.add(amount);
+      pendingFutures.add(future);
+      if (delayTimeout == null && !delayElapsed) {
+        final long generation = delayGeneration;
+        delayTimeout = timer.schedule(
+            () -> onDelayElapsed(generation), settings.maxSettleDelay().toMillis(), TimeUnit.MILLISECONDS
+        );
+      }
+      batch = takeBatchIfDue();
+    }
+    if (batch != null) {
+      dispatch(batch);
+    }
+    return future;
+  }
+
+  /**
+   * Settle everything that has been accumulated as soon as no other settlement is in-flight, regardless of the
+   * configured triggers.
+   */
+  public void flush() {
+    final Batch batch;
+    synchronized (this) {
+      delayElapsed = !pendingFutures.isEmpty();
+      batch = takeBatchIfDue();
+    }
+    if (batch != null) {
+      dispatch(batch);
+    }
+  }
+
+  /**
+   * Evaluate {@link SettlementSettings#settleBalance()} after the balance has decreased (e.g., because an outgoing
+   * packet was fulfilled), settling everything that has been accumulated if the balance is now at or below it. Cheap
+   * enough to call after every change: the lock is only taken once the balance is due.
+   */
+  public void onBalanceChanged() {
+    if (!isBalanceDue()) {
+      return;
+    }
+    final Batch batch;
+    synchronized (this) {
+      batch = takeBatchIfDue();
+    }
+    if (batch != null) {
+      dispatch(batch);
+    }
+  }
+
+  /**
+   * The amount that has been requested but is not yet part of a settlement.
+   */
+  public synchronized BigInteger getPendingAmount() {
+    BigInteger amount = pendingAmount;
+    for (final Batch batch : fullBatches) {
+      amount = amount.add(batch.amount);
+    }
+    return amount;
+  }
+
+  /**
+   * The number of settlements that have been dispatched to the {@code settler}.
+   */
+  public long getSettlementCount() {
+    return settlements.sum();
+  }
+
+  private void onDelayElapsed(final long generation) {
+    final Batch batch;
+    synchronized (this) {
+      if (generation != delayGeneration) {
+        // The amounts this timeout was scheduled for have already been settled.
+        return;
+      }
+      delayTimeout = null;
+      delayElapsed = true;
+      batch = takeBatchIfDue();
+    }
+    if (batch != null) {
+      dispatch(batch);
+    }
+  }
+
+  /**
+   * If no settlement is in-flight, remove the next amount that is due so that it can be settled: the oldest amount that
+   * could not be merged any further or, if a trigger has fired, everything that has been accumulated. Must be called
+   * while holding the lock on {@code this}.
+   *
+   * @return The {@link Batch} to settle, or {@code null} if nothing should be settled yet.
+   */
+  private Batch takeBatchIfDue() {
+    if (inFlight) {
+      return null;
+    }
+    if (!fullBatches.isEmpty()) {
+      inFlight = true;
+      return fullBatches.poll();
+    }
+    if (pendingFutures.isEmpty()) {
+      return null;
+    }
+    if (!delayElapsed && pendingAmount.compareTo(settings.settleThreshold()) < 0 && !isBalanceDue()) {
+      return null;
+    }
+
+    final Batch batch = removePending();
+    inFlight = true;
+    return batch;
+  }
+
+  /**
+   * Remove everything that has been accumulated, and stop waiting for {@link SettlementSettings#maxSettleDelay()} on
+   * its behalf. Must be called while holding the lock on {@code this}.
+   */
+  private Batch removePending() {
+    final Batch batch = new Batch(pendingAmount, pendingFutures);
+    pendingAmount = BigInteger.ZERO;
+    pendingFutures = new ArrayList<>();
+    if (delayTimeout != null) {
+      delayTimeout.cancel();
+      delayTimeout = null;
+    }
+    delayGeneration++;
+    delayElapsed = false;
+    return batch;
+  }
+
+  private boolean isBalanceDue() {
+    return settings.settleBalance().isPresent() && balanceTracker.isPresent()
+        && balanceTracker.get().getBalance() <= settings.settleBalance().getAsLong();
+  }
+
+  private void dispatch(final Batch batch) {
+    settlements.increment();
+    CompletableFuture<Void> result;
+    try {
+      result = settler.apply(batch.amount);
+    } catch (RuntimeException e) {
+      result = Completions.failedFuture(e);
+    }
+    result.whenComplete((ignored, error) -> {
+      final Batch next;
+      synchronized (this) {
+        inFlight = false;
+        // Anything whose trigger fired while this settlement was in-flight can now be settled.
+        next = takeBatchIfDue();
+      }
+      batch.complete(error);
+      if (next != null) {
+        dispatch(next);
+      }
+    });
+  }
+
+  @Override
+  public String toString() {
+    return "SettlementEngine{"
+        + "pendingAmount=" + getPendingAmount()
+        + ", settlements=" + getSettlementCount()
+        + '}';
+  }
+
+  /**
+   * An accumulated amount, and the futures of every caller whose amount it includes.
+   */
+  private static final class Batch {
+
+    private final BigInteger amount;
+    private final List<CompletableFuture<Void>> futures;
+
+    private Batch(final BigInteger amount, final List<CompletableFuture<Void>> futures) {
+      this.amount = amount;
+      this.futures = futures;
+    }
+
+    private void complete(final Throwable error) {
+      for (final CompletableFuture<Void> future : futures) {
+        if (error == null) {
+          future.complete(null);
+        } else {
+          future.completeExceptionally(error);
+        }
+      }
+    }
+  }
+}
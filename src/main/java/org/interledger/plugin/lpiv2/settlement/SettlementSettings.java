@@ -0,0 +1,59 @@
+package org.interledger.plugin.lpiv2.settlement;
+
+import org.immutables.value.Value;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Configuration for a {@link SettlementEngine}. Amounts passed to {@link org.interledger.plugin.lpiv2.Plugin#settle}
+ * are accumulated, and settled with the peer as a single amount once any of the following triggers fires.
+ */
+public interface SettlementSettings {
+
+  /**
+   * Settle as soon as the accumulated amount reaches this value.
+   */
+  BigInteger settleThreshold();
+
+  /**
+   * Settle once the oldest accumulated amount has waited this long, even if {@link #settleThreshold()} has not been
+   * reached.
+   */
+  Duration maxSettleDelay();
+
+  /**
+   * Settle as soon as the balance with the peer is at or below this value (i.e., this node owes the peer at least its
+   * negative), regardless of the accumulated amount. Only applies to plugins configured with {@link
+   * org.interledger.plugin.lpiv2.PluginSettings#balanceSettings()}.
+   */
+  OptionalLong settleBalance();
+
+  @Value.Immutable
+  abstract class AbstractSettlementSettings implements SettlementSettings {
+
+    @Override
+    @Value.Default
+    public BigInteger settleThreshold() {
+      return BigInteger.valueOf(1_000_000);
+    }
+
+    @Override
+    @Value.Default
+    public Duration maxSettleDelay() {
+      return Duration.ofSeconds(1);
+    }
+
+    @Value.Check
+    protected void check() {
+      if (settleThreshold().signum() <= 0) {
+        throw new IllegalStateException("settleThreshold must be greater than 0");
+      }
+      if (maxSettleDelay().isNegative() || maxSettleDelay().isZero()) {
+        throw new IllegalStateException("maxSettleDelay must be greater than 0");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package org.interledger.plugin.lpiv2.simulation;
+
+import org.interledger.plugin.lpiv2.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>A distribution of latencies, from which a simulated peer draws how long it takes to respond.</p>
+ *
+ * <p>Every distribution draws from {@link ThreadLocalRandom}, so drawing neither locks nor contends between
+ * threads.</p>
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+  /**
+   * A distribution that always draws zero.
+   */
+  LatencyDistribution NONE = () -> 0;
+
+  /**
+   * Draw a latency from this distribution.
+   *
+   * @return A latency, in nanoseconds, that is never negative.
+   */
+  long nextNanos();
+
+  /**
+   * A distribution that always draws {@code latency}.
+   *
+   * @param latency The latency to draw.
+   */
+  static LatencyDistribution fixed(final Duration latency) {
+    if (latency.isNegative()) {
+      throw new IllegalArgumentException("latency must not be negative");
+    }
+    final long nanos = latency.toNanos();
+    return () -> nanos;
+  }
+
+  /**
+   * A distribution that draws, with equal probability, any latency between {@code min} and {@code max} (inclusive).
+   *
+   * @param min The smallest latency to draw.
+   * @param max The largest latency to draw.
+   */
+  static LatencyDistribution uniform(final Duration min, final Duration max) {
+    if (min.isNegative()) {
+      throw new IllegalArgumentException("min must not be negative");
+    }
+    final long minNanos = min.toNanos();
+    final long maxNanos = max.toNanos();
+    if (maxNanos < minNanos) {
+      throw new IllegalArgumentException("max must not be less than min");
+    }
+    if (maxNanos == minNanos) {
+      return () -> minNanos;
+    }
+    return () -> ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+  }
+
+  /**
+   * A log-normal distribution, which is what the latency of a real network peer typically looks like: most responses
+   * take close to {@code median}, with a long tail of slow ones whose length is determined by {@code sigma}. For
+   * example, with a {@code sigma} of 1, the 99th percentile is about ten times the median.
+   *
+   * @param median The median latency.
+   * @param sigma  The standard deviation of the natural logarithm of the latency.
+   */
+  static LatencyDistribution logNormal(final Duration median, final double sigma) {
+    final long medianNanos = median.toNanos();
+    if (medianNanos <= 0) {
+      throw new IllegalArgumentException("median must be greater than 0");
+    }
+    if (sigma < 0 || Double.isNaN(sigma)) {
+      throw new IllegalArgumentException("sigma must not be negative");
+    }
+    final double mu = Math.log(medianNanos);
+    // Casting saturates at Long.MAX_VALUE, so an extreme draw never overflows.
+    return () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+  }
+
+  /**
+   * A distribution that reproduces the latencies recorded in {@code snapshot}, e.g. the {@link
+   * org.interledger.plugin.lpiv2.metrics.OperationMetrics} of a plugin connected to a real peer. The snapshot is
+   * resolved into quantiles up front, so drawing a latency is a single array lookup.
+   *
+   * @param snapshot A {@link LatencyHistogram.Snapshot} containing at least one value.
+   */
+  static LatencyDistribution recorded(final LatencyHistogram.Snapshot snapshot) {
+    Objects.requireNonNull(snapshot);
+    if (snapshot.getCount() == 0) {
+      throw new IllegalArgumentException("snapshot must contain at least one value");
+    }
+    // Enough quantiles to reproduce the tail out to the 99.99th percentile.
+    final long[] quantiles = new long[10_000];
+    for (int i = 0; i < quantiles.length; i++) {
+      quantiles[i] = snapshot.getValueAtPercentile((i + 1) * 100.0 / quantiles.length);
+    }
+    return () -> quantiles[ThreadLocalRandom.current().nextInt(quantiles.length)];
+  }
+}
@@ -0,0 +1,82 @@
+package org.interledger.plugin.lpiv2.simulation;
+
+import org.interledger.core.InterledgerErrorCode;
+
+import org.immutables.value.Value;
+
+import java.util.Map;
+
+/**
+ * Configuration for how a simulated peer behaves: how long it takes to respond to a packet, which packets it rejects
+ * or never responds to, and how long it takes to settle. Each packet is answered with exactly one outcome, so the
+ * rates in {@link #rejectRates()} and {@link #timeoutRate()} must add up to no more than 1; the remaining packets are
+ * answered normally.
+ */
+public interface SimulationSettings {
+
+  /**
+   * The latency of every packet that is answered (whether fulfilled or rejected).
+   */
+  LatencyDistribution responseLatency();
+
+  /**
+   * The fraction of packets, between 0 and 1, that are rejected with each {@link InterledgerErrorCode}.
+   */
+  Map<InterledgerErrorCode, Double> rejectRates();
+
+  /**
+   * The fraction of packets, between 0 and 1, that are never answered, and so are rejected by the plugin once they
+   * expire.
+   */
+  double timeoutRate();
+
+  /**
+   * The time taken to complete each settlement.
+   */
+  LatencyDistribution settlementLatency();
+
+  @Value.Immutable
+  abstract class AbstractSimulationSettings implements SimulationSettings {
+
+    @Override
+    @Value.Default
+    public LatencyDistribution responseLatency() {
+      return LatencyDistribution.NONE;
+    }
+
+    @Override
+    @Value.Default
+    public double timeoutRate() {
+      return 0;
+    }
+
+    @Override
+    @Value.Default
+    public LatencyDistribution settlementLatency() {
+      return LatencyDistribution.NONE;
+    }
+
+    @Value.Check
+    protected void check() {
+      double totalRate = timeoutRate();
+      if (!isRate(totalRate)) {
+        throw new IllegalStateException("timeoutRate must be between 0 and 1");
+      }
+      for (final Map.Entry<InterledgerErrorCode, Double> entry : rejectRates().entrySet()) {
+        if (!isRate(entry.getValue())) {
+          throw new IllegalStateException("rejectRate for " + entry.getKey().getCode() + " must be between 0 and 1");
+        }
+        totalRate += entry.getValue();
+      }
+      // Allow for rounding, e.g. rates of 0.1, 0.2 and 0.7.
+      if (totalRate > 1 + 1e-9) {
+        throw new IllegalStateException("rejectRates and timeoutRate must not add up to more than 1");
+      }
+    }
+
+    private static boolean isRate(final double rate) {
+      return rate >= 0 && rate <= 1;
+    }
+  }
+
+}
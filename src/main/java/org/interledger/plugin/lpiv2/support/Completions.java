@@ -99,10 +99,41 @@ public final class Completions {
     return CompletableFuture.supplyAsync(() -> wrapExceptions(callable));
   }
 
+  /**
+   * Returns a new {@code CompletableFuture} that is already completed exceptionally with the given exception.
+   *
+   * @param <T>       the type of value the future would have held
+   * @param throwable the exception
+   *
+   * @return the exceptionally completed {@code CompletableFuture}
+   */
+  public static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+    return future;
+  }
+
   public static CompletionStage<Void> supplyAsync(Runnable runnable) {
     return CompletableFuture.supplyAsync(() -> {
       wrapExceptions(runnable);
       return null;
     });
   }
+
+  /**
+   * Returns a {@code CompletionStage} that is completed when {@code runnable} finishes executing on the supplied
+   * {@code executor}. If {@code runnable} throws an exception the returned {@code CompletionStage} is completed with
+   * it.
+   *
+   * @param runnable an operation to run
+   * @param executor the executor that will run {@code runnable}
+   *
+   * @return a {@code CompletionStage} that completes once {@code runnable} has run
+   */
+  public static CompletionStage<Void> supplyAsync(Runnable runnable, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      wrapExceptions(runnable);
+      return null;
+    }, executor);
+  }
 }
@@ -0,0 +1,74 @@
+package org.interledger.plugin.lpiv2.support;
+
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerFulfillment;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * <p>Helper functions for verifying that an {@link InterledgerFulfillment} fulfills an {@link
+ * InterledgerCondition}, i.e. that the SHA-256 hash of its preimage equals the condition.</p>
+ *
+ * <p>Looking up a {@link MessageDigest} is comparatively expensive (it searches the installed security providers), so
+ * each thread looks one up once and then reuses it, along with a buffer for the hash, for every verification.</p>
+ */
+public final class Fulfillments {
+
+  private static final String SHA_256 = "SHA-256";
+  private static final int SHA_256_LENGTH = 32;
+
+  private static final ThreadLocal<Sha256> SHA_256_DIGESTS = ThreadLocal.withInitial(Sha256::new);
+
+  /**
+   * Prevent construction.
+   */
+  private Fulfillments() {
+  }
+
+  /**
+   * Determine whether {@code fulfillment} fulfills {@code condition}. The hashes are compared in constant time, so the
+   * time taken reveals nothing about how close a forged fulfillment came to the condition.
+   *
+   * @param condition   The {@link InterledgerCondition} of a prepare packet.
+   * @param fulfillment The {@link InterledgerFulfillment} returned for that packet.
+   *
+   * @return {@code true} if the SHA-256 hash of {@code fulfillment}'s preimage equals {@code condition}.
+   */
+  public static boolean isFulfilledBy(final InterledgerCondition condition, final InterledgerFulfillment fulfillment) {
+    Objects.requireNonNull(condition);
+    Objects.requireNonNull(fulfillment);
+    return SHA_256_DIGESTS.get().matches(fulfillment.getPreimage(), condition.getHash());
+  }
+
+  /**
+   * A {@link MessageDigest} and output buffer that are reused by a single thread.
+   */
+  private static final class Sha256 {
+
+    private final MessageDigest digest;
+    private final byte[] hash = new byte[SHA_256_LENGTH];
+
+    private Sha256() {
+      try {
+        this.digest = MessageDigest.getInstance(SHA_256);
+      } catch (NoSuchAlgorithmException e) {
+        // Every Java platform is required to support SHA-256.
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private boolean matches(final byte[] preimage, final byte[] expectedHash) {
+      try {
+        digest.update(preimage);
+        digest.digest(hash, 0, SHA_256_LENGTH);
+      } catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+      // MessageDigest.isEqual compares in constant time for arrays of the same length.
+      return MessageDigest.isEqual(hash, expectedHash);
+    }
+  }
+}
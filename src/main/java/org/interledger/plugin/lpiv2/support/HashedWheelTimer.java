@@ -0,0 +1,299 @@
+package org.interledger.plugin.lpiv2.support;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A timer optimized for scheduling a very large number of short-lived timeouts that are usually cancelled before
+ * they fire, such as the expiry of in-flight ILP prepare packets.</p>
+ *
+ * <p>Timeouts are hashed into a fixed-size ring of buckets ("the wheel") according to their deadline. A single
+ * worker thread advances through one bucket per tick and runs the tasks whose deadline has passed, so scheduling,
+ * cancelling and expiring a timeout are all O(1), regardless of how many timeouts are pending. The trade-off is
+ * precision: a task runs up to one tick after its deadline.</p>
+ *
+ * <p>Scheduling and cancelling are lock-free; only the worker thread ever touches the buckets. Tasks are run on the
+ * worker thread, so they must be short and must not block.</p>
+ */
+public class HashedWheelTimer {
+
+  private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+  private final long tickNanos;
+  private final int mask;
+  private final Bucket[] wheel;
+  private final long startNanos;
+
+  private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+  private final LongAdder pendingTimeouts = new LongAdder();
+
+  private final Thread workerThread;
+  private volatile boolean running = true;
+
+  // Only accessed by the worker thread.
+  private long tick;
+
+  /**
+   * Required-args Constructor. The worker thread is started immediately.
+   *
+   * @param name          The name of the worker thread.
+   * @param tickDuration  The duration of a single tick, which is the precision of this timer.
+   * @param unit          The {@link TimeUnit} of {@code tickDuration}.
+   * @param ticksPerWheel The number of buckets in the wheel, rounded up to a power of two.
+   */
+  public HashedWheelTimer(final String name, final long tickDuration, final TimeUnit unit, final int ticksPerWheel) {
+    Objects.requireNonNull(name);
+    Objects.requireNonNull(unit);
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException("tickDuration must be greater than 0");
+    }
+    if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+      throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30");
+    }
+
+    this.tickNanos = unit.toNanos(tickDuration);
+    final int wheelSize = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+    this.mask = wheelSize - 1;
+    this.wheel = new Bucket[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      this.wheel[i] = new Bucket();
+    }
+
+    this.startNanos = System.nanoTime();
+    this.workerThread = new ThreadFactoryBuilder().setNameFormat(name).setDaemon(true).build()
+        .newThread(this::run);
+    this.workerThread.start();
+  }
+
+  /**
+   * Accessor for the timer that is shared by every plugin in this JVM. It ticks every 10 milliseconds, and its worker
+   * thread is started the first time this method is called.
+   */
+  public static HashedWheelTimer shared() {
+    return SharedTimerHolder.INSTANCE;
+  }
+
+  /**
+   * Schedule {@code task} to run once, after {@code delay} has elapsed.
+   *
+   * @param task  The task to run on this timer's worker thread.
+   * @param delay The delay after which the task should run. Values less than or equal to zero run the task on the
+   *              next tick.
+   * @param unit  The {@link TimeUnit} of {@code delay}.
+   *
+   * @return A {@link Timeout} that can be used to cancel the task.
+   */
+  public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+    Objects.requireNonNull(task);
+    Objects.requireNonNull(unit);
+    if (!running) {
+      throw new IllegalStateException("Timer has been stopped");
+    }
+
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    final long delayNanos = unit.toNanos(delay);
+    // Guard against overflow for very long delays, which are effectively "never".
+    final long deadlineNanos = delayNanos > Long.MAX_VALUE - elapsedNanos ? Long.MAX_VALUE : elapsedNanos + delayNanos;
+
+    final Timeout timeout = new Timeout(this, task, deadlineNanos);
+    pendingTimeouts.increment();
+    newTimeouts.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * The number of timeouts that have been scheduled, but have not yet expired or been cancelled.
+   */
+  public long pendingTimeouts() {
+    return pendingTimeouts.sum();
+  }
+
+  /**
+   * Stop the worker thread. Pending timeouts never run.
+   */
+  public void stop() {
+    running = false;
+    workerThread.interrupt();
+  }
+
+  private void run() {
+    while (running) {
+      final long deadline = (tick + 1) * tickNanos;
+      long sleepNanos;
+      while (running && (sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0) {
+        LockSupport.parkNanos(this, sleepNanos);
+      }
+      if (!running) {
+        return;
+      }
+
+      removeCancelledTimeouts();
+      transferNewTimeouts();
+      wheel[(int) (tick & mask)].expireTimeouts();
+      tick++;
+    }
+  }
+
+  private void removeCancelledTimeouts() {
+    Timeout timeout;
+    while ((timeout = cancelledTimeouts.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  private void transferNewTimeouts() {
+    Timeout timeout;
+    while ((timeout = newTimeouts.poll()) != null) {
+      if (timeout.state != Timeout.ST_INIT) {
+        // Cancelled before it ever reached the wheel.
+        continue;
+      }
+      final long calculatedTick = timeout.deadlineNanos / tickNanos;
+      timeout.remainingRounds = (calculatedTick - tick) / wheel.length;
+      // Timeouts whose deadline has already passed go into the current bucket.
+      final long targetTick = Math.max(calculatedTick, tick);
+      wheel[(int) (targetTick & mask)].add(timeout);
+    }
+  }
+
+  private static final class SharedTimerHolder {
+
+    private static final HashedWheelTimer INSTANCE = new HashedWheelTimer(
+        "ilp-plugin-timer", 10, TimeUnit.MILLISECONDS, 512
+    );
+  }
+
+  /**
+   * A handle to a task scheduled on a {@link HashedWheelTimer}.
+   */
+  public static final class Timeout {
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    private final HashedWheelTimer timer;
+    private final Runnable task;
+    private final long deadlineNanos;
+    private volatile int state = ST_INIT;
+
+    // Only accessed by the worker thread.
+    private long remainingRounds;
+    private Bucket bucket;
+    private Timeout next;
+    private Timeout prev;
+
+    private Timeout(final HashedWheelTimer timer, final Runnable task, final long deadlineNanos) {
+      this.timer = timer;
+      this.task = task;
+      this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Cancel the task, if it has not already run.
+     *
+     * @return {@code true} if this call cancelled the task; {@code false} if it had already run or been cancelled.
+     */
+    public boolean cancel() {
+      if (!STATE.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+        return false;
+      }
+      timer.pendingTimeouts.decrement();
+      // Let the worker unlink this timeout from its bucket so that it doesn't linger until its deadline.
+      timer.cancelledTimeouts.add(this);
+      return true;
+    }
+
+    public boolean isCancelled() {
+      return state == ST_CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state == ST_EXPIRED;
+    }
+
+    private void expire() {
+      if (!STATE.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+        return;
+      }
+      timer.pendingTimeouts.decrement();
+      try {
+        task.run();
+      } catch (Throwable t) {
+        logger.warn("Timer task threw an exception: {}", t.getMessage(), t);
+      }
+    }
+  }
+
+  /**
+   * A doubly-linked list of the timeouts hashed into a single slot of the wheel. Only accessed by the worker thread.
+   */
+  private static final class Bucket {
+
+    private Timeout head;
+    private Timeout tail;
+
+    void add(final Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.prev = tail;
+        tail = timeout;
+      }
+    }
+
+    void expireTimeouts() {
+      Timeout timeout = head;
+      while (timeout != null) {
+        final Timeout next = timeout.next;
+        if (timeout.remainingRounds <= 0) {
+          remove(timeout);
+          timeout.expire();
+        } else if (timeout.isCancelled()) {
+          remove(timeout);
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+
+    void remove(final Timeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+      if (timeout.prev != null) {
+        timeout.prev.next = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.prev = timeout.prev;
+      }
+      if (timeout == head) {
+        head = timeout.next;
+      }
+      if (timeout == tail) {
+        tail = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+  }
+}
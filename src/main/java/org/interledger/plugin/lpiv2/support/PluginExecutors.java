@@ -0,0 +1,92 @@
+package org.interledger.plugin.lpiv2.support;
+
+import org.interledger.core.InterledgerAddress;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for the bounded, named executors that a plugin can use to isolate its work from other plugins (and
+ * from the rest of the JVM) instead of sharing {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+ *
+ * <p>Every executor created here has a fixed number of daemon threads and a fixed-capacity work queue. When the queue
+ * is full, submissions are rejected with a {@link java.util.concurrent.RejectedExecutionException} rather than
+ * growing without bound, which allows a plugin to fail fast when its peer cannot keep up.</p>
+ */
+public final class PluginExecutors {
+
+  /**
+   * The default maximum number of queued tasks for an executor that handles ILP packets.
+   */
+  public static final int DEFAULT_DATA_QUEUE_DEPTH = 10_000;
+
+  /**
+   * The default maximum number of queued tasks for an executor that handles settlements.
+   */
+  public static final int DEFAULT_MONEY_QUEUE_DEPTH = 1_000;
+
+  /**
+   * Prevent construction.
+   */
+  private PluginExecutors() {
+  }
+
+  /**
+   * Construct a new executor with a fixed number of threads and a bounded work queue.
+   *
+   * @param name       A name used as the prefix of every thread created by this executor.
+   * @param threads    The number of threads in the pool.
+   * @param queueDepth The maximum number of tasks that may wait for a thread before new submissions are rejected.
+   *
+   * @return A {@link ThreadPoolExecutor} that rejects work once {@code queueDepth} tasks are waiting.
+   */
+  public static ThreadPoolExecutor newBoundedExecutor(final String name, final int threads, final int queueDepth) {
+    Objects.requireNonNull(name);
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads must be greater than 0");
+    }
+    if (queueDepth <= 0) {
+      throw new IllegalArgumentException("queueDepth must be greater than 0");
+    }
+
+    return new ThreadPoolExecutor(
+        threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueDepth),
+        new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.AbortPolicy()
+    );
+  }
+
+  /**
+   * Construct an executor sized for sending and handling ILP packets with a single peer. The pool has one thread per
+   * available processor and a queue of {@link #DEFAULT_DATA_QUEUE_DEPTH} tasks.
+   *
+   * @param peerAccount The {@link InterledgerAddress} of the peer, used to name the executor's threads.
+   *
+   * @return A bounded {@link ThreadPoolExecutor}.
+   */
+  public static ThreadPoolExecutor newDataExecutor(final InterledgerAddress peerAccount) {
+    Objects.requireNonNull(peerAccount);
+    return newBoundedExecutor(
+        "ilp-data-" + peerAccount.getValue(), Runtime.getRuntime().availableProcessors(), DEFAULT_DATA_QUEUE_DEPTH
+    );
+  }
+
+  /**
+   * Construct an executor sized for settling with a single peer. The pool has a single thread, so settlements with
+   * the peer are performed in the order they were requested, and a queue of {@link #DEFAULT_MONEY_QUEUE_DEPTH}
+   * tasks.
+   *
+   * @param peerAccount The {@link InterledgerAddress} of the peer, used to name the executor's threads.
+   *
+   * @return A bounded {@link ThreadPoolExecutor}.
+   */
+  public static ThreadPoolExecutor newMoneyExecutor(final InterledgerAddress peerAccount) {
+    Objects.requireNonNull(peerAccount);
+    return newBoundedExecutor("ilp-money-" + peerAccount.getValue(), 1, DEFAULT_MONEY_QUEUE_DEPTH);
+  }
+}
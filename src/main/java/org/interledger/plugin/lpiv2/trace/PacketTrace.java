@@ -0,0 +1,145 @@
+package org.interledger.plugin.lpiv2.trace;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerPreparePacket;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The timeline of a single packet chosen by a {@link PacketTracer}.</p>
+ *
+ * <p>Timestamps are taken from {@link System#nanoTime()}, and are reported relative to the moment the packet was
+ * dispatched (i.e., admitted by the plugin). A timestamp that was never taken is reported as {@code -1}; for example,
+ * plugins that override {@code doSendPacketAsync} don't run the packet on the data executor, so its execution start
+ * and response are unknown.</p>
+ */
+public class PacketTrace {
+
+  private static final long UNKNOWN = -1;
+
+  /**
+   * Whether a traced packet was sent to, or received from, the peer.
+   */
+  public enum Direction {
+    OUTGOING,
+    INCOMING
+  }
+
+  private final Direction direction;
+  private final InterledgerAddress destination;
+  private final BigInteger amount;
+  private final Instant dispatchedAt;
+  private final long dispatchNanos;
+
+  // Only held while the packet is in-flight, so that the ring of completed traces doesn't retain packet data.
+  private volatile InterledgerPreparePacket preparePacket;
+
+  private volatile long executionStartNanos = UNKNOWN;
+  private volatile long responseNanos = UNKNOWN;
+  private volatile long completionNanos = UNKNOWN;
+  private volatile String outcome;
+
+  PacketTrace(final Direction direction, final InterledgerPreparePacket preparePacket) {
+    this.direction = Objects.requireNonNull(direction);
+    this.preparePacket = preparePacket;
+    this.destination = preparePacket.getDestination();
+    this.amount = preparePacket.getAmount();
+    this.dispatchedAt = Instant.now();
+    this.dispatchNanos = System.nanoTime();
+  }
+
+  /**
+   * Record that the packet started running on an executor thread.
+   */
+  public void markExecutionStart() {
+    this.executionStartNanos = System.nanoTime();
+  }
+
+  /**
+   * Record that the plugin implementation produced a response for the packet.
+   */
+  public void markResponse() {
+    this.responseNanos = System.nanoTime();
+  }
+
+  void markCompletion(final String outcome) {
+    this.preparePacket = null;
+    this.outcome = outcome;
+    this.completionNanos = System.nanoTime();
+  }
+
+  InterledgerPreparePacket getPreparePacket() {
+    return preparePacket;
+  }
+
+  public Direction getDirection() {
+    return direction;
+  }
+
+  public InterledgerAddress getDestination() {
+    return destination;
+  }
+
+  public BigInteger getAmount() {
+    return amount;
+  }
+
+  /**
+   * The wall-clock time at which the packet was dispatched.
+   */
+  public Instant getDispatchedAt() {
+    return dispatchedAt;
+  }
+
+  /**
+   * Nanoseconds from dispatch until the packet started running on an executor thread, or {@code -1} if unknown.
+   */
+  public long getExecutionStartNanos() {
+    return sinceDispatch(executionStartNanos);
+  }
+
+  /**
+   * Nanoseconds from dispatch until the plugin implementation responded, or {@code -1} if unknown.
+   */
+  public long getResponseNanos() {
+    return sinceDispatch(responseNanos);
+  }
+
+  /**
+   * Nanoseconds from dispatch until the caller's future completed, or {@code -1} if the packet is still in-flight.
+   */
+  public long getCompletionNanos() {
+    return sinceDispatch(completionNanos);
+  }
+
+  /**
+   * {@code F} if the packet was fulfilled, the ILP error code if it was rejected (e.g., {@code R00}), the name of the
+   * exception if it failed for any other reason, or {@code null} if it is still in-flight.
+   */
+  public String getOutcome() {
+    return outcome;
+  }
+
+  private long sinceDispatch(final long nanos) {
+    return nanos == UNKNOWN ? UNKNOWN : nanos - dispatchNanos;
+  }
+
+  @Override
+  public String toString() {
+    return dispatchedAt
+        + " " + direction
+        + " " + destination.getValue()
+        + " amount=" + amount
+        + " executionStart=" + micros(getExecutionStartNanos())
+        + " response=" + micros(getResponseNanos())
+        + " completion=" + micros(getCompletionNanos())
+        + " outcome=" + outcome;
+  }
+
+  private static String micros(final long nanos) {
+    return nanos == UNKNOWN ? "?" : TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+  }
+}
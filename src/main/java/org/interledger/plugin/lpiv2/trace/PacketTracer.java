@@ -0,0 +1,170 @@
+package org.interledger.plugin.lpiv2.trace;
+
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerProtocolException;
+import org.interledger.plugin.lpiv2.trace.PacketTrace.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Records the timeline of a sample of the packets sent and received by a plugin, as configured by {@link
+ * TraceSettings}.</p>
+ *
+ * <p>Deciding whether to trace a packet costs a random number (and, if configured, a few prefix comparisons), so
+ * packets that aren't traced incur no allocation, locking or logging. Completed traces are kept in a bounded ring,
+ * overwriting the oldest, and can be read at any time using {@link #getTraces()} or {@link #dump()}.</p>
+ */
+public class PacketTracer {
+
+  private final int sampleRate;
+  private final String[] destinationPrefixes;
+  private final AtomicReferenceArray<PacketTrace> traces;
+  private final AtomicLong nextIndex = new AtomicLong();
+
+  // The traces of the packets that the current thread is handing to the plugin implementation, so that they can be
+  // found again if the implementation dispatches the packet to an executor.
+  private final ThreadLocal<PacketTrace[]> pendingTraces = new ThreadLocal<>();
+
+  public PacketTracer(final TraceSettings traceSettings) {
+    Objects.requireNonNull(traceSettings);
+    this.sampleRate = traceSettings.sampleRate();
+    this.destinationPrefixes = traceSettings.destinationPrefixes().toArray(new String[0]);
+    this.traces = new AtomicReferenceArray<>(traceSettings.bufferSize());
+  }
+
+  /**
+   * Start tracing {@code preparePacket}, if it is chosen for tracing.
+   *
+   * @return A {@link PacketTrace} that must be passed to {@link #complete(PacketTrace, Throwable)} once the packet's
+   *     response is available, or {@link Optional#empty()} if the packet is not traced.
+   */
+  public Optional<PacketTrace> start(final Direction direction, final InterledgerPreparePacket preparePacket) {
+    if (this.isTraced(preparePacket)) {
+      return Optional.of(new PacketTrace(direction, preparePacket));
+    }
+    return Optional.empty();
+  }
+
+  private boolean isTraced(final InterledgerPreparePacket preparePacket) {
+    if (sampleRate > 0 && ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+      return true;
+    }
+    if (destinationPrefixes.length > 0) {
+      final String destination = preparePacket.getDestination().getValue();
+      for (final String destinationPrefix : destinationPrefixes) {
+        if (destination.startsWith(destinationPrefix)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Make {@code pending} available to {@link #getPending(InterledgerPreparePacket)} on the current thread, until the
+   * returned value is passed to {@link #restorePending(PacketTrace[])}.
+   *
+   * @param pending The traces of the packets about to be handed to the plugin implementation, which may contain
+   *                {@code null}s for packets that aren't traced.
+   *
+   * @return The previously pending traces.
+   */
+  public PacketTrace[] setPending(final PacketTrace[] pending) {
+    final PacketTrace[] previous = pendingTraces.get();
+    pendingTraces.set(pending);
+    return previous;
+  }
+
+  /**
+   * Restore the pending traces that were replaced by {@link #setPending(PacketTrace[])}.
+   */
+  public void restorePending(final PacketTrace[] previous) {
+    if (previous == null) {
+      pendingTraces.remove();
+    } else {
+      pendingTraces.set(previous);
+    }
+  }
+
+  /**
+   * The pending trace of {@code preparePacket} on the current thread.
+   *
+   * @return The {@link PacketTrace} for {@code preparePacket}, or {@code null} if it is not being traced.
+   */
+  public PacketTrace getPending(final InterledgerPreparePacket preparePacket) {
+    final PacketTrace[] pending = pendingTraces.get();
+    if (pending != null) {
+      for (final PacketTrace trace : pending) {
+        if (trace != null && trace.getPreparePacket() == preparePacket) {
+          return trace;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finish {@code trace} and add it to the ring of completed traces.
+   *
+   * @param trace A {@link PacketTrace} returned by {@link #start(Direction, InterledgerPreparePacket)}.
+   * @param error The error the packet completed with, or {@code null} if it was fulfilled.
+   */
+  public void complete(final PacketTrace trace, final Throwable error) {
+    trace.markCompletion(outcome(error));
+    final long index = nextIndex.getAndIncrement();
+    traces.set((int) (index % traces.length()), trace);
+  }
+
+  private static String outcome(final Throwable error) {
+    if (error == null) {
+      return "F";
+    }
+    final Throwable cause = error instanceof CompletionException && error.getCause() != null
+        ? error.getCause() : error;
+    if (cause instanceof InterledgerProtocolException) {
+      return ((InterledgerProtocolException) cause).getInterledgerRejectPacket().getCode().getCode();
+    }
+    return cause.getClass().getSimpleName();
+  }
+
+  /**
+   * The number of traces completed since this tracer was created, including any that have since been overwritten.
+   */
+  public long getTracedCount() {
+    return nextIndex.get();
+  }
+
+  /**
+   * The most recently completed traces, oldest first.
+   */
+  public List<PacketTrace> getTraces() {
+    final long end = nextIndex.get();
+    final long start = Math.max(0, end - traces.length());
+    final List<PacketTrace> result = new ArrayList<>((int) (end - start));
+    for (long index = start; index < end; index++) {
+      final PacketTrace trace = traces.get((int) (index % traces.length()));
+      if (trace != null) {
+        result.add(trace);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The most recently completed traces, oldest first, one per line.
+   */
+  public String dump() {
+    final StringBuilder builder = new StringBuilder();
+    for (final PacketTrace trace : getTraces()) {
+      builder.append(trace).append(System.lineSeparator());
+    }
+    return builder.toString();
+  }
+}
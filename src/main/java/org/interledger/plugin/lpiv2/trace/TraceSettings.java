@@ -0,0 +1,55 @@
+package org.interledger.plugin.lpiv2.trace;
+
+import org.immutables.value.Value;
+
+import java.util.List;
+
+/**
+ * Configuration for a {@link PacketTracer}. A packet is traced if it is chosen by {@link #sampleRate()}, or if its
+ * destination starts with any of {@link #destinationPrefixes()}.
+ */
+public interface TraceSettings {
+
+  /**
+   * Trace, on average, one in every {@code sampleRate} packets. If zero, packets are only traced if they match {@link
+   * #destinationPrefixes()}.
+   */
+  int sampleRate();
+
+  /**
+   * Trace every packet whose destination address starts with any of these prefixes (e.g., {@code "g.hot-peer."}).
+   */
+  List<String> destinationPrefixes();
+
+  /**
+   * The number of completed traces that are retained. Once full, the oldest trace is overwritten.
+   */
+  int bufferSize();
+
+  @Value.Immutable
+  abstract class AbstractTraceSettings implements TraceSettings {
+
+    @Override
+    @Value.Default
+    public int sampleRate() {
+      return 1024;
+    }
+
+    @Override
+    @Value.Default
+    public int bufferSize() {
+      return 1024;
+    }
+
+    @Value.Check
+    protected void check() {
+      if (sampleRate() < 0) {
+        throw new IllegalStateException("sampleRate must not be negative");
+      }
+      if (bufferSize() <= 0) {
+        throw new IllegalStateException("bufferSize must be greater than 0");
+      }
+    }
+  }
+
+}
@@ -5,6 +5,8 @@ import static org.hamcrest.core.Is.is;
 import static org.interledger.plugin.lpiv2.Plugin.CONNECTED;
 import static org.interledger.plugin.lpiv2.Plugin.NOT_CONNECTED;
 import static org.interledger.plugin.lpiv2.TestHelpers.LOCAL_NODE_ADDRESS;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -13,6 +15,7 @@ import org.interledger.core.InterledgerFulfillPacket;
 import org.interledger.core.InterledgerPreparePacket;
 import org.interledger.core.InterledgerProtocolException;
 import org.interledger.plugin.lpiv2.TestHelpers.ExtendedPluginSettings;
+import org.interledger.plugin.lpiv2.balances.ImmutableBalanceSettings;
 import org.interledger.plugin.lpiv2.events.PluginEventHandler;
 
 import ch.qos.logback.classic.Level;
@@ -25,7 +28,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An abstract class that provides a common test functionality for any plugins defined in this project.
@@ -129,4 +141,162 @@ public class AbstractPluginTest {
     verifyNoMoreInteractions(pluginEventHandlerMock);
   }
 
+  @Test
+  public void testConnectAsyncIsSingleFlighted() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger connects = new AtomicInteger();
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(TestHelpers.newPluginSettings()) {
+      @Override
+      public void doConnect() {
+        connects.incrementAndGet();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+
+    final CompletableFuture<Void> first = plugin.connectAsync();
+    final CompletableFuture<Void> second = plugin.connectAsync();
+    assertThat(plugin.getConnectionState(), is(ConnectionState.CONNECTING));
+    assertThat(plugin.isConnected(), is(false));
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    second.get(5, TimeUnit.SECONDS);
+    assertThat(connects.get(), is(1));
+    assertThat(plugin.getConnectionState(), is(ConnectionState.CONNECTED));
+
+    plugin.disconnectAsync().get(5, TimeUnit.SECONDS);
+    assertThat(plugin.getConnectionState(), is(ConnectionState.DISCONNECTED));
+  }
+
+  @Test
+  public void testConnectAsyncFailure() throws InterruptedException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(TestHelpers.newPluginSettings()) {
+      @Override
+      public void doConnect() {
+        throw new IllegalStateException("Handshake failed");
+      }
+    };
+
+    try {
+      plugin.connectAsync().get(5, TimeUnit.SECONDS);
+      fail("Expected the connection to fail");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause().getMessage(), is("Handshake failed"));
+    }
+    assertThat(plugin.getConnectionState(), is(ConnectionState.DISCONNECTED));
+  }
+
+  @Test
+  public void testFailedConnectIsTornDown() throws InterruptedException, TimeoutException {
+    final List<String> steps = new CopyOnWriteArrayList<>();
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(TestHelpers.newPluginSettings()) {
+      @Override
+      public void doConnect() {
+        steps.add("connect");
+        throw new IllegalStateException("Handshake failed");
+      }
+
+      @Override
+      public void doDisconnect() {
+        steps.add("disconnect");
+      }
+    };
+
+    plugin.connect();
+    assertThat(steps, is(Arrays.asList("connect", "disconnect")));
+    assertThat(plugin.getConnectionState(), is(ConnectionState.DISCONNECTED));
+
+    steps.clear();
+    try {
+      plugin.connectAsync().get(5, TimeUnit.SECONDS);
+      fail("Expected the connection to fail");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause().getMessage(), is("Handshake failed"));
+    }
+    assertThat(steps, is(Arrays.asList("connect", "disconnect")));
+    assertThat(plugin.getConnectionState(), is(ConnectionState.DISCONNECTED));
+  }
+
+  @Test
+  public void testFailedTeardownAfterFailedConnectIsIgnored() throws InterruptedException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(TestHelpers.newPluginSettings()) {
+      @Override
+      public void doConnect() {
+        throw new IllegalStateException("Handshake failed");
+      }
+
+      @Override
+      public void doDisconnect() {
+        throw new IllegalStateException("Transport already closed");
+      }
+    };
+
+    try {
+      plugin.connectAsync().get(5, TimeUnit.SECONDS);
+      fail("Expected the connection to fail");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause().getMessage(), is("Handshake failed"));
+    }
+    assertThat(plugin.getConnectionState(), is(ConnectionState.DISCONNECTED));
+  }
+
+  @Test
+  public void testSendPackets() throws ExecutionException, InterruptedException {
+    final AtomicInteger batches = new AtomicInteger();
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(TestHelpers.newPluginSettings()) {
+      @Override
+      protected List<? extends CompletionStage<InterledgerFulfillPacket>> doSendPackets(
+          List<InterledgerPreparePacket> preparePackets
+      ) {
+        batches.incrementAndGet();
+        return super.doSendPackets(preparePackets);
+      }
+    };
+    plugin.setCompleteSuccessfully(true);
+
+    final List<CompletableFuture<InterledgerFulfillPacket>> responses = plugin.sendPackets(
+        Arrays.asList(newPreparePacket(), newPreparePacket(), newPreparePacket())
+    );
+
+    assertThat(batches.get(), is(1));
+    assertThat(responses.size(), is(3));
+    for (CompletableFuture<InterledgerFulfillPacket> response : responses) {
+      assertThat(response.get().getData(), is(SimulatedChildPlugin.ILP_DATA));
+    }
+  }
+
+  @Test
+  public void testInvalidSettlementsAreRecordedAsFailures() throws InterruptedException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(
+        TestHelpers.newPluginSettings().withBalanceSettings(ImmutableBalanceSettings.builder().build())
+    );
+    final BigInteger negative = BigInteger.valueOf(-1);
+
+    try {
+      plugin.settle(negative).get();
+      fail("Expected the settlement to be rejected");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof IllegalArgumentException, is(true));
+    }
+    try {
+      plugin.handleIncomingSettle(negative).get();
+      fail("Expected the settlement to be rejected");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof IllegalArgumentException, is(true));
+    }
+    try {
+      plugin.handleIncomingSettleOnCallingThread(negative);
+      fail("Expected the settlement to be rejected");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+
+    assertThat(plugin.getMetrics().getSettle().getFailureCount(), is(1L));
+    assertThat(plugin.getMetrics().getHandleIncomingSettle().getFailureCount(), is(2L));
+  }
+
 }
\ No newline at end of file
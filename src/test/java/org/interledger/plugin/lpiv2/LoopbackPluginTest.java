@@ -0,0 +1,169 @@
+package org.interledger.plugin.lpiv2;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.interledger.plugin.lpiv2.TestHelpers.PREIMAGE;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerFulfillment;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerProtocolException;
+import org.interledger.plugin.lpiv2.exceptions.PluginNotConnectedException;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link LoopbackPlugin}.
+ */
+public class LoopbackPluginTest {
+
+  @Test
+  public void testPacketIsDeliveredToLinkedPlugin() throws Exception {
+    final LoopbackPlugin alice = new LoopbackPlugin(settingsFor("test1.alice"));
+    final LoopbackPlugin bob = new LoopbackPlugin(settingsFor("test1.bob"));
+    LoopbackPlugin.link(alice, bob);
+    final AtomicReference<InterledgerPreparePacket> received = new AtomicReference<>();
+    bob.setIncomingPacketHandler(preparePacket -> {
+      received.set(preparePacket);
+      return fulfill();
+    });
+    alice.connect();
+    bob.connect();
+
+    final InterledgerPreparePacket preparePacket = newPreparePacket();
+    final InterledgerFulfillPacket actual = alice.sendPacket(preparePacket).get(5, TimeUnit.SECONDS);
+
+    assertThat(actual.getFulfillment().getPreimage(), is(PREIMAGE));
+    // The packet is handed over as-is, without being serialized.
+    assertThat(received.get() == preparePacket, is(true));
+    assertThat(bob.getMetrics().getHandleIncomingPacket().getCount(), is(1L));
+  }
+
+  @Test
+  public void testSameThreadModeNeverLeavesCallingThread() throws Exception {
+    final LoopbackPlugin alice = LoopbackPlugin.sameThread(settingsFor("test1.alice"));
+    final LoopbackPlugin bob = LoopbackPlugin.sameThread(settingsFor("test1.bob"));
+    LoopbackPlugin.link(alice, bob);
+    final AtomicReference<Thread> handlingThread = new AtomicReference<>();
+    bob.setIncomingPacketHandler(preparePacket -> {
+      handlingThread.set(Thread.currentThread());
+      return fulfill();
+    });
+    alice.connect();
+    bob.connect();
+
+    assertThat(alice.sendPacket(newPreparePacket()).isDone(), is(true));
+    assertThat(handlingThread.get(), is(Thread.currentThread()));
+  }
+
+  @Test
+  public void testRejectionIsReturnedToSender() throws Exception {
+    final LoopbackPlugin alice = LoopbackPlugin.sameThread(settingsFor("test1.alice"));
+    final LoopbackPlugin bob = LoopbackPlugin.sameThread(settingsFor("test1.bob"));
+    LoopbackPlugin.link(alice, bob);
+    alice.connect();
+    bob.connect();
+
+    try {
+      alice.sendPacket(newPreparePacket()).get();
+      fail("Bob has no handler, so the packet should have been rejected");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof InterledgerProtocolException, is(true));
+      assertThat(((InterledgerProtocolException) e.getCause()).getInterledgerRejectPacket().getCode(),
+          is(InterledgerErrorCode.F02_UNREACHABLE));
+    }
+  }
+
+  @Test
+  public void testSendFailsWhenPeerIsDisconnected() throws Exception {
+    final LoopbackPlugin alice = LoopbackPlugin.sameThread(settingsFor("test1.alice"));
+    final LoopbackPlugin bob = LoopbackPlugin.sameThread(settingsFor("test1.bob"));
+    LoopbackPlugin.link(alice, bob);
+    alice.connect();
+
+    try {
+      alice.sendPacket(newPreparePacket()).get();
+      fail("Bob is not connected, so the packet should have failed");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof PluginNotConnectedException, is(true));
+    }
+  }
+
+  @Test
+  public void testSettleIsDeliveredToLinkedPlugin() throws Exception {
+    final LoopbackPlugin alice = new LoopbackPlugin(settingsFor("test1.alice"));
+    final LoopbackPlugin bob = new LoopbackPlugin(settingsFor("test1.bob"));
+    LoopbackPlugin.link(alice, bob);
+    alice.connect();
+    bob.connect();
+
+    alice.settle(BigInteger.TEN).get(5, TimeUnit.SECONDS);
+
+    assertThat(alice.getMetrics().getSettle().getCount(), is(1L));
+    assertThat(bob.getMetrics().getHandleIncomingSettle().getCount(), is(1L));
+  }
+
+  @Test
+  public void testSettleWithSharedSingleThreadedMoneyExecutor() throws Exception {
+    final ExecutorService moneyExecutor = Executors.newSingleThreadExecutor();
+    try {
+      final LoopbackPlugin alice = new LoopbackPlugin(settingsFor("test1.alice"), Runnable::run, moneyExecutor);
+      final LoopbackPlugin bob = new LoopbackPlugin(settingsFor("test1.bob"), Runnable::run, moneyExecutor);
+      LoopbackPlugin.link(alice, bob);
+      alice.connect();
+      bob.connect();
+
+      // Would deadlock if Alice's settlement waited for Bob's turn on the executor it occupies.
+      alice.settle(BigInteger.TEN).get(5, TimeUnit.SECONDS);
+
+      assertThat(bob.getMetrics().getHandleIncomingSettle().getCount(), is(1L));
+    } finally {
+      moneyExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testConnectRequiresLink() {
+    final LoopbackPlugin alice = LoopbackPlugin.sameThread(settingsFor("test1.alice"));
+    alice.connect();
+    assertThat(alice.isConnected(), is(false));
+  }
+
+  private static InterledgerFulfillPacket fulfill() {
+    return InterledgerFulfillPacket.builder()
+        .fulfillment(InterledgerFulfillment.of(PREIMAGE))
+        .data(new byte[0])
+        .build();
+  }
+
+  private static InterledgerPreparePacket newPreparePacket() {
+    return InterledgerPreparePacket.builder()
+        .executionCondition(InterledgerCondition.of(PREIMAGE))
+        .expiresAt(Instant.now().plus(5, ChronoUnit.SECONDS))
+        .destination(InterledgerAddress.of("test1.bob"))
+        .amount(BigInteger.ZERO)
+        .build();
+  }
+
+  private static PluginSettings settingsFor(final String peerAccount) {
+    return new TestHelpers.TestPluginSettings() {
+      @Override
+      public InterledgerAddress peerAccount() {
+        return InterledgerAddress.of(peerAccount);
+      }
+    };
+  }
+}
@@ -0,0 +1,136 @@
+package org.interledger.plugin.lpiv2;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.plugin.lpiv2.exceptions.PluginException;
+import org.interledger.plugin.lpiv2.exceptions.PluginNotFoundException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link PluginManager}.
+ */
+public class PluginManagerTest {
+
+  private PluginManager pluginManager;
+
+  @Before
+  public void setup() {
+    this.pluginManager = new PluginManager();
+  }
+
+  @Test
+  public void testRegisterAndLookup() {
+    final SimulatedChildPlugin alice = newPlugin("test1.alice");
+    final SimulatedChildPlugin bob = newPlugin("test1.bob");
+    pluginManager.register(alice);
+    pluginManager.register(bob);
+
+    assertThat(pluginManager.size(), is(2));
+    assertThat(pluginManager.getPlugin(InterledgerAddress.of("test1.alice")).get(), is(alice));
+    assertThat(pluginManager.getPluginOrThrow(InterledgerAddress.of("test1.bob")), is(bob));
+    assertThat(pluginManager.getPlugin(InterledgerAddress.of("test1.carol")).isPresent(), is(false));
+  }
+
+  @Test(expected = PluginException.class)
+  public void testRegisterDuplicateAccount() {
+    pluginManager.register(newPlugin("test1.alice"));
+    pluginManager.register(newPlugin("test1.alice"));
+  }
+
+  @Test(expected = PluginNotFoundException.class)
+  public void testGetPluginOrThrowWhenMissing() {
+    pluginManager.getPluginOrThrow(InterledgerAddress.of("test1.alice"));
+  }
+
+  @Test
+  public void testUnregisterDisconnects() {
+    final SimulatedChildPlugin alice = newPlugin("test1.alice");
+    pluginManager.register(alice);
+    alice.connect();
+
+    assertThat(pluginManager.unregister(InterledgerAddress.of("test1.alice")).get(), is(alice));
+    assertThat(alice.isConnected(), is(false));
+    assertThat(pluginManager.unregister(InterledgerAddress.of("test1.alice")).isPresent(), is(false));
+    assertThat(pluginManager.size(), is(0));
+  }
+
+  @Test
+  public void testUnregisterReturnsPluginThatFailsToDisconnect() {
+    final SimulatedChildPlugin alice = new SimulatedChildPlugin(settingsFor("test1.alice")) {
+      @Override
+      public void doDisconnect() {
+        throw new IllegalStateException("Disconnect failed");
+      }
+    };
+    pluginManager.register(alice);
+    alice.connect();
+
+    assertThat(pluginManager.unregister(InterledgerAddress.of("test1.alice")).get(), is(alice));
+    assertThat(pluginManager.size(), is(0));
+  }
+
+  @Test
+  public void testConnectAndDisconnectAll() throws Exception {
+    for (int i = 0; i < 1000; i++) {
+      pluginManager.register(newPlugin("test1.child" + i));
+    }
+
+    pluginManager.connectAll().get(10, TimeUnit.SECONDS);
+    for (final Plugin<?> plugin : pluginManager.getPlugins()) {
+      assertThat(plugin.isConnected(), is(true));
+    }
+
+    pluginManager.disconnectAll().get(10, TimeUnit.SECONDS);
+    for (final Plugin<?> plugin : pluginManager.getPlugins()) {
+      assertThat(plugin.isConnected(), is(false));
+    }
+  }
+
+  @Test
+  public void testConnectAllBoundsParallelism() throws Exception {
+    final AtomicInteger connecting = new AtomicInteger();
+    final AtomicInteger maxConnecting = new AtomicInteger();
+    for (int i = 0; i < 100; i++) {
+      final String peerAccount = "test1.child" + i;
+      pluginManager.register(new SimulatedChildPlugin(settingsFor(peerAccount)) {
+        @Override
+        public void doConnect() {
+          maxConnecting.accumulateAndGet(connecting.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(1);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          connecting.decrementAndGet();
+        }
+      });
+    }
+
+    pluginManager.connectAll(4).get(10, TimeUnit.SECONDS);
+
+    assertThat(maxConnecting.get() <= 4, is(true));
+    for (final Plugin<?> plugin : pluginManager.getPlugins()) {
+      assertThat(plugin.getConnectionState(), is(ConnectionState.CONNECTED));
+    }
+  }
+
+  private static SimulatedChildPlugin newPlugin(final String peerAccount) {
+    return new SimulatedChildPlugin(settingsFor(peerAccount));
+  }
+
+  private static PluginSettings settingsFor(final String peerAccount) {
+    return new TestHelpers.TestPluginSettings() {
+      @Override
+      public InterledgerAddress peerAccount() {
+        return InterledgerAddress.of(peerAccount);
+      }
+    };
+  }
+}
@@ -0,0 +1,59 @@
+package org.interledger.plugin.lpiv2;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.interledger.plugin.lpiv2.TestHelpers.newFulfillPacket;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.exceptions.PluginNotConnectedException;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Unit tests for the default methods of {@link Plugin}.
+ */
+public class PluginTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSendPacketsContinuesAfterAPacketFailsToSend() throws InterruptedException, ExecutionException {
+    final Plugin<PluginSettings> plugin = mock(Plugin.class);
+    when(plugin.sendPackets(anyList())).thenCallRealMethod();
+    final InterledgerPreparePacket first = newPreparePacket(BigInteger.ONE, Duration.ofSeconds(5));
+    final InterledgerPreparePacket second = newPreparePacket(BigInteger.valueOf(2), Duration.ofSeconds(5));
+    final InterledgerPreparePacket third = newPreparePacket(BigInteger.valueOf(3), Duration.ofSeconds(5));
+    final InterledgerFulfillPacket fulfillPacket = newFulfillPacket();
+    final PluginNotConnectedException notConnected = new PluginNotConnectedException("Not connected", null);
+    when(plugin.sendPacket(first)).thenReturn(CompletableFuture.completedFuture(fulfillPacket));
+    when(plugin.sendPacket(second)).thenThrow(notConnected);
+    when(plugin.sendPacket(third)).thenReturn(CompletableFuture.completedFuture(fulfillPacket));
+
+    final List<CompletableFuture<InterledgerFulfillPacket>> responses =
+        plugin.sendPackets(Arrays.asList(first, second, third));
+
+    assertThat(responses.size(), is(3));
+    assertThat(responses.get(0).get(), is(fulfillPacket));
+    try {
+      responses.get(1).get();
+      fail("Expected the second packet to fail");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is((Throwable) notConnected));
+    }
+    assertThat(responses.get(2).get(), is(fulfillPacket));
+    verify(plugin).sendPacket(third);
+  }
+}
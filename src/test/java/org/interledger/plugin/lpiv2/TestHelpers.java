@@ -1,9 +1,37 @@
 package org.interledger.plugin.lpiv2;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
 import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerFulfillment;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerProtocolException;
+import org.interledger.core.InterledgerRejectPacket;
+import org.interledger.plugin.lpiv2.balances.BalanceSettings;
+import org.interledger.plugin.lpiv2.breaker.CircuitBreakerSettings;
+import org.interledger.plugin.lpiv2.dedup.DeduplicationSettings;
+import org.interledger.plugin.lpiv2.limits.ConcurrencyLimitSettings;
+import org.interledger.plugin.lpiv2.limits.RateLimitSettings;
+import org.interledger.plugin.lpiv2.reconnect.ReconnectSettings;
+import org.interledger.plugin.lpiv2.settlement.SettlementSettings;
+import org.interledger.plugin.lpiv2.trace.TraceSettings;
 
 import org.immutables.value.Value.Immutable;
 
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * An abstract class that provides a common test functionality for any plugins defined in this project.
  */
@@ -15,35 +43,195 @@ public class TestHelpers {
   protected static final InterledgerAddress LOCAL_NODE_ADDRESS = InterledgerAddress.of("test1.foo");
   protected static final InterledgerAddress PEER_ACCOUNT = InterledgerAddress.of("test1.b");
 
-  public static ExtendedPluginSettings newPluginSettings() {
-    return new ExtendedPluginSettings() {
-
-      @Override
-      public PluginType pluginTypeId() {
-        return PluginType.of("ilp-plugin-mock");
-      }
-
-      /**
-       * The ILP Address for remote peer account this Plugin is connecting to...
-       */
-      @Override
-      public InterledgerAddress peerAccount() {
-        return PEER_ACCOUNT;
-      }
-
-      /**
-       * The ILP address of the ILP Node operating this plugin.
-       */
-      @Override
-      public InterledgerAddress localNodeAddress() {
-        return LOCAL_NODE_ADDRESS;
-      }
-
-      @Override
-      public String getPassword() {
-        return "password";
-      }
-    };
+  /**
+   * Settings with none of the optional features of {@link AbstractPlugin} enabled. Tests enable the features they
+   * exercise using the {@code with} methods of {@link TestPluginSettings}.
+   */
+  public static TestPluginSettings newPluginSettings() {
+    return new TestPluginSettings();
+  }
+
+  /**
+   * A packet for zero units to {@code test1.foo}, which expires in five seconds, and whose condition is not fulfilled
+   * by {@link SimulatedChildPlugin#PREIMAGE}.
+   */
+  public static InterledgerPreparePacket newPreparePacket() {
+    return newPreparePacket(BigInteger.ZERO, Duration.ofSeconds(5));
+  }
+
+  /**
+   * A packet like {@link #newPreparePacket()}, but for {@code amount} units and expiring after {@code expiresIn}.
+   */
+  public static InterledgerPreparePacket newPreparePacket(final BigInteger amount, final Duration expiresIn) {
+    return InterledgerPreparePacket.builder()
+        .executionCondition(InterledgerCondition.of(PREIMAGE))
+        .expiresAt(Instant.now().plus(expiresIn))
+        .destination(InterledgerAddress.of("test1.foo"))
+        .amount(amount)
+        .build();
+  }
+
+  /**
+   * A fulfillment of {@link #PREIMAGE}.
+   */
+  public static InterledgerFulfillPacket newFulfillPacket() {
+    return InterledgerFulfillPacket.builder()
+        .fulfillment(InterledgerFulfillment.of(PREIMAGE))
+        .data(new byte[0])
+        .build();
+  }
+
+  /**
+   * Wait up to five seconds for {@code response}, and assert that it was rejected with {@code errorCode}.
+   *
+   * @return The {@link InterledgerRejectPacket} of the rejection, for further assertions.
+   */
+  public static InterledgerRejectPacket assertRejected(
+      final CompletableFuture<InterledgerFulfillPacket> response, final InterledgerErrorCode errorCode
+  ) throws InterruptedException, TimeoutException {
+    try {
+      response.get(5, TimeUnit.SECONDS);
+      fail("Expected the packet to be rejected with " + errorCode.getCode());
+      return null;
+    } catch (ExecutionException e) {
+      final InterledgerRejectPacket rejectPacket =
+          ((InterledgerProtocolException) e.getCause()).getInterledgerRejectPacket();
+      assertThat(rejectPacket.getCode(), is(errorCode));
+      return rejectPacket;
+    }
+  }
+
+  /**
+   * An implementation of {@link ExtendedPluginSettings} whose optional settings can be set using its {@code with}
+   * methods, or overridden by tests that extend it.
+   */
+  public static class TestPluginSettings implements ExtendedPluginSettings {
+
+    private Optional<ConcurrencyLimitSettings> concurrencyLimitSettings = Optional.empty();
+    private Optional<RateLimitSettings> incomingRateLimitSettings = Optional.empty();
+    private Optional<BalanceSettings> balanceSettings = Optional.empty();
+    private Optional<SettlementSettings> settlementSettings = Optional.empty();
+    private Optional<TraceSettings> traceSettings = Optional.empty();
+    private Optional<ReconnectSettings> reconnectSettings = Optional.empty();
+    private Optional<DeduplicationSettings> deduplicationSettings = Optional.empty();
+    private Optional<CircuitBreakerSettings> circuitBreakerSettings = Optional.empty();
+    private boolean verifyFulfillments;
+
+    @Override
+    public PluginType pluginTypeId() {
+      return PluginType.of("ilp-plugin-mock");
+    }
+
+    /**
+     * The ILP Address for remote peer account this Plugin is connecting to...
+     */
+    @Override
+    public InterledgerAddress peerAccount() {
+      return PEER_ACCOUNT;
+    }
+
+    /**
+     * The ILP address of the ILP Node operating this plugin.
+     */
+    @Override
+    public InterledgerAddress localNodeAddress() {
+      return LOCAL_NODE_ADDRESS;
+    }
+
+    @Override
+    public String getPassword() {
+      return "password";
+    }
+
+    @Override
+    public Optional<ConcurrencyLimitSettings> concurrencyLimitSettings() {
+      return concurrencyLimitSettings;
+    }
+
+    @Override
+    public Optional<RateLimitSettings> incomingRateLimitSettings() {
+      return incomingRateLimitSettings;
+    }
+
+    @Override
+    public Optional<BalanceSettings> balanceSettings() {
+      return balanceSettings;
+    }
+
+    @Override
+    public Optional<SettlementSettings> settlementSettings() {
+      return settlementSettings;
+    }
+
+    @Override
+    public Optional<TraceSettings> traceSettings() {
+      return traceSettings;
+    }
+
+    @Override
+    public Optional<ReconnectSettings> reconnectSettings() {
+      return reconnectSettings;
+    }
+
+    @Override
+    public Optional<DeduplicationSettings> deduplicationSettings() {
+      return deduplicationSettings;
+    }
+
+    @Override
+    public boolean verifyFulfillments() {
+      return verifyFulfillments;
+    }
+
+    @Override
+    public Optional<CircuitBreakerSettings> circuitBreakerSettings() {
+      return circuitBreakerSettings;
+    }
+
+    public TestPluginSettings withConcurrencyLimitSettings(final ConcurrencyLimitSettings concurrencyLimitSettings) {
+      this.concurrencyLimitSettings = Optional.of(concurrencyLimitSettings);
+      return this;
+    }
+
+    public TestPluginSettings withIncomingRateLimitSettings(final RateLimitSettings incomingRateLimitSettings) {
+      this.incomingRateLimitSettings = Optional.of(incomingRateLimitSettings);
+      return this;
+    }
+
+    public TestPluginSettings withBalanceSettings(final BalanceSettings balanceSettings) {
+      this.balanceSettings = Optional.of(balanceSettings);
+      return this;
+    }
+
+    public TestPluginSettings withSettlementSettings(final SettlementSettings settlementSettings) {
+      this.settlementSettings = Optional.of(settlementSettings);
+      return this;
+    }
+
+    public TestPluginSettings withTraceSettings(final TraceSettings traceSettings) {
+      this.traceSettings = Optional.of(traceSettings);
+      return this;
+    }
+
+    public TestPluginSettings withReconnectSettings(final ReconnectSettings reconnectSettings) {
+      this.reconnectSettings = Optional.of(reconnectSettings);
+      return this;
+    }
+
+    public TestPluginSettings withDeduplicationSettings(final DeduplicationSettings deduplicationSettings) {
+      this.deduplicationSettings = Optional.of(deduplicationSettings);
+      return this;
+    }
+
+    public TestPluginSettings withVerifyFulfillments(final boolean verifyFulfillments) {
+      this.verifyFulfillments = verifyFulfillments;
+      return this;
+    }
+
+    public TestPluginSettings withCircuitBreakerSettings(final CircuitBreakerSettings circuitBreakerSettings) {
+      this.circuitBreakerSettings = Optional.of(circuitBreakerSettings);
+      return this;
+    }
   }
 
   /**
@@ -0,0 +1,45 @@
+package org.interledger.plugin.lpiv2.balances;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link BalanceSettings}.
+ */
+public class BalancePluginTest {
+
+  @Test
+  public void testSendPacketTracksBalance() throws InterruptedException, ExecutionException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(
+        newPluginSettings().withBalanceSettings(ImmutableBalanceSettings.builder().minBalance(-15).build())
+    );
+    final InterledgerPreparePacket preparePacket = newPreparePacket(BigInteger.TEN, Duration.ofSeconds(5));
+
+    plugin.sendPacket(preparePacket).get();
+    assertThat(plugin.getBalanceTracker().get().getBalance(), is(-10L));
+
+    assertRejected(plugin.sendPacket(preparePacket), InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY);
+
+    plugin.setCompleteSuccessfully(false);
+    plugin.settle(BigInteger.TEN).get();
+    assertThat(plugin.getBalanceTracker().get().getBalance(), is(0L));
+    assertRejected(plugin.sendPacket(preparePacket), InterledgerErrorCode.F00_BAD_REQUEST);
+    // Rejected by the peer, so the reserved amount is rolled back.
+    assertThat(plugin.getBalanceTracker().get().getBalance(), is(0L));
+    assertThat(plugin.getBalanceTracker().get().getPendingOutgoing(), is(0L));
+  }
+}
@@ -0,0 +1,106 @@
+package org.interledger.plugin.lpiv2.balances;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link BalanceTracker}.
+ */
+public class BalanceTrackerTest {
+
+  @Test
+  public void testOutgoingReserveCommitAndRollback() {
+    final BalanceTracker tracker = new BalanceTracker(ImmutableBalanceSettings.builder().minBalance(-100).build());
+
+    assertThat(tracker.tryReserveOutgoing(60), is(true));
+    assertThat(tracker.tryReserveOutgoing(60), is(false));
+    assertThat(tracker.getPendingOutgoing(), is(60L));
+
+    tracker.rollbackOutgoing(60);
+    assertThat(tracker.getPendingOutgoing(), is(0L));
+    assertThat(tracker.getBalance(), is(0L));
+
+    assertThat(tracker.tryReserveOutgoing(100), is(true));
+    tracker.commitOutgoing(100);
+    assertThat(tracker.getBalance(), is(-100L));
+    assertThat(tracker.tryReserveOutgoing(1), is(false));
+  }
+
+  @Test
+  public void testIncomingReserveCommitAndRollback() {
+    final BalanceTracker tracker = new BalanceTracker(ImmutableBalanceSettings.builder().maxBalance(100).build());
+
+    assertThat(tracker.tryReserveIncoming(60), is(true));
+    assertThat(tracker.tryReserveIncoming(60), is(false));
+    assertThat(tracker.getPendingIncoming(), is(60L));
+
+    tracker.commitIncoming(60);
+    assertThat(tracker.getBalance(), is(60L));
+    assertThat(tracker.tryReserveIncoming(40), is(true));
+    tracker.rollbackIncoming(40);
+    assertThat(tracker.getBalance(), is(60L));
+    assertThat(tracker.getPendingIncoming(), is(0L));
+  }
+
+  @Test
+  public void testSettlementsRestoreHeadroom() {
+    final BalanceTracker tracker = new BalanceTracker(
+        ImmutableBalanceSettings.builder().minBalance(-100).maxBalance(100).build()
+    );
+
+    assertThat(tracker.tryReserveOutgoing(100), is(true));
+    tracker.commitOutgoing(100);
+    assertThat(tracker.tryReserveOutgoing(1), is(false));
+
+    tracker.onSettle(100);
+    assertThat(tracker.getBalance(), is(0L));
+    assertThat(tracker.tryReserveOutgoing(1), is(true));
+    tracker.rollbackOutgoing(1);
+
+    assertThat(tracker.tryReserveIncoming(100), is(true));
+    tracker.commitIncoming(100);
+    assertThat(tracker.tryReserveIncoming(1), is(false));
+
+    tracker.onIncomingSettle(100);
+    assertThat(tracker.getBalance(), is(0L));
+    assertThat(tracker.tryReserveIncoming(1), is(true));
+  }
+
+  @Test
+  public void testDefaultBoundsRejectOverflow() {
+    final BalanceTracker tracker = new BalanceTracker(ImmutableBalanceSettings.builder().build());
+
+    assertThat(tracker.tryReserveIncoming(Long.MAX_VALUE), is(true));
+    assertThat(tracker.tryReserveIncoming(1), is(false));
+  }
+
+  @Test
+  public void testConcurrentReservationsNeverExceedMinimum() throws InterruptedException {
+    final BalanceTracker tracker = new BalanceTracker(ImmutableBalanceSettings.builder().minBalance(-1_000).build());
+    final AtomicInteger reserved = new AtomicInteger();
+
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          if (tracker.tryReserveOutgoing(1)) {
+            reserved.incrementAndGet();
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(reserved.get(), is(1_000));
+    assertThat(tracker.getPendingOutgoing(), is(1_000L));
+  }
+}
@@ -0,0 +1,63 @@
+package org.interledger.plugin.lpiv2.breaker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.events.AbstractPluginEventHandler;
+import org.interledger.plugin.lpiv2.events.CircuitBreakerStateChangedEvent;
+import org.interledger.plugin.lpiv2.events.PluginEventType;
+import org.interledger.plugin.lpiv2.simulation.ImmutableSimulationSettings;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link CircuitBreakerSettings}.
+ */
+public class CircuitBreakerPluginTest {
+
+  @Test
+  public void testCircuitBreakerOpensWhenPeerFails() throws InterruptedException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings().withCircuitBreakerSettings(
+        ImmutableCircuitBreakerSettings.builder().windowSize(10).minimumCalls(5).build()
+    ));
+    plugin.setSimulationSettings(ImmutableSimulationSettings.builder()
+        .putRejectRates(InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY, 1.0)
+        .build());
+    final List<CircuitBreakerStateChangedEvent> events = new CopyOnWriteArrayList<>();
+    plugin.addPluginEventHandler(new AbstractPluginEventHandler() {
+      @Override
+      public void onCircuitBreakerStateChanged(CircuitBreakerStateChangedEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public Set<PluginEventType> getSubscribedEventTypes() {
+        return EnumSet.of(PluginEventType.CIRCUIT_BREAKER_STATE_CHANGED);
+      }
+    });
+
+    // The first five packets reach the peer, which opens the circuit, so the sixth is rejected without being sent.
+    for (int i = 0; i < 5; i++) {
+      assertRejected(plugin.sendPacket(newPreparePacket()), InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY);
+    }
+    assertRejected(plugin.sendPacket(newPreparePacket()), InterledgerErrorCode.T01_PEER_UNREACHABLE);
+
+    assertThat(plugin.getCircuitBreaker().get().getState(), is(CircuitBreakerState.OPEN));
+    assertThat(plugin.getCircuitBreaker().get().getRejectedCount(), is(1L));
+    assertThat(plugin.getMetrics().getSendPacket().getCount(), is(5L));
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getPreviousState(), is(CircuitBreakerState.CLOSED));
+    assertThat(events.get(0).getState(), is(CircuitBreakerState.OPEN));
+  }
+}
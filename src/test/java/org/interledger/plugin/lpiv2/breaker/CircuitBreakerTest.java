@@ -0,0 +1,176 @@
+package org.interledger.plugin.lpiv2.breaker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+  private final List<CircuitBreakerState> transitions = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void testStaysClosedUntilMinimumCalls() {
+    final CircuitBreaker breaker = newBreaker(Duration.ofSeconds(10));
+
+    for (int i = 0; i < 4; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, true);
+    }
+
+    assertThat(breaker.getState(), is(CircuitBreakerState.CLOSED));
+    assertThat(breaker.tryAcquire(), is(not(CircuitBreaker.REJECTED)));
+  }
+
+  @Test
+  public void testOpensWhenFailureRateIsReached() {
+    final CircuitBreaker breaker = newBreaker(Duration.ofSeconds(10));
+
+    for (int i = 0; i < 5; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, false);
+    }
+    for (int i = 0; i < 5; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, true);
+    }
+
+    assertThat(breaker.getState(), is(CircuitBreakerState.OPEN));
+    assertThat(breaker.tryAcquire(), is(CircuitBreaker.REJECTED));
+    assertThat(breaker.getRejectedCount(), is(1L));
+    assertThat(transitions.get(0), is(CircuitBreakerState.OPEN));
+  }
+
+  @Test
+  public void testOpensWhenSlowCallRateIsReached() {
+    final CircuitBreaker breaker = newBreaker(Duration.ofSeconds(10));
+
+    for (int i = 0; i < 5; i++) {
+      breaker.onResult(breaker.tryAcquire(), SLOW, false);
+    }
+
+    assertThat(breaker.getState(), is(CircuitBreakerState.OPEN));
+  }
+
+  @Test
+  public void testOldOutcomesLeaveTheWindow() {
+    final CircuitBreaker breaker = newBreaker(Duration.ofSeconds(10));
+
+    // Four failures among ten packets, then enough successes to push them out of the window of ten.
+    for (int i = 0; i < 6; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, false);
+    }
+    for (int i = 0; i < 4; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, true);
+    }
+    for (int i = 0; i < 10; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, false);
+    }
+    for (int i = 0; i < 4; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, true);
+    }
+
+    // Had the first four failures still been counted, eight of the last ten packets would have failed.
+    assertThat(breaker.getState(), is(CircuitBreakerState.CLOSED));
+  }
+
+  @Test
+  public void testHalfOpenClosesAfterSuccessfulProbes() throws InterruptedException {
+    final CircuitBreaker breaker = newBreaker(Duration.ofMillis(100));
+    open(breaker);
+    Thread.sleep(150);
+
+    final long firstProbe = breaker.tryAcquire();
+    final long secondProbe = breaker.tryAcquire();
+    assertThat(breaker.getState(), is(CircuitBreakerState.HALF_OPEN));
+    assertThat(firstProbe, is(not(CircuitBreaker.REJECTED)));
+    assertThat(secondProbe, is(not(CircuitBreaker.REJECTED)));
+    // Only two probes are let through.
+    assertThat(breaker.tryAcquire(), is(CircuitBreaker.REJECTED));
+
+    breaker.onResult(firstProbe, FAST, false);
+    breaker.onResult(secondProbe, FAST, false);
+
+    assertThat(breaker.getState(), is(CircuitBreakerState.CLOSED));
+    assertThat(transitions.size(), is(3));
+    assertThat(transitions.get(1), is(CircuitBreakerState.HALF_OPEN));
+    assertThat(transitions.get(2), is(CircuitBreakerState.CLOSED));
+  }
+
+  @Test
+  public void testHalfOpenReopensWhenProbeFails() throws InterruptedException {
+    final CircuitBreaker breaker = newBreaker(Duration.ofMillis(100));
+    open(breaker);
+    Thread.sleep(150);
+
+    breaker.onResult(breaker.tryAcquire(), FAST, true);
+
+    assertThat(breaker.getState(), is(CircuitBreakerState.OPEN));
+    assertThat(breaker.tryAcquire(), is(CircuitBreaker.REJECTED));
+  }
+
+  @Test
+  public void testReleasedProbeCanBeReacquired() throws InterruptedException {
+    final CircuitBreaker breaker = newBreaker(Duration.ofMillis(100));
+    open(breaker);
+    Thread.sleep(150);
+
+    final long firstProbe = breaker.tryAcquire();
+    breaker.tryAcquire();
+    breaker.release(firstProbe);
+
+    assertThat(breaker.tryAcquire(), is(not(CircuitBreaker.REJECTED)));
+  }
+
+  @Test
+  public void testOutcomesFromAnEarlierPhaseAreIgnored() throws InterruptedException {
+    final CircuitBreaker breaker = newBreaker(Duration.ofMillis(100));
+    final long stalePermit = breaker.tryAcquire();
+    open(breaker);
+    Thread.sleep(150);
+    final long probe = breaker.tryAcquire();
+
+    // A failure of a packet sent while the circuit was closed doesn't count against the probes.
+    breaker.onResult(stalePermit, FAST, true);
+    assertThat(breaker.getState(), is(CircuitBreakerState.HALF_OPEN));
+
+    breaker.onResult(probe, FAST, false);
+    assertThat(breaker.getState(), is(CircuitBreakerState.HALF_OPEN));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMinimumCallsMustNotExceedWindowSize() {
+    ImmutableCircuitBreakerSettings.builder().windowSize(10).minimumCalls(11).build();
+  }
+
+  private CircuitBreaker newBreaker(final Duration openDuration) {
+    return new CircuitBreaker(
+        ImmutableCircuitBreakerSettings.builder()
+            .windowSize(10)
+            .minimumCalls(5)
+            .failureRateThreshold(0.5)
+            .slowCallDuration(Duration.ofSeconds(1))
+            .slowCallRateThreshold(0.8)
+            .openDuration(openDuration)
+            .halfOpenProbes(2)
+            .build(),
+        (previousState, state) -> transitions.add(state)
+    );
+  }
+
+  private void open(final CircuitBreaker breaker) {
+    for (int i = 0; i < 5; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, true);
+    }
+    assertThat(breaker.getState(), is(CircuitBreakerState.OPEN));
+  }
+}
@@ -0,0 +1,76 @@
+package org.interledger.plugin.lpiv2.dedup;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newFulfillPacket;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link DeduplicationSettings}.
+ */
+public class DeduplicationPluginTest {
+
+  @Test
+  public void testDuplicatePacketsAreCoalesced() throws Exception {
+    final AtomicInteger sent = new AtomicInteger();
+    final CompletableFuture<InterledgerFulfillPacket> peerResponse = new CompletableFuture<>();
+    final SimulatedChildPlugin plugin = newPlugin(peerResponse, sent);
+
+    final CompletableFuture<InterledgerFulfillPacket> first = plugin.sendPacket(newPreparePacket());
+    final CompletableFuture<InterledgerFulfillPacket> second = plugin.sendPacket(newPreparePacket());
+    assertThat(sent.get(), is(1));
+
+    peerResponse.complete(newFulfillPacket());
+    assertThat(second.get(5, TimeUnit.SECONDS), is(first.get(5, TimeUnit.SECONDS)));
+    assertThat(plugin.getPacketDeduplicator().get().getCoalescedCount(), is(1L));
+    assertThat(plugin.getPacketDeduplicator().get().getInFlightCount(), is(0));
+  }
+
+  @Test
+  public void testDuplicateExpiresIndependently() throws Exception {
+    // The peer never responds.
+    final SimulatedChildPlugin plugin = newPlugin(new CompletableFuture<>(), new AtomicInteger());
+    final InterledgerPreparePacket original = newPreparePacket(BigInteger.TEN, Duration.ofSeconds(30));
+    // Identical to the original, except that it expires much sooner.
+    final InterledgerPreparePacket duplicate = newPreparePacket(BigInteger.TEN, Duration.ofMillis(100));
+
+    final CompletableFuture<InterledgerFulfillPacket> first = plugin.sendPacket(original);
+    assertRejected(plugin.sendPacket(duplicate), InterledgerErrorCode.R00_TRANSFER_TIMED_OUT);
+
+    assertThat(first.isDone(), is(false));
+    assertThat(plugin.getPacketDeduplicator().get().getCoalescedCount(), is(1L));
+  }
+
+  /**
+   * A plugin that answers every packet it sends with {@code peerResponse}, counting them in {@code sent}.
+   */
+  private static SimulatedChildPlugin newPlugin(
+      final CompletableFuture<InterledgerFulfillPacket> peerResponse, final AtomicInteger sent
+  ) {
+    return new SimulatedChildPlugin(
+        newPluginSettings().withDeduplicationSettings(ImmutableDeduplicationSettings.builder().build())
+    ) {
+      @Override
+      protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(InterledgerPreparePacket preparePacket) {
+        sent.incrementAndGet();
+        return peerResponse;
+      }
+    };
+  }
+}
@@ -0,0 +1,90 @@
+package org.interledger.plugin.lpiv2.dedup;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerFulfillment;
+import org.interledger.core.InterledgerPreparePacket;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for {@link PacketDeduplicator}.
+ */
+public class PacketDeduplicatorTest {
+
+  private static final byte[] PREIMAGE = "Roads? Where we're going we dont".getBytes();
+
+  private PacketDeduplicator deduplicator;
+
+  @Before
+  public void setup() {
+    this.deduplicator = new PacketDeduplicator(ImmutableDeduplicationSettings.builder().build());
+  }
+
+  @Test
+  public void testDuplicateReceivesInFlightResponse() {
+    final InterledgerPreparePacket original = newPreparePacket(BigInteger.TEN);
+    final CompletableFuture<InterledgerFulfillPacket> response = new CompletableFuture<>();
+    assertThat(deduplicator.coalesce(original) == null, is(true));
+    deduplicator.track(original, response);
+
+    final CompletableFuture<InterledgerFulfillPacket> duplicateResponse =
+        deduplicator.coalesce(newPreparePacket(BigInteger.TEN));
+    assertThat(duplicateResponse.isDone(), is(false));
+    assertThat(deduplicator.getCoalescedCount(), is(1L));
+
+    final InterledgerFulfillPacket fulfillPacket = InterledgerFulfillPacket.builder()
+        .fulfillment(InterledgerFulfillment.of(PREIMAGE))
+        .data(new byte[0])
+        .build();
+    response.complete(fulfillPacket);
+
+    assertThat(duplicateResponse.join(), is(fulfillPacket));
+    assertThat(deduplicator.getInFlightCount(), is(0));
+  }
+
+  @Test
+  public void testPacketWithDifferentAmountIsNotCoalesced() {
+    final InterledgerPreparePacket original = newPreparePacket(BigInteger.TEN);
+    deduplicator.coalesce(original);
+    deduplicator.track(original, new CompletableFuture<>());
+
+    final InterledgerPreparePacket different = newPreparePacket(BigInteger.ONE);
+    assertThat(deduplicator.coalesce(different) == null, is(true));
+    // Tracking the different packet must not disturb the original.
+    deduplicator.track(different, new CompletableFuture<>());
+    assertThat(deduplicator.getInFlightCount(), is(1));
+    assertThat(deduplicator.getCoalescedCount(), is(0L));
+  }
+
+  @Test
+  public void testPacketIsSentAgainOnceAnswered() {
+    final InterledgerPreparePacket original = newPreparePacket(BigInteger.TEN);
+    final CompletableFuture<InterledgerFulfillPacket> response = new CompletableFuture<>();
+    deduplicator.coalesce(original);
+    deduplicator.track(original, response);
+    response.completeExceptionally(new IllegalStateException("Peer unavailable"));
+
+    final InterledgerPreparePacket retry = newPreparePacket(BigInteger.TEN);
+    assertThat(deduplicator.coalesce(retry) == null, is(true));
+  }
+
+  private static InterledgerPreparePacket newPreparePacket(final BigInteger amount) {
+    return InterledgerPreparePacket.builder()
+        .executionCondition(InterledgerCondition.of(new byte[32]))
+        .expiresAt(Instant.now().plus(5, ChronoUnit.SECONDS))
+        .destination(InterledgerAddress.of("test1.foo"))
+        .amount(amount)
+        .build();
+  }
+}
@@ -0,0 +1,154 @@
+package org.interledger.plugin.lpiv2.events;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.balances.ImmutableBalanceSettings;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests of the per-packet and settlement events emitted by an {@link org.interledger.plugin.lpiv2.AbstractPlugin}.
+ */
+public class PacketEventsPluginTest {
+
+  @Test
+  public void testPacketEventsAreEmittedToSubscribedHandlers() throws Exception {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings());
+    final List<PluginEvent> events = new CopyOnWriteArrayList<>();
+    final AtomicInteger connectEvents = new AtomicInteger();
+    plugin.addPluginEventHandler(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        connectEvents.incrementAndGet();
+      }
+
+      @Override
+      public void onPacketSent(PacketSentEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public void onPacketFulfilled(PacketFulfilledEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public void onPacketRejected(PacketRejectedEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public void onSettlementCompleted(SettlementCompletedEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public Set<PluginEventType> getSubscribedEventTypes() {
+        return EnumSet.of(PluginEventType.PACKET_SENT, PluginEventType.PACKET_FULFILLED,
+            PluginEventType.PACKET_REJECTED, PluginEventType.SETTLEMENT_COMPLETED);
+      }
+    });
+
+    plugin.connect();
+    plugin.sendPacket(newPreparePacket()).get();
+    plugin.setCompleteSuccessfully(false);
+    assertRejected(plugin.sendPacket(newPreparePacket()), InterledgerErrorCode.F00_BAD_REQUEST);
+    plugin.settle(BigInteger.TEN).get();
+
+    // Lifecycle events are delivered even though the handler doesn't list CONNECTED.
+    assertThat(connectEvents.get(), is(1));
+    assertThat(events.size(), is(5));
+    assertThat(events.get(0) instanceof PacketSentEvent, is(true));
+    assertThat(events.get(1) instanceof PacketFulfilledEvent, is(true));
+    assertThat(events.get(2) instanceof PacketSentEvent, is(true));
+    assertThat(((PacketRejectedEvent) events.get(3)).getRejectPacket().getCode(),
+        is(InterledgerErrorCode.F00_BAD_REQUEST));
+    assertThat(((SettlementCompletedEvent) events.get(4)).getAmount(), is(BigInteger.TEN));
+  }
+
+  @Test
+  public void testFailingHandlerDoesNotAffectPackets() throws InterruptedException, ExecutionException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(
+        newPluginSettings().withBalanceSettings(ImmutableBalanceSettings.builder().minBalance(-15).build())
+    );
+    plugin.addPluginEventHandler(new AbstractPluginEventHandler() {
+      @Override
+      public void onPacketSent(PacketSentEvent event) {
+        throw new IllegalStateException("Handler failed");
+      }
+
+      @Override
+      public void onPacketFulfilled(PacketFulfilledEvent event) {
+        throw new IllegalStateException("Handler failed");
+      }
+
+      @Override
+      public Set<PluginEventType> getSubscribedEventTypes() {
+        return EnumSet.of(PluginEventType.PACKET_SENT, PluginEventType.PACKET_FULFILLED);
+      }
+    });
+    final InterledgerPreparePacket preparePacket = newPreparePacket(BigInteger.TEN, Duration.ofSeconds(5));
+
+    plugin.sendPacket(preparePacket).get();
+    assertThat(plugin.getBalanceTracker().get().getBalance(), is(-10L));
+    assertThat(plugin.getMetrics().getSendPacket().getFailureCount(), is(0L));
+  }
+
+  @Test
+  public void testExpiredPacketIsOnlyReportedAsExpired() throws InterruptedException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings()) {
+      @Override
+      protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(InterledgerPreparePacket preparePacket) {
+        // The peer never responds.
+        return new CompletableFuture<>();
+      }
+    };
+    final List<PluginEvent> events = new CopyOnWriteArrayList<>();
+    final CountDownLatch expiredLatch = new CountDownLatch(1);
+    plugin.addPluginEventHandler(new AbstractPluginEventHandler() {
+      @Override
+      public void onPacketRejected(PacketRejectedEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public void onPacketExpired(PacketExpiredEvent event) {
+        events.add(event);
+        expiredLatch.countDown();
+      }
+
+      @Override
+      public Set<PluginEventType> getSubscribedEventTypes() {
+        return EnumSet.of(PluginEventType.PACKET_REJECTED, PluginEventType.PACKET_EXPIRED);
+      }
+    });
+
+    final InterledgerPreparePacket preparePacket = newPreparePacket(BigInteger.ZERO, Duration.ofMillis(100));
+    assertRejected(plugin.sendPacket(preparePacket), InterledgerErrorCode.R00_TRANSFER_TIMED_OUT);
+    assertThat(expiredLatch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(events.size(), is(1));
+    assertThat(((PacketExpiredEvent) events.get(0)).getPreparePacket(), is(preparePacket));
+  }
+}
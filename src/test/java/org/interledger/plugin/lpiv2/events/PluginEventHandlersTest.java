@@ -0,0 +1,101 @@
+package org.interledger.plugin.lpiv2.events;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link PluginEventHandlers}.
+ */
+public class PluginEventHandlersTest {
+
+  @Test
+  public void testAddAndRemove() {
+    final PluginEventHandlers handlers = new PluginEventHandlers();
+    final PluginEventHandler first = new AbstractPluginEventHandler() {
+    };
+    final PluginEventHandler second = new AbstractPluginEventHandler() {
+    };
+    final PluginEventHandler third = new AbstractPluginEventHandler() {
+    };
+
+    final UUID firstId = handlers.add(first);
+    final UUID secondId = handlers.add(second);
+    final UUID thirdId = handlers.add(third);
+    assertThat(firstId, is(not(secondId)));
+    assertThat(handlers.snapshot().size(), is(3));
+
+    assertThat(handlers.remove(secondId), is(true));
+    assertThat(handlers.remove(secondId), is(false));
+
+    final PluginEventHandlers.Snapshot snapshot = handlers.snapshot();
+    assertThat(snapshot.size(), is(2));
+    assertThat(snapshot.handler(0), is(first));
+    assertThat(snapshot.id(1), is(thirdId));
+    assertThat(snapshot.indexOf(secondId), is(-1));
+  }
+
+  @Test
+  public void testSnapshotIsUnaffectedByLaterChanges() {
+    final PluginEventHandlers handlers = new PluginEventHandlers();
+    final UUID handlerId = handlers.add(new AbstractPluginEventHandler() {
+    });
+
+    final PluginEventHandlers.Snapshot snapshot = handlers.snapshot();
+    handlers.add(new AbstractPluginEventHandler() {
+    });
+    handlers.remove(handlerId);
+
+    assertThat(snapshot.size(), is(1));
+    assertThat(snapshot.id(0), is(handlerId));
+    assertThat(handlers.snapshot().size(), is(1));
+  }
+
+  @Test
+  public void testLifecycleEventsAreAlwaysDelivered() {
+    final PluginEventHandlers handlers = new PluginEventHandlers();
+    final PluginEventHandler handler = new AbstractPluginEventHandler() {
+      @Override
+      public Set<PluginEventType> getSubscribedEventTypes() {
+        return Collections.emptySet();
+      }
+    };
+    handlers.add(handler);
+
+    final PluginEventHandlers.Snapshot snapshot = handlers.snapshot();
+    assertThat(snapshot.size(PluginEventType.CONNECTED), is(1));
+    assertThat(snapshot.handler(PluginEventType.DISCONNECTED, 0), is(handler));
+    assertThat(snapshot.isSubscribed(0, PluginEventType.ERROR), is(true));
+    assertThat(snapshot.hasHandlers(PluginEventType.PACKET_SENT), is(false));
+  }
+
+  @Test
+  public void testSubscriptionsAreReadOnceWhenFirstNeeded() {
+    final PluginEventHandlers handlers = new PluginEventHandlers();
+    final AtomicInteger calls = new AtomicInteger();
+    handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public Set<PluginEventType> getSubscribedEventTypes() {
+        calls.incrementAndGet();
+        return EnumSet.of(PluginEventType.PACKET_SENT);
+      }
+    });
+
+    assertThat(handlers.snapshot().hasHandlers(PluginEventType.CONNECTED), is(true));
+    assertThat(calls.get(), is(0));
+
+    assertThat(handlers.snapshot().hasHandlers(PluginEventType.PACKET_SENT), is(true));
+    handlers.add(new AbstractPluginEventHandler() {
+    });
+    assertThat(handlers.snapshot().hasHandlers(PluginEventType.PACKET_FULFILLED), is(false));
+    assertThat(calls.get(), is(1));
+  }
+}
@@ -0,0 +1,299 @@
+package org.interledger.plugin.lpiv2.events;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.plugin.lpiv2.events.RingBufferPluginEventEmitter.OverflowPolicy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link RingBufferPluginEventEmitter}.
+ */
+public class RingBufferPluginEventEmitterTest {
+
+  private static final InterledgerAddress PEER_ACCOUNT = InterledgerAddress.of("test1.peer");
+
+  private PluginEventHandlers handlers;
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    this.handlers = new PluginEventHandlers();
+    this.executor = Executors.newCachedThreadPool();
+  }
+
+  @Test
+  public void testEventsAreDeliveredInOrderOffTheEmittingThread() throws InterruptedException {
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, executor, 16, OverflowPolicy.DROP
+    );
+    final List<PluginEvent> events = new CopyOnWriteArrayList<>();
+    final CountDownLatch latch = new CountDownLatch(3);
+    final Thread emittingThread = Thread.currentThread();
+    handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        assertThat(Thread.currentThread() == emittingThread, is(false));
+        events.add(event);
+        latch.countDown();
+      }
+
+      @Override
+      public void onDisconnect(PluginDisconnectedEvent event) {
+        events.add(event);
+        latch.countDown();
+      }
+    });
+
+    emitter.emitEvent(connected());
+    emitter.emitEvent(disconnected());
+    emitter.emitEvent(connected());
+
+    assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(events.get(0) instanceof PluginConnectedEvent, is(true));
+    assertThat(events.get(1) instanceof PluginDisconnectedEvent, is(true));
+    assertThat(events.get(2) instanceof PluginConnectedEvent, is(true));
+  }
+
+  @Test
+  public void testSlowOrFailingHandlerDoesNotAffectOthers() throws InterruptedException {
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, executor, 16, OverflowPolicy.DROP
+    );
+    final CountDownLatch release = new CountDownLatch(1);
+    final UUID slowHandlerId = handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        awaitQuietly(release);
+      }
+    });
+    handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        throw new RuntimeException("Handler failed");
+      }
+    });
+    final CountDownLatch delivered = new CountDownLatch(2);
+    handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        delivered.countDown();
+      }
+    });
+
+    emitter.emitEvent(connected());
+    emitter.emitEvent(connected());
+
+    assertThat(delivered.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(emitter.getLag(slowHandlerId) > 0, is(true));
+    release.countDown();
+  }
+
+  @Test
+  public void testDropPolicySkipsOldestEvents() throws InterruptedException {
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, executor, 4, OverflowPolicy.DROP
+    );
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    final List<PluginEvent> events = new CopyOnWriteArrayList<>();
+    final UUID handlerId = handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        awaitQuietly(release);
+        events.add(event);
+      }
+
+      @Override
+      public void onDisconnect(PluginDisconnectedEvent event) {
+        events.add(event);
+        done.countDown();
+      }
+    });
+
+    for (int i = 0; i < 20; i++) {
+      emitter.emitEvent(connected());
+    }
+    emitter.emitEvent(disconnected());
+    release.countDown();
+
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(emitter.getDroppedCount(handlerId) > 0, is(true));
+    assertThat(events.size() + emitter.getDroppedCount(handlerId), is(21L));
+    assertThat(emitter.getLag(handlerId), is(0L));
+  }
+
+  @Test
+  public void testCoalescePolicyDeliversLatestEvent() throws InterruptedException {
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, executor, 4, OverflowPolicy.COALESCE
+    );
+    final CountDownLatch handling = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    final List<PluginEvent> events = new CopyOnWriteArrayList<>();
+    final UUID handlerId = handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        handling.countDown();
+        awaitQuietly(release);
+        events.add(event);
+      }
+
+      @Override
+      public void onDisconnect(PluginDisconnectedEvent event) {
+        events.add(event);
+        done.countDown();
+      }
+    });
+
+    emitter.emitEvent(connected());
+    assertThat(handling.await(5, TimeUnit.SECONDS), is(true));
+    for (int i = 1; i < 20; i++) {
+      emitter.emitEvent(connected());
+    }
+    emitter.emitEvent(disconnected());
+    release.countDown();
+
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    // The first event was being handled when the buffer overflowed; everything else was coalesced into the last event.
+    assertThat(events.size(), is(2));
+    assertThat(events.get(1) instanceof PluginDisconnectedEvent, is(true));
+  }
+
+  @Test
+  public void testBlockPolicyDropsNothing() throws InterruptedException {
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, executor, 2, OverflowPolicy.BLOCK
+    );
+    final CountDownLatch delivered = new CountDownLatch(100);
+    final UUID handlerId = handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        delivered.countDown();
+      }
+    });
+
+    for (int i = 0; i < 100; i++) {
+      emitter.emitEvent(connected());
+    }
+
+    assertThat(delivered.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(emitter.getDroppedCount(handlerId), is(0L));
+  }
+
+  @Test
+  public void testBlockedEmitterDoesNotHoldTheMonitor() throws Exception {
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, executor, 1, OverflowPolicy.BLOCK
+    );
+    final CountDownLatch handling = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        handling.countDown();
+        awaitQuietly(release);
+      }
+    });
+
+    emitter.emitEvent(connected());
+    assertThat(handling.await(5, TimeUnit.SECONDS), is(true));
+    emitter.emitEvent(connected());
+    // The buffer is full, and its only handler is stuck on the first event.
+    final CompletableFuture<Void> blockedEmit =
+        CompletableFuture.runAsync(() -> emitter.emitEvent(connected()), executor);
+    Thread.sleep(100);
+    assertThat(blockedEmit.isDone(), is(false));
+
+    CompletableFuture.runAsync(() -> {
+      synchronized (emitter) {
+        release.countDown();
+      }
+    }, executor).get(5, TimeUnit.SECONDS);
+    blockedEmit.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testBlockPolicyDoesNotWaitForAHandlerTheExecutorRejects() throws Exception {
+    final Executor rejectingExecutor = runnable -> {
+      throw new RejectedExecutionException("Executor is shut down");
+    };
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, rejectingExecutor, 2, OverflowPolicy.BLOCK
+    );
+    final UUID handlerId = handlers.add(new AbstractPluginEventHandler() {
+    });
+
+    CompletableFuture.runAsync(() -> {
+      for (int i = 0; i < 5; i++) {
+        emitter.emitEvent(connected());
+      }
+    }, executor).get(5, TimeUnit.SECONDS);
+    assertThat(emitter.getLag(handlerId), is(5L));
+  }
+
+  @Test
+  public void testSubscriptionsAreNotReadToDeliverLifecycleEvents() throws InterruptedException {
+    final RingBufferPluginEventEmitter emitter = new RingBufferPluginEventEmitter(
+        handlers, executor, 16, OverflowPolicy.DROP
+    );
+    final AtomicInteger subscriptionReads = new AtomicInteger();
+    final CountDownLatch delivered = new CountDownLatch(2);
+    handlers.add(new AbstractPluginEventHandler() {
+      @Override
+      public Set<PluginEventType> getSubscribedEventTypes() {
+        subscriptionReads.incrementAndGet();
+        return super.getSubscribedEventTypes();
+      }
+
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        delivered.countDown();
+      }
+
+      @Override
+      public void onDisconnect(PluginDisconnectedEvent event) {
+        delivered.countDown();
+      }
+    });
+
+    emitter.emitEvent(connected());
+    emitter.emitEvent(disconnected());
+
+    assertThat(delivered.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(subscriptionReads.get(), is(0));
+  }
+
+  private static PluginConnectedEvent connected() {
+    return ImmutablePluginConnectedEvent.builder().peerAccount(PEER_ACCOUNT).build();
+  }
+
+  private static PluginDisconnectedEvent disconnected() {
+    return ImmutablePluginDisconnectedEvent.builder().peerAccount(PEER_ACCOUNT).build();
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link ConcurrencyLimitSettings}.
+ */
+public class ConcurrencyLimitPluginTest {
+
+  @Test
+  public void testSendPacketRejectedWhenConcurrencyLimitIsReached() throws InterruptedException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings().withConcurrencyLimitSettings(
+        ImmutableConcurrencyLimitSettings.builder().initialLimit(1).build()
+    )) {
+      @Override
+      protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(InterledgerPreparePacket preparePacket) {
+        // The peer never responds, so the first packet holds the only permit.
+        return new CompletableFuture<>();
+      }
+    };
+
+    plugin.sendPacket(newPreparePacket());
+    assertRejected(plugin.sendPacket(newPreparePacket()), InterledgerErrorCode.T03_CONNECTOR_BUSY);
+    assertThat(plugin.getSendPacketLimiter().get().getInFlight(), is(1));
+    assertThat(plugin.getSendPacketLimiter().get().getRejectedCount(), is(1L));
+  }
+}
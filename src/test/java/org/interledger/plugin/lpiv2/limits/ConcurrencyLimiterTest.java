@@ -0,0 +1,109 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link ConcurrencyLimiter}.
+ */
+public class ConcurrencyLimiterTest {
+
+  private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+  @Test
+  public void testTryAcquireRejectsOnceLimitIsReached() {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        ImmutableConcurrencyLimitSettings.builder().initialLimit(2).build()
+    );
+
+    assertThat(limiter.tryAcquire(), is(true));
+    assertThat(limiter.tryAcquire(), is(true));
+    assertThat(limiter.tryAcquire(), is(false));
+    assertThat(limiter.getInFlight(), is(2));
+    assertThat(limiter.getRejectedCount(), is(1L));
+
+    limiter.release(RTT, false);
+    assertThat(limiter.getInFlight(), is(1));
+    assertThat(limiter.tryAcquire(), is(true));
+  }
+
+  @Test
+  public void testLimitGrowsWhileRttIsStable() {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        ImmutableConcurrencyLimitSettings.builder().initialLimit(10).build()
+    );
+
+    for (int i = 0; i < 100; i++) {
+      fillToLimit(limiter);
+      releaseAll(limiter, RTT, false);
+    }
+
+    assertThat(limiter.getLimit(), is(greaterThan(10)));
+  }
+
+  @Test
+  public void testLimitShrinksWhenRttIncreases() {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        ImmutableConcurrencyLimitSettings.builder().initialLimit(100).build()
+    );
+    // Establish the minimum RTT.
+    limiter.tryAcquire();
+    limiter.release(RTT, false);
+
+    for (int i = 0; i < 10; i++) {
+      fillToLimit(limiter);
+      releaseAll(limiter, RTT * 10, false);
+    }
+
+    assertThat(limiter.getLimit(), is(lessThan(100)));
+  }
+
+  @Test
+  public void testLimitBacksOffWhenPacketsAreDropped() {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        ImmutableConcurrencyLimitSettings.builder().initialLimit(100).backoffRatio(0.5).build()
+    );
+
+    limiter.tryAcquire();
+    limiter.release(RTT, true);
+
+    assertThat(limiter.getLimit(), is(50));
+  }
+
+  @Test
+  public void testLimitStaysWithinBounds() {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        ImmutableConcurrencyLimitSettings.builder().initialLimit(4).minLimit(2).maxLimit(8).build()
+    );
+
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire();
+      limiter.release(RTT, true);
+    }
+    assertThat(limiter.getLimit(), is(2));
+
+    for (int i = 0; i < 100; i++) {
+      fillToLimit(limiter);
+      releaseAll(limiter, RTT, false);
+    }
+    assertThat(limiter.getLimit(), is(8));
+  }
+
+  private void fillToLimit(final ConcurrencyLimiter limiter) {
+    while (limiter.tryAcquire()) {
+      // Keep acquiring until the limit is reached.
+    }
+  }
+
+  private void releaseAll(final ConcurrencyLimiter limiter, final long rttNanos, final boolean dropped) {
+    while (limiter.getInFlight() > 0) {
+      limiter.release(rttNanos, dropped);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link RateLimitSettings}.
+ */
+public class RateLimitPluginTest {
+
+  @Test
+  public void testHandleIncomingPacketRejectedWhenRateLimitIsExceeded() throws Exception {
+    final AtomicInteger handled = new AtomicInteger();
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings().withIncomingRateLimitSettings(
+        ImmutableRateLimitSettings.builder().packetsPerSecond(1).packetBurst(2).build()
+    )) {
+      @Override
+      public InterledgerFulfillPacket doHandleIncomingPacket(InterledgerPreparePacket preparePacket) {
+        handled.incrementAndGet();
+        return super.doHandleIncomingPacket(preparePacket);
+      }
+    };
+
+    plugin.handleIncomingPacket(newPreparePacket()).get(5, TimeUnit.SECONDS);
+    plugin.handleIncomingPacket(newPreparePacket()).get(5, TimeUnit.SECONDS);
+    assertRejected(plugin.handleIncomingPacket(newPreparePacket()), InterledgerErrorCode.T05_RATE_LIMITED);
+
+    // The rejected packet was never handed to the data executor.
+    assertThat(handled.get(), is(2));
+    assertThat(plugin.getIncomingRateLimiter().get().getRejectedCount(), is(1L));
+  }
+
+  @Test
+  public void testHandleIncomingPacketLargerThanAmountBurstIsTooLarge() throws Exception {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings().withIncomingRateLimitSettings(
+        ImmutableRateLimitSettings.builder().amountPerSecond(100).build()
+    ));
+
+    // No amount of waiting would admit this packet, so it is rejected with a final error rather than T05.
+    final InterledgerPreparePacket oversized = newPreparePacket(BigInteger.valueOf(101), Duration.ofSeconds(5));
+    assertRejected(plugin.handleIncomingPacket(oversized), InterledgerErrorCode.F08_AMOUNT_TOO_LARGE);
+
+    // The rejected packet took no tokens, so the whole burst is still available.
+    final InterledgerPreparePacket wholeBurst = newPreparePacket(BigInteger.valueOf(100), Duration.ofSeconds(5));
+    plugin.handleIncomingPacket(wholeBurst).get(5, TimeUnit.SECONDS);
+    assertThat(plugin.getIncomingRateLimiter().get().getRejectedCount(), is(0L));
+  }
+}
@@ -0,0 +1,80 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RateLimiter}.
+ */
+public class RateLimiterTest {
+
+  @Test
+  public void testPacketRate() {
+    final RateLimiter limiter = new RateLimiter(
+        ImmutableRateLimitSettings.builder().packetsPerSecond(1).packetBurst(3).build()
+    );
+
+    assertThat(limiter.tryAcquire(1_000_000), is(true));
+    assertThat(limiter.tryAcquire(1_000_000), is(true));
+    assertThat(limiter.tryAcquire(1_000_000), is(true));
+    assertThat(limiter.tryAcquire(0), is(false));
+    assertThat(limiter.getRejectedCount(), is(1L));
+    assertThat(limiter.getAmountBucket().isPresent(), is(false));
+  }
+
+  @Test
+  public void testAmountRate() {
+    final RateLimiter limiter = new RateLimiter(ImmutableRateLimitSettings.builder().amountPerSecond(100).build());
+
+    assertThat(limiter.tryAcquire(60), is(true));
+    assertThat(limiter.tryAcquire(60), is(false));
+    assertThat(limiter.tryAcquire(40), is(true));
+    assertThat(limiter.getPacketBucket().isPresent(), is(false));
+  }
+
+  @Test
+  public void testAmountTooLargeToRepresentIsRejected() {
+    final RateLimiter limiter = new RateLimiter(ImmutableRateLimitSettings.builder().amountPerSecond(100).build());
+
+    assertThat(limiter.tryAcquire(-1), is(false));
+  }
+
+  @Test
+  public void testAmountLargerThanBurstIsNeverAdmissible() {
+    final RateLimiter limiter = new RateLimiter(
+        ImmutableRateLimitSettings.builder().packetsPerSecond(10).amountPerSecond(100).build()
+    );
+
+    assertThat(limiter.isAdmissible(100), is(true));
+    assertThat(limiter.isAdmissible(101), is(false));
+    assertThat(limiter.isAdmissible(-1), is(false));
+    // Checking takes no tokens.
+    assertThat(limiter.getPacketBucket().get().getAvailableTokens(), is(10L));
+    assertThat(limiter.getAmountBucket().get().getAvailableTokens(), is(100L));
+  }
+
+  @Test
+  public void testAnyAmountIsAdmissibleWithoutAnAmountRate() {
+    final RateLimiter limiter = new RateLimiter(ImmutableRateLimitSettings.builder().packetsPerSecond(1).build());
+
+    assertThat(limiter.isAdmissible(-1), is(true));
+  }
+
+  @Test
+  public void testBurstDefaultsToOneSecondOfRate() {
+    final RateLimitSettings settings = ImmutableRateLimitSettings.builder()
+        .packetsPerSecond(50)
+        .amountPerSecond(1_000)
+        .build();
+
+    assertThat(settings.packetBurst(), is(50L));
+    assertThat(settings.amountBurst(), is(1_000L));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSomeRateMustBePresent() {
+    ImmutableRateLimitSettings.builder().build();
+  }
+}
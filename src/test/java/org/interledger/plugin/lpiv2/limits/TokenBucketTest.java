@@ -0,0 +1,124 @@
+package org.interledger.plugin.lpiv2.limits;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for {@link TokenBucket}.
+ */
+public class TokenBucketTest {
+
+  @Test
+  public void testStartsFull() {
+    final TokenBucket bucket = new TokenBucket(10, 1);
+
+    assertThat(bucket.getAvailableTokens(), is(10L));
+    assertThat(bucket.tryTake(4), is(true));
+    assertThat(bucket.tryTake(6), is(true));
+    assertThat(bucket.tryTake(1), is(false));
+    assertThat(bucket.getAvailableTokens(), is(0L));
+  }
+
+  @Test
+  public void testFailedTakeTakesNothing() {
+    final TokenBucket bucket = new TokenBucket(10, 1);
+
+    assertThat(bucket.tryTake(8), is(true));
+    assertThat(bucket.tryTake(3), is(false));
+    assertThat(bucket.tryTake(2), is(true));
+  }
+
+  @Test
+  public void testRefillsOverTime() {
+    final AtomicLong clock = new AtomicLong();
+    final TokenBucket bucket = new TokenBucket(10, 100, clock::get);
+    assertThat(bucket.tryTake(10), is(true));
+    assertThat(bucket.tryTake(1), is(false));
+
+    // 100 tokens per second is one every 10ms.
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10) - 1);
+    assertThat(bucket.tryTake(1), is(false));
+    clock.incrementAndGet();
+    assertThat(bucket.tryTake(1), is(true));
+    assertThat(bucket.tryTake(1), is(false));
+  }
+
+  @Test
+  public void testNeverHoldsMoreThanCapacity() {
+    final AtomicLong clock = new AtomicLong();
+    final TokenBucket bucket = new TokenBucket(5, 1_000, clock::get);
+    clock.addAndGet(TimeUnit.DAYS.toNanos(1));
+
+    assertThat(bucket.getAvailableTokens(), is(5L));
+    assertThat(bucket.tryTake(6), is(false));
+  }
+
+  @Test
+  public void testFractionsOfATokenAreCarried() {
+    final AtomicLong clock = new AtomicLong();
+    // One token every 333,333,333.3ns.
+    final TokenBucket bucket = new TokenBucket(3, 3, clock::get);
+    assertThat(bucket.tryTake(3), is(true));
+
+    for (long refillNanos : new long[] {333_333_334, 666_666_667, 1_000_000_000, 1_333_333_334}) {
+      clock.set(refillNanos - 1);
+      assertThat(bucket.tryTake(1), is(false));
+      clock.set(refillNanos);
+      assertThat(bucket.tryTake(1), is(true));
+    }
+  }
+
+  @Test
+  public void testTokensThatRefillInLessThanANanosecondAreNotFreeAfterLongUptime() {
+    // A clock that has been running for about 146 years, where a double no longer has sub-nanosecond precision.
+    final AtomicLong clock = new AtomicLong(1L << 62);
+    final TokenBucket bucket = new TokenBucket(1_000, 1_000_000_000_000L, clock::get);
+
+    assertThat(bucket.tryTake(1_000), is(true));
+    assertThat(bucket.tryTake(1), is(false));
+    clock.incrementAndGet();
+    assertThat(bucket.getAvailableTokens(), is(1_000L));
+  }
+
+  @Test
+  public void testClockMayWrapAround() {
+    final AtomicLong clock = new AtomicLong(Long.MAX_VALUE - TimeUnit.MILLISECONDS.toNanos(5));
+    final TokenBucket bucket = new TokenBucket(10, 100, clock::get);
+    assertThat(bucket.tryTake(10), is(true));
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+    assertThat(clock.get() < 0, is(true));
+    assertThat(bucket.getAvailableTokens(), is(2L));
+  }
+
+  @Test
+  public void testLargeCapacityAndRate() {
+    final AtomicLong clock = new AtomicLong();
+    final TokenBucket bucket = new TokenBucket(Long.MAX_VALUE, Long.MAX_VALUE, clock::get);
+    assertThat(bucket.tryTake(Long.MAX_VALUE), is(true));
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+    assertThat(bucket.getAvailableTokens(), is(Long.MAX_VALUE / 2));
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(bucket.getAvailableTokens(), is(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testZeroTokensAreAlwaysAvailable() {
+    final TokenBucket bucket = new TokenBucket(1, 1);
+    assertThat(bucket.tryTake(1), is(true));
+
+    assertThat(bucket.tryTake(0), is(true));
+    assertThat(bucket.tryTake(-1), is(false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateMustBePositive() {
+    new TokenBucket(1, 0);
+  }
+}
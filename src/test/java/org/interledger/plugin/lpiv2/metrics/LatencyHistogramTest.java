@@ -0,0 +1,90 @@
+package org.interledger.plugin.lpiv2.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmptyHistogram() {
+    final LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertThat(snapshot.getCount(), is(0L));
+    assertThat(snapshot.getP50(), is(0L));
+    assertThat(snapshot.getMax(), is(0L));
+  }
+
+  @Test
+  public void testSmallValuesAreExactToTheResolution() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i * LatencyHistogram.RESOLUTION_NANOS);
+    }
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount(), is(10L));
+    assertThat(snapshot.getP50() / LatencyHistogram.RESOLUTION_NANOS, is(5L));
+    assertThat(snapshot.getMax() / LatencyHistogram.RESOLUTION_NANOS, is(10L));
+  }
+
+  @Test
+  public void testPercentilesAreWithinBucketPrecision() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (long micros = 1; micros <= 1_000; micros++) {
+      histogram.record(micros * 1_000);
+    }
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertWithinPrecision(snapshot.getP50(), 500_000);
+    assertWithinPrecision(snapshot.getP99(), 990_000);
+    assertWithinPrecision(snapshot.getP999(), 999_000);
+    assertWithinPrecision(snapshot.getMax(), 1_000_000);
+    assertWithinPrecision((long) snapshot.getMean(), 500_500);
+  }
+
+  @Test
+  public void testOutOfRangeValuesAreClamped() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-1);
+    histogram.record(Long.MAX_VALUE);
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount(), is(2L));
+    assertThat(snapshot.getValueAtPercentile(0), is(0L));
+    assertThat(snapshot.getMax(), is(LatencyHistogram.MAX_TRACKABLE_NANOS));
+  }
+
+  @Test
+  public void testConcurrentRecording() throws InterruptedException {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      final Thread thread = new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          histogram.record(j);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(histogram.snapshot().getCount(), is(80_000L));
+  }
+
+  private static void assertWithinPrecision(final long actual, final long expected) {
+    final double error = Math.abs(actual - expected) / (double) expected;
+    assertThat("Expected " + actual + " to be within 1/16 of " + expected, error <= 1.0 / LatencyHistogram.SUB_BUCKETS,
+        is(true));
+  }
+}
@@ -0,0 +1,37 @@
+package org.interledger.plugin.lpiv2.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tests of the {@link PluginMetrics} recorded by an {@link org.interledger.plugin.lpiv2.AbstractPlugin}.
+ */
+public class MetricsPluginTest {
+
+  @Test
+  public void testMetricsAreRecorded() throws InterruptedException, ExecutionException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings());
+    for (int i = 0; i < 10; i++) {
+      plugin.sendPacket(newPreparePacket()).get();
+    }
+    plugin.settle(BigInteger.ONE).get();
+
+    final OperationMetrics sendPacket = plugin.getMetrics().getSendPacket();
+    assertThat(sendPacket.getCount(), is(10L));
+    assertThat(sendPacket.getFailureCount(), is(0L));
+    assertThat(sendPacket.getQueueWait().snapshot().getCount(), is(10L));
+    assertThat(sendPacket.getExecution().snapshot().getCount(), is(10L));
+    assertThat(sendPacket.getLatency().snapshot().getP99() > 0, is(true));
+    assertThat(sendPacket.getMeanRate() > 0, is(true));
+    assertThat(plugin.getMetrics().getSettle().getCount(), is(1L));
+  }
+}
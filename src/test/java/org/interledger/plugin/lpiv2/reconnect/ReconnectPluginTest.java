@@ -0,0 +1,72 @@
+package org.interledger.plugin.lpiv2.reconnect;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.events.AbstractPluginEventHandler;
+import org.interledger.plugin.lpiv2.events.PluginConnectedEvent;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link ReconnectSettings}.
+ */
+public class ReconnectPluginTest {
+
+  @Test
+  public void testReconnectsAfterConnectFails() throws InterruptedException {
+    final AtomicInteger attempts = new AtomicInteger();
+    final CountDownLatch connected = new CountDownLatch(1);
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings().withReconnectSettings(
+        ImmutableReconnectSettings.builder()
+            .initialBackoff(Duration.ofMillis(10))
+            .maxBackoff(Duration.ofMillis(50))
+            .build()
+    )) {
+      @Override
+      public void doConnect() {
+        if (attempts.incrementAndGet() < 3) {
+          throw new IllegalStateException("Peer unavailable");
+        }
+      }
+    };
+    plugin.addPluginEventHandler(new AbstractPluginEventHandler() {
+      @Override
+      public void onConnect(PluginConnectedEvent event) {
+        connected.countDown();
+      }
+    });
+
+    plugin.connect();
+    assertThat(plugin.isConnected(), is(false));
+    assertThat(plugin.isReconnecting(), is(true));
+
+    assertThat(connected.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(plugin.isConnected(), is(true));
+    assertThat(attempts.get(), is(3));
+  }
+
+  @Test
+  public void testDisconnectStopsReconnecting() {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings().withReconnectSettings(
+        ImmutableReconnectSettings.builder().initialBackoff(Duration.ofSeconds(10)).build()
+    )) {
+      @Override
+      public void doConnect() {
+        throw new IllegalStateException("Peer unavailable");
+      }
+    };
+
+    plugin.connect();
+    assertThat(plugin.isReconnecting(), is(true));
+    plugin.disconnect();
+    assertThat(plugin.isReconnecting(), is(false));
+  }
+}
@@ -0,0 +1,124 @@
+package org.interledger.plugin.lpiv2.reconnect;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+import org.interledger.plugin.lpiv2.reconnect.ReconnectScheduler.Reconnection;
+import org.interledger.plugin.lpiv2.support.Completions;
+import org.interledger.plugin.lpiv2.support.HashedWheelTimer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ReconnectScheduler}.
+ */
+public class ReconnectSchedulerTest {
+
+  private static final ReconnectSettings SETTINGS = ImmutableReconnectSettings.builder()
+      .initialBackoff(Duration.ofMillis(1))
+      .maxBackoff(Duration.ofMillis(20))
+      .build();
+
+  private HashedWheelTimer timer;
+
+  @Before
+  public void setup() {
+    this.timer = new HashedWheelTimer("test-timer", 1, TimeUnit.MILLISECONDS, 64);
+  }
+
+  @After
+  public void tearDown() {
+    this.timer.stop();
+  }
+
+  @Test
+  public void testRetriesUntilAttemptSucceeds() throws Exception {
+    final ReconnectScheduler scheduler = new ReconnectScheduler(timer, 4);
+    final AtomicInteger calls = new AtomicInteger();
+    final Reconnection reconnection = scheduler.newReconnection(SETTINGS, () -> calls.incrementAndGet() < 3
+        ? Completions.failedFuture(new IllegalStateException("Peer unavailable"))
+        : CompletableFuture.completedFuture(null));
+
+    reconnection.start();
+    reconnection.getResult().get(5, TimeUnit.SECONDS);
+
+    assertThat(reconnection.getAttempts(), is(3));
+    assertThat(scheduler.getActiveAttempts(), is(0));
+  }
+
+  @Test
+  public void testGivesUpAfterMaxAttempts() throws Exception {
+    final ReconnectScheduler scheduler = new ReconnectScheduler(timer, 4);
+    final Reconnection reconnection = scheduler.newReconnection(
+        ImmutableReconnectSettings.builder().from(SETTINGS).maxAttempts(2).build(),
+        () -> Completions.failedFuture(new IllegalStateException("Peer unavailable"))
+    );
+
+    reconnection.start();
+    try {
+      reconnection.getResult().get(5, TimeUnit.SECONDS);
+      fail("Expected the reconnection to give up");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause().getMessage(), is("Peer unavailable"));
+    }
+    assertThat(reconnection.getAttempts(), is(2));
+  }
+
+  @Test
+  public void testCancelStopsAttempts() throws Exception {
+    final ReconnectScheduler scheduler = new ReconnectScheduler(timer, 4);
+    final AtomicInteger calls = new AtomicInteger();
+    final Reconnection reconnection = scheduler.newReconnection(ImmutableReconnectSettings.builder()
+        .initialBackoff(Duration.ofSeconds(10))
+        .maxBackoff(Duration.ofSeconds(10))
+        .build(), () -> {
+          calls.incrementAndGet();
+          return CompletableFuture.completedFuture(null);
+        });
+
+    reconnection.start();
+    assertThat(reconnection.cancel(), is(true));
+    assertThat(reconnection.getResult().isCompletedExceptionally(), is(true));
+    assertThat(calls.get(), is(0));
+  }
+
+  @Test
+  public void testConcurrentAttemptsAreCapped() throws Exception {
+    final ReconnectScheduler scheduler = new ReconnectScheduler(timer, 2);
+    final AtomicInteger inProgress = new AtomicInteger();
+    final AtomicInteger maxInProgress = new AtomicInteger();
+    final List<Reconnection> reconnections = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      reconnections.add(scheduler.newReconnection(SETTINGS, () -> {
+        maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+        return CompletableFuture.runAsync(() -> {
+          try {
+            Thread.sleep(2);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          inProgress.decrementAndGet();
+        });
+      }));
+    }
+
+    reconnections.forEach(Reconnection::start);
+    for (final Reconnection reconnection : reconnections) {
+      reconnection.getResult().get(5, TimeUnit.SECONDS);
+    }
+
+    assertThat(maxInProgress.get() <= 2, is(true));
+    assertThat(scheduler.getWaitingAttempts(), is(0));
+  }
+}
@@ -0,0 +1,114 @@
+package org.interledger.plugin.lpiv2.routing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.plugin.lpiv2.Plugin;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.TestHelpers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link RoutingTable}.
+ */
+public class RoutingTableTest {
+
+  private RoutingTable routingTable;
+  private Plugin<?> bank;
+  private Plugin<?> branch;
+
+  @Before
+  public void setup() {
+    this.routingTable = new RoutingTable();
+    this.bank = new SimulatedChildPlugin(TestHelpers.newPluginSettings());
+    this.branch = new SimulatedChildPlugin(TestHelpers.newPluginSettings());
+  }
+
+  @Test
+  public void testLongestPrefixWins() {
+    routingTable.addRoute(InterledgerAddress.of("g.us.bank"), bank);
+    routingTable.addRoute(InterledgerAddress.of("g.us.bank.branch"), branch);
+
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us.bank")), is(bank));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us.bank.alice")), is(bank));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us.bank.branch")), is(branch));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us.bank.branch.bob")), is(branch));
+    assertThat(routingTable.size(), is(2));
+  }
+
+  @Test
+  public void testPrefixesMatchWholeSegments() {
+    routingTable.addRoute(InterledgerAddress.of("g.us.bank"), bank);
+
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us.bankx")) == null, is(true));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us")) == null, is(true));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.eu.bank")) == null, is(true));
+  }
+
+  @Test
+  public void testReplaceAndRemoveRoutes() {
+    assertThat(routingTable.addRoute(InterledgerAddress.of("g.us.bank"), bank).isPresent(), is(false));
+    assertThat(routingTable.addRoute(InterledgerAddress.of("g.us.bank"), branch).get(), is(bank));
+    routingTable.addRoute(InterledgerAddress.of("g.us.bank.branch"), bank);
+    assertThat(routingTable.size(), is(2));
+
+    assertThat(routingTable.removeRoute(InterledgerAddress.of("g.us.bank")).get(), is(branch));
+    assertThat(routingTable.removeRoute(InterledgerAddress.of("g.us.bank")).isPresent(), is(false));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us.bank.alice")) == null, is(true));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.us.bank.branch.bob")), is(bank));
+
+    assertThat(routingTable.removeRoute(InterledgerAddress.of("g.us.bank.branch")).get(), is(bank));
+    assertThat(routingTable.size(), is(0));
+  }
+
+  @Test
+  public void testManyRoutes() {
+    for (int i = 0; i < 10_000; i++) {
+      routingTable.addRoute(InterledgerAddress.of("g.connector.child" + i), i % 2 == 0 ? bank : branch);
+    }
+
+    assertThat(routingTable.size(), is(10_000));
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(routingTable.lookup(InterledgerAddress.of("g.connector.child" + i + ".receiver")),
+          is(i % 2 == 0 ? bank : branch));
+    }
+
+    for (int i = 0; i < 10_000; i += 2) {
+      routingTable.removeRoute(InterledgerAddress.of("g.connector.child" + i));
+    }
+    assertThat(routingTable.size(), is(5_000));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.connector.child0")) == null, is(true));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.connector.child1")), is(branch));
+  }
+
+  @Test
+  public void testAddRoutes() {
+    routingTable.addRoute(InterledgerAddress.of("g.connector.child0"), branch);
+    routingTable.addRoute(InterledgerAddress.of("g.other"), branch);
+    final Map<InterledgerAddress, Plugin<?>> routes = new HashMap<>();
+    for (int i = 0; i < 10_000; i++) {
+      routes.put(InterledgerAddress.of("g.connector.child" + i), i % 2 == 0 ? bank : branch);
+    }
+    routes.put(InterledgerAddress.of("g.connector"), bank);
+
+    routingTable.addRoutes(routes);
+
+    assertThat(routingTable.size(), is(10_002));
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(routingTable.lookup(InterledgerAddress.of("g.connector.child" + i + ".receiver")),
+          is(i % 2 == 0 ? bank : branch));
+    }
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.connector.unknown")), is(bank));
+    assertThat(routingTable.lookup(InterledgerAddress.of("g.other.alice")), is(branch));
+
+    // Routes added in bulk can be removed individually, like any other.
+    assertThat(routingTable.removeRoute(InterledgerAddress.of("g.connector.child0")).get(), is(bank));
+    assertThat(routingTable.size(), is(10_001));
+  }
+}
@@ -0,0 +1,142 @@
+package org.interledger.plugin.lpiv2.scheduling;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link FairScheduler}.
+ */
+public class FairSchedulerTest {
+
+  private FairScheduler scheduler;
+
+  @After
+  public void tearDown() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  public void testRunsEveryTask() throws InterruptedException {
+    scheduler = new FairScheduler("test-fair", 4);
+    final FairScheduler.Queue queue = scheduler.newQueue(1, 1_000);
+    final CountDownLatch done = new CountDownLatch(500);
+
+    for (int i = 0; i < 500; i++) {
+      queue.execute(done::countDown);
+    }
+
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(queue.getExecutedCount(), is(500L));
+    assertThat(queue.getQueuedCount(), is(0));
+  }
+
+  @Test
+  public void testQuietQueueIsNotDelayedByBusyQueue() throws InterruptedException {
+    scheduler = new FairScheduler("test-fair", 1, 1);
+    final FairScheduler.Queue busy = scheduler.newQueue(1, 1_000);
+    final FairScheduler.Queue quiet = scheduler.newQueue(1, 1_000);
+    final List<String> order = new CopyOnWriteArrayList<>();
+    final CountDownLatch gate = blockWorker(scheduler);
+
+    for (int i = 0; i < 100; i++) {
+      busy.execute(() -> order.add("busy"));
+    }
+    final CountDownLatch quietDone = new CountDownLatch(1);
+    quiet.execute(() -> {
+      order.add("quiet");
+      quietDone.countDown();
+    });
+    gate.countDown();
+
+    assertThat(quietDone.await(5, TimeUnit.SECONDS), is(true));
+    // In a FIFO pool, the quiet task would run after all 100 busy tasks.
+    assertThat(order.indexOf("quiet"), is(lessThan(2)));
+  }
+
+  @Test
+  public void testQueuesShareWorkersByWeight() throws InterruptedException {
+    scheduler = new FairScheduler("test-fair", 1, 1);
+    final FairScheduler.Queue heavy = scheduler.newQueue(2, 1_000);
+    final FairScheduler.Queue light = scheduler.newQueue(1, 1_000);
+    final List<String> order = new CopyOnWriteArrayList<>();
+    final CountDownLatch done = new CountDownLatch(60);
+    final CountDownLatch gate = blockWorker(scheduler);
+
+    for (int i = 0; i < 30; i++) {
+      heavy.execute(() -> {
+        order.add("heavy");
+        done.countDown();
+      });
+      light.execute(() -> {
+        order.add("light");
+        done.countDown();
+      });
+    }
+    gate.countDown();
+
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    final long heavyShare = order.subList(0, 30).stream().filter("heavy"::equals).count();
+    assertThat(heavyShare, is(20L));
+  }
+
+  @Test
+  public void testRejectsWhenQueueIsFull() throws InterruptedException {
+    scheduler = new FairScheduler("test-fair", 1);
+    final FairScheduler.Queue queue = scheduler.newQueue(1, 2);
+    final CountDownLatch gate = blockWorker(scheduler);
+
+    queue.execute(() -> {
+    });
+    queue.execute(() -> {
+    });
+    try {
+      queue.execute(() -> {
+      });
+      throw new AssertionError("Expected the task to be rejected");
+    } catch (RejectedExecutionException e) {
+      assertThat(queue.getRejectedCount(), is(1L));
+    } finally {
+      gate.countDown();
+    }
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testRejectsAfterShutdown() {
+    scheduler = new FairScheduler("test-fair", 1);
+    final FairScheduler.Queue queue = scheduler.newQueue(1, 10);
+    scheduler.shutdown();
+
+    queue.execute(() -> {
+    });
+  }
+
+  /**
+   * Occupy the scheduler's only worker until the returned latch is counted down, so that tasks queue up behind it.
+   */
+  private CountDownLatch blockWorker(final FairScheduler scheduler) throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch gate = new CountDownLatch(1);
+    scheduler.newQueue(1, 1).execute(() -> {
+      started.countDown();
+      try {
+        gate.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+    return gate;
+  }
+}
@@ -0,0 +1,238 @@
+package org.interledger.plugin.lpiv2.settlement;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+import org.interledger.plugin.lpiv2.balances.BalanceTracker;
+import org.interledger.plugin.lpiv2.balances.ImmutableBalanceSettings;
+import org.interledger.plugin.lpiv2.support.HashedWheelTimer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link SettlementEngine}.
+ */
+public class SettlementEngineTest {
+
+  private HashedWheelTimer timer;
+
+  // Every settlement dispatched by the engine under test, and the futures that complete them.
+  private List<BigInteger> settledAmounts;
+  private List<CompletableFuture<Void>> settlements;
+
+  @Before
+  public void setup() {
+    this.timer = new HashedWheelTimer("test-timer", 5, TimeUnit.MILLISECONDS, 8);
+    this.settledAmounts = new CopyOnWriteArrayList<>();
+    this.settlements = new CopyOnWriteArrayList<>();
+  }
+
+  @After
+  public void tearDown() {
+    this.timer.stop();
+  }
+
+  @Test
+  public void testSettlesOnceThresholdIsReached() throws ExecutionException, InterruptedException {
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().settleThreshold(BigInteger.valueOf(100))
+            .maxSettleDelay(Duration.ofMinutes(1)).build(),
+        Optional.empty()
+    );
+
+    final CompletableFuture<Void> first = engine.settle(BigInteger.valueOf(40));
+    final CompletableFuture<Void> second = engine.settle(BigInteger.valueOf(40));
+    assertThat(settledAmounts.size(), is(0));
+    assertThat(engine.getPendingAmount(), is(BigInteger.valueOf(80)));
+
+    final CompletableFuture<Void> third = engine.settle(BigInteger.valueOf(40));
+    assertThat(settledAmounts.size(), is(1));
+    assertThat(settledAmounts.get(0), is(BigInteger.valueOf(120)));
+    assertThat(first.isDone(), is(false));
+
+    settlements.get(0).complete(null);
+    first.get();
+    second.get();
+    third.get();
+    assertThat(engine.getPendingAmount(), is(BigInteger.ZERO));
+  }
+
+  @Test
+  public void testSettlesOnceMaxDelayElapses() throws ExecutionException, InterruptedException {
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().maxSettleDelay(Duration.ofMillis(20)).build(), Optional.empty()
+    );
+
+    final CompletableFuture<Void> future = engine.settle(BigInteger.ONE);
+    engine.settle(BigInteger.ONE);
+    while (settlements.isEmpty()) {
+      Thread.sleep(5);
+    }
+    assertThat(settledAmounts.get(0), is(BigInteger.valueOf(2)));
+
+    settlements.get(0).complete(null);
+    future.get();
+  }
+
+  @Test
+  public void testOnlyOneSettlementInFlight() throws ExecutionException, InterruptedException {
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().settleThreshold(BigInteger.TEN)
+            .maxSettleDelay(Duration.ofMinutes(1)).build(),
+        Optional.empty()
+    );
+
+    engine.settle(BigInteger.TEN);
+    final CompletableFuture<Void> queued = engine.settle(BigInteger.TEN);
+    engine.settle(BigInteger.TEN);
+    assertThat(settlements.size(), is(1));
+
+    // Everything requested while the first settlement was in-flight is settled together once it lands.
+    settlements.get(0).complete(null);
+    assertThat(settlements.size(), is(2));
+    assertThat(settledAmounts.get(1), is(BigInteger.valueOf(20)));
+    assertThat(queued.isDone(), is(false));
+
+    settlements.get(1).complete(null);
+    queued.get();
+    assertThat(engine.getSettlementCount(), is(2L));
+  }
+
+  @Test
+  public void testFailedSettlementFailsEveryCaller() throws InterruptedException {
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().settleThreshold(BigInteger.TEN)
+            .maxSettleDelay(Duration.ofMinutes(1)).build(),
+        Optional.empty()
+    );
+
+    final CompletableFuture<Void> first = engine.settle(BigInteger.valueOf(5));
+    final CompletableFuture<Void> second = engine.settle(BigInteger.valueOf(5));
+    settlements.get(0).completeExceptionally(new RuntimeException("Ledger unavailable"));
+
+    for (final CompletableFuture<Void> future : Arrays.asList(first, second)) {
+      try {
+        future.get();
+        fail("Expected the settlement to fail");
+      } catch (ExecutionException e) {
+        assertThat(e.getCause().getMessage(), is("Ledger unavailable"));
+      }
+    }
+  }
+
+  @Test
+  public void testSettlesWhenBalanceIsLow() {
+    final BalanceTracker balanceTracker = new BalanceTracker(ImmutableBalanceSettings.builder().build());
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().settleBalance(OptionalLong.of(-50))
+            .maxSettleDelay(Duration.ofMinutes(1)).build(),
+        Optional.of(balanceTracker)
+    );
+
+    engine.settle(BigInteger.ONE);
+    assertThat(settlements.size(), is(0));
+
+    balanceTracker.tryReserveOutgoing(50);
+    balanceTracker.commitOutgoing(50);
+    engine.settle(BigInteger.ONE);
+    assertThat(settlements.size(), is(1));
+    assertThat(settledAmounts.get(0), is(BigInteger.valueOf(2)));
+  }
+
+  @Test
+  public void testSettlesAsSoonAsBalanceChanges() {
+    final BalanceTracker balanceTracker = new BalanceTracker(ImmutableBalanceSettings.builder().build());
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().settleBalance(OptionalLong.of(-50))
+            .maxSettleDelay(Duration.ofMinutes(1)).build(),
+        Optional.of(balanceTracker)
+    );
+    engine.settle(BigInteger.ONE);
+
+    balanceTracker.tryReserveOutgoing(20);
+    balanceTracker.commitOutgoing(20);
+    engine.onBalanceChanged();
+    assertThat(settlements.size(), is(0));
+
+    // Packet traffic alone takes the balance past the trigger, without another call to settle.
+    balanceTracker.tryReserveOutgoing(30);
+    balanceTracker.commitOutgoing(30);
+    engine.onBalanceChanged();
+    assertThat(settlements.size(), is(1));
+    assertThat(settledAmounts.get(0), is(BigInteger.ONE));
+  }
+
+  @Test
+  public void testAmountTooLargeForTheBalanceFailsOnlyItsCaller() throws ExecutionException, InterruptedException {
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().maxSettleDelay(Duration.ofMinutes(1)).build(),
+        Optional.of(new BalanceTracker(ImmutableBalanceSettings.builder().build()))
+    );
+
+    final CompletableFuture<Void> valid = engine.settle(BigInteger.ONE);
+    final CompletableFuture<Void> tooLarge = engine.settle(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE));
+    try {
+      tooLarge.get();
+      fail("Expected the settlement to be rejected");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof IllegalArgumentException, is(true));
+    }
+
+    engine.flush();
+    assertThat(settledAmounts, is(Arrays.asList(BigInteger.ONE)));
+    settlements.get(0).complete(null);
+    valid.get();
+  }
+
+  @Test
+  public void testStartsANewSettlementBeforeTheAmountOverflowsTheBalance()
+      throws ExecutionException, InterruptedException {
+    final BigInteger maxAmount = BigInteger.valueOf(Long.MAX_VALUE);
+    final SettlementEngine engine = newEngine(
+        ImmutableSettlementSettings.builder().settleThreshold(maxAmount.multiply(BigInteger.TEN))
+            .maxSettleDelay(Duration.ofMinutes(1)).build(),
+        Optional.of(new BalanceTracker(ImmutableBalanceSettings.builder().build()))
+    );
+    final BigInteger large = maxAmount.subtract(BigInteger.TEN);
+
+    final CompletableFuture<Void> first = engine.settle(large);
+    final CompletableFuture<Void> second = engine.settle(BigInteger.TEN);
+    final CompletableFuture<Void> third = engine.settle(BigInteger.ONE);
+    // Adding the third would take the first two past Long.MAX_VALUE, so they are settled at once, on their own.
+    assertThat(settledAmounts, is(Arrays.asList(maxAmount)));
+    assertThat(engine.getPendingAmount(), is(BigInteger.ONE));
+
+    settlements.get(0).complete(null);
+    first.get();
+    second.get();
+    assertThat(third.isDone(), is(false));
+
+    engine.flush();
+    assertThat(settledAmounts, is(Arrays.asList(maxAmount, BigInteger.ONE)));
+    settlements.get(1).complete(null);
+    third.get();
+  }
+
+  private SettlementEngine newEngine(final SettlementSettings settings, final Optional<BalanceTracker> balanceTracker) {
+    return new SettlementEngine(settings, amount -> {
+      final CompletableFuture<Void> settlement = new CompletableFuture<>();
+      settledAmounts.add(amount);
+      settlements.add(settlement);
+      return settlement;
+    }, balanceTracker, timer);
+  }
+}
@@ -0,0 +1,50 @@
+package org.interledger.plugin.lpiv2.settlement;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+import org.interledger.plugin.lpiv2.balances.ImmutableBalanceSettings;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link SettlementSettings}.
+ */
+public class SettlementPluginTest {
+
+  @Test
+  public void testSettleCoalescesAmounts() throws InterruptedException, ExecutionException, TimeoutException {
+    final AtomicInteger settlements = new AtomicInteger();
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings()
+        .withBalanceSettings(ImmutableBalanceSettings.builder().build())
+        .withSettlementSettings(ImmutableSettlementSettings.builder().settleThreshold(BigInteger.valueOf(100)).build())
+    ) {
+      @Override
+      protected void doSettle(BigInteger amount) {
+        settlements.incrementAndGet();
+      }
+    };
+
+    final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(plugin.settle(BigInteger.TEN));
+    }
+    for (final CompletableFuture<Void> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+
+    assertThat(settlements.get(), is(1));
+    assertThat(plugin.getBalanceTracker().get().getBalance(), is(100L));
+  }
+}
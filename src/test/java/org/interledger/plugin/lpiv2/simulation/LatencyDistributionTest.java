@@ -0,0 +1,76 @@
+package org.interledger.plugin.lpiv2.simulation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.interledger.plugin.lpiv2.metrics.LatencyHistogram;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link LatencyDistribution}.
+ */
+public class LatencyDistributionTest {
+
+  private static final int DRAWS = 100_000;
+
+  @Test
+  public void testFixed() {
+    final LatencyDistribution distribution = LatencyDistribution.fixed(Duration.ofMillis(5));
+    assertThat(distribution.nextNanos(), is(TimeUnit.MILLISECONDS.toNanos(5)));
+  }
+
+  @Test
+  public void testUniformStaysWithinBounds() {
+    final LatencyDistribution distribution = LatencyDistribution.uniform(Duration.ofMillis(1), Duration.ofMillis(2));
+    for (int i = 0; i < DRAWS; i++) {
+      final long nanos = distribution.nextNanos();
+      assertThat(nanos >= TimeUnit.MILLISECONDS.toNanos(1) && nanos <= TimeUnit.MILLISECONDS.toNanos(2), is(true));
+    }
+  }
+
+  @Test
+  public void testLogNormalHasLongTail() {
+    final LatencyHistogram.Snapshot snapshot = draw(LatencyDistribution.logNormal(Duration.ofMillis(10), 1.0));
+
+    // The median is 10ms, and the 99th percentile is about 10x that; allow for sampling error and bucket precision.
+    assertThat(isBetween(snapshot.getP50(), TimeUnit.MILLISECONDS.toNanos(9), TimeUnit.MILLISECONDS.toNanos(11)),
+        is(true));
+    assertThat(isBetween(snapshot.getP99(), TimeUnit.MILLISECONDS.toNanos(80), TimeUnit.MILLISECONDS.toNanos(125)),
+        is(true));
+  }
+
+  @Test
+  public void testRecordedReproducesHistogram() {
+    final LatencyHistogram recorded = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      recorded.record(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    recorded.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+    final LatencyHistogram.Snapshot snapshot = draw(LatencyDistribution.recorded(recorded.snapshot()));
+
+    assertThat(snapshot.getP50(), is(recorded.snapshot().getP50()));
+    assertThat(snapshot.getMax(), is(recorded.snapshot().getMax()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRecordedRequiresValues() {
+    LatencyDistribution.recorded(new LatencyHistogram().snapshot());
+  }
+
+  private static LatencyHistogram.Snapshot draw(final LatencyDistribution distribution) {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < DRAWS; i++) {
+      histogram.record(distribution.nextNanos());
+    }
+    return histogram.snapshot();
+  }
+
+  private static boolean isBetween(final long value, final long min, final long max) {
+    return value >= min && value <= max;
+  }
+}
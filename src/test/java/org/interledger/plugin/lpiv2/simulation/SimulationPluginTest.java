@@ -0,0 +1,70 @@
+package org.interledger.plugin.lpiv2.simulation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests of a {@link SimulatedChildPlugin} configured with {@link SimulationSettings}.
+ */
+public class SimulationPluginTest {
+
+  @Test
+  public void testSimulatedLatencyDelaysResponse() throws Exception {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings());
+    plugin.setSimulationSettings(ImmutableSimulationSettings.builder()
+        .responseLatency(LatencyDistribution.fixed(Duration.ofMillis(50)))
+        .build());
+
+    final long startNanos = System.nanoTime();
+    final CompletableFuture<InterledgerFulfillPacket> response = plugin.sendPacket(newPreparePacket());
+    assertThat(response.isDone(), is(false));
+    response.get(5, TimeUnit.SECONDS);
+
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) >= 50, is(true));
+  }
+
+  @Test
+  public void testSimulatedRejectRate() throws InterruptedException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings());
+    plugin.setSimulationSettings(ImmutableSimulationSettings.builder()
+        .putRejectRates(InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY, 1.0)
+        .build());
+
+    final CompletableFuture<InterledgerFulfillPacket> response = plugin.sendPacket(newPreparePacket());
+    assertRejected(response, InterledgerErrorCode.T04_INSUFFICIENT_LIQUIDITY);
+  }
+
+  @Test
+  public void testSimulatedTimeoutExpiresPacket() throws InterruptedException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings());
+    plugin.setSimulationSettings(ImmutableSimulationSettings.builder().timeoutRate(1.0).build());
+    final InterledgerPreparePacket preparePacket = newPreparePacket(BigInteger.ZERO, Duration.ofMillis(100));
+
+    assertRejected(plugin.sendPacket(preparePacket), InterledgerErrorCode.R00_TRANSFER_TIMED_OUT);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSimulationRatesMustNotExceedOne() {
+    ImmutableSimulationSettings.builder()
+        .putRejectRates(InterledgerErrorCode.T03_CONNECTOR_BUSY, 0.6)
+        .timeoutRate(0.6)
+        .build();
+  }
+
+}
@@ -0,0 +1,103 @@
+package org.interledger.plugin.lpiv2.support;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerProtocolException;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} that runs packets on its own data executor, created
+ * using {@link PluginExecutors}.
+ */
+public class DataExecutorPluginTest {
+
+  @Test
+  public void testSendPacketUsesDataExecutor() throws ExecutionException, InterruptedException {
+    final ThreadPoolExecutor dataExecutor = PluginExecutors.newBoundedExecutor("test-data", 1, 10);
+    final ThreadPoolExecutor moneyExecutor = PluginExecutors.newBoundedExecutor("test-money", 1, 10);
+    try {
+      final AtomicReference<String> threadName = new AtomicReference<>();
+      final SimulatedChildPlugin plugin = new SimulatedChildPlugin(
+          newPluginSettings(), dataExecutor, moneyExecutor
+      ) {
+        @Override
+        public InterledgerFulfillPacket doSendPacket(InterledgerPreparePacket preparePacket) {
+          threadName.set(Thread.currentThread().getName());
+          return super.doSendPacket(preparePacket);
+        }
+      };
+
+      plugin.sendPacket(newPreparePacket()).get();
+      assertThat(threadName.get(), startsWith("test-data-"));
+      assertThat(moneyExecutor.getCompletedTaskCount(), is(0L));
+    } finally {
+      dataExecutor.shutdownNow();
+      moneyExecutor.shutdownNow();
+    }
+  }
+
+  @Test(expected = InterledgerProtocolException.class)
+  public void testSendPacketWhenDataExecutorIsFull() throws InterruptedException {
+    final ThreadPoolExecutor dataExecutor = PluginExecutors.newBoundedExecutor("test-data", 1, 1);
+    final CountDownLatch latch = new CountDownLatch(1);
+    try {
+      // Occupy the only thread, and then the only queue slot.
+      dataExecutor.execute(() -> {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      dataExecutor.execute(() -> {
+      });
+
+      new SimulatedChildPlugin(newPluginSettings(), dataExecutor, dataExecutor)
+          .sendPacket(newPreparePacket()).get();
+    } catch (ExecutionException e) {
+      final InterledgerProtocolException ilpe = (InterledgerProtocolException) e.getCause();
+      assertThat(ilpe.getInterledgerRejectPacket().getCode(), is(InterledgerErrorCode.T03_CONNECTOR_BUSY));
+      throw ilpe;
+    } finally {
+      latch.countDown();
+      dataExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSendPacketAsyncBypassesDataExecutor() throws ExecutionException, InterruptedException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(
+        newPluginSettings(),
+        runnable -> {
+          throw new RejectedExecutionException("The data executor should not be used");
+        },
+        ForkJoinPool.commonPool()
+    ) {
+      @Override
+      protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(InterledgerPreparePacket preparePacket) {
+        return CompletableFuture.completedFuture(super.doSendPacket(preparePacket));
+      }
+    };
+
+    final InterledgerFulfillPacket actual = plugin.sendPacket(newPreparePacket()).get();
+    assertThat(actual.getData(), is(SimulatedChildPlugin.ILP_DATA));
+  }
+}
@@ -0,0 +1,61 @@
+package org.interledger.plugin.lpiv2.support;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerFulfillment;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.core.InterledgerRejectPacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} that verifies fulfillments using {@link
+ * Fulfillments}.
+ */
+public class FulfillmentVerificationPluginTest {
+
+  private SimulatedChildPlugin plugin;
+
+  @Before
+  public void setup() {
+    this.plugin = new SimulatedChildPlugin(newPluginSettings().withVerifyFulfillments(true));
+  }
+
+  @Test
+  public void testVerifiedFulfillment() throws InterruptedException, ExecutionException {
+    final InterledgerPreparePacket preparePacket = InterledgerPreparePacket.builder()
+        .executionCondition(InterledgerFulfillment.of(SimulatedChildPlugin.PREIMAGE).getCondition())
+        .expiresAt(Instant.now().plus(5, ChronoUnit.SECONDS))
+        .destination(InterledgerAddress.of("test1.foo"))
+        .amount(BigInteger.ZERO)
+        .build();
+
+    final InterledgerFulfillPacket actual = plugin.sendPacket(preparePacket).get();
+    assertThat(actual.getFulfillment().getPreimage(), is(SimulatedChildPlugin.PREIMAGE));
+  }
+
+  @Test
+  public void testMismatchedFulfillmentIsRejected() throws InterruptedException, TimeoutException {
+    // The condition of this packet is not the hash of SimulatedChildPlugin.PREIMAGE.
+    final InterledgerRejectPacket rejectPacket =
+        assertRejected(plugin.sendPacket(newPreparePacket()), InterledgerErrorCode.F05_WRONG_CONDITION);
+
+    assertThat(rejectPacket.getTriggeredBy(), is(plugin.getPluginSettings().localNodeAddress()));
+    assertThat(plugin.getMetrics().getSendPacket().getFailureCount(), is(1L));
+  }
+}
@@ -0,0 +1,40 @@
+package org.interledger.plugin.lpiv2.support;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerFulfillment;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Fulfillments}.
+ */
+public class FulfillmentsTest {
+
+  private static final byte[] PREIMAGE = "Roads? Where we're going we dont".getBytes();
+  private static final byte[] OTHER_PREIMAGE = "11inquagintaquadringentilliard11".getBytes();
+
+  @Test
+  public void testMatchingFulfillment() {
+    final InterledgerFulfillment fulfillment = InterledgerFulfillment.of(PREIMAGE);
+    assertThat(Fulfillments.isFulfilledBy(fulfillment.getCondition(), fulfillment), is(true));
+  }
+
+  @Test
+  public void testMismatchedFulfillment() {
+    final InterledgerCondition condition = InterledgerFulfillment.of(PREIMAGE).getCondition();
+    assertThat(Fulfillments.isFulfilledBy(condition, InterledgerFulfillment.of(OTHER_PREIMAGE)), is(false));
+  }
+
+  @Test
+  public void testDigestIsReusedAcrossVerifications() {
+    final InterledgerFulfillment fulfillment = InterledgerFulfillment.of(PREIMAGE);
+    final InterledgerFulfillment other = InterledgerFulfillment.of(OTHER_PREIMAGE);
+    for (int i = 0; i < 3; i++) {
+      assertThat(Fulfillments.isFulfilledBy(fulfillment.getCondition(), other), is(false));
+      assertThat(Fulfillments.isFulfilledBy(fulfillment.getCondition(), fulfillment), is(true));
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.interledger.plugin.lpiv2.support;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link HashedWheelTimer}.
+ */
+public class HashedWheelTimerTest {
+
+  private HashedWheelTimer timer;
+
+  @Before
+  public void setup() {
+    // A small wheel, so that most timeouts in these tests need more than one round.
+    this.timer = new HashedWheelTimer("test-timer", 5, TimeUnit.MILLISECONDS, 8);
+  }
+
+  @After
+  public void tearDown() {
+    this.timer.stop();
+  }
+
+  @Test
+  public void testScheduledTaskRuns() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(3);
+    timer.schedule(latch::countDown, 0, TimeUnit.MILLISECONDS);
+    timer.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+    timer.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+
+    assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(timer.pendingTimeouts(), is(0L));
+  }
+
+  @Test
+  public void testScheduledTaskDoesNotRunEarly() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final long start = System.nanoTime();
+    timer.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+
+    assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100), is(true));
+  }
+
+  @Test
+  public void testCancelledTaskDoesNotRun() throws InterruptedException {
+    final AtomicInteger runs = new AtomicInteger();
+    final HashedWheelTimer.Timeout timeout = timer.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+    assertThat(timer.pendingTimeouts(), is(1L));
+
+    assertThat(timeout.cancel(), is(true));
+    assertThat(timeout.cancel(), is(false));
+    assertThat(timeout.isCancelled(), is(true));
+    assertThat(timer.pendingTimeouts(), is(0L));
+
+    // Use a later task to know that the timer has moved past the cancelled one.
+    final CountDownLatch latch = new CountDownLatch(1);
+    timer.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+    assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(runs.get(), is(0));
+    assertThat(timeout.isExpired(), is(false));
+  }
+
+  @Test
+  public void testManyTimeouts() throws InterruptedException {
+    final int count = 100_000;
+    final CountDownLatch latch = new CountDownLatch(count / 2);
+    for (int i = 0; i < count; i++) {
+      final HashedWheelTimer.Timeout timeout = timer.schedule(latch::countDown, i % 100, TimeUnit.MILLISECONDS);
+      if (i % 2 == 0) {
+        timeout.cancel();
+      }
+    }
+
+    assertThat(latch.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(timer.pendingTimeouts(), is(0L));
+  }
+}
@@ -0,0 +1,61 @@
+package org.interledger.plugin.lpiv2.support;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.core.InterledgerFulfillPacket;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests of how an {@link org.interledger.plugin.lpiv2.AbstractPlugin} expires prepare packets using a {@link
+ * HashedWheelTimer}.
+ */
+public class PacketExpiryPluginTest {
+
+  @Test
+  public void testSendPacketRejectedWhenPacketExpires() throws InterruptedException, TimeoutException {
+    final AtomicReference<InterledgerPreparePacket> expiredPacket = new AtomicReference<>();
+    final CountDownLatch expiredLatch = new CountDownLatch(1);
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings()) {
+      @Override
+      protected CompletionStage<InterledgerFulfillPacket> doSendPacketAsync(InterledgerPreparePacket preparePacket) {
+        // The peer never responds.
+        return new CompletableFuture<>();
+      }
+
+      @Override
+      protected void onPacketExpired(InterledgerPreparePacket preparePacket) {
+        expiredPacket.set(preparePacket);
+        expiredLatch.countDown();
+      }
+    };
+
+    final InterledgerPreparePacket preparePacket = newPreparePacket(BigInteger.ZERO, Duration.ofMillis(100));
+    assertRejected(plugin.sendPacket(preparePacket), InterledgerErrorCode.R00_TRANSFER_TIMED_OUT);
+    assertThat(expiredLatch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(expiredPacket.get(), is(preparePacket));
+  }
+
+  @Test
+  public void testSendPacketRejectedWhenPacketAlreadyExpired() throws InterruptedException, TimeoutException {
+    final InterledgerPreparePacket preparePacket = newPreparePacket(BigInteger.ZERO, Duration.ofSeconds(-1));
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(newPluginSettings());
+    assertRejected(plugin.sendPacket(preparePacket), InterledgerErrorCode.R00_TRANSFER_TIMED_OUT);
+  }
+}
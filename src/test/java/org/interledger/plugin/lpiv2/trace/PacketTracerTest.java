@@ -0,0 +1,104 @@
+package org.interledger.plugin.lpiv2.trace;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.interledger.core.InterledgerAddress;
+import org.interledger.core.InterledgerCondition;
+import org.interledger.core.InterledgerPreparePacket;
+import org.interledger.plugin.lpiv2.trace.PacketTrace.Direction;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unit tests for {@link PacketTracer}.
+ */
+public class PacketTracerTest {
+
+  private static final byte[] PREIMAGE = "quinquagintaquadringentilliardth".getBytes();
+
+  @Test
+  public void testNothingIsTracedWhenSamplingIsDisabled() {
+    final PacketTracer tracer = new PacketTracer(ImmutableTraceSettings.builder().sampleRate(0).build());
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(tracer.start(Direction.OUTGOING, newPreparePacket("test1.foo")).isPresent(), is(false));
+    }
+  }
+
+  @Test
+  public void testDestinationPrefixIsAlwaysTraced() {
+    final PacketTracer tracer = new PacketTracer(ImmutableTraceSettings.builder()
+        .sampleRate(0)
+        .addDestinationPrefixes("test1.hot.")
+        .build());
+
+    assertThat(tracer.start(Direction.OUTGOING, newPreparePacket("test1.hot.alice")).isPresent(), is(true));
+    assertThat(tracer.start(Direction.OUTGOING, newPreparePacket("test1.cold.alice")).isPresent(), is(false));
+  }
+
+  @Test
+  public void testCompletedTracesAreRetainedInOrder() {
+    final PacketTracer tracer = new PacketTracer(ImmutableTraceSettings.builder()
+        .sampleRate(1)
+        .bufferSize(4)
+        .build());
+
+    for (int i = 0; i < 10; i++) {
+      final PacketTrace trace = tracer.start(Direction.INCOMING, newPreparePacket("test1.foo")).get();
+      trace.markExecutionStart();
+      trace.markResponse();
+      tracer.complete(trace, null);
+    }
+
+    final List<PacketTrace> traces = tracer.getTraces();
+    assertThat(tracer.getTracedCount(), is(10L));
+    assertThat(traces.size(), is(4));
+    for (final PacketTrace trace : traces) {
+      assertThat(trace.getOutcome(), is("F"));
+      assertThat(trace.getExecutionStartNanos() >= 0, is(true));
+      assertThat(trace.getCompletionNanos() >= trace.getResponseNanos(), is(true));
+    }
+    assertThat(traces.get(0).getDispatchedAt().isAfter(traces.get(3).getDispatchedAt()), is(false));
+    assertThat(tracer.dump().split(System.lineSeparator()).length, is(4));
+  }
+
+  @Test
+  public void testPendingTracesAreScopedToTheCurrentThread() {
+    final PacketTracer tracer = new PacketTracer(ImmutableTraceSettings.builder().sampleRate(1).build());
+    final InterledgerPreparePacket preparePacket = newPreparePacket("test1.foo");
+    final PacketTrace trace = tracer.start(Direction.OUTGOING, preparePacket).get();
+
+    final PacketTrace[] previous = tracer.setPending(new PacketTrace[] {trace});
+    assertThat(tracer.getPending(preparePacket), is(trace));
+    assertThat(tracer.getPending(newPreparePacket("test1.foo")) == null, is(true));
+    tracer.restorePending(previous);
+
+    assertThat(tracer.getPending(preparePacket) == null, is(true));
+  }
+
+  @Test
+  public void testUnknownTimestamps() {
+    final PacketTracer tracer = new PacketTracer(ImmutableTraceSettings.builder().sampleRate(1).build());
+    final Optional<PacketTrace> trace = tracer.start(Direction.OUTGOING, newPreparePacket("test1.foo"));
+
+    assertThat(trace.get().getExecutionStartNanos(), is(-1L));
+    assertThat(trace.get().getCompletionNanos(), is(-1L));
+    assertThat(trace.get().getOutcome() == null, is(true));
+  }
+
+  private static InterledgerPreparePacket newPreparePacket(final String destination) {
+    return InterledgerPreparePacket.builder()
+        .executionCondition(InterledgerCondition.of(PREIMAGE))
+        .expiresAt(Instant.now().plus(5, ChronoUnit.SECONDS))
+        .destination(InterledgerAddress.of(destination))
+        .amount(BigInteger.ONE)
+        .build();
+  }
+}
@@ -0,0 +1,44 @@
+package org.interledger.plugin.lpiv2.trace;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.interledger.plugin.lpiv2.TestHelpers.assertRejected;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPluginSettings;
+import static org.interledger.plugin.lpiv2.TestHelpers.newPreparePacket;
+
+import org.interledger.core.InterledgerErrorCode;
+import org.interledger.plugin.lpiv2.SimulatedChildPlugin;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests of an {@link org.interledger.plugin.lpiv2.AbstractPlugin} configured with {@link TraceSettings}.
+ */
+public class PacketTracingPluginTest {
+
+  @Test
+  public void testSampledPacketsAreTraced() throws InterruptedException, ExecutionException, TimeoutException {
+    final SimulatedChildPlugin plugin = new SimulatedChildPlugin(
+        newPluginSettings().withTraceSettings(ImmutableTraceSettings.builder().sampleRate(1).build())
+    );
+
+    plugin.sendPacket(newPreparePacket()).get();
+    plugin.setCompleteSuccessfully(false);
+    assertRejected(plugin.sendPacket(newPreparePacket()), InterledgerErrorCode.F00_BAD_REQUEST);
+
+    final List<PacketTrace> traces = plugin.getPacketTracer().get().getTraces();
+    assertThat(traces.size(), is(2));
+    assertThat(traces.get(0).getDirection(), is(PacketTrace.Direction.OUTGOING));
+    assertThat(traces.get(0).getOutcome(), is("F"));
+    assertThat(traces.get(1).getOutcome(), is("F00"));
+    for (final PacketTrace trace : traces) {
+      assertThat(trace.getExecutionStartNanos() >= 0, is(true));
+      assertThat(trace.getResponseNanos() >= trace.getExecutionStartNanos(), is(true));
+      assertThat(trace.getCompletionNanos() >= trace.getResponseNanos(), is(true));
+    }
+  }
+}